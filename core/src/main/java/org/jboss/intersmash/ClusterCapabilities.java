@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import cz.xtf.core.openshift.OpenShift;
+import cz.xtf.core.openshift.OpenShifts;
+import io.fabric8.kubernetes.api.model.APIGroup;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Capabilities of the cluster the tests run against, i.e. its version and the API groups it serves, discovered once
+ * per JVM, rather than querying the cluster each time a provisioner or an extension needs them.
+ *
+ * Tests can {@link #inject(ClusterCapabilities) inject} capabilities, so that no cluster is needed.
+ */
+@Slf4j
+public class ClusterCapabilities {
+	public static final String OLM_API_GROUP = "operators.coreos.com";
+	public static final String ROUTE_API_GROUP = "route.openshift.io";
+
+	private static volatile ClusterCapabilities instance;
+
+	private final String major;
+	private final String minor;
+	private final Set<String> apiGroups;
+
+	public ClusterCapabilities(final String major, final String minor, final Set<String> apiGroups) {
+		this.major = major;
+		this.minor = minor;
+		this.apiGroups = Collections.unmodifiableSet(new TreeSet<>(apiGroups));
+	}
+
+	/**
+	 * @return The capabilities of the cluster, discovered with the {@link OpenShifts#admin()} client on first use
+	 */
+	public static ClusterCapabilities get() {
+		ClusterCapabilities capabilities = instance;
+		if (capabilities == null) {
+			synchronized (ClusterCapabilities.class) {
+				if (instance == null) {
+					instance = discover(OpenShifts.admin());
+				}
+				capabilities = instance;
+			}
+		}
+		return capabilities;
+	}
+
+	/**
+	 * Replace the discovered capabilities, e.g. in tests.
+	 *
+	 * @param capabilities {@link ClusterCapabilities} instance, or null to discover them again on next use
+	 */
+	public static void inject(final ClusterCapabilities capabilities) {
+		instance = capabilities;
+	}
+
+	/**
+	 * Query the version and the API groups of a cluster.
+	 *
+	 * @param openShift {@link OpenShift} client
+	 * @return {@link ClusterCapabilities} instance
+	 */
+	public static ClusterCapabilities discover(final OpenShift openShift) {
+		final Set<String> apiGroups = openShift.getApiGroups().getGroups().stream()
+				.map(APIGroup::getName)
+				.collect(Collectors.toSet());
+		final ClusterCapabilities capabilities = new ClusterCapabilities(openShift.getVersion().getMajor(),
+				openShift.getVersion().getMinor(), apiGroups);
+		log.debug("Cluster version {}, OLM available: {}", capabilities.getVersion(), capabilities.isOlmAvailable());
+		return capabilities;
+	}
+
+	/**
+	 * @return Cluster version, as {@code <major>.<minor>}
+	 */
+	public String getVersion() {
+		return String.format("%s.%s", major, minor);
+	}
+
+	public boolean isOcp3x() {
+		return major.startsWith("3");
+	}
+
+	/**
+	 * @return true if Operator Lifecycle Manager is installed, i.e. operators can be subscribed to
+	 */
+	public boolean isOlmAvailable() {
+		return hasApiGroup(OLM_API_GROUP);
+	}
+
+	/**
+	 * @param apiGroup API group, e.g. {@code route.openshift.io}
+	 * @return true if the cluster serves the API group
+	 */
+	public boolean hasApiGroup(final String apiGroup) {
+		return apiGroups.contains(apiGroup);
+	}
+
+	/**
+	 * @return The API groups served by the cluster
+	 */
+	public Set<String> getApiGroups() {
+		return apiGroups;
+	}
+}
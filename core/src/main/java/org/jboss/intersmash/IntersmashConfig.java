@@ -15,11 +15,17 @@
  */
 package org.jboss.intersmash;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import cz.xtf.core.config.XTFConfig;
 import cz.xtf.core.openshift.OpenShift;
+import lombok.Getter;
 
 public class IntersmashConfig {
 	private static final String SKIP_DEPLOY = "intersmash.skip.deploy";
@@ -27,6 +33,13 @@ public class IntersmashConfig {
 	private static final String SCRIPT_DEBUG = "intersmash.openshift.script.debug";
 	private static final String DEPLOYMENTS_REPOSITORY_URL = "intersmash.deployments.repository.url";
 	private static final String DEPLOYMENTS_REPOSITORY_REF = "intersmash.deployments.repository.ref";
+	private static final String BUILD_CACHE = "intersmash.build.cache";
+	private static final String PARALLEL_BUILDS = "intersmash.builds.parallel";
+	private static final String ENDPOINT_SLICES = "intersmash.endpoints.slices";
+	private static final String ADAPTIVE_PROBES = "intersmash.probes.adaptive";
+	private static final String GC_LOGS = "intersmash.gc.logs";
+	private static final String PREPULL_IMAGES = "intersmash.images.prepull";
+	private static final String POD_STARTUP = "intersmash.pods.startup";
 
 	// Default Catalog for Operators
 	private static final String DEFAULT_OPERATOR_CATALOG_SOURCE_NAMESPACE = "openshift-marketplace";
@@ -90,6 +103,9 @@ public class IntersmashConfig {
 	private static final String WILDFLY_HELM_CHARTS_BRANCH = "intersmash.wildfly.helm.charts.branch";
 	private static final String WILDFLY_HELM_CHARTS_NAME = "intersmash.wildfly.helm.charts.name";
 
+	// HELM
+	private static final String HELM_PREFLIGHT = "intersmash.helm.preflight";
+
 	// EAP 7.z (i.e. Jakarta EE 8 based WildFly)
 	private static final String EAP7_IMAGE_URL = "intersmash.eap7.image";
 	private static final String EAP7_RUNTIME_IMAGE_URL = "intersmash.eap7.runtime.image";
@@ -112,12 +128,112 @@ public class IntersmashConfig {
 	private static final String MYSQL_IMAGE_URL = "intersmash.mysql.image";
 	private static final String PGSQL_IMAGE_URL = "intersmash.postgresql.image";
 
+	private static final Map<String, String> PRODUCT_CODES = new ConcurrentHashMap<>();
+	private static volatile Snapshot snapshot;
+
+	/**
+	 * @return The configuration {@link Snapshot}, resolved and validated on first use
+	 */
+	public static Snapshot snapshot() {
+		Snapshot current = snapshot;
+		if (current == null) {
+			synchronized (IntersmashConfig.class) {
+				if (snapshot == null) {
+					snapshot = new Snapshot(XTFConfig::get);
+				}
+				current = snapshot;
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Replace the configuration snapshot, e.g. in tests.
+	 *
+	 * @param properties Configuration properties lookup, e.g. {@code Map::get}, or null to resolve the configuration
+	 *                   again from {@link XTFConfig} on next use
+	 */
+	public static void inject(Function<String, String> properties) {
+		snapshot = properties == null ? null : new Snapshot(properties);
+		PRODUCT_CODES.clear();
+	}
+
 	public static boolean skipDeploy() {
-		return XTFConfig.get(SKIP_DEPLOY, "false").equals("true");
+		return snapshot().isSkipDeploy();
 	}
 
 	public static boolean skipUndeploy() {
-		return skipDeploy() || XTFConfig.get(SKIP_UNDEPLOY, "false").equals("true");
+		return snapshot().isSkipUndeploy();
+	}
+
+	/**
+	 * Whether the images produced by binary builds should be cached by the hash of the build inputs, so that a build
+	 * is skipped when an image built out of the very same inputs already exists.
+	 *
+	 * @return true if the build cache is enabled, false otherwise (default)
+	 */
+	public static boolean buildCache() {
+		return snapshot().isBuildCache();
+	}
+
+	/**
+	 * Whether the application images should all be built up front and concurrently, before any application is
+	 * deployed, rather than by each provisioner during its own deploy phase.
+	 *
+	 * @return true if parallel builds are enabled, false otherwise (default)
+	 */
+	public static boolean parallelBuilds() {
+		return snapshot().isParallelBuilds();
+	}
+
+	/**
+	 * Whether service readiness should be evaluated based on the service EndpointSlices, rather than on the legacy
+	 * Endpoints resource.
+	 *
+	 * @return true if EndpointSlices should be used, false otherwise (default)
+	 */
+	public static boolean endpointSlices() {
+		return snapshot().isEndpointSlices();
+	}
+
+	/**
+	 * Whether WildFly pods should be deployed with a startup probe whose thresholds are derived from the boot times
+	 * observed in previous runs, rather than with a liveness probe with a fixed initial delay.
+	 *
+	 * @return true if adaptive probes are enabled, false otherwise (default)
+	 */
+	public static boolean adaptiveProbes() {
+		return snapshot().isAdaptiveProbes();
+	}
+
+	/**
+	 * Whether JVM based workloads log their garbage collections, the GC logs are collected at undeploy time and
+	 * summarized in the provisioning report.
+	 *
+	 * @return true if GC logs are collected, false otherwise (default)
+	 */
+	public static boolean gcLogs() {
+		return snapshot().isGcLogs();
+	}
+
+	/**
+	 * Whether the configured images should be pulled on every node before the first test class is provisioned, see
+	 * {@link org.jboss.intersmash.provision.openshift.ImagePrePuller}.
+	 *
+	 * @return true if images are pre-pulled, false otherwise (default)
+	 */
+	public static boolean prePullImages() {
+		return snapshot().isPrePullImages();
+	}
+
+	/**
+	 * Whether the startup latency of the application pods should be broken down once deployed, based on the pods
+	 * events, and reported, see {@link org.jboss.intersmash.provision.openshift.PodStartup}.
+	 *
+	 * @return true if the pods startup is reported, false otherwise (default)
+	 */
+	public static boolean podStartup() {
+		return snapshot().isPodStartup();
 	}
 
 	public static String[] getKnownCatalogSources() {
@@ -229,33 +345,36 @@ public class IntersmashConfig {
 	}
 
 	public static String bootableJarImageURL() {
-		return XTFConfig.get(BOOTABLE_JAR_IMAGE_URL);
+		return snapshot().getBootableJarImageURL();
 	}
 
 	public static String wildflyImageURL() {
-		return XTFConfig.get(WILDFLY_IMAGE_URL);
+		return snapshot().getWildflyImageURL();
 	}
 
 	public static String wildflyRuntimeImageURL() {
-		return XTFConfig.get(WILDFLY_RUNTIME_IMAGE_URL);
+		return snapshot().getWildflyRuntimeImageURL();
 	}
 
 	public static String eap7ImageURL() {
-		return XTFConfig.get(EAP7_IMAGE_URL);
+		return snapshot().getEap7ImageURL();
 	}
 
 	public static String eap7RuntimeImageUrl() {
-		return XTFConfig.get(EAP7_RUNTIME_IMAGE_URL);
+		return snapshot().getEap7RuntimeImageURL();
 	}
 
 	public static String eap7ProductCode() {
-		final String image = eap7ImageURL();
+		return PRODUCT_CODES.computeIfAbsent("eap7|" + eap7ImageURL(), key -> eap7ProductCode(eap7ImageURL()));
+	}
+
+	private static String eap7ProductCode(final String image) {
 		if (image.matches(".*eap-xp\\d+.*")) {
 			return image.replaceFirst(".*eap-xp(\\d+).*", "eap-xp$1");
 		} else if (image.matches(".*eap\\d\\d.*")) {
 			return image.replaceFirst(".*eap(\\d\\d?).*", "eap$1");
 		} else {
-			return IntersmashConfig.getProductCode(image);
+			return productCode(image);
 		}
 	}
 
@@ -267,7 +386,18 @@ public class IntersmashConfig {
 		return XTFConfig.get(EAP7_TEMPLATES_BASE_URL);
 	}
 
+	/**
+	 * Product code of an image, e.g. {@code processserver64} for {@code ..fspolti/processserver64-eap70-openshift:1.3},
+	 * computed once per image.
+	 *
+	 * @param image Image URL
+	 * @return The product code
+	 */
 	public static String getProductCode(final String image) {
+		return PRODUCT_CODES.computeIfAbsent(image, IntersmashConfig::productCode);
+	}
+
+	private static String productCode(final String image) {
 		// truncates "-"
 		// e.g. ..fspolti/processserver64-eap70-openshift:1.3 ->  processserver64
 		String dashRegexp = ".*/([a-z0-9]+)-.*";
@@ -286,11 +416,11 @@ public class IntersmashConfig {
 	}
 
 	public static String getMysqlImage() {
-		return XTFConfig.get(MYSQL_IMAGE_URL);
+		return snapshot().getMysqlImageURL();
 	}
 
 	public static String infinispanImageURL() {
-		return XTFConfig.get(INFINISPAN_IMAGE_URL);
+		return snapshot().getInfinispanImageURL();
 	}
 
 	public static String infinispanProductCode() {
@@ -298,11 +428,11 @@ public class IntersmashConfig {
 	}
 
 	public static String rhSsoImageURL() {
-		return XTFConfig.get(RHSSO_IMAGE_URL);
+		return snapshot().getRhSsoImageURL();
 	}
 
 	public static String keycloakImageURL() {
-		return XTFConfig.get(KEYCLOAK_IMAGE_URL);
+		return snapshot().getKeycloakImageURL();
 	}
 
 	public static String rhSsoProductCode() {
@@ -314,15 +444,15 @@ public class IntersmashConfig {
 	}
 
 	public static String activeMQImageUrl() {
-		return XTFConfig.get(ACTIVEMQ_IMAGE_URL);
+		return snapshot().getActiveMQImageURL();
 	}
 
 	public static String activeMQInitImageUrl() {
-		return XTFConfig.get(ACTIVEMQ_INIT_IMAGE_URL);
+		return snapshot().getActiveMQInitImageURL();
 	}
 
 	public static String getPostgreSQLImage() {
-		return XTFConfig.get(PGSQL_IMAGE_URL);
+		return snapshot().getPostgreSQLImageURL();
 	}
 
 	public static String rhSsoImageName() {
@@ -387,6 +517,16 @@ public class IntersmashConfig {
 		return XTFConfig.get(WILDFLY_HELM_CHARTS_BRANCH);
 	}
 
+	/**
+	 * Whether Helm Charts based provisioners should render the chart locally and validate the resulting manifests
+	 * before the release is installed on the cluster.
+	 *
+	 * @return true if the pre-flight stage is enabled, false otherwise (default)
+	 */
+	public static boolean helmPreflight() {
+		return snapshot().isHelmPreflight();
+	}
+
 	public static String keycloakOperatorCatalogSource() {
 		return XTFConfig.get(KEYCLOAK_OPERATOR_CATALOG_SOURCE_NAME, DEFAULT_OPERATOR_CATALOG_SOURCE_NAME);
 	}
@@ -402,4 +542,85 @@ public class IntersmashConfig {
 	public static String keycloakOperatorPackageManifest() {
 		return XTFConfig.get(KEYCLOAK_OPERATOR_PACKAGE_MANIFEST, DEFAULT_KEYCLOAK_OPERATOR_PACKAGE_MANIFEST);
 	}
+
+	/**
+	 * Immutable, typed view of the configuration properties which are looked up repeatedly, e.g. for each service or
+	 * in waiters, resolved and validated at once. Invalid values, e.g. a boolean property which is neither
+	 * {@code true} nor {@code false}, are all reported by a single {@link IllegalStateException}.
+	 */
+	@Getter
+	public static final class Snapshot {
+		private final boolean skipDeploy;
+		private final boolean skipUndeploy;
+		private final boolean buildCache;
+		private final boolean parallelBuilds;
+		private final boolean endpointSlices;
+		private final boolean adaptiveProbes;
+		private final boolean gcLogs;
+		private final boolean prePullImages;
+		private final boolean podStartup;
+		private final boolean helmPreflight;
+		private final String bootableJarImageURL;
+		private final String wildflyImageURL;
+		private final String wildflyRuntimeImageURL;
+		private final String eap7ImageURL;
+		private final String eap7RuntimeImageURL;
+		private final String infinispanImageURL;
+		private final String keycloakImageURL;
+		private final String rhSsoImageURL;
+		private final String activeMQImageURL;
+		private final String activeMQInitImageURL;
+		private final String mysqlImageURL;
+		private final String postgreSQLImageURL;
+
+		/**
+		 * @param properties Configuration properties lookup, returning null for properties which aren't set
+		 */
+		public Snapshot(final Function<String, String> properties) {
+			final List<String> problems = new ArrayList<>();
+			skipDeploy = bool(properties, SKIP_DEPLOY, problems);
+			skipUndeploy = skipDeploy || bool(properties, SKIP_UNDEPLOY, problems);
+			buildCache = bool(properties, BUILD_CACHE, problems);
+			parallelBuilds = bool(properties, PARALLEL_BUILDS, problems);
+			endpointSlices = bool(properties, ENDPOINT_SLICES, problems);
+			adaptiveProbes = bool(properties, ADAPTIVE_PROBES, problems);
+			gcLogs = bool(properties, GC_LOGS, problems);
+			prePullImages = bool(properties, PREPULL_IMAGES, problems);
+			podStartup = bool(properties, POD_STARTUP, problems);
+			helmPreflight = bool(properties, HELM_PREFLIGHT, problems);
+			bootableJarImageURL = image(properties, BOOTABLE_JAR_IMAGE_URL, problems);
+			wildflyImageURL = image(properties, WILDFLY_IMAGE_URL, problems);
+			wildflyRuntimeImageURL = image(properties, WILDFLY_RUNTIME_IMAGE_URL, problems);
+			eap7ImageURL = image(properties, EAP7_IMAGE_URL, problems);
+			eap7RuntimeImageURL = image(properties, EAP7_RUNTIME_IMAGE_URL, problems);
+			infinispanImageURL = image(properties, INFINISPAN_IMAGE_URL, problems);
+			keycloakImageURL = image(properties, KEYCLOAK_IMAGE_URL, problems);
+			rhSsoImageURL = image(properties, RHSSO_IMAGE_URL, problems);
+			activeMQImageURL = image(properties, ACTIVEMQ_IMAGE_URL, problems);
+			activeMQInitImageURL = image(properties, ACTIVEMQ_INIT_IMAGE_URL, problems);
+			mysqlImageURL = image(properties, MYSQL_IMAGE_URL, problems);
+			postgreSQLImageURL = image(properties, PGSQL_IMAGE_URL, problems);
+			if (!problems.isEmpty()) {
+				throw new IllegalStateException("Invalid Intersmash configuration: " + String.join("; ", problems));
+			}
+		}
+
+		private static boolean bool(final Function<String, String> properties, final String key,
+				final List<String> problems) {
+			final String value = properties.apply(key);
+			if (value != null && !value.equals("true") && !value.equals("false")) {
+				problems.add(String.format("%s must be either true or false, was '%s'", key, value));
+			}
+			return "true".equals(value);
+		}
+
+		private static String image(final Function<String, String> properties, final String key,
+				final List<String> problems) {
+			final String value = properties.apply(key);
+			if (value != null && (value.isBlank() || value.chars().anyMatch(Character::isWhitespace))) {
+				problems.add(String.format("%s must be an image URL, was '%s'", key, value));
+			}
+			return value;
+		}
+	}
 }
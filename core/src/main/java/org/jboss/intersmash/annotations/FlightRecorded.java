@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.jboss.intersmash.junit5.FlightRecordingExtension;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Record the application pods with Java Flight Recorder while a test class, or a test method, is executed. Recordings
+ * and their summaries are copied to {@code tmp/jfr/<test class>} once done.
+ *
+ * When used on a test class, this annotation must be declared after {@link Intersmash}, so that the applications are
+ * deployed before the recording starts.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@ExtendWith(FlightRecordingExtension.class)
+public @interface FlightRecorded {
+	/**
+	 * @return Application classes whose pods are recorded, all the applications with pods if empty
+	 */
+	Class<?>[] value() default {};
+
+	/**
+	 * @return JFR settings, e.g. {@code default} or {@code profile}
+	 */
+	String settings() default "profile";
+}
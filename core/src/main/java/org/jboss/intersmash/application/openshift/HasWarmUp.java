@@ -0,0 +1,32 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.application.openshift;
+
+import org.jboss.intersmash.provision.openshift.WarmUp;
+
+/**
+ * Applications implementing this interface are warmed up once deployed, before tests begin, see
+ * {@link org.jboss.intersmash.provision.openshift.OpenShiftProvisioner#warmUp()}.
+ */
+public interface HasWarmUp {
+
+	/**
+	 * Get the warm-up settings of an application, i.e. the mix of requests to be sent and the convergence criteria.
+	 *
+	 * @return {@link WarmUp} instance
+	 */
+	WarmUp getWarmUp();
+}
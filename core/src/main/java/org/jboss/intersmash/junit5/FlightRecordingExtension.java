@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.junit5;
+
+import java.lang.reflect.AnnotatedElement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.jboss.intersmash.annotations.FlightRecorded;
+import org.jboss.intersmash.provision.Provisioner;
+import org.jboss.intersmash.provision.openshift.FlightRecording;
+import org.jboss.intersmash.provision.openshift.HasPods;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+/**
+ * Starts and stops the flight recordings requested by {@link FlightRecorded}, see {@link FlightRecording}.
+ */
+public class FlightRecordingExtension implements BeforeAllCallback, AfterAllCallback, BeforeEachCallback, AfterEachCallback {
+
+	private static final Namespace NAMESPACE = Namespace.create("org", "jboss", "intersmash", "FlightRecordingExtension");
+	private static final String RECORDINGS = "FLIGHT_RECORDINGS";
+
+	@Override
+	public void beforeAll(ExtensionContext extensionContext) {
+		start(extensionContext, extensionContext.getRequiredTestClass(), extensionContext.getRequiredTestClass()
+				.getSimpleName());
+	}
+
+	@Override
+	public void afterAll(ExtensionContext extensionContext) {
+		stop(extensionContext);
+	}
+
+	@Override
+	public void beforeEach(ExtensionContext extensionContext) {
+		start(extensionContext, extensionContext.getRequiredTestMethod(),
+				extensionContext.getRequiredTestClass().getSimpleName() + "-" + extensionContext.getRequiredTestMethod()
+						.getName());
+	}
+
+	@Override
+	public void afterEach(ExtensionContext extensionContext) {
+		stop(extensionContext);
+	}
+
+	private void start(ExtensionContext extensionContext, AnnotatedElement element, String name) {
+		Optional<FlightRecorded> flightRecorded = AnnotationSupport.findAnnotation(element, FlightRecorded.class);
+		if (!flightRecorded.isPresent()) {
+			return;
+		}
+		List<String> applications = new ArrayList<>();
+		Arrays.stream(flightRecorded.get().value()).forEach(application -> applications.add(application.getName()));
+		List<FlightRecording> recordings = new ArrayList<>();
+		IntersmashExtension.getProvisioners(extensionContext).forEach((application, provisioner) -> {
+			if (provisioner instanceof HasPods && (applications.isEmpty() || applications.contains(application))) {
+				recordings.add(startRecording((Provisioner & HasPods) provisioner, name, flightRecorded.get().settings()));
+			}
+		});
+		extensionContext.getStore(NAMESPACE).put(RECORDINGS, recordings);
+	}
+
+	private <P extends Provisioner & HasPods> FlightRecording startRecording(P provisioner, String name, String settings) {
+		return provisioner.startFlightRecording(name + "-" + provisioner.getApplication().getName(), settings);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void stop(ExtensionContext extensionContext) {
+		List<FlightRecording> recordings = (List<FlightRecording>) extensionContext.getStore(NAMESPACE).remove(RECORDINGS);
+		if (recordings != null) {
+			recordings.forEach(recording -> recording.stop(FlightRecording.RECORDINGS
+					.resolve(extensionContext.getRequiredTestClass().getName())));
+		}
+	}
+}
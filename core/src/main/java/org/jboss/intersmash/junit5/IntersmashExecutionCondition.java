@@ -18,7 +18,7 @@ package org.jboss.intersmash.junit5;
 import java.util.Arrays;
 import java.util.function.Predicate;
 
-import org.jboss.intersmash.IntersmashConfig;
+import org.jboss.intersmash.ClusterCapabilities;
 import org.jboss.intersmash.annotations.Intersmash;
 import org.jboss.intersmash.annotations.Service;
 import org.jboss.intersmash.application.openshift.OperatorApplication;
@@ -26,7 +26,6 @@ import org.junit.jupiter.api.extension.ConditionEvaluationResult;
 import org.junit.jupiter.api.extension.ExecutionCondition;
 import org.junit.jupiter.api.extension.ExtensionContext;
 
-import cz.xtf.core.openshift.OpenShifts;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -42,9 +41,9 @@ public class IntersmashExecutionCondition implements ExecutionCondition {
 		if (intersmashes.length > 0) {
 			intersmash = intersmashes[0];
 			log.debug("Running: {}", context.getRequiredTestClass().getSimpleName());
-			if (IntersmashConfig.isOcp3x(OpenShifts.admin())
-					&& Arrays.stream(intersmash.value()).anyMatch(isOperatorApplication)) {
-				return ConditionEvaluationResult.disabled("OLM is not available on OCP 3.x clusters, " +
+			if (Arrays.stream(intersmash.value()).anyMatch(isOperatorApplication)
+					&& (ClusterCapabilities.get().isOcp3x() || !ClusterCapabilities.get().isOlmAvailable())) {
+				return ConditionEvaluationResult.disabled("OLM is not available on the cluster, " +
 						"skip the tests due to OperatorApplication(s) involvement.");
 			}
 			log.debug("Test enabled.");
@@ -18,12 +18,21 @@ package org.jboss.intersmash.junit5;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
+import org.jboss.intersmash.ClusterCapabilities;
 import org.jboss.intersmash.IntersmashConfig;
 import org.jboss.intersmash.annotations.Intersmash;
 import org.jboss.intersmash.annotations.Service;
@@ -33,6 +42,12 @@ import org.jboss.intersmash.application.Application;
 import org.jboss.intersmash.application.openshift.OpenShiftApplication;
 import org.jboss.intersmash.provision.Provisioner;
 import org.jboss.intersmash.provision.ProvisionerManager;
+import org.jboss.intersmash.provision.ProvisioningReport;
+import org.jboss.intersmash.provision.openshift.Buildable;
+import org.jboss.intersmash.provision.openshift.HasPods;
+import org.jboss.intersmash.provision.openshift.ImagePrePuller;
+import org.jboss.intersmash.provision.openshift.OpenShiftProvisioner;
+import org.jboss.intersmash.provision.openshift.PodStartup;
 import org.jboss.intersmash.provision.openshift.operator.resources.OperatorGroup;
 import org.junit.jupiter.api.extension.AfterAllCallback;
 import org.junit.jupiter.api.extension.BeforeAllCallback;
@@ -44,6 +59,8 @@ import org.junit.platform.commons.support.AnnotationSupport;
 import org.opentest4j.AssertionFailedError;
 import org.opentest4j.TestAbortedException;
 
+import cz.xtf.core.bm.BuildManagers;
+import cz.xtf.core.config.BuildManagerConfig;
 import cz.xtf.core.openshift.OpenShifts;
 import lombok.extern.slf4j.Slf4j;
 
@@ -71,7 +88,7 @@ public class IntersmashExtension implements BeforeAllCallback, AfterAllCallback,
 			if (!IntersmashConfig.skipDeploy()) {
 				if (Arrays.stream(intersmash.value())
 						.anyMatch(app -> OpenShiftApplication.class.isAssignableFrom(app.value()))) {
-					if (!IntersmashConfig.isOcp3x(OpenShifts.admin())) {
+					if (!ClusterCapabilities.get().isOcp3x()) {
 						operatorCleanup();
 						log.debug("Deploy operatorgroup [{}] to enable operators subscription into tested namespace",
 								OperatorGroup.SINGLE_NAMESPACE.getMetadata().getName());
@@ -79,23 +96,14 @@ public class IntersmashExtension implements BeforeAllCallback, AfterAllCallback,
 								OperatorGroup.SINGLE_NAMESPACE.save().getAbsolutePath());
 					}
 					OpenShifts.master().clean().waitFor();
+					if (IntersmashConfig.prePullImages()) {
+						ImagePrePuller.prePullOnce(OpenShifts.master());
+					}
 				}
 			}
 
-			Service[] services = intersmash.value();
-			log.debug("# of services: {}", services.length);
-			for (Service service : services) {
-				Application application = getApplicationFromService(service);
-				String name = application.getClass().getName();
-				log.info("Caching provisioner for {}", name);
-				// store provisioners right now, those might be needed in each phase independently
-				Provisioner provisioner = ProvisionerManager.getProvisioner(application);
-				// keep the provisioner in the JUpiter Extension Store
-				getProvisioners(extensionContext).put(application.getClass().getName(), provisioner);
-				if (!IntersmashConfig.skipDeploy()) {
-					deployApplication(provisioner);
-				}
-			}
+			provision(intersmash.value(), getProvisioners(extensionContext), !IntersmashConfig.skipDeploy(),
+					IntersmashConfig.parallelBuilds());
 		} catch (Throwable t) {
 			tt = Optional.of(t);
 		} finally {
@@ -104,6 +112,50 @@ public class IntersmashExtension implements BeforeAllCallback, AfterAllCallback,
 		}
 	}
 
+	/**
+	 * Create the provisioner of each service and deploy it, in declaration order.
+	 * By default each service is created and then deployed in turn, so that an application can rely on the services
+	 * declared before it being deployed already. When builds are parallel all the provisioners are created first,
+	 * then the images of the {@link Buildable} ones are built concurrently, and finally the services are deployed.
+	 *
+	 * @param services Services declared by the test class
+	 * @param store Provisioners by application class name, where the created provisioners are kept
+	 * @param deploy Whether the services should be deployed
+	 * @param parallelBuilds Whether the images should be built concurrently before deploying
+	 */
+	void provision(Service[] services, Map<String, Provisioner> store, boolean deploy, boolean parallelBuilds)
+			throws InterruptedException {
+		log.debug("# of services: {}", services.length);
+		if (deploy && parallelBuilds) {
+			List<Provisioner> provisioners = new ArrayList<>();
+			for (Service service : services) {
+				provisioners.add(createProvisioner(service, store));
+			}
+			buildApplications(provisioners);
+			for (Provisioner provisioner : provisioners) {
+				deployApplication(provisioner);
+			}
+		} else {
+			for (Service service : services) {
+				Provisioner provisioner = createProvisioner(service, store);
+				if (deploy) {
+					deployApplication(provisioner);
+				}
+			}
+		}
+	}
+
+	Provisioner createProvisioner(Service service, Map<String, Provisioner> store) {
+		Application application = getApplicationFromService(service);
+		String name = application.getClass().getName();
+		log.info("Caching provisioner for {}", name);
+		// store provisioners right now, those might be needed in each phase independently
+		Provisioner provisioner = ProvisionerManager.getProvisioner(application);
+		// keep the provisioner in the JUpiter Extension Store
+		store.put(name, provisioner);
+		return provisioner;
+	}
+
 	private Application getApplicationFromService(Service service) {
 		try {
 			return service.value().getConstructor().newInstance();
@@ -121,11 +173,72 @@ public class IntersmashExtension implements BeforeAllCallback, AfterAllCallback,
 		}
 	}
 
-	private void deployApplication(Provisioner provisioner) {
+	/**
+	 * Build the images of all the {@link Buildable} provisioners concurrently, so that the overall build time is the
+	 * one of the longest build rather than the sum of all of them. The number of concurrent builds is bounded by
+	 * {@link BuildManagerConfig#maxRunningBuilds()}.
+	 */
+	void buildApplications(List<Provisioner> provisioners) throws InterruptedException {
+		List<Provisioner> buildables = provisioners.stream()
+				.filter(Buildable.class::isInstance)
+				.collect(Collectors.toList());
+		if (buildables.isEmpty()) {
+			return;
+		}
+		// initialize the build manager once, before concurrent builds access it
+		BuildManagers.get();
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.max(1, Math.min(buildables.size(), BuildManagerConfig.maxRunningBuilds())));
+		try {
+			Map<Provisioner, Future<?>> builds = new LinkedHashMap<>();
+			for (Provisioner provisioner : buildables) {
+				log.info("Building {}", provisioner.getApplication().getClass().getName());
+				builds.put(provisioner, executor.submit(() -> ProvisioningReport.timed(
+						provisioner.getApplication().getName(), "build", ((Buildable) provisioner)::build)));
+			}
+			RuntimeException failure = null;
+			for (Map.Entry<Provisioner, Future<?>> build : builds.entrySet()) {
+				try {
+					build.getValue().get();
+				} catch (ExecutionException e) {
+					RuntimeException buildFailure = new RuntimeException(String.format("Build of %s failed",
+							build.getKey().getApplication().getClass().getName()), e.getCause());
+					if (failure == null) {
+						failure = buildFailure;
+						// no need to wait for the remaining builds, deployment is not going to happen
+						builds.values().forEach(future -> future.cancel(true));
+					} else {
+						failure.addSuppressed(buildFailure);
+					}
+				} catch (CancellationException e) {
+					// cancelled after a previous failure, which is reported already
+				}
+			}
+			if (failure != null) {
+				throw failure;
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	void deployApplication(Provisioner provisioner) {
 		log.info("Deploying ", provisioner.getApplication().getClass().getName());
-		provisioner.configure();
-		provisioner.preDeploy();
-		provisioner.deploy();
+		ProvisioningReport.timed(provisioner.getApplication().getName(), "deploy", () -> {
+			provisioner.configure();
+			provisioner.preDeploy();
+			provisioner.deploy();
+		});
+		if (IntersmashConfig.podStartup() && provisioner instanceof HasPods) {
+			try {
+				PodStartup.report(provisioner.getApplication().getName(), ((HasPods) provisioner).getPodStartups());
+			} catch (RuntimeException e) {
+				log.warn("Unable to break down the startup of the {} pods", provisioner.getApplication().getName(), e);
+			}
+		}
+		if (provisioner instanceof OpenShiftProvisioner) {
+			((OpenShiftProvisioner) provisioner).warmUp();
+		}
 	}
 
 	private void undeployApplication(Provisioner provisioner) {
@@ -146,12 +259,16 @@ public class IntersmashExtension implements BeforeAllCallback, AfterAllCallback,
 			}
 			// operator group is not bound to a specific product
 			// no Operator support on OCP3 clusters, OLM doesn't run there
-			if (!IntersmashConfig.isOcp3x(OpenShifts.admin())) {
+			if (!ClusterCapabilities.get().isOcp3x()) {
 				operatorCleanup();
 			}
 			// let's cleanup once we're done
 			safetyCleanup();
 		}
+		ProvisioningReport.write(extensionContext.getRequiredTestClass().getName(),
+				getProvisioners(extensionContext).values().stream()
+						.map(provisioner -> provisioner.getApplication().getName())
+						.collect(Collectors.toList()));
 	}
 
 	private static void safetyCleanup() {
@@ -175,7 +292,14 @@ public class IntersmashExtension implements BeforeAllCallback, AfterAllCallback,
 		injectServiceProvisioner(o, extensionContext);
 	}
 
-	private Map<String, Provisioner> getProvisioners(ExtensionContext extensionContext) {
+	/**
+	 * Get the provisioners of the applications of a test class, e.g. for other extensions to act on the deployed
+	 * applications.
+	 *
+	 * @param extensionContext Context of the test class, or of one of its tests
+	 * @return Provisioners mapped by the name of their application class
+	 */
+	public static Map<String, Provisioner> getProvisioners(ExtensionContext extensionContext) {
 		Store store = extensionContext.getStore(NAMESPACE);
 		Map<String, Provisioner> provisioners = (Map<String, Provisioner>) store.get(INTERSMASH_SERVICES);
 		if (provisioners != null) {
@@ -0,0 +1,193 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects timing data about the provisioning of applications, i.e. a timeline of named spans (e.g.: build phases,
+ * deployment) and a set of named metrics, per application.
+ *
+ * Provisioners and utilities record data while the applications are provisioned, and the report for the
+ * applications of a test class is written to {@link #REPORTS} once the test class is done, see
+ * {@link #write(String, Collection)}.
+ */
+@Slf4j
+public final class ProvisioningReport {
+	public static final Path REPORTS = Paths.get("tmp").toAbsolutePath().resolve("reports");
+
+	private static final Map<String, List<Span>> SPANS = new ConcurrentHashMap<>();
+	private static final Map<String, Map<String, Double>> METRICS = new ConcurrentHashMap<>();
+
+	private ProvisioningReport() {
+		// prevent instantiation
+	}
+
+	/**
+	 * Record a span on the timeline of an application.
+	 *
+	 * @param application Name of the application
+	 * @param name Name of the span, e.g. {@code build} or {@code build:maven}
+	 * @param start Instant the span started at
+	 * @param end Instant the span ended at
+	 */
+	public static void span(final String application, final String name, final Instant start, final Instant end) {
+		SPANS.computeIfAbsent(application, key -> new CopyOnWriteArrayList<>()).add(new Span(name, start, end));
+		log.debug("{} - {} took {} ms", application, name, Duration.between(start, end).toMillis());
+	}
+
+	/**
+	 * Execute an operation and record its duration as a span on the timeline of an application.
+	 *
+	 * @param application Name of the application
+	 * @param name Name of the span
+	 * @param operation Operation to be executed
+	 * @param <T> Type of the operation result
+	 * @return The operation result
+	 */
+	public static <T> T timed(final String application, final String name, final Supplier<T> operation) {
+		final Instant start = Instant.now();
+		try {
+			return operation.get();
+		} finally {
+			span(application, name, start, Instant.now());
+		}
+	}
+
+	/**
+	 * Execute an operation and record its duration as a span on the timeline of an application.
+	 *
+	 * @param application Name of the application
+	 * @param name Name of the span
+	 * @param operation Operation to be executed
+	 */
+	public static void timed(final String application, final String name, final Runnable operation) {
+		timed(application, name, () -> {
+			operation.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Record a metric for an application, a previous value of the same metric is replaced.
+	 *
+	 * @param application Name of the application
+	 * @param name Name of the metric, including its unit, e.g. {@code route.firstSuccess.ms}
+	 * @param value Value of the metric
+	 */
+	public static void metric(final String application, final String name, final double value) {
+		METRICS.computeIfAbsent(application, key -> new ConcurrentHashMap<>()).put(name, value);
+	}
+
+	/**
+	 * @param application Name of the application
+	 * @return Spans recorded for the application, in recording order
+	 */
+	public static List<Span> getSpans(final String application) {
+		return Collections.unmodifiableList(new ArrayList<>(SPANS.getOrDefault(application, Collections.emptyList())));
+	}
+
+	/**
+	 * @param application Name of the application
+	 * @return Metrics recorded for the application
+	 */
+	public static Map<String, Double> getMetrics(final String application) {
+		return Collections.unmodifiableMap(new LinkedHashMap<>(METRICS.getOrDefault(application,
+				Collections.emptyMap())));
+	}
+
+	/**
+	 * Write the report for a set of applications to {@code REPORTS/<reportName>.json}, and discard their data.
+	 *
+	 * @param reportName Name of the report, e.g. the test class name
+	 * @param applications Names of the applications to be included in the report
+	 * @return Path to the report file, or null if no data has been recorded for the applications
+	 */
+	public static Path write(final String reportName, final Collection<String> applications) {
+		final Map<String, Object> report = new LinkedHashMap<>();
+		for (String application : applications) {
+			final List<Span> spans = SPANS.remove(application);
+			final Map<String, Double> metrics = METRICS.remove(application);
+			if (spans == null && metrics == null) {
+				continue;
+			}
+			final Map<String, Object> applicationReport = new LinkedHashMap<>();
+			final List<Map<String, Object>> timeline = new ArrayList<>();
+			if (spans != null) {
+				for (Span span : spans) {
+					final Map<String, Object> entry = new LinkedHashMap<>();
+					entry.put("name", span.getName());
+					entry.put("start", span.getStart().toString());
+					entry.put("end", span.getEnd().toString());
+					entry.put("durationMillis", span.getDuration().toMillis());
+					timeline.add(entry);
+				}
+			}
+			applicationReport.put("timeline", timeline);
+			applicationReport.put("metrics", metrics == null ? Collections.emptyMap() : new LinkedHashMap<>(metrics));
+			report.put(application, applicationReport);
+		}
+		if (report.isEmpty()) {
+			return null;
+		}
+		final Path file = REPORTS.resolve(reportName + ".json");
+		try {
+			Files.createDirectories(REPORTS);
+			new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+		} catch (IOException e) {
+			log.warn("Unable to write the provisioning report to {}", file, e);
+			return null;
+		}
+		log.info("Provisioning report written to {}", file);
+		return file;
+	}
+
+	/**
+	 * A named time interval on the timeline of an application.
+	 */
+	@Getter
+	@AllArgsConstructor
+	public static class Span {
+		private final String name;
+		private final Instant start;
+		private final Instant end;
+
+		public Duration getDuration() {
+			return Duration.between(start, end);
+		}
+	}
+}
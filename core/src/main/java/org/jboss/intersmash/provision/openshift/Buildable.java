@@ -0,0 +1,31 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift;
+
+/**
+ * Provisioner is able to build the application image ahead of the {@code deploy} operation.
+ */
+public interface Buildable {
+
+	/**
+	 * Build the application image, and block until the build is completed. The result is reused by the subsequent
+	 * {@code deploy} operation, which doesn't build the image again.
+	 *
+	 * Builds of different provisioners can be executed concurrently, so implementations must not depend on other
+	 * provisioners being deployed already.
+	 */
+	void build();
+}
@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import cz.xtf.core.openshift.OpenShift;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.dsl.ExecWatch;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A Java Flight Recorder recording running in the JVMs of some pods, driven by {@code jcmd} through pod exec.
+ *
+ * Once stopped, the recording of each pod is copied to a local directory, along with a text summary of its hot
+ * methods, allocation sites and GC pauses, see {@link JfrSummary}. Failures to stop or collect a recording are logged,
+ * since a missing profile must not fail the test it has been recorded for.
+ */
+@Slf4j
+public class FlightRecording {
+	public static final Path RECORDINGS = Paths.get("tmp").toAbsolutePath().resolve("jfr");
+	private static final long EXEC_TIMEOUT_SECONDS = 60L;
+
+	private final OpenShift openShift;
+	private final String name;
+	private final List<String> pods;
+
+	private FlightRecording(final OpenShift openShift, final String name, final List<String> pods) {
+		this.openShift = openShift;
+		this.name = name;
+		this.pods = pods;
+	}
+
+	/**
+	 * Start a recording in the JVMs of the given pods.
+	 *
+	 * @param openShift {@link OpenShift} client for the namespace of the pods
+	 * @param pods Pods to be recorded
+	 * @param name Name of the recording, characters which aren't allowed in file names are replaced
+	 * @param settings JFR settings, e.g. {@code default} or {@code profile}
+	 * @return A {@link FlightRecording} instance, recording the pods where it could be started
+	 */
+	public static FlightRecording start(final OpenShift openShift, final List<Pod> pods, final String name,
+			final String settings) {
+		final String recordingName = name.replaceAll("[^A-Za-z0-9_.-]", "_");
+		final List<String> recorded = new ArrayList<>();
+		for (Pod pod : pods) {
+			final String podName = pod.getMetadata().getName();
+			try {
+				exec(openShift, podName, "jcmd", "0", "JFR.start", "name=" + recordingName, "settings=" + settings);
+				recorded.add(podName);
+				log.debug("Started flight recording {} in pod {}", recordingName, podName);
+			} catch (IllegalStateException e) {
+				log.warn("Unable to start flight recording {} in pod {}", recordingName, podName, e);
+			}
+		}
+		return new FlightRecording(openShift, recordingName, recorded);
+	}
+
+	/**
+	 * @return Name of the recording
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return Names of the recorded pods
+	 */
+	public List<String> getPods() {
+		return Collections.unmodifiableList(pods);
+	}
+
+	/**
+	 * Stop the recording, and copy the recording of each pod to a local directory as {@code <pod>-<name>.jfr}, along
+	 * with its summary, i.e. {@code <pod>-<name>.txt}.
+	 *
+	 * @param directory Local directory where the recordings are copied
+	 * @return The local recording files
+	 */
+	public List<Path> stop(final Path directory) {
+		final String remoteFile = "/tmp/" + name + ".jfr";
+		final List<Path> recordings = new ArrayList<>();
+		for (String pod : pods) {
+			final Path recording = directory.resolve(pod + "-" + name + ".jfr");
+			try {
+				Files.createDirectories(directory);
+				exec(openShift, pod, "jcmd", "0", "JFR.stop", "name=" + name, "filename=" + remoteFile);
+				if (!openShift.pods().withName(pod).file(remoteFile).copy(recording)) {
+					throw new IllegalStateException("Unable to copy " + remoteFile);
+				}
+				exec(openShift, pod, "rm", "-f", remoteFile);
+				recordings.add(recording);
+				JfrSummary.read(recording).write(directory.resolve(pod + "-" + name + ".txt"));
+				log.info("Flight recording of pod {} copied to {}", pod, recording);
+			} catch (IllegalStateException | IOException e) {
+				log.warn("Unable to collect flight recording {} from pod {}", name, pod, e);
+			}
+		}
+		return recordings;
+	}
+
+	private static String exec(final OpenShift openShift, final String pod, final String... command) {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ByteArrayOutputStream err = new ByteArrayOutputStream();
+		try (ExecWatch watch = openShift.pods().withName(pod).writingOutput(out).writingError(err).exec(command)) {
+			final Integer exitCode = watch.exitCode().get(EXEC_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			if (exitCode == null || exitCode != 0) {
+				throw new IllegalStateException(String.format("'%s' failed in pod %s with exit code %s: %s",
+						String.join(" ", command), pod, exitCode, err.toString(StandardCharsets.UTF_8)));
+			}
+			return out.toString(StandardCharsets.UTF_8);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while executing " + String.join(" ", command), e);
+		} catch (ExecutionException | TimeoutException e) {
+			throw new IllegalStateException(String.format("'%s' failed in pod %s", String.join(" ", command), pod), e);
+		}
+	}
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jboss.intersmash.provision.ProvisioningReport;
+
+import cz.xtf.core.openshift.OpenShift;
+import io.fabric8.kubernetes.api.model.Pod;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Garbage collection statistics of a JVM, parsed from its unified GC log, i.e. {@code -Xlog:gc*}.
+ *
+ * Provisioners of JVM based workloads add {@link #JVM_OPTIONS} to the JVM options of the pods, then
+ * {@link #collect(OpenShift, String, List) collect} the GC logs before undeploying, so that the pause times, the
+ * allocation rate and the heap occupancy of each pod are recorded in the {@link ProvisioningReport}, and the raw logs
+ * are kept in {@link #LOGS}.
+ */
+@Slf4j
+public class GcLog {
+	public static final Path LOGS = Paths.get("tmp").toAbsolutePath().resolve("logs").resolve("gc");
+	/**
+	 * Environment variable whose value is appended to the JVM options by the WildFly, EAP and Keycloak images
+	 */
+	public static final String JAVA_OPTS_APPEND = "JAVA_OPTS_APPEND";
+	static final String REMOTE_FILE = "/tmp/gc.log";
+	public static final String JVM_OPTIONS = "-Xlog:gc*:file=" + REMOTE_FILE + ":uptime,level,tags:filecount=0";
+
+	// e.g. [0.512s][info][gc] GC(3) Pause Young (Normal) (G1 Evacuation Pause) 24M->3M(256M) 5.123ms
+	private static final Pattern GC_LINE = Pattern
+			.compile("^\\[(\\d+[.,]\\d+)s\\]\\[\\w+\\s*\\]\\[gc[\\w,]*\\s*\\] GC\\(\\d+\\) (.*)$");
+	private static final Pattern PAUSE = Pattern.compile("^Pause .* (\\d+[.,]\\d+)ms$");
+	private static final Pattern HEAP = Pattern.compile("(\\d+)([KMG])->(\\d+)([KMG])\\((\\d+)([KMG])\\)");
+	// e.g. registry.redhat.io/jboss-eap-7/eap74-openjdk8-openshift-rhel7, but not ubi8
+	private static final Pattern JAVA_8_IMAGE = Pattern.compile("(?i)(open)?(jdk|jre|java)-?(1\\.)?8(\\D|$)");
+
+	private final List<Double> pauses;
+	private final double allocatedMb;
+	private final double uptimeSeconds;
+	private final List<Double> heapAfterGc;
+
+	private GcLog(final List<Double> pauses, final double allocatedMb, final double uptimeSeconds,
+			final List<Double> heapAfterGc) {
+		this.pauses = pauses;
+		this.allocatedMb = allocatedMb;
+		this.uptimeSeconds = uptimeSeconds;
+		this.heapAfterGc = heapAfterGc;
+	}
+
+	/**
+	 * Append the GC logging options to some JVM options.
+	 *
+	 * @param jvmOptions JVM options, may be null
+	 * @return The JVM options, along with {@link #JVM_OPTIONS}
+	 */
+	public static String withJvmOptions(final String jvmOptions) {
+		return jvmOptions == null || jvmOptions.isBlank() ? JVM_OPTIONS : jvmOptions + " " + JVM_OPTIONS;
+	}
+
+	/**
+	 * Append the GC logging options to the JVM options of a container, unless its image runs Java 8, which doesn't
+	 * support unified logging and would fail to start with {@code -Xlog}.
+	 *
+	 * @param jvmOptions JVM options, may be null
+	 * @param image Image of the container, may be null
+	 * @return The JVM options, along with {@link #JVM_OPTIONS} when the image doesn't run Java 8
+	 */
+	public static String withJvmOptions(final String jvmOptions, final String image) {
+		if (isJava8(image)) {
+			log.info("Image {} runs Java 8, GC logs won't be collected", image);
+			return jvmOptions;
+		}
+		return withJvmOptions(jvmOptions);
+	}
+
+	/**
+	 * @param image Image URL, may be null
+	 * @return True when the image name tells that it runs Java 8, e.g. {@code eap74-openjdk8-openshift-rhel7}
+	 */
+	static boolean isJava8(final String image) {
+		return image != null && JAVA_8_IMAGE.matcher(image).find();
+	}
+
+	/**
+	 * Parse a unified GC log, lines which aren't related to a garbage collection are ignored.
+	 *
+	 * @param lines Lines of the GC log
+	 * @return {@link GcLog} instance
+	 */
+	public static GcLog parse(final List<String> lines) {
+		final List<Double> pauses = new ArrayList<>();
+		final List<Double> heapAfterGc = new ArrayList<>();
+		double allocated = 0;
+		double previousAfter = 0;
+		double uptime = 0;
+		for (String line : lines) {
+			final Matcher gc = GC_LINE.matcher(line.trim());
+			if (!gc.matches()) {
+				continue;
+			}
+			uptime = Double.parseDouble(gc.group(1).replace(',', '.'));
+			final String message = gc.group(2);
+			final Matcher pause = PAUSE.matcher(message);
+			if (pause.matches()) {
+				pauses.add(Double.parseDouble(pause.group(1).replace(',', '.')));
+			}
+			final Matcher heap = HEAP.matcher(message);
+			if (heap.find()) {
+				final double before = megabytes(heap.group(1), heap.group(2));
+				final double after = megabytes(heap.group(3), heap.group(4));
+				allocated += Math.max(0, before - previousAfter);
+				previousAfter = after;
+				heapAfterGc.add(after);
+			}
+		}
+		return new GcLog(pauses, allocated, uptime, heapAfterGc);
+	}
+
+	/**
+	 * Copy the GC logs from the pods of an application, and record their statistics in the
+	 * {@link ProvisioningReport}. Pods without a GC log are skipped.
+	 *
+	 * @param openShift {@link OpenShift} client for the namespace of the pods
+	 * @param application Name of the application
+	 * @param pods Pods of the application
+	 */
+	public static void collect(final OpenShift openShift, final String application, final List<Pod> pods) {
+		final Path directory = LOGS.resolve(application);
+		for (Pod pod : pods) {
+			final String podName = pod.getMetadata().getName();
+			final Path file = directory.resolve(podName + ".log");
+			try {
+				Files.createDirectories(directory);
+				if (!openShift.pods().withName(podName).file(REMOTE_FILE).copy(file)) {
+					log.warn("Unable to copy the GC log of pod {}", podName);
+					continue;
+				}
+				parse(Files.readAllLines(file)).report(application, podName);
+			} catch (IOException | RuntimeException e) {
+				log.warn("Unable to collect the GC log of pod {}", podName, e);
+			}
+		}
+	}
+
+	/**
+	 * Record the statistics in the {@link ProvisioningReport}, as {@code gc.<pod>.*} metrics.
+	 *
+	 * @param application Name of the application
+	 * @param pod Name of the pod
+	 */
+	public void report(final String application, final String pod) {
+		final String prefix = "gc." + pod + ".";
+		ProvisioningReport.metric(application, prefix + "pauses", pauses.size());
+		ProvisioningReport.metric(application, prefix + "pause.total.ms", getTotalPause());
+		ProvisioningReport.metric(application, prefix + "pause.p50.ms", getPausePercentile(0.5));
+		ProvisioningReport.metric(application, prefix + "pause.p99.ms", getPausePercentile(0.99));
+		ProvisioningReport.metric(application, prefix + "pause.max.ms", getPausePercentile(1));
+		ProvisioningReport.metric(application, prefix + "allocationRate.mbPerSec", getAllocationRate());
+		ProvisioningReport.metric(application, prefix + "heapAfterGc.avg.mb",
+				heapAfterGc.stream().mapToDouble(Double::doubleValue).average().orElse(0));
+		ProvisioningReport.metric(application, prefix + "heapAfterGc.max.mb",
+				heapAfterGc.stream().mapToDouble(Double::doubleValue).max().orElse(0));
+	}
+
+	/**
+	 * @return Pause times, in milliseconds, in order
+	 */
+	public List<Double> getPauses() {
+		return Collections.unmodifiableList(pauses);
+	}
+
+	/**
+	 * @return Sum of the pause times, in milliseconds
+	 */
+	public double getTotalPause() {
+		return pauses.stream().mapToDouble(Double::doubleValue).sum();
+	}
+
+	/**
+	 * @param percentile Percentile, between 0 and 1
+	 * @return The pause time percentile, in milliseconds, 0 when there are no pauses
+	 */
+	public double getPausePercentile(final double percentile) {
+		if (pauses.isEmpty()) {
+			return 0;
+		}
+		final List<Double> sorted = new ArrayList<>(pauses);
+		Collections.sort(sorted);
+		return sorted.get(Math.max(0, (int) Math.ceil(percentile * sorted.size()) - 1));
+	}
+
+	/**
+	 * @return Average allocation rate, in MB per second, estimated from the heap occupancy before and after each
+	 *         garbage collection
+	 */
+	public double getAllocationRate() {
+		return uptimeSeconds > 0 ? allocatedMb / uptimeSeconds : 0;
+	}
+
+	/**
+	 * @return Heap occupancy after each garbage collection, in MB
+	 */
+	public List<Double> getHeapAfterGc() {
+		return Collections.unmodifiableList(heapAfterGc);
+	}
+
+	private static double megabytes(final String value, final String unit) {
+		final double amount = Double.parseDouble(value);
+		switch (unit) {
+			case "K":
+				return amount / 1024;
+			case "G":
+				return amount * 1024;
+			default:
+				return amount;
+		}
+	}
+}
@@ -17,6 +17,7 @@ package org.jboss.intersmash.provision.openshift;
 
 import java.util.List;
 
+import cz.xtf.core.openshift.OpenShifts;
 import io.fabric8.kubernetes.api.model.Pod;
 
 /**
@@ -29,4 +30,24 @@ public interface HasPods {
 	 * @return a list of related {@link Pod} instances
 	 */
 	List<Pod> getPods();
+
+	/**
+	 * Start a Java Flight Recorder recording in the JVMs of the application pods, see {@link FlightRecording}.
+	 *
+	 * @param name Name of the recording
+	 * @param settings JFR settings, e.g. {@code default} or {@code profile}
+	 * @return A {@link FlightRecording} instance, to be stopped in order to collect the recordings
+	 */
+	default FlightRecording startFlightRecording(String name, String settings) {
+		return FlightRecording.start(OpenShifts.master(), getPods(), name, settings);
+	}
+
+	/**
+	 * Break down the startup latency of the application pods, see {@link PodStartup}.
+	 *
+	 * @return A {@link PodStartup} instance for each pod
+	 */
+	default List<PodStartup> getPodStartups() {
+		return PodStartup.of(OpenShifts.master(), getPods());
+	}
 }
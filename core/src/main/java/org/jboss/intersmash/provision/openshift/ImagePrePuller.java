@@ -0,0 +1,226 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.jboss.intersmash.IntersmashConfig;
+import org.jboss.intersmash.provision.ProvisioningReport;
+import org.slf4j.event.Level;
+
+import cz.xtf.core.openshift.OpenShift;
+import cz.xtf.core.waiting.SimpleWaiter;
+import cz.xtf.core.waiting.WaiterException;
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.ContainerStateWaiting;
+import io.fabric8.kubernetes.api.model.ContainerStatus;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.api.model.apps.DaemonSet;
+import io.fabric8.kubernetes.api.model.apps.DaemonSetBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pulls the configured images on every schedulable node in parallel, so that deployments start from warm node
+ * caches instead of paying the image pull latency.
+ *
+ * The images are pulled by a DaemonSet whose pod has a container for each image: the container command doesn't
+ * matter, since the image is on the node once the container is not waiting to be created anymore. The per-node pull
+ * completion is recorded in the {@link ProvisioningReport} as {@code <node>.ms} metrics of {@link #NAME}, and the
+ * DaemonSet is deleted once the images are pulled on every node, or the timeout expires.
+ */
+@Slf4j
+public class ImagePrePuller {
+	public static final String NAME = "intersmash-image-prepull";
+	static final Duration TIMEOUT = Duration.ofMinutes(15);
+
+	private static final AtomicBoolean PRE_PULLED = new AtomicBoolean();
+
+	private final OpenShift openShift;
+	private final List<String> images;
+	private final Map<String, Long> completedNodes = new LinkedHashMap<>();
+
+	public ImagePrePuller(final OpenShift openShift, final List<String> images) {
+		this.openShift = openShift;
+		this.images = images;
+	}
+
+	/**
+	 * Pull the configured images, see {@link #configuredImages()}, once per JVM.
+	 *
+	 * @param openShift {@link OpenShift} client for the namespace where the DaemonSet is created
+	 */
+	public static void prePullOnce(final OpenShift openShift) {
+		if (PRE_PULLED.compareAndSet(false, true)) {
+			new ImagePrePuller(openShift, configuredImages()).prePull();
+		}
+	}
+
+	/**
+	 * @return The images referenced by the {@link IntersmashConfig}, i.e. the application, database and operator
+	 *         index images which are configured
+	 */
+	public static List<String> configuredImages() {
+		final List<Supplier<String>> images = List.of(
+				IntersmashConfig::wildflyImageURL,
+				IntersmashConfig::wildflyRuntimeImageURL,
+				IntersmashConfig::bootableJarImageURL,
+				IntersmashConfig::eap7ImageURL,
+				IntersmashConfig::eap7RuntimeImageUrl,
+				IntersmashConfig::keycloakImageURL,
+				IntersmashConfig::rhSsoImageURL,
+				IntersmashConfig::infinispanImageURL,
+				IntersmashConfig::activeMQImageUrl,
+				IntersmashConfig::activeMQInitImageUrl,
+				IntersmashConfig::getMysqlImage,
+				IntersmashConfig::getPostgreSQLImage,
+				IntersmashConfig::keycloakOperatorIndexImage,
+				IntersmashConfig::rhSsoOperatorIndexImage,
+				IntersmashConfig::infinispanOperatorIndexImage,
+				IntersmashConfig::wildflyOperatorIndexImage,
+				IntersmashConfig::kafkaOperatorIndexImage,
+				IntersmashConfig::activeMQOperatorIndexImage,
+				IntersmashConfig::hyperfoilOperatorIndexImage);
+		final Set<String> configured = new LinkedHashSet<>();
+		images.stream().map(Supplier::get).filter(image -> image != null && !image.isBlank()).forEach(configured::add);
+		return new ArrayList<>(configured);
+	}
+
+	/**
+	 * Create the DaemonSet and wait for the images to be pulled on every node, then delete it. Failures are logged,
+	 * since images which couldn't be pre-pulled will be pulled by the deployments anyway.
+	 */
+	public void prePull() {
+		if (images.isEmpty()) {
+			return;
+		}
+		final Instant start = Instant.now();
+		log.info("Pre-pulling {} images on every node", images.size());
+		try {
+			openShift.apps().daemonSets().resource(daemonSet(images)).createOrReplace();
+			new SimpleWaiter(() -> isCompleted(start))
+					.reason("Wait for the images to be pulled on every node")
+					.timeout(TIMEOUT.toMillis())
+					.interval(2000L)
+					.level(Level.DEBUG)
+					.waitFor();
+			log.info("Images pre-pulled on {} nodes in {} s", completedNodes.size(),
+					Duration.between(start, Instant.now()).getSeconds());
+		} catch (WaiterException e) {
+			log.warn("Images are not pulled on every node after {}, pulled on {}", TIMEOUT, completedNodes.keySet());
+		} catch (RuntimeException e) {
+			log.warn("Unable to pre-pull the images", e);
+		} finally {
+			openShift.apps().daemonSets().withName(NAME).delete();
+			completedNodes.forEach((node, millis) -> ProvisioningReport.metric(NAME, node + ".ms", millis));
+			ProvisioningReport.write(NAME, Collections.singletonList(NAME));
+		}
+	}
+
+	private boolean isCompleted(final Instant start) {
+		final DaemonSet daemonSet = openShift.apps().daemonSets().withName(NAME).get();
+		if (daemonSet == null || daemonSet.getStatus() == null || daemonSet.getStatus().getDesiredNumberScheduled() == null
+				|| daemonSet.getStatus().getDesiredNumberScheduled() == 0) {
+			return false;
+		}
+		final List<Pod> pods = openShift.getLabeledPods("app", NAME);
+		for (Pod pod : pods) {
+			final String node = pod.getSpec().getNodeName();
+			if (node != null && !completedNodes.containsKey(node) && isPulled(pod)) {
+				final long millis = Duration.between(start, Instant.now()).toMillis();
+				completedNodes.put(node, millis);
+				log.info("Images pulled on node {} in {} ms", node, millis);
+			}
+		}
+		return completedNodes.size() >= daemonSet.getStatus().getDesiredNumberScheduled();
+	}
+
+	/**
+	 * @param pod Pod of the DaemonSet
+	 * @return true once none of the pod containers is waiting for its image, i.e. each image is either pulled or
+	 *         can't be pulled
+	 */
+	static boolean isPulled(final Pod pod) {
+		if (pod.getStatus() == null || pod.getStatus().getContainerStatuses() == null
+				|| pod.getStatus().getContainerStatuses().size() < pod.getSpec().getContainers().size()) {
+			return false;
+		}
+		return pod.getStatus().getContainerStatuses().stream().noneMatch(ImagePrePuller::isPulling);
+	}
+
+	private static boolean isPulling(final ContainerStatus status) {
+		if (status.getState() == null) {
+			return true;
+		}
+		final ContainerStateWaiting waiting = status.getState().getWaiting();
+		if (waiting == null) {
+			return false;
+		}
+		switch (waiting.getReason() == null ? "" : waiting.getReason()) {
+			case "ErrImagePull":
+			case "ImagePullBackOff":
+			case "InvalidImageName":
+				log.debug("Unable to pull {}: {}", status.getImage(), waiting.getMessage());
+				return false;
+			case "ContainerCreating":
+			case "":
+				return true;
+			default:
+				// e.g. CrashLoopBackOff, the image is on the node already
+				return false;
+		}
+	}
+
+	static DaemonSet daemonSet(final List<String> images) {
+		final List<Container> containers = new ArrayList<>();
+		for (int i = 0; i < images.size(); i++) {
+			containers.add(new ContainerBuilder()
+					.withName("image-" + i)
+					.withImage(images.get(i))
+					.withImagePullPolicy("IfNotPresent")
+					.withCommand("sleep", "3600")
+					.withNewResources()
+					.addToRequests("cpu", new Quantity("1m"))
+					.addToRequests("memory", new Quantity("8Mi"))
+					.endResources()
+					.build());
+		}
+		return new DaemonSetBuilder()
+				.withNewMetadata().withName(NAME).addToLabels("app", NAME).endMetadata()
+				.withNewSpec()
+				.withNewSelector().addToMatchLabels("app", NAME).endSelector()
+				.withNewTemplate()
+				.withNewMetadata().addToLabels("app", NAME).endMetadata()
+				.withNewSpec()
+				.withContainers(containers)
+				.withTerminationGracePeriodSeconds(0L)
+				.endSpec()
+				.endTemplate()
+				.endSpec()
+				.build();
+	}
+}
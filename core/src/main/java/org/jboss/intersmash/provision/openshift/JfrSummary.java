@@ -0,0 +1,167 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Summary of a Java Flight Recorder recording: the hottest methods, according to execution samples, the sites
+ * allocating the most memory, and the GC pauses.
+ */
+public class JfrSummary {
+	static final int TOP = 20;
+
+	private final Map<String, Long> hotMethods;
+	private final Map<String, Long> allocationSites;
+	private final List<Duration> gcPauses;
+
+	private JfrSummary(final Map<String, Long> hotMethods, final Map<String, Long> allocationSites,
+			final List<Duration> gcPauses) {
+		this.hotMethods = hotMethods;
+		this.allocationSites = allocationSites;
+		this.gcPauses = gcPauses;
+	}
+
+	/**
+	 * Read the events of a recording.
+	 *
+	 * @param recording Path to the {@code .jfr} file
+	 * @return {@link JfrSummary} instance
+	 * @throws IOException if the recording can't be read
+	 */
+	public static JfrSummary read(final Path recording) throws IOException {
+		final Map<String, Long> samples = new HashMap<>();
+		// allocation samples are available since JDK 16, TLAB events are used for older JVMs
+		final Map<String, Long> sampledAllocations = new HashMap<>();
+		final Map<String, Long> tlabAllocations = new HashMap<>();
+		final List<Duration> pauses = new ArrayList<>();
+		try (RecordingFile file = new RecordingFile(recording)) {
+			while (file.hasMoreEvents()) {
+				final RecordedEvent event = file.readEvent();
+				switch (event.getEventType().getName()) {
+					case "jdk.ExecutionSample":
+						samples.merge(topFrame(event), 1L, Long::sum);
+						break;
+					case "jdk.ObjectAllocationSample":
+						sampledAllocations.merge(topFrame(event), event.getLong("weight"), Long::sum);
+						break;
+					case "jdk.ObjectAllocationInNewTLAB":
+						tlabAllocations.merge(topFrame(event), event.getLong("tlabSize"), Long::sum);
+						break;
+					case "jdk.ObjectAllocationOutsideTLAB":
+						tlabAllocations.merge(topFrame(event), event.getLong("allocationSize"), Long::sum);
+						break;
+					case "jdk.GarbageCollection":
+						pauses.add(event.getDuration("sumOfPauses"));
+						break;
+					default:
+						break;
+				}
+			}
+		}
+		return new JfrSummary(top(samples), top(sampledAllocations.isEmpty() ? tlabAllocations : sampledAllocations),
+				pauses);
+	}
+
+	/**
+	 * @return The hottest methods, mapped to their number of execution samples, hottest first
+	 */
+	public Map<String, Long> getHotMethods() {
+		return Collections.unmodifiableMap(hotMethods);
+	}
+
+	/**
+	 * @return The methods allocating the most memory, mapped to the allocated bytes, biggest first
+	 */
+	public Map<String, Long> getAllocationSites() {
+		return Collections.unmodifiableMap(allocationSites);
+	}
+
+	/**
+	 * @return The pause duration of each garbage collection, in order
+	 */
+	public List<Duration> getGcPauses() {
+		return Collections.unmodifiableList(gcPauses);
+	}
+
+	/**
+	 * Write the summary as text.
+	 *
+	 * @param file Path to the summary file
+	 * @throws IOException if the file can't be written
+	 */
+	public void write(final Path file) throws IOException {
+		Files.writeString(file, toString(), StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder summary = new StringBuilder();
+		final long totalSamples = hotMethods.values().stream().mapToLong(Long::longValue).sum();
+		summary.append("Hot methods (top ").append(TOP).append(" of execution samples)\n");
+		hotMethods.forEach((method, count) -> summary.append(String.format("  %6.2f%%  %s%n",
+				100.0 * count / Math.max(1, totalSamples), method)));
+		summary.append("\nAllocation sites (top ").append(TOP).append(")\n");
+		allocationSites.forEach((site, bytes) -> summary.append(String.format("  %10.1f MB  %s%n",
+				bytes / (1024.0 * 1024.0), site)));
+		final List<Long> pauses = gcPauses.stream().map(Duration::toMillis).sorted().collect(Collectors.toList());
+		summary.append("\nGC pauses\n");
+		summary.append(String.format("  count: %d, total: %d ms", pauses.size(),
+				pauses.stream().mapToLong(Long::longValue).sum()));
+		if (!pauses.isEmpty()) {
+			summary.append(String.format(", p50: %d ms, p99: %d ms, max: %d ms",
+					percentile(pauses, 0.5), percentile(pauses, 0.99), pauses.get(pauses.size() - 1)));
+		}
+		return summary.append("\n").toString();
+	}
+
+	private static String topFrame(final RecordedEvent event) {
+		if (event.getStackTrace() == null || event.getStackTrace().getFrames().isEmpty()) {
+			return "<unknown>";
+		}
+		final RecordedFrame frame = event.getStackTrace().getFrames().get(0);
+		final RecordedMethod method = frame.getMethod();
+		return method.getType().getName() + "." + method.getName()
+				+ (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : "");
+	}
+
+	private static Map<String, Long> top(final Map<String, Long> values) {
+		return values.entrySet().stream()
+				.sorted(Map.Entry.<String, Long> comparingByValue().reversed())
+				.limit(TOP)
+				.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+	}
+
+	private static long percentile(final List<Long> sorted, final double percentile) {
+		return sorted.get((int) Math.ceil(percentile * sorted.size()) - 1);
+	}
+}
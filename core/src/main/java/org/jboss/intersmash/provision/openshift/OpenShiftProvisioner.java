@@ -20,6 +20,7 @@ import java.net.URL;
 
 import org.jboss.intersmash.application.openshift.HasConfigMaps;
 import org.jboss.intersmash.application.openshift.HasSecrets;
+import org.jboss.intersmash.application.openshift.HasWarmUp;
 import org.jboss.intersmash.application.openshift.OpenShiftApplication;
 import org.jboss.intersmash.provision.Provisioner;
 
@@ -59,6 +60,18 @@ public interface OpenShiftProvisioner<T extends OpenShiftApplication> extends Pr
 		}
 	}
 
+	/**
+	 * Warm up the deployed application before tests begin, if it implements {@link HasWarmUp}, see {@link WarmUp}.
+	 *
+	 * @return true if the application is warm, false if it isn't or it doesn't need to be warmed up
+	 */
+	default boolean warmUp() {
+		if (HasWarmUp.class.isAssignableFrom(getApplication().getClass())) {
+			return ((HasWarmUp) getApplication()).getWarmUp().run(getApplication().getName(), getURL().toExternalForm());
+		}
+		return false;
+	}
+
 	default OpenShift getOpenShift() {
 		return openShift;
 	}
@@ -0,0 +1,240 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.jboss.intersmash.provision.ProvisioningReport;
+
+import cz.xtf.core.openshift.OpenShift;
+import io.fabric8.kubernetes.api.model.ContainerStatus;
+import io.fabric8.kubernetes.api.model.Event;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodCondition;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Startup latency breakdown of a pod, correlating its conditions, container statuses and events:
+ * <ul>
+ *     <li>{@link #SCHEDULING}: from the pod creation to the {@code PodScheduled} condition</li>
+ *     <li>{@link #IMAGE_PULL}: from the first {@code Pulling} to the last {@code Pulled} event, zero when the images
+ *     were already present on the node; aggregated events, i.e. events which occurred many times, are taken into
+ *     account at their last occurrence</li>
+ *     <li>{@link #CONTAINER_START}: from then on, to the containers running</li>
+ *     <li>{@link #READINESS}: from the containers running to the {@code Ready} condition</li>
+ * </ul>
+ * Phases whose timestamps aren't available, e.g. because the related events expired, are omitted.
+ */
+@Slf4j
+public class PodStartup {
+	public static final String SCHEDULING = "scheduling";
+	public static final String IMAGE_PULL = "imagePull";
+	public static final String CONTAINER_START = "containerStart";
+	public static final String READINESS = "readiness";
+	public static final String TOTAL = "total";
+
+	private final String pod;
+	private final Map<String, Duration> phases;
+
+	private PodStartup(final String pod, final Map<String, Duration> phases) {
+		this.pod = pod;
+		this.phases = phases;
+	}
+
+	/**
+	 * Break down the startup of some pods, based on their events.
+	 *
+	 * @param openShift {@link OpenShift} client for the namespace of the pods
+	 * @param pods Ready pods
+	 * @return A {@link PodStartup} instance for each pod
+	 */
+	public static List<PodStartup> of(final OpenShift openShift, final List<Pod> pods) {
+		return pods.stream()
+				.map(pod -> of(pod, openShift.v1().events()
+						.withField("involvedObject.kind", "Pod")
+						.withField("involvedObject.name", pod.getMetadata().getName())
+						.list().getItems()))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Break down the startup of a pod.
+	 *
+	 * @param pod Ready pod
+	 * @param events Events related to the pod
+	 * @return {@link PodStartup} instance
+	 */
+	public static PodStartup of(final Pod pod, final List<Event> events) {
+		final Instant created = parse(pod.getMetadata().getCreationTimestamp());
+		final Instant scheduled = condition(pod, "PodScheduled").orElseGet(() -> first(events, "Scheduled"));
+		final Instant pulling = first(events, "Pulling");
+		final Instant pulled = last(events, "Pulled");
+		final Instant running = Optional.ofNullable(pod.getStatus().getContainerStatuses())
+				.orElse(Collections.emptyList()).stream()
+				.map(ContainerStatus::getState)
+				.filter(state -> state != null && state.getRunning() != null)
+				.map(state -> parse(state.getRunning().getStartedAt()))
+				.filter(Objects::nonNull)
+				.max(Instant::compareTo)
+				.orElseGet(() -> last(events, "Started"));
+		final Instant ready = condition(pod, "Ready").orElse(null);
+
+		final Map<String, Duration> phases = new LinkedHashMap<>();
+		put(phases, SCHEDULING, created, scheduled);
+		if (pulling != null) {
+			put(phases, IMAGE_PULL, pulling, pulled);
+			put(phases, CONTAINER_START, pulled, running);
+		} else {
+			phases.put(IMAGE_PULL, Duration.ZERO);
+			put(phases, CONTAINER_START, scheduled, running);
+		}
+		put(phases, READINESS, running, ready);
+		put(phases, TOTAL, created, ready);
+		return new PodStartup(pod.getMetadata().getName(), phases);
+	}
+
+	/**
+	 * Record the breakdown of the pods of an application in the {@link ProvisioningReport}, i.e. the average and
+	 * maximum duration of each phase across the replicas, as {@code pod.startup.<phase>.avg.ms} and
+	 * {@code pod.startup.<phase>.max.ms} metrics.
+	 *
+	 * @param application Name of the application
+	 * @param startups Breakdown of the application pods
+	 */
+	public static void report(final String application, final List<PodStartup> startups) {
+		aggregate(startups).forEach((phase, durations) -> {
+			ProvisioningReport.metric(application, "pod.startup." + phase + ".avg.ms",
+					durations.stream().mapToLong(Duration::toMillis).average().orElse(0));
+			ProvisioningReport.metric(application, "pod.startup." + phase + ".max.ms",
+					durations.stream().mapToLong(Duration::toMillis).max().orElse(0));
+		});
+		startups.forEach(startup -> log.debug("{} pod {} startup: {}", application, startup.getPod(),
+				startup.getPhases()));
+	}
+
+	/**
+	 * @param startups Breakdown of some pods
+	 * @return The durations of each phase across the pods, in phase order
+	 */
+	static Map<String, List<Duration>> aggregate(final List<PodStartup> startups) {
+		final Map<String, List<Duration>> aggregated = new LinkedHashMap<>();
+		for (String phase : new String[] { SCHEDULING, IMAGE_PULL, CONTAINER_START, READINESS, TOTAL }) {
+			final List<Duration> durations = startups.stream()
+					.map(startup -> startup.getPhases().get(phase))
+					.filter(Objects::nonNull)
+					.collect(Collectors.toList());
+			if (!durations.isEmpty()) {
+				aggregated.put(phase, durations);
+			}
+		}
+		return aggregated;
+	}
+
+	/**
+	 * @return Name of the pod
+	 */
+	public String getPod() {
+		return pod;
+	}
+
+	/**
+	 * @return Duration of each phase whose timestamps are available, in phase order
+	 */
+	public Map<String, Duration> getPhases() {
+		return Collections.unmodifiableMap(phases);
+	}
+
+	private static void put(final Map<String, Duration> phases, final String phase, final Instant start,
+			final Instant end) {
+		if (start != null && end != null) {
+			final Duration duration = Duration.between(start, end);
+			phases.put(phase, duration.isNegative() ? Duration.ZERO : duration);
+		}
+	}
+
+	private static Optional<Instant> condition(final Pod pod, final String type) {
+		return Optional.ofNullable(pod.getStatus().getConditions()).orElse(Collections.emptyList()).stream()
+				.filter(condition -> type.equals(condition.getType()) && "True".equals(condition.getStatus()))
+				.map(PodCondition::getLastTransitionTime)
+				.map(PodStartup::parse)
+				.filter(Objects::nonNull)
+				.findFirst();
+	}
+
+	/**
+	 * @return The instant the first event with a given reason occurred at
+	 */
+	private static Instant first(final List<Event> events, final String reason) {
+		return events.stream()
+				.filter(event -> reason.equals(event.getReason()))
+				.map(PodStartup::firstTimestamp)
+				.filter(Objects::nonNull)
+				.min(Instant::compareTo)
+				.orElse(null);
+	}
+
+	/**
+	 * @return The instant the last event with a given reason occurred at, i.e. the last occurrence of aggregated
+	 *         events
+	 */
+	private static Instant last(final List<Event> events, final String reason) {
+		return events.stream()
+				.filter(event -> reason.equals(event.getReason()))
+				.map(PodStartup::lastTimestamp)
+				.filter(Objects::nonNull)
+				.max(Instant::compareTo)
+				.orElse(null);
+	}
+
+	/**
+	 * Events created through the {@code events.k8s.io} API only hold the {@code eventTime}
+	 */
+	private static Instant firstTimestamp(final Event event) {
+		if (event.getFirstTimestamp() != null) {
+			return parse(event.getFirstTimestamp());
+		}
+		if (event.getEventTime() != null && event.getEventTime().getTime() != null) {
+			return parse(event.getEventTime().getTime());
+		}
+		return parse(event.getMetadata() == null ? null : event.getMetadata().getCreationTimestamp());
+	}
+
+	/**
+	 * Events created through the {@code events.k8s.io} API hold their last occurrence in the event series
+	 */
+	private static Instant lastTimestamp(final Event event) {
+		if (event.getLastTimestamp() != null) {
+			return parse(event.getLastTimestamp());
+		}
+		if (event.getSeries() != null && event.getSeries().getLastObservedTime() != null
+				&& event.getSeries().getLastObservedTime().getTime() != null) {
+			return parse(event.getSeries().getLastObservedTime().getTime());
+		}
+		return firstTimestamp(event);
+	}
+
+	private static Instant parse(final String timestamp) {
+		return timestamp == null ? null : Instant.parse(timestamp);
+	}
+}
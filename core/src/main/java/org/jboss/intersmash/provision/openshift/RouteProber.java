@@ -0,0 +1,312 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift;
+
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+
+import org.jboss.intersmash.provision.ProvisioningReport;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Probes HTTP routes until they are ready to serve.
+ *
+ * All the probes share one HTTP client, so that connections are kept alive and reused between subsequent requests
+ * instead of being opened, and TLS negotiated, for each request. Requests are asynchronous, which allows for many
+ * routes to be probed concurrently, see {@link #probeAll(Map)}.
+ *
+ * A route is ready once it has returned a successful response for a number of consecutive requests, where a response
+ * is successful when both its status code and its body match the configured criteria. By default, any status other
+ * than 503 is successful, i.e. the router has a backend to serve the request. Failed requests are retried with an
+ * exponential backoff, and some jitter, in order to avoid probing many routes in lockstep.
+ *
+ * Route certificates are not verified, as test clusters typically use self-signed ones.
+ */
+@Slf4j
+public class RouteProber {
+	/**
+	 * Name of the metric recording the time it took for a route to return its first successful response, in
+	 * milliseconds since the probe started.
+	 */
+	public static final String FIRST_SUCCESS_METRIC = "route.firstSuccess.ms";
+
+	private static volatile HttpClient client;
+
+	private IntPredicate statusPredicate = status -> status != 503;
+	private Predicate<String> bodyPredicate;
+	private int consecutiveSuccesses = 1;
+	private Duration initialBackoff = Duration.ofMillis(200);
+	private Duration maxBackoff = Duration.ofSeconds(5);
+	private Duration successInterval = Duration.ofMillis(200);
+	private Duration requestTimeout = Duration.ofSeconds(10);
+
+	/**
+	 * Responses are successful only if their status code is one of the given ones
+	 *
+	 * @param statuses Successful status codes
+	 * @return this
+	 */
+	public RouteProber withExpectedStatus(final Integer... statuses) {
+		final Set<Integer> expected = new HashSet<>(Arrays.asList(statuses));
+		this.statusPredicate = expected::contains;
+		return this;
+	}
+
+	/**
+	 * Responses are successful only if their status code matches the given predicate
+	 *
+	 * @param statusPredicate Predicate on the response status code
+	 * @return this
+	 */
+	public RouteProber withStatus(final IntPredicate statusPredicate) {
+		this.statusPredicate = statusPredicate;
+		return this;
+	}
+
+	/**
+	 * Responses are successful only if their body matches the given predicate
+	 *
+	 * @param bodyPredicate Predicate on the response body
+	 * @return this
+	 */
+	public RouteProber withBody(final Predicate<String> bodyPredicate) {
+		this.bodyPredicate = bodyPredicate;
+		return this;
+	}
+
+	/**
+	 * @param consecutiveSuccesses Number of consecutive successful responses for the route to be considered ready
+	 * @return this
+	 */
+	public RouteProber withConsecutiveSuccesses(final int consecutiveSuccesses) {
+		if (consecutiveSuccesses < 1) {
+			throw new IllegalArgumentException("At least one successful response is required");
+		}
+		this.consecutiveSuccesses = consecutiveSuccesses;
+		return this;
+	}
+
+	/**
+	 * @param initialBackoff Delay before retrying after the first failed request, doubled for each subsequent failure
+	 * @param maxBackoff Maximum delay between retries
+	 * @return this
+	 */
+	public RouteProber withBackoff(final Duration initialBackoff, final Duration maxBackoff) {
+		this.initialBackoff = initialBackoff;
+		this.maxBackoff = maxBackoff;
+		return this;
+	}
+
+	/**
+	 * @param successInterval Delay between consecutive successful requests
+	 * @return this
+	 */
+	public RouteProber withSuccessInterval(final Duration successInterval) {
+		this.successInterval = successInterval;
+		return this;
+	}
+
+	/**
+	 * @param requestTimeout Timeout of a single request, after which the request is failed
+	 * @return this
+	 */
+	public RouteProber withRequestTimeout(final Duration requestTimeout) {
+		this.requestTimeout = requestTimeout;
+		return this;
+	}
+
+	/**
+	 * Probe a route until it is ready. The probe is stopped by cancelling the returned future.
+	 *
+	 * @param application Name of the application the route belongs to, used to record the time to the first
+	 *                    successful response, see {@link #FIRST_SUCCESS_METRIC}. Nothing is recorded if null.
+	 * @param url URL of the route
+	 * @return A future completed with the time it took for the route to be ready
+	 */
+	public CompletableFuture<Duration> probe(final String application, final String url) {
+		final Probe probe = new Probe(application, URI.create(url));
+		probe.attempt();
+		return probe.result;
+	}
+
+	/**
+	 * Probe many routes concurrently, until all of them are ready.
+	 *
+	 * @param routes Route URLs, mapped to the name of the application they belong to
+	 * @return A future completed once all the routes are ready, cancelling it stops all the probes
+	 */
+	public CompletableFuture<Void> probeAll(final Map<String, String> routes) {
+		final CompletableFuture<?>[] probes = routes.entrySet().stream()
+				.map(route -> probe(route.getValue(), route.getKey()))
+				.toArray(CompletableFuture[]::new);
+		final CompletableFuture<Void> all = CompletableFuture.allOf(probes);
+		all.whenComplete((result, error) -> {
+			if (error != null) {
+				Arrays.stream(probes).forEach(probe -> probe.cancel(true));
+			}
+		});
+		return all;
+	}
+
+	private boolean isSuccessful(final HttpResponse<String> response) {
+		return statusPredicate.test(response.statusCode())
+				&& (bodyPredicate == null || bodyPredicate.test(response.body()));
+	}
+
+	private Duration backoff(final int failures) {
+		final long exponential = initialBackoff.toMillis() << Math.min(failures - 1, 20);
+		final long delay = Math.min(maxBackoff.toMillis(), exponential);
+		// equal jitter, i.e. half of the delay is randomized
+		return Duration.ofMillis(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+	}
+
+	private class Probe {
+		private final String application;
+		private final URI uri;
+		private final Instant start = Instant.now();
+		private final CompletableFuture<Duration> result = new CompletableFuture<>();
+		private Instant firstSuccess;
+		private int successes;
+		private int failures;
+
+		Probe(final String application, final URI uri) {
+			this.application = application;
+			this.uri = uri;
+		}
+
+		void attempt() {
+			if (result.isDone()) {
+				return;
+			}
+			final HttpRequest request = HttpRequest.newBuilder(uri).timeout(requestTimeout).GET().build();
+			// the body is discarded when there's no predicate on it
+			final HttpResponse.BodyHandler<String> bodyHandler = bodyPredicate == null
+					? responseInfo -> HttpResponse.BodySubscribers.replacing((String) null)
+					: HttpResponse.BodyHandlers.ofString();
+			client().sendAsync(request, bodyHandler).whenComplete(this::onResponse);
+		}
+
+		private synchronized void onResponse(final HttpResponse<String> response, final Throwable error) {
+			final Duration delay;
+			if (error == null && isSuccessful(response)) {
+				if (firstSuccess == null) {
+					firstSuccess = Instant.now();
+					if (application != null) {
+						ProvisioningReport.metric(application, FIRST_SUCCESS_METRIC,
+								Duration.between(start, firstSuccess).toMillis());
+					}
+				}
+				failures = 0;
+				if (++successes >= consecutiveSuccesses) {
+					result.complete(Duration.between(start, Instant.now()));
+					return;
+				}
+				delay = successInterval;
+			} else {
+				if (error != null) {
+					log.trace("Route {} probe failed: {}", uri, error.getMessage());
+				} else {
+					log.trace("Route {} returned {}", uri, response.statusCode());
+				}
+				successes = 0;
+				delay = backoff(++failures);
+			}
+			CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS).execute(this::attempt);
+		}
+	}
+
+	/**
+	 * @return The HTTP client shared by all the probes, also used to warm up applications, see {@link WarmUp}
+	 */
+	static HttpClient client() {
+		if (client == null) {
+			synchronized (RouteProber.class) {
+				if (client == null) {
+					client = HttpClient.newBuilder()
+							.version(HttpClient.Version.HTTP_1_1)
+							.followRedirects(HttpClient.Redirect.NEVER)
+							.connectTimeout(Duration.ofSeconds(10))
+							.sslContext(trustAllSslContext())
+							.build();
+				}
+			}
+		}
+		return client;
+	}
+
+	private static SSLContext trustAllSslContext() {
+		// an X509ExtendedTrustManager skips the host name verification as well
+		final TrustManager trustAll = new X509ExtendedTrustManager() {
+			@Override
+			public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) {
+			}
+
+			@Override
+			public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) {
+			}
+
+			@Override
+			public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+			}
+
+			@Override
+			public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine) {
+			}
+
+			@Override
+			public void checkClientTrusted(X509Certificate[] chain, String authType) {
+			}
+
+			@Override
+			public void checkServerTrusted(X509Certificate[] chain, String authType) {
+			}
+
+			@Override
+			public X509Certificate[] getAcceptedIssuers() {
+				return new X509Certificate[0];
+			}
+		};
+		try {
+			final SSLContext sslContext = SSLContext.getInstance("TLS");
+			sslContext.init(null, new TrustManager[] { trustAll }, null);
+			return sslContext;
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Unable to initialize the route prober SSL context", e);
+		}
+	}
+}
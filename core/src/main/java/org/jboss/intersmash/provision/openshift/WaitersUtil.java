@@ -15,59 +15,163 @@
  */
 package org.jboss.intersmash.provision.openshift;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
-import cz.xtf.core.http.Https;
+import org.jboss.intersmash.IntersmashConfig;
+
 import cz.xtf.core.openshift.OpenShift;
 import cz.xtf.core.waiting.SimpleWaiter;
 import cz.xtf.core.waiting.Waiter;
+import io.fabric8.kubernetes.api.model.EndpointAddress;
 import io.fabric8.kubernetes.api.model.EndpointPort;
 import io.fabric8.kubernetes.api.model.EndpointSubset;
 import io.fabric8.kubernetes.api.model.Endpoints;
+import io.fabric8.kubernetes.api.model.ObjectReference;
+import io.fabric8.kubernetes.api.model.discovery.v1.Endpoint;
+import io.fabric8.kubernetes.api.model.discovery.v1.EndpointSlice;
 
 public class WaitersUtil {
+	private static final String SERVICE_NAME_LABEL = "kubernetes.io/service-name";
+
+	/**
+	 * Wait until a service has the given number of ready pods exposing the given ports. Only the resources of the
+	 * service are retrieved on each poll, i.e. either its Endpoints or its EndpointSlices, see
+	 * {@link IntersmashConfig#endpointSlices()}.
+	 *
+	 * @param openShift {@link OpenShift} client for the namespace of the service
+	 * @param serviceName Name of the service
+	 * @param numOfPods Expected number of ready pods
+	 * @param ports Ports the pods are expected to expose
+	 * @return A {@link Waiter} instance
+	 */
 	public static Waiter serviceEndpointsAreReady(OpenShift openShift, String serviceName, int numOfPods, Integer... ports) {
-		return new SimpleWaiter(() -> {
-			List<Endpoints> endpointsList = openShift.getEndpoints()
-					.stream()
-					.filter(endpoints1 -> endpoints1.getMetadata().getName().equals(serviceName))
-					.collect(Collectors.toList());
-			if (endpointsList.size() < 1) {
+		final boolean endpointSlices = IntersmashConfig.endpointSlices();
+		return new SimpleWaiter(() -> endpointSlices
+				? areEndpointSlicesReady(openShift.discovery().v1().endpointSlices()
+						.withLabel(SERVICE_NAME_LABEL, serviceName).list().getItems(), numOfPods, ports)
+				: areEndpointsReady(openShift.endpoints().withName(serviceName).get(), numOfPods, ports))
+				.reason("Wait until the service has all endpoints.");
+	}
+
+	/**
+	 * Evaluate the readiness of a service based on its Endpoints. All the subsets are taken into account: there are
+	 * many of them e.g. when pods expose different ports, or when some pods aren't ready yet.
+	 *
+	 * @param endpoints Endpoints of the service, or null if they don't exist yet
+	 * @param numOfPods Expected number of ready pods
+	 * @param ports Ports the pods are expected to expose
+	 * @return true if no address is not ready, and at least {@code numOfPods} pods expose all the ports
+	 */
+	static boolean areEndpointsReady(Endpoints endpoints, int numOfPods, Integer... ports) {
+		if (endpoints == null) {
+			return false;
+		}
+		final List<EndpointSubset> subsets = endpoints.getSubsets() == null ? Collections.emptyList()
+				: endpoints.getSubsets();
+		if (subsets.isEmpty()) {
+			return numOfPods == 0;
+		}
+		final Set<String> readyPods = new HashSet<>();
+		for (EndpointSubset subset : subsets) {
+			if (subset.getNotReadyAddresses() != null && !subset.getNotReadyAddresses().isEmpty()) {
 				return false;
 			}
-			List<EndpointSubset> subsets = endpointsList.get(0).getSubsets();
-			if (subsets.size() < 1) {
-				return numOfPods == 0;
-			} else {
-				// can there be more subsets?
-				// according to https://docs.openshift.com/container-platform/3.7/rest_api/api/v1.Endpoints.html yes
-				// but what usecase it is ??
-				EndpointSubset subset = subsets.get(0);
-				if (subset.getNotReadyAddresses().size() > 0) {
+			final Set<Integer> portSet = subset.getPorts() == null ? Collections.emptySet()
+					: subset.getPorts().stream().map(EndpointPort::getPort).collect(Collectors.toSet());
+			if (subset.getAddresses() != null && portSet.containsAll(Arrays.asList(ports))) {
+				subset.getAddresses().stream()
+						.map(EndpointAddress::getTargetRef)
+						.filter(WaitersUtil::isPod)
+						.forEach(pod -> readyPods.add(pod.getName()));
+			}
+		}
+		return readyPods.size() >= numOfPods;
+	}
+
+	/**
+	 * Evaluate the readiness of a service based on its EndpointSlices.
+	 *
+	 * @param endpointSlices EndpointSlices of the service
+	 * @param numOfPods Expected number of ready pods
+	 * @param ports Ports the pods are expected to expose
+	 * @return true if no endpoint is not ready, and at least {@code numOfPods} pods expose all the ports
+	 */
+	static boolean areEndpointSlicesReady(List<EndpointSlice> endpointSlices, int numOfPods, Integer... ports) {
+		final Set<String> readyPods = new HashSet<>();
+		for (EndpointSlice slice : endpointSlices) {
+			if (slice.getEndpoints() == null) {
+				continue;
+			}
+			final Set<Integer> portSet = slice.getPorts() == null ? Collections.emptySet()
+					: slice.getPorts().stream()
+							.map(io.fabric8.kubernetes.api.model.discovery.v1.EndpointPort::getPort)
+							.collect(Collectors.toSet());
+			for (Endpoint endpoint : slice.getEndpoints()) {
+				// a missing ready condition must be interpreted as ready
+				if (endpoint.getConditions() != null && Boolean.FALSE.equals(endpoint.getConditions().getReady())) {
 					return false;
 				}
-				long endpointPodsCount = subset.getAddresses().stream()
-						.filter(endpointAddress -> endpointAddress.getTargetRef().getKind().equals("Pod"))
-						.count();
-				if (endpointPodsCount < numOfPods) {
-					return false;
+				if (isPod(endpoint.getTargetRef()) && portSet.containsAll(Arrays.asList(ports))) {
+					readyPods.add(endpoint.getTargetRef().getName());
 				}
-				Set<Integer> portSet = subset.getPorts().stream()
-						.map(EndpointPort::getPort)
-						.collect(Collectors.toSet());
-
-				return portSet.containsAll(Arrays.asList(ports));
 			}
-		})
-				.reason("Wait until the service has all endpoints.");
+		}
+		return readyPods.size() >= numOfPods;
+	}
+
+	private static boolean isPod(ObjectReference reference) {
+		return reference != null && "Pod".equals(reference.getKind());
 	}
 
 	public static Waiter routeIsUp(String routeURL) {
-		return new SimpleWaiter(
-				() -> Https.getCode(routeURL) != 503)
+		return routeIsUp(null, routeURL);
+	}
+
+	/**
+	 * Wait until a route is ready to serve, i.e. it doesn't return 503, see {@link RouteProber}.
+	 *
+	 * @param application Name of the application the route belongs to, used to record the time to the first
+	 *                    successful response. Nothing is recorded if null.
+	 * @param routeURL URL of the route
+	 * @return A {@link Waiter} instance, the route is probed once waiting starts
+	 */
+	public static Waiter routeIsUp(String application, String routeURL) {
+		return routeIsUp(application, routeURL, new RouteProber());
+	}
+
+	/**
+	 * Wait until a route is ready to serve, according to the criteria of the given {@link RouteProber}.
+	 *
+	 * @param application Name of the application the route belongs to, or null
+	 * @param routeURL URL of the route
+	 * @param prober {@link RouteProber} instance holding the readiness criteria
+	 * @return A {@link Waiter} instance, the route is probed once waiting starts
+	 */
+	public static Waiter routeIsUp(String application, String routeURL, RouteProber prober) {
+		final AtomicReference<CompletableFuture<Duration>> probe = new AtomicReference<>();
+		return new SimpleWaiter(() -> {
+			final CompletableFuture<Duration> ready = probe.updateAndGet(
+					current -> current == null ? prober.probe(application, routeURL) : current);
+			return ready.isDone() && !ready.isCompletedExceptionally();
+		})
+				.interval(100)
+				.onFailure(() -> cancel(probe))
+				.onTimeout(() -> cancel(probe))
 				.reason("Wait until the route is ready to serve.");
 	}
+
+	private static void cancel(AtomicReference<CompletableFuture<Duration>> probe) {
+		final CompletableFuture<Duration> current = probe.getAndSet(null);
+		if (current != null) {
+			current.cancel(true);
+		}
+	}
 }
@@ -0,0 +1,290 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.intersmash.provision.ProvisioningReport;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Warms up a deployed application, i.e. drives a mix of requests against it, with bounded concurrency, until its
+ * latency is stable, so that tests don't hit a cold JIT and cold connection pools.
+ *
+ * Latencies are collected in windows of {@link #withWindow(int) a given number of requests}, and the application is
+ * considered warm once the 99th percentile of some consecutive windows changes by no more than
+ * {@link #withTolerance(double) a given ratio}. Warming up is stopped after {@link #withTimeout(Duration) a timeout},
+ * in which case the application is not warm, yet tests can run.
+ * Failed requests are retried with an exponential backoff, and some jitter, and warming up is given up after
+ * {@link #withMaxConsecutiveFailures(int) a given number of consecutive failed requests}, e.g. when the application
+ * is not reachable.
+ *
+ * The warm-up span, the number of requests sent and whether the application is warm are recorded in the
+ * {@link ProvisioningReport}.
+ */
+@Slf4j
+public class WarmUp {
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+	private final List<String> requests = new ArrayList<>();
+	private int concurrency = 4;
+	private int window = 100;
+	private int stableWindows = 2;
+	private double tolerance = 0.1;
+	private Duration timeout = Duration.ofMinutes(2);
+	private Duration initialBackoff = Duration.ofMillis(100);
+	private Duration maxBackoff = Duration.ofSeconds(2);
+	private int maxConsecutiveFailures = 50;
+
+	/**
+	 * Add a request to the mix
+	 *
+	 * @param path Path of the request, relative to the application URL, e.g. {@code /api/items}
+	 * @param weight Relative frequency of the request in the mix
+	 * @return this
+	 */
+	public WarmUp withRequest(final String path, final int weight) {
+		for (int i = 0; i < weight; i++) {
+			requests.add(path);
+		}
+		return this;
+	}
+
+	/**
+	 * @param concurrency Maximum number of requests in flight
+	 * @return this
+	 */
+	public WarmUp withConcurrency(final int concurrency) {
+		this.concurrency = concurrency;
+		return this;
+	}
+
+	/**
+	 * @param window Number of requests the 99th percentile is computed on
+	 * @return this
+	 */
+	public WarmUp withWindow(final int window) {
+		this.window = window;
+		return this;
+	}
+
+	/**
+	 * @param stableWindows Number of consecutive windows whose 99th percentile must be stable
+	 * @return this
+	 */
+	public WarmUp withStableWindows(final int stableWindows) {
+		this.stableWindows = stableWindows;
+		return this;
+	}
+
+	/**
+	 * @param tolerance Maximum relative change of the 99th percentile between consecutive windows, e.g. 0.1 for 10%
+	 * @return this
+	 */
+	public WarmUp withTolerance(final double tolerance) {
+		this.tolerance = tolerance;
+		return this;
+	}
+
+	/**
+	 * @param timeout Maximum warm-up duration
+	 * @return this
+	 */
+	public WarmUp withTimeout(final Duration timeout) {
+		this.timeout = timeout;
+		return this;
+	}
+
+	/**
+	 * @param initialBackoff Delay before sending a new request after the first failed one, doubled for each
+	 *            subsequent consecutive failure
+	 * @param maxBackoff Maximum delay between requests after failures
+	 * @return this
+	 */
+	public WarmUp withBackoff(final Duration initialBackoff, final Duration maxBackoff) {
+		this.initialBackoff = initialBackoff;
+		this.maxBackoff = maxBackoff;
+		return this;
+	}
+
+	/**
+	 * @param maxConsecutiveFailures Number of consecutive failed requests after which warming up is given up
+	 * @return this
+	 */
+	public WarmUp withMaxConsecutiveFailures(final int maxConsecutiveFailures) {
+		this.maxConsecutiveFailures = maxConsecutiveFailures;
+		return this;
+	}
+
+	/**
+	 * Warm up an application, blocking until its latency is stable or the timeout expires.
+	 *
+	 * @param application Name of the application
+	 * @param url Application URL
+	 * @return true if the application latency is stable, false if the timeout expired before
+	 */
+	public boolean run(final String application, final String url) {
+		final List<String> mix = requests.isEmpty() ? Collections.singletonList("/") : new ArrayList<>(requests);
+		final String baseUrl = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+		final Convergence convergence = new Convergence(window, stableWindows, tolerance);
+		final AtomicLong sent = new AtomicLong();
+		final AtomicLong failed = new AtomicLong();
+		final AtomicInteger consecutiveFailures = new AtomicInteger();
+		final AtomicBoolean gaveUp = new AtomicBoolean();
+		final Instant start = Instant.now();
+		final Instant deadline = start.plus(timeout);
+		final ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+		try {
+			for (int i = 0; i < concurrency; i++) {
+				executor.submit(() -> {
+					while (!convergence.isConverged() && !gaveUp.get() && Instant.now().isBefore(deadline)) {
+						final String path = mix.get(ThreadLocalRandom.current().nextInt(mix.size()));
+						final HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+								.timeout(REQUEST_TIMEOUT).GET().build();
+						final long requestStart = System.nanoTime();
+						try {
+							final HttpResponse<Void> response = RouteProber.client().send(request,
+									HttpResponse.BodyHandlers.discarding());
+							sent.incrementAndGet();
+							if (response.statusCode() < 400) {
+								// failed requests, e.g. fast 503s, say nothing about the latency of the warm application
+								convergence.accept(System.nanoTime() - requestStart);
+								consecutiveFailures.set(0);
+								continue;
+							}
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							return;
+						} catch (Exception e) {
+							sent.incrementAndGet();
+						}
+						failed.incrementAndGet();
+						final int failures = consecutiveFailures.incrementAndGet();
+						if (failures >= maxConsecutiveFailures) {
+							gaveUp.set(true);
+							return;
+						}
+						try {
+							Thread.sleep(backoff(failures).toMillis());
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+							return;
+						}
+					}
+				});
+			}
+			executor.shutdown();
+			executor.awaitTermination(timeout.plus(REQUEST_TIMEOUT).toMillis(), TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+		}
+		final boolean warm = convergence.isConverged();
+		ProvisioningReport.span(application, "warm-up", start, Instant.now());
+		ProvisioningReport.metric(application, "warmUp.requests", sent.get());
+		ProvisioningReport.metric(application, "warmUp.failedRequests", failed.get());
+		ProvisioningReport.metric(application, "warmUp.warm", warm ? 1 : 0);
+		if (warm) {
+			log.info("{} is warm after {} requests, p99 {} ms", application, sent.get(),
+					TimeUnit.NANOSECONDS.toMillis(convergence.getLastP99()));
+		} else if (gaveUp.get()) {
+			log.warn("Gave up warming up {} after {} consecutive failed requests, {} out of {} requests failed",
+					application, maxConsecutiveFailures, failed.get(), sent.get());
+		} else {
+			log.warn("{} latency is not stable after {} requests in {}, {} requests failed", application, sent.get(),
+					timeout, failed.get());
+		}
+		return warm;
+	}
+
+	private Duration backoff(final int failures) {
+		final long exponential = initialBackoff.toMillis() << Math.min(failures - 1, 20);
+		final long delay = Math.min(maxBackoff.toMillis(), exponential);
+		// equal jitter, i.e. half of the delay is randomized
+		return Duration.ofMillis(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+	}
+
+	/**
+	 * Convergence check of the 99th percentile latency over consecutive windows of requests.
+	 */
+	static class Convergence {
+		private final int window;
+		private final int stableWindows;
+		private final double tolerance;
+		private final long[] latencies;
+		private int count;
+		private long lastP99 = -1;
+		private int stable;
+		private volatile boolean converged;
+
+		Convergence(final int window, final int stableWindows, final double tolerance) {
+			this.window = window;
+			this.stableWindows = stableWindows;
+			this.tolerance = tolerance;
+			this.latencies = new long[window];
+		}
+
+		/**
+		 * @param latency Latency of a request, in nanoseconds
+		 * @return true once converged
+		 */
+		synchronized boolean accept(final long latency) {
+			if (converged) {
+				return true;
+			}
+			latencies[count++] = latency;
+			if (count == window) {
+				final long[] sorted = Arrays.copyOf(latencies, window);
+				Arrays.sort(sorted);
+				final long p99 = sorted[(int) Math.ceil(0.99 * window) - 1];
+				if (lastP99 > 0 && Math.abs(p99 - lastP99) <= tolerance * lastP99) {
+					stable++;
+				} else {
+					stable = 0;
+				}
+				lastP99 = p99;
+				count = 0;
+				converged = stable >= stableWindows;
+			}
+			return converged;
+		}
+
+		boolean isConverged() {
+			return converged;
+		}
+
+		synchronized long getLastP99() {
+			return lastP99;
+		}
+	}
+}
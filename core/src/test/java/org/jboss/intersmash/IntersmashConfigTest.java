@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verify the {@link IntersmashConfig.Snapshot} resolution, validation and injection.
+ */
+class IntersmashConfigTest {
+
+	@AfterEach
+	public void reset() {
+		IntersmashConfig.inject(null);
+	}
+
+	/**
+	 * Verify that the static getters read the injected snapshot, and that product codes are derived from it
+	 */
+	@Test
+	public void verifyInjectedSnapshot() {
+		// arrange
+		final Map<String, String> properties = Map.of(
+				"intersmash.skip.deploy", "true",
+				"intersmash.builds.parallel", "false",
+				"intersmash.eap7.image", "registry.redhat.io/jboss-eap-7/eap74-openjdk11-openshift-rhel8:7.4",
+				"intersmash.infinispan.image", "quay.io/infinispan/server:14.0");
+
+		// act
+		IntersmashConfig.inject(properties::get);
+
+		// assert
+		Assertions.assertTrue(IntersmashConfig.skipDeploy());
+		Assertions.assertTrue(IntersmashConfig.skipUndeploy());
+		Assertions.assertFalse(IntersmashConfig.parallelBuilds());
+		Assertions.assertFalse(IntersmashConfig.buildCache());
+		Assertions.assertNull(IntersmashConfig.wildflyImageURL());
+		Assertions.assertEquals("eap74", IntersmashConfig.eap7ProductCode());
+		Assertions.assertEquals("server", IntersmashConfig.infinispanProductCode());
+	}
+
+	/**
+	 * Verify that all the invalid values are reported at once
+	 */
+	@Test
+	public void verifyValidation() {
+		// arrange
+		final Map<String, String> properties = Map.of(
+				"intersmash.build.cache", "yes",
+				"intersmash.wildfly.image", "quay.io/wildfly/wildfly s2i");
+
+		// act
+		final IllegalStateException e = Assertions.assertThrows(IllegalStateException.class,
+				() -> IntersmashConfig.inject(properties::get));
+
+		// assert
+		Assertions.assertTrue(e.getMessage().contains("intersmash.build.cache"));
+		Assertions.assertTrue(e.getMessage().contains("intersmash.wildfly.image"));
+	}
+}
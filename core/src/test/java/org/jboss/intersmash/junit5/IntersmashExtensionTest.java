@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.junit5;
+
+import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.jboss.intersmash.annotations.Intersmash;
+import org.jboss.intersmash.annotations.Service;
+import org.jboss.intersmash.application.Application;
+import org.jboss.intersmash.provision.Provisioner;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verify the order in which {@link IntersmashExtension} creates, builds and deploys the services of a test class.
+ */
+class IntersmashExtensionTest {
+	private static final List<String> EVENTS = new ArrayList<>();
+
+	/**
+	 * Verify that each service is created and then deployed in turn by default
+	 */
+	@Test
+	public void verifySequentialProvisioning() throws InterruptedException {
+		// arrange
+		EVENTS.clear();
+		final Map<String, Provisioner> store = new HashMap<>();
+
+		// act
+		new RecordingExtension().provision(services(), store, true, false);
+
+		// assert
+		Assertions.assertEquals(List.of("create First", "deploy First", "create Second", "deploy Second"), EVENTS);
+		Assertions.assertEquals(2, store.size());
+	}
+
+	/**
+	 * Verify that all the services are created, then built, before any of them is deployed, when builds are parallel
+	 */
+	@Test
+	public void verifyParallelProvisioning() throws InterruptedException {
+		// arrange
+		EVENTS.clear();
+
+		// act
+		new RecordingExtension().provision(services(), new HashMap<>(), true, true);
+
+		// assert
+		Assertions.assertEquals(List.of("create First", "create Second", "build First,Second", "deploy First",
+				"deploy Second"), EVENTS);
+	}
+
+	/**
+	 * Verify that services are only created when the deployment is skipped, regardless of parallel builds
+	 */
+	@Test
+	public void verifySkippedDeployment() throws InterruptedException {
+		// arrange
+		EVENTS.clear();
+
+		// act
+		new RecordingExtension().provision(services(), new HashMap<>(), false, true);
+
+		// assert
+		Assertions.assertEquals(List.of("create First", "create Second"), EVENTS);
+	}
+
+	private static Service[] services() {
+		return Services.class.getAnnotation(Intersmash.class).value();
+	}
+
+	@Intersmash({ @Service(First.class), @Service(Second.class) })
+	static class Services {
+	}
+
+	public static class First implements Application {
+		public First() {
+			EVENTS.add("create " + getName());
+		}
+
+		@Override
+		public String getName() {
+			return getClass().getSimpleName();
+		}
+	}
+
+	public static class Second extends First {
+	}
+
+	/**
+	 * Records the provisioning steps rather than interacting with a cluster
+	 */
+	static class RecordingExtension extends IntersmashExtension {
+		@Override
+		Provisioner createProvisioner(Service service, Map<String, Provisioner> store) {
+			final Application application;
+			try {
+				application = service.value().getConstructor().newInstance();
+			} catch (InstantiationException | IllegalAccessException | NoSuchMethodException
+					| InvocationTargetException e) {
+				throw new IllegalStateException(e);
+			}
+			final Provisioner provisioner = new RecordingProvisioner(application);
+			store.put(application.getClass().getName(), provisioner);
+			return provisioner;
+		}
+
+		@Override
+		void buildApplications(List<Provisioner> provisioners) {
+			EVENTS.add("build " + provisioners.stream().map(provisioner -> provisioner.getApplication().getName())
+					.collect(Collectors.joining(",")));
+		}
+
+		@Override
+		void deployApplication(Provisioner provisioner) {
+			EVENTS.add("deploy " + provisioner.getApplication().getName());
+		}
+	}
+
+	static class RecordingProvisioner implements Provisioner<Application> {
+		private final Application application;
+
+		RecordingProvisioner(final Application application) {
+			this.application = application;
+		}
+
+		@Override
+		public Application getApplication() {
+			return application;
+		}
+
+		@Override
+		public void preDeploy() {
+		}
+
+		@Override
+		public void deploy() {
+		}
+
+		@Override
+		public void undeploy() {
+		}
+
+		@Override
+		public void postUndeploy() {
+		}
+
+		@Override
+		public URL getURL() {
+			return null;
+		}
+	}
+}
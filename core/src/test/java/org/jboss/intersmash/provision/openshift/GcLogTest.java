@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verify the parsing of unified GC logs by {@link GcLog}.
+ */
+class GcLogTest {
+
+	/**
+	 * Verify pause percentiles, allocation rate and heap occupancy of a G1 log, and that unrelated lines are ignored
+	 */
+	@Test
+	public void verifyG1Log() {
+		// arrange
+		final List<String> lines = Arrays.asList(
+				"[0.005s][info][gc,init] Version: 17.0.8+7 (release)",
+				"[0.010s][info][gc     ] Using G1",
+				"[1.000s][info][gc,start    ] GC(0) Pause Young (Normal) (G1 Evacuation Pause)",
+				"[1.000s][info][gc,heap     ] GC(0) Eden regions: 24->0(20)",
+				"[1.000s][info][gc          ] GC(0) Pause Young (Normal) (G1 Evacuation Pause) 24M->4M(256M) 5.000ms",
+				"[2.000s][info][gc          ] GC(1) Pause Young (Normal) (G1 Evacuation Pause) 28M->6M(256M) 3.000ms",
+				"[3.000s][info][gc          ] GC(2) Pause Young (Concurrent Start) (G1 Humongous Allocation) 30M->8M(256M) 20.000ms",
+				"[3.500s][info][gc          ] GC(3) Concurrent Mark Cycle 12.345ms",
+				"[4.000s][info][gc          ] GC(3) Pause Remark 10M->9M(256M) 1.000ms",
+				"12:00:00,000 INFO  [org.jboss.as] (Controller Boot Thread) WFLYSRV0025: started");
+
+		// act
+		final GcLog gcLog = GcLog.parse(lines);
+
+		// assert
+		Assertions.assertEquals(Arrays.asList(5.0, 3.0, 20.0, 1.0), gcLog.getPauses());
+		Assertions.assertEquals(29.0, gcLog.getTotalPause(), 0.001);
+		Assertions.assertEquals(3.0, gcLog.getPausePercentile(0.5), 0.001);
+		Assertions.assertEquals(20.0, gcLog.getPausePercentile(0.99), 0.001);
+		// 24 + (28 - 4) + (30 - 6) + (10 - 8) MB allocated in 4 s
+		Assertions.assertEquals(74.0 / 4, gcLog.getAllocationRate(), 0.001);
+		Assertions.assertEquals(Arrays.asList(4.0, 6.0, 8.0, 9.0), gcLog.getHeapAfterGc());
+	}
+
+	/**
+	 * Verify that the GC logging options are appended to existing JVM options
+	 */
+	@Test
+	public void verifyJvmOptions() {
+		Assertions.assertEquals(GcLog.JVM_OPTIONS, GcLog.withJvmOptions(null));
+		Assertions.assertEquals("-Xmx1g " + GcLog.JVM_OPTIONS, GcLog.withJvmOptions("-Xmx1g"));
+	}
+
+	/**
+	 * Verify that the GC logging options aren't appended for images running Java 8, which don't support {@code -Xlog}
+	 */
+	@Test
+	public void verifyJava8JvmOptions() {
+		// arrange
+		final String eap74 = "registry.redhat.io/jboss-eap-7/eap74-openjdk8-openshift-rhel7:latest";
+		final String eap74Jdk11 = "registry.redhat.io/jboss-eap-7/eap74-openjdk11-openshift-rhel8:latest";
+		final String keycloak = "quay.io/keycloak/keycloak:22.0";
+
+		// act / assert
+		Assertions.assertEquals("-Xmx1g", GcLog.withJvmOptions("-Xmx1g", eap74));
+		Assertions.assertNull(GcLog.withJvmOptions(null, eap74));
+		Assertions.assertEquals("-Xmx1g " + GcLog.JVM_OPTIONS, GcLog.withJvmOptions("-Xmx1g", eap74Jdk11));
+		Assertions.assertEquals(GcLog.JVM_OPTIONS, GcLog.withJvmOptions(null, keycloak));
+		Assertions.assertEquals(GcLog.JVM_OPTIONS, GcLog.withJvmOptions(null, null));
+		Assertions.assertTrue(GcLog.isJava8("registry.access.redhat.com/ubi8/openjdk-8:1.15"));
+		Assertions.assertFalse(GcLog.isJava8("registry.access.redhat.com/ubi8/openjdk-17:1.15"));
+	}
+}
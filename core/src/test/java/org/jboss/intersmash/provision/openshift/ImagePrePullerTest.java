@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.fabric8.kubernetes.api.model.ContainerStatus;
+import io.fabric8.kubernetes.api.model.ContainerStatusBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodStatusBuilder;
+import io.fabric8.kubernetes.api.model.apps.DaemonSet;
+
+/**
+ * Verify the {@link ImagePrePuller} DaemonSet and its pull completion check.
+ */
+class ImagePrePullerTest {
+
+	/**
+	 * Verify that the DaemonSet pod has a container for each image, pulled only if not present
+	 */
+	@Test
+	public void verifyDaemonSet() {
+		// act
+		final DaemonSet daemonSet = ImagePrePuller.daemonSet(Arrays.asList("quay.io/a/b:1", "quay.io/c/d:2"));
+
+		// assert
+		Assertions.assertEquals(ImagePrePuller.NAME, daemonSet.getMetadata().getName());
+		Assertions.assertEquals(2, daemonSet.getSpec().getTemplate().getSpec().getContainers().size());
+		Assertions.assertEquals("quay.io/c/d:2", daemonSet.getSpec().getTemplate().getSpec().getContainers().get(1).getImage());
+		Assertions.assertTrue(daemonSet.getSpec().getTemplate().getSpec().getContainers().stream()
+				.allMatch(container -> "IfNotPresent".equals(container.getImagePullPolicy())));
+	}
+
+	/**
+	 * Verify that a pod is pulled once no container is waiting for its image, whether the image could be pulled or not
+	 */
+	@Test
+	public void verifyPullCompletion() {
+		// arrange
+		final DaemonSet daemonSet = ImagePrePuller.daemonSet(Arrays.asList("quay.io/a/b:1", "quay.io/c/d:2"));
+		final ContainerStatus running = new ContainerStatusBuilder().withNewState().withNewRunning().endRunning()
+				.endState().build();
+		final ContainerStatus crashing = waiting("CrashLoopBackOff");
+		final ContainerStatus creating = waiting("ContainerCreating");
+		final ContainerStatus failed = waiting("ImagePullBackOff");
+
+		// act, assert
+		Assertions.assertFalse(ImagePrePuller.isPulled(pod(daemonSet, running)));
+		Assertions.assertFalse(ImagePrePuller.isPulled(pod(daemonSet, running, creating)));
+		Assertions.assertTrue(ImagePrePuller.isPulled(pod(daemonSet, running, crashing)));
+		Assertions.assertTrue(ImagePrePuller.isPulled(pod(daemonSet, failed, crashing)));
+	}
+
+	private static ContainerStatus waiting(final String reason) {
+		return new ContainerStatusBuilder().withNewState().withNewWaiting().withReason(reason).endWaiting().endState()
+				.build();
+	}
+
+	private static Pod pod(final DaemonSet daemonSet, final ContainerStatus... statuses) {
+		final Pod pod = new Pod();
+		pod.setSpec(daemonSet.getSpec().getTemplate().getSpec());
+		pod.setStatus(new PodStatusBuilder().withContainerStatuses(statuses).build());
+		return pod;
+	}
+}
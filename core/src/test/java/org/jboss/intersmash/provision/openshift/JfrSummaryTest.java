@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+
+/**
+ * Verify the {@link JfrSummary} of a recording of the test JVM.
+ */
+class JfrSummaryTest {
+
+	/**
+	 * Verify that hot methods and GC pauses are summarized, and written as text
+	 */
+	@Test
+	public void verifySummary(@TempDir Path tempDir) throws IOException {
+		// arrange
+		final Path file = tempDir.resolve("test.jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("jdk.ExecutionSample").withPeriod(Duration.ofMillis(10));
+			recording.enable("jdk.ObjectAllocationSample");
+			recording.enable("jdk.GarbageCollection");
+			recording.start();
+			burn(Duration.ofSeconds(1));
+			System.gc();
+			recording.stop();
+			recording.dump(file);
+		}
+
+		// act
+		final JfrSummary summary = JfrSummary.read(file);
+		summary.write(tempDir.resolve("test.txt"));
+
+		// assert
+		Assertions.assertFalse(summary.getHotMethods().isEmpty());
+		Assertions.assertTrue(summary.getHotMethods().size() <= JfrSummary.TOP);
+		Assertions.assertFalse(summary.getGcPauses().isEmpty());
+		final String text = Files.readString(tempDir.resolve("test.txt"));
+		Assertions.assertTrue(text.contains("Hot methods"));
+		Assertions.assertTrue(text.contains("Allocation sites"));
+		Assertions.assertTrue(text.contains("GC pauses\n  count: " + summary.getGcPauses().size()));
+	}
+
+	private static long burn(final Duration duration) {
+		final long deadline = System.nanoTime() + duration.toNanos();
+		long hash = 0;
+		while (System.nanoTime() < deadline) {
+			final List<String> values = new ArrayList<>();
+			for (int i = 0; i < 1000; i++) {
+				values.add(Integer.toHexString(i * 31));
+			}
+			hash += values.hashCode();
+		}
+		return hash;
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.fabric8.kubernetes.api.model.Event;
+import io.fabric8.kubernetes.api.model.EventBuilder;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+
+/**
+ * Verify the {@link PodStartup} breakdown of pods conditions and events.
+ */
+class PodStartupTest {
+
+	/**
+	 * Verify the duration of each phase of a pod whose image has been pulled
+	 */
+	@Test
+	public void verifyBreakdown() {
+		// arrange
+		final Pod pod = pod("app-1", "2023-01-01T00:00:00Z", "2023-01-01T00:00:02Z", "2023-01-01T00:00:40Z",
+				"2023-01-01T00:01:00Z");
+		final List<Event> events = Arrays.asList(
+				event("Scheduled", "2023-01-01T00:00:02Z"),
+				event("Pulling", "2023-01-01T00:00:03Z"),
+				event("Pulled", "2023-01-01T00:00:33Z"),
+				event("Started", "2023-01-01T00:00:40Z"));
+
+		// act
+		final Map<String, Duration> phases = PodStartup.of(pod, events).getPhases();
+
+		// assert
+		Assertions.assertEquals(Duration.ofSeconds(2), phases.get(PodStartup.SCHEDULING));
+		Assertions.assertEquals(Duration.ofSeconds(30), phases.get(PodStartup.IMAGE_PULL));
+		Assertions.assertEquals(Duration.ofSeconds(7), phases.get(PodStartup.CONTAINER_START));
+		Assertions.assertEquals(Duration.ofSeconds(20), phases.get(PodStartup.READINESS));
+		Assertions.assertEquals(Duration.ofSeconds(60), phases.get(PodStartup.TOTAL));
+	}
+
+	/**
+	 * Verify that the image pull takes no time when the image is already present, and that phases are aggregated
+	 * across replicas
+	 */
+	@Test
+	public void verifyCachedImageAndAggregation() {
+		// arrange
+		final PodStartup pulled = PodStartup.of(
+				pod("app-1", "2023-01-01T00:00:00Z", "2023-01-01T00:00:01Z", "2023-01-01T00:00:31Z",
+						"2023-01-01T00:00:41Z"),
+				Arrays.asList(event("Pulling", "2023-01-01T00:00:01Z"), event("Pulled", "2023-01-01T00:00:30Z")));
+		final PodStartup cached = PodStartup.of(
+				pod("app-2", "2023-01-01T00:00:00Z", "2023-01-01T00:00:01Z", "2023-01-01T00:00:03Z",
+						"2023-01-01T00:00:13Z"),
+				Collections.singletonList(event("Pulled", "2023-01-01T00:00:02Z")));
+
+		// act
+		final Map<String, List<Duration>> aggregated = PodStartup.aggregate(Arrays.asList(pulled, cached));
+
+		// assert
+		Assertions.assertEquals(Duration.ZERO, cached.getPhases().get(PodStartup.IMAGE_PULL));
+		Assertions.assertEquals(Duration.ofSeconds(2), cached.getPhases().get(PodStartup.CONTAINER_START));
+		Assertions.assertEquals(Arrays.asList(Duration.ofSeconds(29), Duration.ZERO),
+				aggregated.get(PodStartup.IMAGE_PULL));
+		Assertions.assertEquals(Arrays.asList(Duration.ofSeconds(10), Duration.ofSeconds(10)),
+				aggregated.get(PodStartup.READINESS));
+	}
+
+	/**
+	 * Verify that the image pull ends at the last occurrence of aggregated {@code Pulled} events, e.g. when the
+	 * images of many containers are pulled
+	 */
+	@Test
+	public void verifyAggregatedEvents() {
+		// arrange
+		final Pod pod = pod("app-1", "2023-01-01T00:00:00Z", "2023-01-01T00:00:01Z", "2023-01-01T00:00:40Z",
+				"2023-01-01T00:01:00Z");
+		final List<Event> events = Arrays.asList(
+				event("Pulling", "2023-01-01T00:00:02Z"),
+				new EventBuilder().withReason("Pulled").withCount(2).withFirstTimestamp("2023-01-01T00:00:10Z")
+						.withLastTimestamp("2023-01-01T00:00:30Z").build(),
+				new EventBuilder().withReason("Started").withNewSeries().withCount(2)
+						.withNewLastObservedTime("2023-01-01T00:00:40Z").endSeries()
+						.withNewEventTime("2023-01-01T00:00:35Z").build());
+
+		// act
+		final Map<String, Duration> phases = PodStartup.of(pod, events).getPhases();
+
+		// assert
+		Assertions.assertEquals(Duration.ofSeconds(28), phases.get(PodStartup.IMAGE_PULL));
+		Assertions.assertEquals(Duration.ofSeconds(10), phases.get(PodStartup.CONTAINER_START));
+	}
+
+	private static Pod pod(final String name, final String created, final String scheduled, final String running,
+			final String ready) {
+		return new PodBuilder()
+				.withNewMetadata().withName(name).withCreationTimestamp(created).endMetadata()
+				.withNewStatus()
+				.addNewCondition().withType("PodScheduled").withStatus("True").withLastTransitionTime(scheduled)
+				.endCondition()
+				.addNewCondition().withType("Ready").withStatus("True").withLastTransitionTime(ready).endCondition()
+				.addNewContainerStatus().withName("app").withNewState().withNewRunning().withStartedAt(running)
+				.endRunning().endState().endContainerStatus()
+				.endStatus()
+				.build();
+	}
+
+	private static Event event(final String reason, final String timestamp) {
+		return new EventBuilder().withReason(reason).withFirstTimestamp(timestamp).build();
+	}
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.intersmash.provision.ProvisioningReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Verify the {@link RouteProber} readiness criteria against a local HTTP server.
+ */
+class RouteProberTest {
+
+	private HttpServer server;
+	private String baseUrl;
+
+	@BeforeEach
+	public void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.start();
+		baseUrl = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+	}
+
+	@AfterEach
+	public void stopServer() {
+		server.stop(0);
+	}
+
+	/**
+	 * Verify that 503 responses are retried, and that the required number of consecutive successes is awaited
+	 */
+	@Test
+	public void verifyConsecutiveSuccesses() throws Exception {
+		// arrange
+		final AtomicInteger requests = respondWith("/app", 503, 503, 200, 503, 200, 200, 200);
+		final RouteProber prober = fastProber().withConsecutiveSuccesses(3);
+
+		// act
+		prober.probe("route-prober-app", baseUrl + "/app").get(10, TimeUnit.SECONDS);
+
+		// assert
+		Assertions.assertEquals(7, requests.get());
+		Assertions.assertTrue(ProvisioningReport.getMetrics("route-prober-app")
+				.containsKey(RouteProber.FIRST_SUCCESS_METRIC));
+	}
+
+	/**
+	 * Verify the status code and body criteria
+	 */
+	@Test
+	public void verifyStatusAndBody() throws Exception {
+		// arrange
+		final AtomicInteger requests = respondWith("/body", 404, 200, 200);
+		final RouteProber prober = fastProber()
+				.withExpectedStatus(200)
+				.withBody(body -> body.endsWith("2"));
+
+		// act
+		prober.probe(null, baseUrl + "/body").get(10, TimeUnit.SECONDS);
+
+		// assert
+		Assertions.assertEquals(3, requests.get());
+	}
+
+	/**
+	 * Verify that many routes are probed concurrently, until all of them are ready
+	 */
+	@Test
+	public void verifyConcurrentProbes() throws Exception {
+		// arrange
+		final AtomicInteger first = respondWith("/first", 200);
+		final AtomicInteger second = respondWith("/second", 503, 503, 503, 200);
+		final Map<String, String> routes = new LinkedHashMap<>();
+		routes.put(baseUrl + "/first", "first");
+		routes.put(baseUrl + "/second", "second");
+
+		// act
+		fastProber().probeAll(routes).get(10, TimeUnit.SECONDS);
+
+		// assert
+		Assertions.assertEquals(1, first.get());
+		Assertions.assertEquals(4, second.get());
+	}
+
+	private static RouteProber fastProber() {
+		return new RouteProber()
+				.withBackoff(Duration.ofMillis(10), Duration.ofMillis(50))
+				.withSuccessInterval(Duration.ofMillis(10));
+	}
+
+	/**
+	 * Serve the given status codes in sequence, repeating the last one, with the request number as the body
+	 */
+	private AtomicInteger respondWith(final String path, final int... statuses) {
+		final AtomicInteger requests = new AtomicInteger();
+		server.createContext(path, exchange -> {
+			final int request = requests.getAndIncrement();
+			final byte[] body = String.valueOf(request).getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(statuses[Math.min(request, statuses.length - 1)], body.length);
+			try (OutputStream os = exchange.getResponseBody()) {
+				os.write(body);
+			}
+		});
+		return requests;
+	}
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.fabric8.kubernetes.api.model.EndpointAddressBuilder;
+import io.fabric8.kubernetes.api.model.EndpointSubset;
+import io.fabric8.kubernetes.api.model.EndpointSubsetBuilder;
+import io.fabric8.kubernetes.api.model.Endpoints;
+import io.fabric8.kubernetes.api.model.EndpointsBuilder;
+import io.fabric8.kubernetes.api.model.discovery.v1.EndpointBuilder;
+import io.fabric8.kubernetes.api.model.discovery.v1.EndpointSlice;
+import io.fabric8.kubernetes.api.model.discovery.v1.EndpointSliceBuilder;
+
+/**
+ * Verify the evaluation of service readiness by {@link WaitersUtil}.
+ */
+class WaitersUtilTest {
+
+	/**
+	 * Verify that all the Endpoints subsets are taken into account
+	 */
+	@Test
+	public void verifyEndpointsSubsets() {
+		// arrange
+		final Endpoints twoSubsets = endpoints(subset(8080, "pod-1", "pod-2"), subset(9990, "pod-3"));
+		final Endpoints notReady = endpoints(subset(8080, "pod-1"),
+				new EndpointSubsetBuilder(subset(8080, "pod-2"))
+						.withNotReadyAddresses(new EndpointAddressBuilder().withIp("10.0.0.3")
+								.withNewTargetRef().withKind("Pod").withName("pod-3").endTargetRef().build())
+						.build());
+
+		// act, assert
+		Assertions.assertTrue(WaitersUtil.areEndpointsReady(twoSubsets, 2, 8080));
+		Assertions.assertFalse(WaitersUtil.areEndpointsReady(twoSubsets, 3, 8080));
+		Assertions.assertTrue(WaitersUtil.areEndpointsReady(twoSubsets, 1, 9990));
+		Assertions.assertFalse(WaitersUtil.areEndpointsReady(notReady, 1, 8080));
+		Assertions.assertFalse(WaitersUtil.areEndpointsReady(null, 0, 8080));
+		Assertions.assertTrue(WaitersUtil.areEndpointsReady(endpoints(), 0, 8080));
+	}
+
+	/**
+	 * Verify the evaluation of EndpointSlices, where a missing ready condition means ready
+	 */
+	@Test
+	public void verifyEndpointSlices() {
+		// arrange
+		final EndpointSlice ready = slice(8080, true, "pod-1", "pod-2");
+		final EndpointSlice readyByDefault = slice(8080, null, "pod-3");
+		final EndpointSlice notReady = slice(8080, false, "pod-4");
+
+		// act, assert
+		Assertions.assertTrue(WaitersUtil.areEndpointSlicesReady(Arrays.asList(ready, readyByDefault), 3, 8080));
+		Assertions.assertFalse(WaitersUtil.areEndpointSlicesReady(Arrays.asList(ready, readyByDefault), 3, 9990));
+		Assertions.assertFalse(WaitersUtil.areEndpointSlicesReady(Arrays.asList(ready, notReady), 2, 8080));
+		Assertions.assertTrue(WaitersUtil.areEndpointSlicesReady(Collections.emptyList(), 0, 8080));
+	}
+
+	private static Endpoints endpoints(final EndpointSubset... subsets) {
+		return new EndpointsBuilder().withNewMetadata().withName("app").endMetadata().withSubsets(subsets).build();
+	}
+
+	private static EndpointSubset subset(final int port, final String... pods) {
+		final EndpointSubsetBuilder builder = new EndpointSubsetBuilder().addNewPort().withPort(port).endPort();
+		Arrays.stream(pods).forEach(pod -> builder.addNewAddress().withIp("10.0.0.1")
+				.withNewTargetRef().withKind("Pod").withName(pod).endTargetRef().endAddress());
+		return builder.build();
+	}
+
+	private static EndpointSlice slice(final int port, final Boolean ready, final String... pods) {
+		final EndpointSliceBuilder builder = new EndpointSliceBuilder().withAddressType("IPv4")
+				.addNewPort().withPort(port).endPort();
+		Arrays.stream(pods).forEach(pod -> builder.addToEndpoints(new EndpointBuilder().withAddresses("10.0.0.1")
+				.withNewConditions().withReady(ready).endConditions()
+				.withNewTargetRef().withKind("Pod").withName(pod).endTargetRef().build()));
+		return builder.build();
+	}
+}
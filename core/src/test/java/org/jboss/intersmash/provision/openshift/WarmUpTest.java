@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.intersmash.provision.ProvisioningReport;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Verify the {@link WarmUp} convergence check, and the warm-up of a local HTTP server.
+ */
+class WarmUpTest {
+
+	/**
+	 * Verify that the 99th percentile must be stable over consecutive windows, after an initial slow phase
+	 */
+	@Test
+	public void verifyConvergence() {
+		// arrange
+		final WarmUp.Convergence convergence = new WarmUp.Convergence(10, 2, 0.1);
+
+		// act, assert
+		feed(convergence, 10, 500); // cold window
+		Assertions.assertFalse(convergence.isConverged());
+		feed(convergence, 10, 100); // p99 drops, not stable
+		Assertions.assertFalse(convergence.isConverged());
+		feed(convergence, 10, 105); // first stable window
+		Assertions.assertFalse(convergence.isConverged());
+		feed(convergence, 10, 100); // second stable window
+		Assertions.assertTrue(convergence.isConverged());
+	}
+
+	/**
+	 * Verify that the request mix is sent to the application until it is warm, and that the report is updated
+	 */
+	@Test
+	public void verifyWarmUp() throws IOException {
+		// arrange
+		final AtomicInteger requests = new AtomicInteger();
+		final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext("/ping", exchange -> {
+			requests.incrementAndGet();
+			exchange.sendResponseHeaders(204, -1);
+			exchange.close();
+		});
+		server.start();
+		final String url = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+		try {
+			// act
+			final boolean warm = new WarmUp()
+					.withRequest("/ping", 1)
+					.withConcurrency(2)
+					.withWindow(20)
+					.withTolerance(10)
+					.withTimeout(Duration.ofSeconds(30))
+					.run("warm-up-app", url);
+
+			// assert
+			Assertions.assertTrue(warm);
+			Assertions.assertTrue(requests.get() >= 60);
+			Assertions.assertEquals(1, ProvisioningReport.getMetrics("warm-up-app").get("warmUp.warm"));
+			Assertions.assertEquals("warm-up", ProvisioningReport.getSpans("warm-up-app").get(0).getName());
+		} finally {
+			server.stop(0);
+		}
+	}
+
+	/**
+	 * Verify that an application which fails fast, with stable errors, is not reported as warm, and that warming up
+	 * is given up after some consecutive failed requests, rather than hammering the application until the timeout
+	 */
+	@Test
+	public void verifyFailingApplication() throws IOException {
+		// arrange
+		final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		server.createContext("/", exchange -> {
+			exchange.sendResponseHeaders(503, -1);
+			exchange.close();
+		});
+		server.start();
+		final String url = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+		try {
+			// act
+			final long start = System.nanoTime();
+			final boolean warm = new WarmUp()
+					.withConcurrency(2)
+					.withWindow(20)
+					.withTolerance(10)
+					.withBackoff(Duration.ofMillis(10), Duration.ofMillis(50))
+					.withMaxConsecutiveFailures(5)
+					.withTimeout(Duration.ofSeconds(30))
+					.run("failing-app", url);
+			final Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+			// assert
+			Assertions.assertFalse(warm);
+			Assertions.assertTrue(elapsed.compareTo(Duration.ofSeconds(10)) < 0, elapsed.toString());
+			Assertions.assertTrue(ProvisioningReport.getMetrics("failing-app").get("warmUp.requests").longValue() <= 6);
+			Assertions.assertEquals(0, ProvisioningReport.getMetrics("failing-app").get("warmUp.warm"));
+			Assertions.assertEquals(ProvisioningReport.getMetrics("failing-app").get("warmUp.requests"),
+					ProvisioningReport.getMetrics("failing-app").get("warmUp.failedRequests"));
+		} finally {
+			server.stop(0);
+		}
+	}
+
+	private static void feed(final WarmUp.Convergence convergence, final int count, final long millis) {
+		for (int i = 0; i < count; i++) {
+			convergence.accept(TimeUnit.MILLISECONDS.toNanos(millis));
+		}
+	}
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.jboss.intersmash.junit5.HyperfoilBenchmarkExtension;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Run a Hyperfoil benchmark before a test method, against the applications deployed by {@link Intersmash}, e.g.
+ * <pre>
+ *     &#64;Test
+ *     &#64;HyperfoilBenchmark("benchmarks/hello-world.hf.yaml")
+ *     public void helloWorld(RunStatistics statistics) {
+ *         ...
+ *     }
+ * </pre>
+ * The benchmark is rendered from a YAML template whose {@code ${ServiceUrl:<application>}} placeholders are
+ * replaced by the URLs of the deployed applications, the application being referenced by its simple or fully
+ * qualified class name. It's then uploaded, unless the Hyperfoil controller holds the same definition already, run,
+ * and waited for.
+ *
+ * The run statistics are bound to the test method parameters of type {@code RunStatistics}, and the run to
+ * the parameters of type {@code Run}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@ExtendWith(HyperfoilBenchmarkExtension.class)
+public @interface HyperfoilBenchmark {
+	/**
+	 * @return Class path resource of the benchmark YAML template
+	 */
+	String value();
+
+	/**
+	 * @return Hyperfoil application class, only needed when more than one Hyperfoil is deployed
+	 */
+	Class<?> hyperfoil() default void.class;
+
+	/**
+	 * @return Template parameters of the run, as {@code NAME=value}
+	 */
+	String[] params() default {};
+
+	/**
+	 * @return Maximum duration of the run, in seconds, it's killed and the test fails afterwards
+	 */
+	long timeout() default 600;
+
+	/**
+	 * @return true if the per-interval statistics are read as well, e.g. for the {@code RegressionDetector}, false
+	 *         otherwise (default)
+	 */
+	boolean series() default false;
+}
@@ -75,4 +75,17 @@ public interface WildflyImageOpenShiftApplication extends WildflyOpenShiftApplic
 	default Path prepareProjectSources(Path mavenProjectRoot) {
 		return mavenProjectRoot;
 	};
+
+	/**
+	 * Override this in the implementation class to return true in case you want the CLI script returned by
+	 * {@link #getCliScript()} to be applied during the S2I build, so that the application image already holds the
+	 * configured server and pods don't run the script at every start.
+	 * This only works when performing a binary build from local sources which don't provide their own
+	 * {@code .s2i/bin/assemble} script, otherwise the script is applied when pods start.
+	 *
+	 * @return true if the CLI script should be applied at build time, false otherwise (default)
+	 */
+	default boolean isCliScriptAppliedAtBuildTime() {
+		return false;
+	}
 }
@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.junit5;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.jboss.intersmash.annotations.HyperfoilBenchmark;
+import org.jboss.intersmash.provision.Provisioner;
+import org.jboss.intersmash.provision.openshift.HyperfoilOperatorProvisioner;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.BenchmarkDefinition;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.RunStatistics;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.RunStatisticsWrapper;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.HyperfoilApi;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.invoker.ApiException;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.model.Run;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolutionException;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.slf4j.event.Level;
+
+import cz.xtf.core.waiting.SimpleWaiter;
+import cz.xtf.core.waiting.WaiterException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the benchmarks requested by {@link HyperfoilBenchmark}, and binds their results to the test method
+ * parameters.
+ */
+@Slf4j
+public class HyperfoilBenchmarkExtension implements BeforeEachCallback, ParameterResolver {
+
+	private static final Namespace NAMESPACE = Namespace.create("org", "jboss", "intersmash", "HyperfoilBenchmarkExtension");
+	private static final String RUN = "HYPERFOIL_RUN";
+	private static final String STATISTICS = "HYPERFOIL_RUN_STATISTICS";
+
+	@Override
+	public void beforeEach(ExtensionContext extensionContext) throws Exception {
+		HyperfoilBenchmark benchmark = AnnotationSupport
+				.findAnnotation(extensionContext.getRequiredTestMethod(), HyperfoilBenchmark.class)
+				.orElseThrow(() -> new IllegalStateException("Test method is not annotated with @HyperfoilBenchmark"));
+		Map<String, Provisioner> provisioners = IntersmashExtension.getProvisioners(extensionContext);
+		HyperfoilOperatorProvisioner hyperfoil = hyperfoil(provisioners, benchmark);
+		HyperfoilApi api = hyperfoil.getHyperfoilApi();
+
+		BenchmarkDefinition definition = BenchmarkDefinition.fromResource(benchmark.value(),
+				application -> serviceUrl(provisioners, application));
+		if (hyperfoil.getAgents() != null) {
+			definition = definition.withAgents(hyperfoil.getAgents());
+		}
+		definition.upload(api);
+
+		Run run = api.startBenchmark(definition.getName(), extensionContext.getDisplayName(), null, null,
+				Arrays.asList(benchmark.params()));
+		log.info("Hyperfoil run {} of benchmark {} started", run.getId(), definition.getName());
+		String runId = run.getId();
+		try {
+			new SimpleWaiter(() -> isCompleted(api, runId))
+					.reason("Wait for Hyperfoil run " + runId + " to complete")
+					.timeout(benchmark.timeout() * 1000)
+					.interval(5000L)
+					.level(Level.DEBUG)
+					.waitFor();
+		} catch (WaiterException e) {
+			api.killRun(runId);
+			throw new IllegalStateException(String.format("Hyperfoil run %s didn't complete in %d seconds, it was killed",
+					runId, benchmark.timeout()), e);
+		}
+
+		Set<RunStatisticsWrapper.Section> sections = EnumSet.copyOf(RunStatisticsWrapper.DEFAULT_SECTIONS);
+		if (benchmark.series()) {
+			sections.add(RunStatisticsWrapper.Section.SERIES);
+		}
+		ExtensionContext.Store store = extensionContext.getStore(NAMESPACE);
+		store.put(RUN, api.getRun(runId));
+		store.put(STATISTICS, RunStatistics.read(api.getAllStats(runId), sections));
+	}
+
+	@Override
+	public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+		Class<?> type = parameterContext.getParameter().getType();
+		return type == RunStatistics.class || type == Run.class;
+	}
+
+	@Override
+	public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+		Class<?> type = parameterContext.getParameter().getType();
+		Object value = extensionContext.getStore(NAMESPACE).get(type == Run.class ? RUN : STATISTICS);
+		if (value == null) {
+			throw new ParameterResolutionException("No Hyperfoil run for " + extensionContext.getDisplayName());
+		}
+		return value;
+	}
+
+	private static HyperfoilOperatorProvisioner hyperfoil(Map<String, Provisioner> provisioners,
+			HyperfoilBenchmark benchmark) {
+		Map<String, HyperfoilOperatorProvisioner> hyperfoils = provisioners.entrySet().stream()
+				.filter(entry -> entry.getValue() instanceof HyperfoilOperatorProvisioner)
+				.filter(entry -> benchmark.hyperfoil() == void.class
+						|| benchmark.hyperfoil().getName().equals(entry.getKey()))
+				.collect(Collectors.toMap(Map.Entry::getKey, entry -> (HyperfoilOperatorProvisioner) entry.getValue()));
+		if (hyperfoils.size() != 1) {
+			throw new IllegalStateException(String.format(
+					"Expected exactly one Hyperfoil application for the benchmark, found %s", hyperfoils.keySet()));
+		}
+		return hyperfoils.values().iterator().next();
+	}
+
+	/**
+	 * @param application Simple or fully qualified class name of an application
+	 */
+	static String serviceUrl(Map<String, Provisioner> provisioners, String application) {
+		return provisioners.entrySet().stream()
+				.filter(entry -> entry.getKey().equals(application) || entry.getKey().endsWith("." + application)
+						|| entry.getKey().endsWith("$" + application))
+				.map(entry -> entry.getValue().getURL())
+				.filter(url -> url != null)
+				.map(url -> url.toExternalForm())
+				.findFirst()
+				.orElse(null);
+	}
+
+	private static boolean isCompleted(HyperfoilApi api, String runId) {
+		try {
+			return Boolean.TRUE.equals(api.getRun(runId).getCompleted());
+		} catch (ApiException e) {
+			throw new IllegalStateException("Unable to get Hyperfoil run " + runId, e);
+		}
+	}
+}
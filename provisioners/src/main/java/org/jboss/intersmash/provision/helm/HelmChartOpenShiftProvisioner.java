@@ -27,6 +27,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.jboss.intersmash.IntersmashConfig;
 import org.jboss.intersmash.application.openshift.helm.HelmChartOpenShiftApplication;
 import org.jboss.intersmash.application.openshift.helm.HelmChartRelease;
 import org.jboss.intersmash.application.openshift.helm.SerializableHelmChartRelease;
@@ -103,6 +104,9 @@ public abstract class HelmChartOpenShiftProvisioner<A extends HelmChartOpenShift
 							this.getApplication().getHelmChartsRepositoryName(),
 							this.getApplication().getName()));
 		}
+		if (IntersmashConfig.helmPreflight()) {
+			preflight(helmChartsPath);
+		}
 		helmBinary().execute(getHelmChartInstallArguments(this.getApplication(), helmChartsPath));
 		if (this.getApplication().getRelease().getReplicas() > 0) {
 			waitForReplicas(this.getApplication().getRelease().getReplicas());
@@ -132,6 +136,26 @@ public abstract class HelmChartOpenShiftProvisioner<A extends HelmChartOpenShift
 		}
 	}
 
+	/**
+	 * Render the release locally and validate the resulting manifests, before anything is installed on the cluster.
+	 * See {@link HelmChartPreflight}.
+	 *
+	 * @param helmChartPath Path to the Helm Chart which will be installed
+	 */
+	protected void preflight(final Path helmChartPath) {
+		final String[] templateArguments = getHelmChartTemplateArguments(this.getApplication(), helmChartPath);
+		final List<Path> valuesFiles = new ArrayList<>();
+		for (int i = 0; i < templateArguments.length - 1; i++) {
+			if ("-f".equals(templateArguments[i])) {
+				valuesFiles.add(Path.of(templateArguments[i + 1]));
+			}
+		}
+		final String renderKey = HelmChartPreflight.computeRenderKey(helmChartPath, valuesFiles,
+				this.getApplication().getSetOverrides(), this.getApplication().getName());
+		final Path manifests = HelmChartPreflight.render(helmBinary(), renderKey, templateArguments);
+		HelmChartPreflight.validate(openShift, manifests);
+	}
+
 	protected void waitForReplicas(int replicas) {
 		OpenShiftWaiters.get(openShift, ffCheck)
 				.areExactlyNPodsReady(replicas, "app.kubernetes.io/instance", application.getName()).level(Level.DEBUG)
@@ -168,6 +192,17 @@ public abstract class HelmChartOpenShiftProvisioner<A extends HelmChartOpenShift
 		return arguments.stream().toArray(String[]::new);
 	}
 
+	private static String[] getHelmChartTemplateArguments(
+			final HelmChartOpenShiftApplication application, final Path helmChartPath) {
+		List<String> arguments = Stream.of("template", application.getName(), helmChartPath.toAbsolutePath().toString())
+				.collect(Collectors.toList());
+		arguments.addAll(Arrays.asList(getHelmChartValuesFilesArguments(application)));
+		arguments.addAll(getSetOverrideArguments(application));
+		// rendering is local, but chart dependencies must be fetched, same as for the install command
+		arguments.add("--dependency-update");
+		return arguments.stream().toArray(String[]::new);
+	}
+
 	private static String[] getHelmChartUninstallArguments(final String releaseName) {
 		return Stream.of("uninstall", releaseName, "--kubeconfig", OpenShifts.adminBinary().getOcConfigPath())
 				.collect(Collectors.toList()).stream().toArray(String[]::new);
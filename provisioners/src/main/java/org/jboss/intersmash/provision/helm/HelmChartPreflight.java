@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.helm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jboss.intersmash.util.Sha256;
+
+import cz.xtf.core.helm.HelmBinary;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.FieldValidateable;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pre-flight stage for Helm Charts based provisioning.
+ *
+ * The chart is rendered locally via {@code helm template}, using the same values files and overrides which are
+ * passed to {@code helm install}, and the resulting manifests are validated by a server side dry run, before any
+ * resource is created on the cluster, so that broken configurations are reported immediately rather than after a
+ * failed release.
+ *
+ * Rendered manifests are cached locally by a key which is computed out of the chart contents and of the release
+ * values, see {@link #computeRenderKey(Path, List, Map, String)}.
+ */
+@Slf4j
+public final class HelmChartPreflight {
+	public static final Path RENDERED_MANIFESTS = Paths.get("tmp").toAbsolutePath().resolve("helm").resolve("rendered");
+
+	private HelmChartPreflight() {
+		// prevent instantiation
+	}
+
+	/**
+	 * Compute the key which identifies a rendered release, i.e. a SHA-256 digest of the chart files, of the contents
+	 * of the values files and of the {@code --set} overrides.
+	 * Chart dependency archives which are downloaded by {@code --dependency-update} are not taken into account,
+	 * since their versions are already defined by the chart descriptor.
+	 *
+	 * @param chartPath Path to the Helm Chart directory
+	 * @param valuesFiles Values files that will be passed to Helm, in the same order
+	 * @param setOverrides Values that will be overridden via {@code --set}
+	 * @param releaseName Name of the Helm release
+	 * @return A hex string representing the render key
+	 */
+	public static String computeRenderKey(final Path chartPath, final List<Path> valuesFiles,
+			final Map<String, String> setOverrides, final String releaseName) {
+		final MessageDigest digest = Sha256.newDigest();
+		Sha256.update(digest, releaseName);
+		try (Stream<Path> paths = Files.walk(chartPath)) {
+			final List<Path> chartFiles = paths
+					.filter(Files::isRegularFile)
+					.filter(path -> !isDependencyArchive(chartPath, path))
+					.sorted()
+					.collect(Collectors.toList());
+			for (Path file : chartFiles) {
+				Sha256.update(digest, chartPath.relativize(file).toString());
+				Sha256.update(digest, file);
+			}
+			for (Path valuesFile : valuesFiles) {
+				Sha256.update(digest, valuesFile);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(
+					String.format("Unable to compute the render key for the \"%s\" Helm Chart", chartPath), e);
+		}
+		new TreeMap<>(setOverrides).forEach((key, value) -> Sha256.update(digest, key + "=" + value));
+		return Sha256.hex(digest);
+	}
+
+	/**
+	 * Render a release via {@code helm template}, or get the previously rendered manifests if the same release
+	 * has already been rendered.
+	 *
+	 * @param helmBinary {@link HelmBinary} instance used to execute the {@code helm template} command
+	 * @param renderKey Key identifying the rendered release, see {@link #computeRenderKey(Path, List, Map, String)}
+	 * @param templateArguments Arguments for the {@code helm template} command
+	 * @return Path to the file holding the rendered manifests
+	 */
+	public static Path render(final HelmBinary helmBinary, final String renderKey, final String... templateArguments) {
+		final Path manifests = RENDERED_MANIFESTS.resolve(renderKey + ".yaml");
+		if (Files.exists(manifests)) {
+			log.debug("Using cached Helm Chart manifests: {}", manifests);
+			return manifests;
+		}
+		final String rendered = helmBinary.execute(templateArguments);
+		try {
+			Files.createDirectories(RENDERED_MANIFESTS);
+			// write to a temporary file first, so that a partially written file is never picked up from the cache
+			final Path temporary = Files.createTempFile(RENDERED_MANIFESTS, renderKey, ".tmp");
+			Files.write(temporary, rendered.getBytes(StandardCharsets.UTF_8));
+			Files.move(temporary, manifests);
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to store the rendered Helm Chart manifests", e);
+		}
+		return manifests;
+	}
+
+	/**
+	 * Load the rendered manifests locally, no request is sent to the cluster.
+	 * Each manifest which represents a known Kubernetes or OpenShift resource is deserialized into its typed model,
+	 * so that structural errors are detected.
+	 *
+	 * @param client Client used to deserialize the manifests
+	 * @param manifests Path to the file holding the rendered manifests
+	 * @return List of {@link HasMetadata} instances representing the rendered resources
+	 */
+	public static List<HasMetadata> load(final KubernetesClient client, final Path manifests) {
+		try (InputStream is = Files.newInputStream(manifests)) {
+			return client.load(is).items();
+		} catch (IOException | RuntimeException e) {
+			throw new IllegalStateException(
+					String.format("The rendered Helm Chart manifests are not valid (%s): %s", manifests, e.getMessage()), e);
+		}
+	}
+
+	/**
+	 * Validate the rendered manifests: every resource must be named, and it must be accepted by a server side dry
+	 * run with strict field validation, i.e. its kind must be served by the cluster, and it must match the OpenAPI
+	 * schema of the kind, the {@code openAPIV3Schema} of the CustomResourceDefinition included, so that unknown fields
+	 * and values of the wrong type are reported. Nothing is persisted by the dry run.
+	 *
+	 * @param client Client used to deserialize the manifests and to send the dry run requests
+	 * @param manifests Path to the file holding the rendered manifests
+	 * @throws IllegalStateException if any violation is found
+	 */
+	public static void validate(final KubernetesClient client, final Path manifests) {
+		final List<String> violations = new ArrayList<>();
+		for (HasMetadata resource : load(client, manifests)) {
+			final String name = resource.getMetadata() == null ? null : resource.getMetadata().getName();
+			if (name == null || name.isBlank()) {
+				violations.add(String.format("%s (%s) has no name", resource.getKind(), resource.getApiVersion()));
+				continue;
+			}
+			try {
+				client.resource(resource).dryRun().fieldValidation(FieldValidateable.Validation.STRICT)
+						.createOrReplace();
+			} catch (KubernetesClientException e) {
+				violations.add(String.format("%s \"%s\": %s", resource.getKind(), name,
+						e.getStatus() != null && e.getStatus().getMessage() != null ? e.getStatus().getMessage()
+								: e.getMessage()));
+			}
+		}
+		if (!violations.isEmpty()) {
+			throw new IllegalStateException(
+					String.format("Helm Chart pre-flight validation failed (%s):%n%s", manifests,
+							String.join(System.lineSeparator(), violations)));
+		}
+	}
+
+	private static boolean isDependencyArchive(final Path chartPath, final Path path) {
+		return path.startsWith(chartPath.resolve("charts")) && path.getFileName().toString().endsWith(".tgz");
+	}
+}
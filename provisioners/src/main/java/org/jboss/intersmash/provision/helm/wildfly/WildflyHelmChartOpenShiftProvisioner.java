@@ -72,7 +72,7 @@ public class WildflyHelmChartOpenShiftProvisioner extends HelmChartOpenShiftProv
 				.level(Level.DEBUG)
 				.waitFor();
 		if (replicas > 0) {
-			WaitersUtil.routeIsUp(getUrl(application.getName(), false))
+			WaitersUtil.routeIsUp(getApplication().getName(), getUrl(application.getName(), false))
 					.level(Level.DEBUG)
 					.waitFor();
 		}
@@ -26,9 +26,11 @@ import org.jboss.intersmash.IntersmashConfig;
 import org.jboss.intersmash.application.openshift.BootableJarOpenShiftApplication;
 import org.jboss.intersmash.application.openshift.input.BinarySource;
 import org.jboss.intersmash.application.openshift.input.BuildInput;
+import org.jboss.intersmash.util.openshift.BuildLogStreamer;
 import org.slf4j.event.Level;
 
 import cz.xtf.builder.builders.ApplicationBuilder;
+import cz.xtf.builder.builders.pod.ContainerBuilder;
 import cz.xtf.builder.builders.route.TransportProtocol;
 import cz.xtf.core.bm.BinaryBuild;
 import cz.xtf.core.bm.BinaryBuildFromFile;
@@ -49,10 +51,11 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 public abstract class BootableJarImageOpenShiftProvisioner
-		implements OpenShiftProvisioner<BootableJarOpenShiftApplication> {
+		implements OpenShiftProvisioner<BootableJarOpenShiftApplication>, Buildable {
 
 	private final BootableJarOpenShiftApplication bootableApplication;
 	private FailFastCheck ffCheck = () -> false;
+	private volatile ManagedBuildReference buildReference;
 
 	public BootableJarImageOpenShiftProvisioner(@NonNull BootableJarOpenShiftApplication bootableApplication) {
 		this.bootableApplication = bootableApplication;
@@ -66,6 +69,18 @@ public abstract class BootableJarImageOpenShiftProvisioner
 		return bootableApplication;
 	}
 
+	/**
+	 * Build the application image ahead of the deploy phase.
+	 */
+	@Override
+	public void build() {
+		BuildInput buildInput = bootableApplication.getBuildInput();
+		Objects.requireNonNull(buildInput);
+		if (BinarySource.class.isAssignableFrom(buildInput.getClass())) {
+			buildReference = buildImage((BinarySource) buildInput);
+		}
+	}
+
 	@Override
 	public void deploy() {
 		deployImage();
@@ -73,6 +88,9 @@ public abstract class BootableJarImageOpenShiftProvisioner
 
 	@Override
 	public void undeploy() {
+		if (IntersmashConfig.gcLogs()) {
+			GcLog.collect(openShift, bootableApplication.getName(), getPods());
+		}
 		OpenShiftUtils.deleteResourcesWithLabel(openShift, APP_LABEL_KEY, bootableApplication.getName());
 		// the bootable JAR provisioning process _might_ need to clean some custom build configs, builds,
 		// config maps, image streams and build pods which might appear as leftovers in OpenShift::clean()
@@ -115,7 +133,7 @@ public abstract class BootableJarImageOpenShiftProvisioner
 				.level(Level.DEBUG)
 				.waitFor();
 		if (replicas > 0) {
-			WaitersUtil.routeIsUp(getUrl(bootableApplication.getName(), false))
+			WaitersUtil.routeIsUp(getApplication().getName(), getUrl(bootableApplication.getName(), false))
 					.level(Level.DEBUG)
 					.waitFor();
 		}
@@ -126,55 +144,9 @@ public abstract class BootableJarImageOpenShiftProvisioner
 		Objects.requireNonNull(buildInput);
 
 		if (BinarySource.class.isAssignableFrom(buildInput.getClass())) {
-			BinarySource binarySource = (BinarySource) buildInput;
-			log.debug("Create application builder from artifact (path: {}).", binarySource.getArchive().toString());
-			List<EnvVar> environmentVariables = new ArrayList<>(bootableApplication.getEnvVars());
-			File archiveFile = binarySource.getArchive().toFile();
-			BinaryBuild bootableJarBuild;
-			if (archiveFile.isDirectory()) {
-				/*
-					This scenario is probably unusable and should be pruned: bootable Jar workflow doesn't envision a
-					builder image to compile the maven project: the project compilation is supposed to happen outside
-					openshift; multiple deployments might have role here: TODO: TO BE INVESTIGATED
-				 */
-				bootableJarBuild = new BinarySourceBuild(
-						IntersmashConfig.bootableJarImageURL(),
-						binarySource.getArchive(),
-						environmentVariables.stream().collect(Collectors.toMap(EnvVar::getName, EnvVar::getValue)),
-						bootableApplication.getName());
-			} else if (archiveFile.isFile()) {
-				/*
-				  S2I Binary build which takes as input a bootable Jar;
-
-				  This kind of build corresponds to the following workflow:
-
-						oc new-build --name=wildfly-build-from-bootable-jar \
-							--labels=intersmash.app=wildfly-test-app \
-							--binary=true \
-							--strategy=source \
-							--env=ADMIN_USERNAME=admin \
-							--env=ADMIN_PASSWORD=pass.1234 \
-							--image=registry.redhat.io/ubi8/openjdk-11
-
-						oc start-build wildfly-build-from-bootable-jar \
-							--from-file=bootable-openshift.jar \
-							--follow
-
-						oc new-app wildfly-build-from-bootable-jar
-				 */
-				bootableJarBuild = new BinaryBuildFromFile(
-						IntersmashConfig.bootableJarImageURL(),
-						binarySource.getArchive(),
-						environmentVariables.stream().collect(Collectors.toMap(EnvVar::getName, EnvVar::getValue)),
-						bootableApplication.getName());
-			} else {
-				throw new RuntimeException(
-						String.format("'%s' archive path must be either a directory or a file", archiveFile.getAbsolutePath()));
-			}
-
-			ManagedBuildReference reference = BuildManagers.get().deploy(bootableJarBuild);
-			BuildManagers.get().hasBuildCompleted(bootableJarBuild).waitFor();
-
+			// the image might have been built already, ahead of the deploy phase, see build()
+			ManagedBuildReference reference = buildReference != null ? buildReference
+					: buildImage((BinarySource) buildInput);
 			ApplicationBuilder appBuilder = ApplicationBuilder.fromManagedBuild(
 					bootableApplication.getName(),
 					reference,
@@ -210,6 +182,64 @@ public abstract class BootableJarImageOpenShiftProvisioner
 
 	}
 
+	/**
+	 * Build the application image out of a binary source, i.e. a bootable JAR or a local directory.
+	 */
+	private ManagedBuildReference buildImage(BinarySource binarySource) {
+		log.debug("Create application builder from artifact (path: {}).", binarySource.getArchive().toString());
+		List<EnvVar> environmentVariables = new ArrayList<>(bootableApplication.getEnvVars());
+		File archiveFile = binarySource.getArchive().toFile();
+		BinaryBuild bootableJarBuild;
+		if (archiveFile.isDirectory()) {
+			/*
+				This scenario is probably unusable and should be pruned: bootable Jar workflow doesn't envision a
+				builder image to compile the maven project: the project compilation is supposed to happen outside
+				openshift; multiple deployments might have role here: TODO: TO BE INVESTIGATED
+			 */
+			bootableJarBuild = new BinarySourceBuild(
+					IntersmashConfig.bootableJarImageURL(),
+					binarySource.getArchive(),
+					environmentVariables.stream().collect(Collectors.toMap(EnvVar::getName, EnvVar::getValue)),
+					bootableApplication.getName());
+		} else if (archiveFile.isFile()) {
+			/*
+			  S2I Binary build which takes as input a bootable Jar;
+
+			  This kind of build corresponds to the following workflow:
+
+					oc new-build --name=wildfly-build-from-bootable-jar \
+						--labels=intersmash.app=wildfly-test-app \
+						--binary=true \
+						--strategy=source \
+						--env=ADMIN_USERNAME=admin \
+						--env=ADMIN_PASSWORD=pass.1234 \
+						--image=registry.redhat.io/ubi8/openjdk-11
+
+					oc start-build wildfly-build-from-bootable-jar \
+						--from-file=bootable-openshift.jar \
+						--follow
+
+					oc new-app wildfly-build-from-bootable-jar
+			 */
+			bootableJarBuild = new BinaryBuildFromFile(
+					IntersmashConfig.bootableJarImageURL(),
+					binarySource.getArchive(),
+					environmentVariables.stream().collect(Collectors.toMap(EnvVar::getName, EnvVar::getValue)),
+					bootableApplication.getName());
+		} else {
+			throw new RuntimeException(
+					String.format("'%s' archive path must be either a directory or a file", archiveFile.getAbsolutePath()));
+		}
+
+		// stream the build log while the build is running, in order to track the build phases
+		try (BuildLogStreamer ignored = BuildLogStreamer.start(BuildManagers.get().openShift(), bootableJarBuild.getId(),
+				bootableApplication.getName())) {
+			ManagedBuildReference reference = BuildManagers.get().deploy(bootableJarBuild);
+			BuildManagers.get().hasBuildCompleted(bootableJarBuild).waitFor();
+			return reference;
+		}
+	}
+
 	private void deployImage() {
 		ffCheck = FailFastUtils.getFailFastCheck(EventHelper.timeOfLastEventBMOrTestNamespaceOrEpoch(),
 				bootableApplication.getName());
@@ -224,6 +254,13 @@ public abstract class BootableJarImageOpenShiftProvisioner
 				.envVars(
 						bootableApplication.getEnvVars().stream().collect(Collectors.toMap(EnvVar::getName, EnvVar::getValue)));
 
+		// GC logging
+		if (IntersmashConfig.gcLogs()) {
+			ContainerBuilder container = appBuilder.deploymentConfig().podTemplate().container();
+			container.envVar(GcLog.JAVA_OPTS_APPEND, GcLog.withJvmOptions(container.getEnvVars().get(GcLog.JAVA_OPTS_APPEND),
+					IntersmashConfig.bootableJarImageURL()));
+		}
+
 		configureAppBuilder(appBuilder);
 
 		appBuilder.buildApplication(openShift).deploy();
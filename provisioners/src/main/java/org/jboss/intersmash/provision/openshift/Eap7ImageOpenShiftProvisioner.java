@@ -34,6 +34,7 @@ import org.slf4j.event.Level;
 
 import cz.xtf.builder.builders.ApplicationBuilder;
 import cz.xtf.builder.builders.PVCBuilder;
+import cz.xtf.builder.builders.pod.ContainerBuilder;
 import cz.xtf.builder.builders.pod.PersistentVolumeClaim;
 import cz.xtf.builder.builders.pod.VolumeMount;
 import cz.xtf.builder.builders.route.TransportProtocol;
@@ -75,6 +76,9 @@ public class Eap7ImageOpenShiftProvisioner implements OpenShiftProvisioner<Eap7I
 
 	@Override
 	public void undeploy() {
+		if (IntersmashConfig.gcLogs()) {
+			GcLog.collect(openShift, application.getName(), getPods());
+		}
 		OpenShiftUtils.deleteResourcesWithLabel(openShift, APP_LABEL_KEY, application.getName());
 		// when using git repo S2I process creates some custom maps and build pods
 		openShift.getConfigMaps()
@@ -102,7 +106,7 @@ public class Eap7ImageOpenShiftProvisioner implements OpenShiftProvisioner<Eap7I
 				.level(Level.DEBUG)
 				.waitFor();
 		if (replicas > 0) {
-			WaitersUtil.routeIsUp(getUrl(application.getName(), false))
+			WaitersUtil.routeIsUp(getApplication().getName(), getUrl(application.getName(), false))
 					.level(Level.DEBUG)
 					.waitFor();
 		}
@@ -215,6 +219,13 @@ public class Eap7ImageOpenShiftProvisioner implements OpenShiftProvisioner<Eap7I
 		appBuilder.deploymentConfig().podTemplate().container()
 				.envVars(application.getEnvVars().stream().collect(Collectors.toMap(EnvVar::getName, EnvVar::getValue)));
 
+		// GC logging
+		if (IntersmashConfig.gcLogs()) {
+			ContainerBuilder container = appBuilder.deploymentConfig().podTemplate().container();
+			container.envVar(GcLog.JAVA_OPTS_APPEND, GcLog.withJvmOptions(container.getEnvVars().get(GcLog.JAVA_OPTS_APPEND),
+					IntersmashConfig.eap7ImageURL()));
+		}
+
 		// enable script debugging
 		if (application.getEnvVars().stream().noneMatch((envVar -> envVar.getName().equals("SCRIPT_DEBUG")))) {
 			if (IntersmashConfig.scriptDebug() != null)
@@ -100,7 +100,7 @@ public class Eap7TemplateOpenShiftProvisioner
 				.level(Level.DEBUG)
 				.waitFor();
 		if (replicas > 0) {
-			WaitersUtil.routeIsUp(getUrl(application.getName(), false))
+			WaitersUtil.routeIsUp(getApplication().getName(), getUrl(application.getName(), false))
 					.level(Level.DEBUG)
 					.waitFor();
 		}
@@ -19,11 +19,23 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Collectors;
 
 import org.jboss.intersmash.IntersmashConfig;
 import org.jboss.intersmash.application.openshift.HyperfoilOperatorApplication;
 import org.jboss.intersmash.provision.openshift.operator.OperatorProvisioner;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.BenchmarkComparison;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.BenchmarkResult;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.BenchmarkResultsStore;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.HyperfoilAgents;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.HyperfoilAsyncApi;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.HyperfoilLogTailer;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.HyperfoilApi;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.invoker.ApiClient;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.invoker.ApiException;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.model.Agent;
 import org.slf4j.event.Level;
 
 import cz.xtf.core.config.OpenShiftConfig;
@@ -32,6 +44,7 @@ import cz.xtf.core.openshift.OpenShiftWaiters;
 import cz.xtf.core.openshift.OpenShifts;
 import cz.xtf.core.waiting.SimpleWaiter;
 import io.fabric8.kubernetes.api.model.DeletionPropagation;
+import io.fabric8.kubernetes.api.model.Node;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.api.model.apiextensions.v1.CustomResourceDefinition;
 import io.fabric8.kubernetes.client.dsl.MixedOperation;
@@ -60,6 +73,13 @@ public class HyperfoilOperatorProvisioner extends OperatorProvisioner<HyperfoilO
 	// you can get it with command:
 	// oc get packagemanifest hyperfoil-bundle -o template --template='{{ .metadata.name }}'
 	private static final String OPERATOR_ID = IntersmashConfig.hyperfoilOperatorPackageManifest();
+	// agent pods are started by the controller when a run starts, and labeled as such
+	private static final String AGENT_ROLE_LABEL = "role";
+	private static final String AGENT_ROLE = "agent";
+	private static final String AGENT_PREFIX = "agent-";
+	private static final String WORKER_NODE_LABEL = "node-role.kubernetes.io/worker";
+	private static final String HOSTNAME_LABEL = "kubernetes.io/hostname";
+	private HyperfoilAgents agents;
 
 	public HyperfoilOperatorProvisioner(@NonNull HyperfoilOperatorApplication hyperfoilOperatorApplication) {
 		super(hyperfoilOperatorApplication, OPERATOR_ID);
@@ -118,7 +138,7 @@ public class HyperfoilOperatorProvisioner extends OperatorProvisioner<HyperfoilO
 				.reason("Wait for expected number of replicas to be active.")
 				.level(Level.DEBUG)
 				.waitFor();
-		WaitersUtil.routeIsUp(getURL().toExternalForm())
+		WaitersUtil.routeIsUp(getApplication().getName(), getURL().toExternalForm())
 				.level(Level.DEBUG)
 				.waitFor();
 	}
@@ -140,6 +160,120 @@ public class HyperfoilOperatorProvisioner extends OperatorProvisioner<HyperfoilO
 		return null;
 	}
 
+	/**
+	 * Retrieve the results of a completed run and store them in the local {@link BenchmarkResultsStore}, so that they
+	 * can be compared with a baseline, see {@link BenchmarkComparison}.
+	 *
+	 * @param benchmark Benchmark name
+	 * @param runId Run ID
+	 * @return The stored {@link BenchmarkResult}
+	 * @throws ApiException if the results can't be retrieved
+	 */
+	public BenchmarkResult storeResults(final String benchmark, final String runId) throws ApiException {
+		return new BenchmarkResultsStore().collect(getHyperfoilApi(), benchmark, runId);
+	}
+
+	/**
+	 * @return {@link HyperfoilApi} client of the Hyperfoil controller
+	 */
+	public HyperfoilApi getHyperfoilApi() {
+		return hyperfoilApi(getURL());
+	}
+
+	/**
+	 * The route of the controller is exposed over HTTPS, usually with a self-signed certificate of the cluster, hence
+	 * the certificate isn't verified.
+	 */
+	static HyperfoilApi hyperfoilApi(URL url) {
+		return new HyperfoilApi(new ApiClient().setBasePath(url.toString()).setVerifyingSsl(false));
+	}
+
+	/**
+	 * @return {@link HyperfoilAsyncApi} client of the Hyperfoil controller, e.g. to monitor a running benchmark, see
+	 *         {@link org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.HyperfoilRunMonitor}
+	 */
+	public HyperfoilAsyncApi getHyperfoilAsyncApi() {
+		return hyperfoilAsyncApi(getURL());
+	}
+
+	static HyperfoilAsyncApi hyperfoilAsyncApi(URL url) {
+		return new HyperfoilAsyncApi(hyperfoilApi(url).getApiClient());
+	}
+
+	/**
+	 * @return The {@link HyperfoilAgents} which generate the load of the benchmarks, null if the agents are defined by
+	 *         the benchmarks themselves, see {@link #scale(int, boolean)}
+	 */
+	public HyperfoilAgents getAgents() {
+		return agents;
+	}
+
+	/**
+	 * Set the agents which generate the load of the benchmarks, e.g. {@link HyperfoilAgents#forRate(double)}, replacing
+	 * the {@code agents} section of the benchmarks which are run by the
+	 * {@link org.jboss.intersmash.junit5.HyperfoilBenchmarkExtension}.
+	 *
+	 * @param agents {@link HyperfoilAgents} instance, null to use the agents defined by the benchmarks
+	 */
+	public void setAgents(HyperfoilAgents agents) {
+		this.agents = agents;
+	}
+
+	/**
+	 * @return Host names of the schedulable worker nodes, which agents can be pinned to
+	 */
+	public List<String> getWorkerNodes() {
+		return OpenShifts.admin().nodes().withLabel(WORKER_NODE_LABEL).list().getItems().stream()
+				.filter(node -> !Boolean.TRUE.equals(node.getSpec().getUnschedulable()))
+				.map(HyperfoilOperatorProvisioner::hostname)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Wait for the agents of a run to be ready, i.e. for the agent pods which are started by the controller when the
+	 * run starts.
+	 *
+	 * @param runId Run ID
+	 * @param count Expected number of agents
+	 */
+	public void waitForAgents(String runId, int count) {
+		new SimpleWaiter(() -> getAgentPods(runId).size() == count)
+				.failFast(ffCheck)
+				.reason(String.format("Wait for %d Hyperfoil agents of run %s to be ready.", count, runId))
+				.level(Level.DEBUG)
+				.waitFor();
+	}
+
+	/**
+	 * Retrieve the CPU usage of the agents of a run, see {@link HyperfoilAgents#saturated(Map, double)} to tell whether
+	 * the agents were the bottleneck.
+	 *
+	 * @param runId Run ID
+	 * @return CPU usage, between 0 and 1, by phase and agent
+	 * @throws ApiException if the CPU usage can't be retrieved
+	 */
+	public Map<String, Map<String, Double>> getAgentCpuUsage(String runId) throws ApiException {
+		return HyperfoilAgents.cpuUsage(getHyperfoilApi(), runId);
+	}
+
+	/**
+	 * Start following the controller log and the logs of the agents of a run, see {@link HyperfoilLogTailer}, which
+	 * should be closed once the run is over.
+	 *
+	 * @param runId Run ID
+	 * @return The started {@link HyperfoilLogTailer}, agents which are not known yet can be added later on
+	 * @throws ApiException if the run can't be retrieved
+	 */
+	public HyperfoilLogTailer tailLogs(String runId) throws ApiException {
+		HyperfoilApi api = getHyperfoilApi();
+		HyperfoilLogTailer tailer = new HyperfoilLogTailer(api, runId);
+		List<Agent> runAgents = api.getRun(runId).getAgents();
+		if (runAgents != null) {
+			runAgents.forEach(agent -> tailer.agent(agent.getName()));
+		}
+		return tailer.start();
+	}
+
 	@Override
 	public void undeploy() {
 		undeploy(true);
@@ -165,6 +299,28 @@ public class HyperfoilOperatorProvisioner extends OperatorProvisioner<HyperfoilO
 		return pods;
 	}
 
+	/**
+	 * Agent pods aren't part of {@link #getPods()}, which holds the controller pod only.
+	 *
+	 * @param runId Run ID, null for the agents of any run
+	 * @return The ready agent pods
+	 */
+	public List<Pod> getAgentPods(String runId) {
+		String prefix = runId == null ? AGENT_PREFIX : AGENT_PREFIX + runId.toLowerCase() + "-";
+		return OpenShiftProvisioner.openShift.getLabeledPods(AGENT_ROLE_LABEL, AGENT_ROLE).stream()
+				.filter(pod -> pod.getMetadata().getName().startsWith(prefix))
+				.filter(pod -> !pod.getStatus().getContainerStatuses().isEmpty()
+						&& pod.getStatus().getContainerStatuses().stream()
+								.allMatch(containerStatus -> Boolean.TRUE.equals(containerStatus.getReady())))
+				.collect(Collectors.toList());
+	}
+
+	private static String hostname(Node node) {
+		Map<String, String> labels = node.getMetadata().getLabels();
+		return labels != null && labels.containsKey(HOSTNAME_LABEL) ? labels.get(HOSTNAME_LABEL)
+				: node.getMetadata().getName();
+	}
+
 	/**
 	 * This method checks if the Operator's POD is actually running;
 	 * It's been tailored on the community-operators Cluster Service version format which is missing label
@@ -227,8 +383,16 @@ public class HyperfoilOperatorProvisioner extends OperatorProvisioner<HyperfoilO
 		return IntersmashConfig.hyperfoilOperatorChannel();
 	}
 
+	/**
+	 * Scale the Hyperfoil agents, spread over the worker nodes, see {@link #setAgents(HyperfoilAgents)}.
+	 * Agents are started by the controller when a run starts, hence there is nothing to wait for until then, see
+	 * {@link #waitForAgents(String, int)}.
+	 *
+	 * @param replicas Number of agents
+	 * @param wait ignored
+	 */
 	@Override
 	public void scale(int replicas, boolean wait) {
-		throw new UnsupportedOperationException("To be implemented!");
+		setAgents(HyperfoilAgents.of(replicas).nodes(getWorkerNodes()));
 	}
 }
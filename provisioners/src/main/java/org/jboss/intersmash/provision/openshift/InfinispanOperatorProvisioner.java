@@ -23,6 +23,7 @@ import java.util.stream.Collectors;
 
 import org.assertj.core.util.Lists;
 import org.infinispan.v1.Infinispan;
+import org.infinispan.v1.infinispanspec.Container;
 import org.infinispan.v1.infinispanspec.Expose;
 import org.infinispan.v2alpha1.Cache;
 import org.jboss.intersmash.IntersmashConfig;
@@ -74,6 +75,15 @@ public class InfinispanOperatorProvisioner extends OperatorProvisioner<Infinispa
 				getApplication().getName());
 		subscribe();
 
+		// GC logging
+		if (IntersmashConfig.gcLogs()) {
+			if (getApplication().getInfinispan().getSpec().getContainer() == null) {
+				getApplication().getInfinispan().getSpec().setContainer(new Container());
+			}
+			Container container = getApplication().getInfinispan().getSpec().getContainer();
+			container.setExtraJvmOpts(GcLog.withJvmOptions(container.getExtraJvmOpts()));
+		}
+
 		// create custom resources
 		int replicas = getApplication().getInfinispan().getSpec().getReplicas();
 		infinispansClient().createOrReplace(getApplication().getInfinispan());
@@ -93,6 +103,9 @@ public class InfinispanOperatorProvisioner extends OperatorProvisioner<Infinispa
 
 	@Override
 	public void undeploy() {
+		if (IntersmashConfig.gcLogs()) {
+			GcLog.collect(OpenShiftProvisioner.openShift, getApplication().getName(), getPods());
+		}
 		// delete custom resources
 		caches().forEach(keycloakUser -> keycloakUser.withPropagationPolicy(DeletionPropagation.FOREGROUND).delete());
 		infinispan().withPropagationPolicy(DeletionPropagation.FOREGROUND).delete();
@@ -18,6 +18,7 @@ package org.jboss.intersmash.provision.openshift;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -33,6 +34,11 @@ import org.keycloak.k8s.v2alpha1.KeycloakOperatorKeycloakList;
 import org.keycloak.k8s.v2alpha1.KeycloakOperatorRealmImportList;
 import org.keycloak.k8s.v2alpha1.KeycloakRealmImport;
 import org.keycloak.k8s.v2alpha1.keycloakspec.Http;
+import org.keycloak.k8s.v2alpha1.keycloakspec.Unsupported;
+import org.keycloak.k8s.v2alpha1.keycloakspec.unsupported.PodTemplate;
+import org.keycloak.k8s.v2alpha1.keycloakspec.unsupported.podtemplate.Spec;
+import org.keycloak.k8s.v2alpha1.keycloakspec.unsupported.podtemplate.spec.Containers;
+import org.keycloak.k8s.v2alpha1.keycloakspec.unsupported.podtemplate.spec.containers.Env;
 import org.slf4j.event.Level;
 
 import cz.xtf.core.config.OpenShiftConfig;
@@ -168,6 +174,11 @@ public class KeycloakOperatorProvisioner extends OperatorProvisioner<KeycloakOpe
 					.level(Level.DEBUG).waitFor();
 		}
 
+		// GC logging
+		if (IntersmashConfig.gcLogs()) {
+			enableGcLogs();
+		}
+
 		// create custom resources
 		keycloakClient().createOrReplace(getApplication().getKeycloak());
 		if (getApplication().getKeycloakRealmImports().size() > 0) {
@@ -182,12 +193,48 @@ public class KeycloakOperatorProvisioner extends OperatorProvisioner<KeycloakOpe
 		// check that route is up, only if there's a valid external URL available
 		URL externalUrl = getURL();
 		if ((getApplication().getKeycloak().getSpec().getInstances() > 0) && (externalUrl != null)) {
-			WaitersUtil.routeIsUp(externalUrl.toExternalForm())
+			WaitersUtil.routeIsUp(getApplication().getName(), externalUrl.toExternalForm())
 					.level(Level.DEBUG)
 					.waitFor();
 		}
 	}
 
+	/**
+	 * The Keycloak image appends {@code JAVA_OPTS_APPEND} to the JVM options, and the operator merges the first
+	 * container of the unsupported pod template into the Keycloak container.
+	 */
+	private void enableGcLogs() {
+		if (getApplication().getKeycloak().getSpec().getUnsupported() == null) {
+			getApplication().getKeycloak().getSpec().setUnsupported(new Unsupported());
+		}
+		Unsupported unsupported = getApplication().getKeycloak().getSpec().getUnsupported();
+		if (unsupported.getPodTemplate() == null) {
+			unsupported.setPodTemplate(new PodTemplate());
+		}
+		if (unsupported.getPodTemplate().getSpec() == null) {
+			unsupported.getPodTemplate().setSpec(new Spec());
+		}
+		Spec podSpec = unsupported.getPodTemplate().getSpec();
+		if (podSpec.getContainers() == null || podSpec.getContainers().isEmpty()) {
+			podSpec.setContainers(new ArrayList<>(List.of(new Containers())));
+		}
+		Containers container = podSpec.getContainers().get(0);
+		if (container.getEnv() == null) {
+			container.setEnv(new ArrayList<>());
+		}
+		Env javaOptsAppend = container.getEnv().stream()
+				.filter(env -> GcLog.JAVA_OPTS_APPEND.equals(env.getName()))
+				.findFirst()
+				.orElseGet(() -> {
+					Env env = new Env();
+					env.setName(GcLog.JAVA_OPTS_APPEND);
+					container.getEnv().add(env);
+					return env;
+				});
+		javaOptsAppend.setValue(
+				GcLog.withJvmOptions(javaOptsAppend.getValue(), getApplication().getKeycloak().getSpec().getImage()));
+	}
+
 	public void waitFor(Keycloak keycloak) {
 		Long replicas = keycloak.getSpec().getInstances();
 		if (replicas > 0) {
@@ -274,6 +321,9 @@ public class KeycloakOperatorProvisioner extends OperatorProvisioner<KeycloakOpe
 
 	@Override
 	public void undeploy() {
+		if (IntersmashConfig.gcLogs()) {
+			GcLog.collect(OpenShiftProvisioner.openShift, getApplication().getName(), getPods());
+		}
 		keycloakRealmImports()
 				.forEach(
 						keycloakRealm -> keycloakRealmImportClient()
@@ -314,7 +364,7 @@ public class KeycloakOperatorProvisioner extends OperatorProvisioner<KeycloakOpe
 				.reason("Wait for Keycloak resource to be ready").level(Level.DEBUG).waitFor();
 		// check that route is up
 		if (originalReplicas == 0 && replicas > 0) {
-			WaitersUtil.routeIsUp(getURL().toExternalForm())
+			WaitersUtil.routeIsUp(getApplication().getName(), getURL().toExternalForm())
 					.level(Level.DEBUG)
 					.waitFor();
 		}
@@ -146,7 +146,7 @@ public class RhSsoOperatorProvisioner extends OperatorProvisioner<RhSsoOperatorA
 		// check that route is up, only if there's a valid external URL available
 		URL externalUrl = getURL();
 		if ((getApplication().getKeycloak().getSpec().getInstances() > 0) && (externalUrl != null)) {
-			WaitersUtil.routeIsUp(externalUrl.toExternalForm())
+			WaitersUtil.routeIsUp(getApplication().getName(), externalUrl.toExternalForm())
 					.level(Level.DEBUG)
 					.waitFor();
 		}
@@ -248,7 +248,7 @@ public class RhSsoOperatorProvisioner extends OperatorProvisioner<RhSsoOperatorA
 				.reason("Wait for keycloak resource to be ready").level(Level.DEBUG).waitFor();
 		// check that route is up
 		if (originalReplicas == 0 && replicas > 0) {
-			WaitersUtil.routeIsUp(getURL().toExternalForm())
+			WaitersUtil.routeIsUp(getApplication().getName(), getURL().toExternalForm())
 					.level(Level.DEBUG)
 					.waitFor();
 		}
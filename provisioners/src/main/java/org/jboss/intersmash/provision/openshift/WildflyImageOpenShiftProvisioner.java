@@ -17,6 +17,7 @@ package org.jboss.intersmash.provision.openshift;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -33,16 +34,22 @@ import org.jboss.intersmash.application.openshift.WildflyOpenShiftApplication;
 import org.jboss.intersmash.application.openshift.input.BinarySource;
 import org.jboss.intersmash.application.openshift.input.BuildInput;
 import org.jboss.intersmash.application.openshift.input.GitSource;
+import org.jboss.intersmash.provision.ProvisioningReport;
+import org.jboss.intersmash.util.openshift.BinaryBuildCache;
+import org.jboss.intersmash.util.openshift.BootTimeHistory;
+import org.jboss.intersmash.util.openshift.BuildLogStreamer;
+import org.jboss.intersmash.util.openshift.CompressedBinarySourceBuild;
+import org.jboss.intersmash.util.wildfly.WildflyBuildTimeCliScript;
 import org.slf4j.event.Level;
 
 import cz.xtf.builder.builders.ApplicationBuilder;
 import cz.xtf.builder.builders.PVCBuilder;
+import cz.xtf.builder.builders.pod.ContainerBuilder;
 import cz.xtf.builder.builders.pod.PersistentVolumeClaim;
 import cz.xtf.builder.builders.pod.VolumeMount;
 import cz.xtf.builder.builders.route.TransportProtocol;
 import cz.xtf.core.bm.BinaryBuild;
 import cz.xtf.core.bm.BinaryBuildFromFile;
-import cz.xtf.core.bm.BinarySourceBuild;
 import cz.xtf.core.bm.BuildManagers;
 import cz.xtf.core.bm.ManagedBuildReference;
 import cz.xtf.core.event.helpers.EventHelper;
@@ -58,11 +65,14 @@ import lombok.extern.slf4j.Slf4j;
  * Class deploys a Wildfly application based on {@link WildflyOpenShiftApplication}
  */
 @Slf4j
-public class WildflyImageOpenShiftProvisioner implements OpenShiftProvisioner<WildflyImageOpenShiftApplication> {
+public class WildflyImageOpenShiftProvisioner
+		implements OpenShiftProvisioner<WildflyImageOpenShiftApplication>, Buildable {
 
 	private final WildflyImageOpenShiftApplication wildflyApplication;
 	private final String CLI_LAUNCH_SCRIPT = "CLI_LAUNCH_SCRIPT";
 	private FailFastCheck ffCheck = () -> false;
+	private volatile ManagedBuildReference buildReference;
+	private volatile boolean cliScriptAppliedAtBuildTime;
 
 	public WildflyImageOpenShiftProvisioner(@NonNull WildflyImageOpenShiftApplication wildflyApplication) {
 		this.wildflyApplication = wildflyApplication;
@@ -73,6 +83,19 @@ public class WildflyImageOpenShiftProvisioner implements OpenShiftProvisioner<Wi
 		return wildflyApplication;
 	}
 
+	/**
+	 * Build the application image ahead of the deploy phase, when the application is built out of a binary source.
+	 * S2I builds out of a Git repository are instead executed by OpenShift once the application is deployed.
+	 */
+	@Override
+	public void build() {
+		BuildInput buildInput = wildflyApplication.getBuildInput();
+		Objects.requireNonNull(buildInput);
+		if (BinarySource.class.isAssignableFrom(buildInput.getClass())) {
+			buildReference = buildImage((BinarySource) buildInput);
+		}
+	}
+
 	@Override
 	public void deploy() {
 		deployImage();
@@ -80,6 +103,9 @@ public class WildflyImageOpenShiftProvisioner implements OpenShiftProvisioner<Wi
 
 	@Override
 	public void undeploy() {
+		if (IntersmashConfig.gcLogs()) {
+			GcLog.collect(openShift, wildflyApplication.getName(), getPods());
+		}
 		OpenShiftUtils.deleteResourcesWithLabel(openShift, APP_LABEL_KEY, wildflyApplication.getName());
 		// when using git repo S2I process creates some custom maps and build pods
 		openShift.getConfigMaps()
@@ -107,7 +133,7 @@ public class WildflyImageOpenShiftProvisioner implements OpenShiftProvisioner<Wi
 				.level(Level.DEBUG)
 				.waitFor();
 		if (replicas > 0) {
-			WaitersUtil.routeIsUp(getUrl(wildflyApplication.getName(), false))
+			WaitersUtil.routeIsUp(getApplication().getName(), getUrl(wildflyApplication.getName(), false))
 					.level(Level.DEBUG)
 					.waitFor();
 		}
@@ -118,115 +144,13 @@ public class WildflyImageOpenShiftProvisioner implements OpenShiftProvisioner<Wi
 		Objects.requireNonNull(buildInput);
 
 		if (BinarySource.class.isAssignableFrom(buildInput.getClass())) {
-			BinarySource binarySource = (BinarySource) buildInput;
-			log.debug("Create application builder from source (path: {}).", binarySource.getArchive().toString());
-
-			List<EnvVar> environmentVariables = new ArrayList<>(wildflyApplication.getEnvVars());
-
-			File archiveFile = binarySource.getArchive().toFile();
-			if (archiveFile.isDirectory()) {
-				/*
-				  S2I Binary build which takes as input the source code of a maven project located on the local filesystem;
-
-				  This kind of build corresponds to the following workflows:
-
-				  1. "Maven Project": The maven build is run inside the builder image,
-				     E.g.:
-
-						oc new-build --name=wildfly-build-from-source-code \
-							--labels=intersmash.app=wildfly-test-app \
-							--binary=true \
-							--strategy=source \
-							--env=ADMIN_USERNAME=admin \
-							--env=ADMIN_PASSWORD=pass.1234 \
-							--env=MAVEN_ARGS_APPEND="-Dwildfly.ee-feature-pack.location=org.wildfly:wildfly-galleon-pack:27.0.0.Alpha4 -Dwildfly.cloud-feature-pack.location=org.wildfly.cloud:wildfly-cloud-galleon-pack:2.0.0.Alpha4" \
-							--image=quay.io/wildfly/wildfly-s2i-jdk11:latest
-
-						oc start-build wildfly-build-from-source-code \
-							--from-dir=/some-path/intersmash-tools/intersmash-tools-provisioners/src/test/resources/apps/openshift-jakarta-sample \
-							--follow
-
-						oc new-app wildfly-build-from-source-code
-
-				  2. "target/server": The maven build is run on the local machine and then, server and application are uploaded to the builder image,
-				  	 E.g.:
-
-				  		cd /path/intersmash/intersmash-tools/intersmash-tools-provisioners/src/test/resources/apps/openshift-jakarta-sample/target/server
-						mvn install -P openshift \
-							-Dwildfly.ee-feature-pack.location=org.wildfly:wildfly-galleon-pack:27.0.0.Alpha4 \
-							-Dwildfly.cloud-feature-pack.location=org.wildfly.cloud:wildfly-cloud-galleon-pack:2.0.0.Alpha4
-
-						oc new-build --name=wildfly-build-from-server \
-							--labels=intersmash.app=wildfly-test-app \
-							--binary=true \
-							--strategy=source \
-							--env=ADMIN_USERNAME=admin \
-							--env=ADMIN_PASSWORD=pass.1234 \
-							--image=quay.io/wildfly/wildfly-s2i-jdk11:latest
-
-						oc start-build wildfly-build-from-server \
-							--from-dir=./target/server \
-							--follow
-
-						oc new-app wildfly-build-from-server
-				 */
-				BinaryBuild binaryBuild;
-				Path localSourceCode = wildflyApplication.prepareProjectSources(binarySource.getArchive());
-				binaryBuild = new BinarySourceBuild(
-						IntersmashConfig.wildflyImageURL(),
-						localSourceCode,
-						environmentVariables.stream().collect(Collectors.toMap(EnvVar::getName, EnvVar::getValue)),
-						wildflyApplication.getName());
-				ManagedBuildReference reference = BuildManagers.get().deploy(binaryBuild);
-				BuildManagers.get().hasBuildCompleted(binaryBuild).waitFor();
-				return ApplicationBuilder.fromManagedBuild(
-						wildflyApplication.getName(),
-						reference,
-						Collections.singletonMap(APP_LABEL_KEY, wildflyApplication.getName()));
-			} else if (archiveFile.isFile()) {
-				/*
-				  Legacy S2I Binary build which takes as input an already built artifact e.g. WAR file;
-
-				  Note that WILDFLY images do not contain the server anymore;
-
-				  This scenario is probably to be pruned: now, if the build of th maven project happens outside
-				  openshift, you start a binary build "--from-dir" using the "target/server" folder;
-
-				  This workflow is just preserved to support legacy builds where no server is provisioned because the
-				  maven project isn't configured to use the new "wildfly-maven-plugin";
-				  E.g.
-
-					oc new-build --name=wildfly-build-from-war \
-						--labels=intersmash.app=wildfly-test-app \
-						--binary=true \
-						--strategy=source \
-						--env=ADMIN_USERNAME=admin \
-						--env=ADMIN_PASSWORD=pass.1234 \
-						--env=GALLEON_PROVISION_FEATURE_PACKS="org.wildfly:wildfly-galleon-pack:27.0.0.Alpha4,org.wildfly.cloud:wildfly-cloud-galleon-pack:2.0.0.Alpha4" \
-						--env=GALLEON_PROVISION_LAYERS=cloud-server \
-						--image=quay.io/wildfly/wildfly-s2i-jdk11:latest
-
-					oc start-build wildfly-build-from-war \
-						--from-file=/some-path/intersmash/intersmash-tools/intersmash-tools-provisioners/src/test/resources/apps/openshift-jakarta-sample/target/ROOT.war \
-						--follow
-
-					oc new-app wildfly-build-from-war
-				 */
-				BinaryBuildFromFile wildflyBuild = new BinaryBuildFromFile(
-						IntersmashConfig.wildflyImageURL(),
-						binarySource.getArchive(),
-						environmentVariables.stream().collect(Collectors.toMap(EnvVar::getName, EnvVar::getValue)),
-						wildflyApplication.getName() + "-"
-								+ IntersmashConfig.getProductCode(IntersmashConfig.wildflyImageURL()));
-				ManagedBuildReference reference = BuildManagers.get().deploy(wildflyBuild);
-				BuildManagers.get().hasBuildCompleted(wildflyBuild).level(Level.DEBUG).waitFor();
-
-				return ApplicationBuilder.fromManagedBuild(wildflyApplication.getName(), reference,
-						Collections.singletonMap(APP_LABEL_KEY, wildflyApplication.getName()));
-			} else {
-				throw new RuntimeException(
-						String.format("'%s' archive path must be either a directory or a file", archiveFile.getAbsolutePath()));
-			}
+			// the image might have been built already, ahead of the deploy phase, see build()
+			ManagedBuildReference reference = buildReference != null ? buildReference
+					: buildImage((BinarySource) buildInput);
+			return ApplicationBuilder.fromManagedBuild(
+					wildflyApplication.getName(),
+					reference,
+					Collections.singletonMap(APP_LABEL_KEY, wildflyApplication.getName()));
 		} else if (GitSource.class.isAssignableFrom(buildInput.getClass())) {
 			/*
 			  S2I Build which takes as input, source code located in a remote Git repository;
@@ -251,6 +175,154 @@ public class WildflyImageOpenShiftProvisioner implements OpenShiftProvisioner<Wi
 		}
 	}
 
+	/**
+	 * Build the application image out of a binary source, i.e. either a local Maven project or an already built
+	 * artifact.
+	 */
+	private ManagedBuildReference buildImage(BinarySource binarySource) {
+		log.debug("Create application builder from source (path: {}).", binarySource.getArchive().toString());
+
+		List<EnvVar> environmentVariables = new ArrayList<>(wildflyApplication.getEnvVars());
+
+		File archiveFile = binarySource.getArchive().toFile();
+		if (archiveFile.isDirectory()) {
+			/*
+			  S2I Binary build which takes as input the source code of a maven project located on the local filesystem;
+
+			  This kind of build corresponds to the following workflows:
+
+			  1. "Maven Project": The maven build is run inside the builder image,
+			     E.g.:
+
+					oc new-build --name=wildfly-build-from-source-code \
+						--labels=intersmash.app=wildfly-test-app \
+						--binary=true \
+						--strategy=source \
+						--env=ADMIN_USERNAME=admin \
+						--env=ADMIN_PASSWORD=pass.1234 \
+						--env=MAVEN_ARGS_APPEND="-Dwildfly.ee-feature-pack.location=org.wildfly:wildfly-galleon-pack:27.0.0.Alpha4 -Dwildfly.cloud-feature-pack.location=org.wildfly.cloud:wildfly-cloud-galleon-pack:2.0.0.Alpha4" \
+						--image=quay.io/wildfly/wildfly-s2i-jdk11:latest
+
+					oc start-build wildfly-build-from-source-code \
+						--from-dir=/some-path/intersmash-tools/intersmash-tools-provisioners/src/test/resources/apps/openshift-jakarta-sample \
+						--follow
+
+					oc new-app wildfly-build-from-source-code
+
+			  2. "target/server": The maven build is run on the local machine and then, server and application are uploaded to the builder image,
+			  	 E.g.:
+
+			  		cd /path/intersmash/intersmash-tools/intersmash-tools-provisioners/src/test/resources/apps/openshift-jakarta-sample/target/server
+					mvn install -P openshift \
+						-Dwildfly.ee-feature-pack.location=org.wildfly:wildfly-galleon-pack:27.0.0.Alpha4 \
+						-Dwildfly.cloud-feature-pack.location=org.wildfly.cloud:wildfly-cloud-galleon-pack:2.0.0.Alpha4
+
+					oc new-build --name=wildfly-build-from-server \
+						--labels=intersmash.app=wildfly-test-app \
+						--binary=true \
+						--strategy=source \
+						--env=ADMIN_USERNAME=admin \
+						--env=ADMIN_PASSWORD=pass.1234 \
+						--image=quay.io/wildfly/wildfly-s2i-jdk11:latest
+
+					oc start-build wildfly-build-from-server \
+						--from-dir=./target/server \
+						--follow
+
+					oc new-app wildfly-build-from-server
+			 */
+			BinaryBuild binaryBuild;
+			Path localSourceCode = wildflyApplication.prepareProjectSources(binarySource.getArchive());
+			if (wildflyApplication.isCliScriptAppliedAtBuildTime() && !wildflyApplication.getCliScript().isEmpty()) {
+				cliScriptAppliedAtBuildTime = WildflyBuildTimeCliScript.isSupported(localSourceCode);
+				if (!cliScriptAppliedAtBuildTime) {
+					log.info("'{}' sources provide their own assemble script, the CLI script will be applied at runtime",
+							wildflyApplication.getName());
+				}
+			}
+			binaryBuild = cliScriptAppliedAtBuildTime
+					? new CompressedBinarySourceBuild(
+							IntersmashConfig.wildflyImageURL(),
+							localSourceCode,
+							environmentVariables.stream().collect(Collectors.toMap(EnvVar::getName, EnvVar::getValue)),
+							wildflyApplication.getName(),
+							WildflyBuildTimeCliScript.files(wildflyApplication.getCliScript()))
+					: new CompressedBinarySourceBuild(
+							IntersmashConfig.wildflyImageURL(),
+							localSourceCode,
+							environmentVariables.stream().collect(Collectors.toMap(EnvVar::getName, EnvVar::getValue)),
+							wildflyApplication.getName());
+			return deployBinaryBuild(binaryBuild, localSourceCode);
+		} else if (archiveFile.isFile()) {
+			/*
+			  Legacy S2I Binary build which takes as input an already built artifact e.g. WAR file;
+
+			  Note that WILDFLY images do not contain the server anymore;
+
+			  This scenario is probably to be pruned: now, if the build of th maven project happens outside
+			  openshift, you start a binary build "--from-dir" using the "target/server" folder;
+
+			  This workflow is just preserved to support legacy builds where no server is provisioned because the
+			  maven project isn't configured to use the new "wildfly-maven-plugin";
+			  E.g.
+
+				oc new-build --name=wildfly-build-from-war \
+					--labels=intersmash.app=wildfly-test-app \
+					--binary=true \
+					--strategy=source \
+					--env=ADMIN_USERNAME=admin \
+					--env=ADMIN_PASSWORD=pass.1234 \
+					--env=GALLEON_PROVISION_FEATURE_PACKS="org.wildfly:wildfly-galleon-pack:27.0.0.Alpha4,org.wildfly.cloud:wildfly-cloud-galleon-pack:2.0.0.Alpha4" \
+					--env=GALLEON_PROVISION_LAYERS=cloud-server \
+					--image=quay.io/wildfly/wildfly-s2i-jdk11:latest
+
+				oc start-build wildfly-build-from-war \
+					--from-file=/some-path/intersmash/intersmash-tools/intersmash-tools-provisioners/src/test/resources/apps/openshift-jakarta-sample/target/ROOT.war \
+					--follow
+
+				oc new-app wildfly-build-from-war
+			 */
+			BinaryBuildFromFile wildflyBuild = new BinaryBuildFromFile(
+					IntersmashConfig.wildflyImageURL(),
+					binarySource.getArchive(),
+					environmentVariables.stream().collect(Collectors.toMap(EnvVar::getName, EnvVar::getValue)),
+					wildflyApplication.getName() + "-"
+							+ IntersmashConfig.getProductCode(IntersmashConfig.wildflyImageURL()));
+			return deployBinaryBuild(wildflyBuild, binarySource.getArchive());
+		} else {
+			throw new RuntimeException(
+					String.format("'%s' archive path must be either a directory or a file", archiveFile.getAbsolutePath()));
+		}
+	}
+
+	/**
+	 * Deploy a binary build and wait for it to complete, possibly reusing a cached image when the build cache is
+	 * enabled, see {@link IntersmashConfig#buildCache()}.
+	 */
+	private ManagedBuildReference deployBinaryBuild(final BinaryBuild binaryBuild, final Path input) {
+		// stream the build log while the build is running, in order to track the build phases
+		try (BuildLogStreamer ignored = BuildLogStreamer.start(BuildManagers.get().openShift(), binaryBuild.getId(),
+				wildflyApplication.getName())) {
+			if (IntersmashConfig.buildCache()) {
+				final Map<String, String> keyProperties = wildflyApplication.getEnvVars().stream()
+						.collect(Collectors.toMap(EnvVar::getName, EnvVar::getValue));
+				if (cliScriptAppliedAtBuildTime) {
+					// the CLI script is part of the build inputs
+					keyProperties.put(WildflyBuildTimeCliScript.CLI_SCRIPT,
+							String.join("\n", wildflyApplication.getCliScript()));
+				}
+				final String key = BinaryBuildCache.computeKey(
+						BinaryBuildCache.resolveBuilderImage(BuildManagers.get().openShift(),
+								IntersmashConfig.wildflyImageURL()),
+						input, keyProperties);
+				return BinaryBuildCache.deploy(binaryBuild, key);
+			}
+			ManagedBuildReference reference = BuildManagers.get().deploy(binaryBuild);
+			BuildManagers.get().hasBuildCompleted(binaryBuild).level(Level.DEBUG).waitFor();
+			return reference;
+		}
+	}
+
 	private void deployImage() {
 		ffCheck = FailFastUtils.getFailFastCheck(EventHelper.timeOfLastEventBMOrTestNamespaceOrEpoch(),
 				wildflyApplication.getName());
@@ -258,16 +330,39 @@ public class WildflyImageOpenShiftProvisioner implements OpenShiftProvisioner<Wi
 		appBuilder.service()
 				.port("8080-tcp", 8080, 8080, TransportProtocol.TCP);
 
-		appBuilder.deploymentConfig().podTemplate().container()
-				.addLivenessProbe()
-				.setInitialDelay(60)
-				.setFailureThreshold(6)
-				.createHttpProbe("/health/live", "9990");
-
-		appBuilder.deploymentConfig().podTemplate().container()
-				.addReadinessProbe()
-				.setFailureThreshold(6)
-				.createHttpProbe("/health/ready", "9990");
+		if (IntersmashConfig.adaptiveProbes()) {
+			// the startup probe holds off the liveness probe until the server is started, so that no initial delay
+			// needs to be guessed, and its thresholds are derived from the boot times observed in previous runs
+			final BootTimeHistory.StartupThresholds thresholds = new BootTimeHistory().thresholds(getBootTimeKey());
+			appBuilder.deploymentConfig().podTemplate().container()
+					.addStartupProbe()
+					.setInitialDelay(thresholds.getInitialDelaySeconds())
+					.setPeriodSeconds(thresholds.getPeriodSeconds())
+					.setFailureThreshold(thresholds.getFailureThreshold())
+					.createHttpProbe("/health/live", "9990");
+
+			appBuilder.deploymentConfig().podTemplate().container()
+					.addLivenessProbe()
+					.setFailureThreshold(6)
+					.createHttpProbe("/health/live", "9990");
+
+			appBuilder.deploymentConfig().podTemplate().container()
+					.addReadinessProbe()
+					.setFrequencyCheck(thresholds.getPeriodSeconds())
+					.setFailureThreshold(6)
+					.createHttpProbe("/health/ready", "9990");
+		} else {
+			appBuilder.deploymentConfig().podTemplate().container()
+					.addLivenessProbe()
+					.setInitialDelay(60)
+					.setFailureThreshold(6)
+					.createHttpProbe("/health/live", "9990");
+
+			appBuilder.deploymentConfig().podTemplate().container()
+					.addReadinessProbe()
+					.setFailureThreshold(6)
+					.createHttpProbe("/health/ready", "9990");
+		}
 
 		// setup the ping service for clustering using DNS_PING
 		if (wildflyApplication.getPingServiceName() != null) {
@@ -284,8 +379,8 @@ public class WildflyImageOpenShiftProvisioner implements OpenShiftProvisioner<Wi
 			appBuilder.deploymentConfig().podTemplate().container().envVars(Collections.unmodifiableMap(pingServiceEnv));
 		}
 
-		// mount postconfigure CLI commands
-		if (!wildflyApplication.getCliScript().isEmpty()) {
+		// mount postconfigure CLI commands, unless they have been applied at build time already
+		if (!wildflyApplication.getCliScript().isEmpty() && !cliScriptAppliedAtBuildTime) {
 			final String extensionPath = "/opt/server/extensions";
 			final String scriptName = "configure.cli";
 
@@ -319,6 +414,12 @@ public class WildflyImageOpenShiftProvisioner implements OpenShiftProvisioner<Wi
 		appBuilder.deploymentConfig().podTemplate().container()
 				.envVars(wildflyApplication.getEnvVars().stream().collect(Collectors.toMap(EnvVar::getName, EnvVar::getValue)));
 
+		// GC logging
+		if (IntersmashConfig.gcLogs()) {
+			ContainerBuilder container = appBuilder.deploymentConfig().podTemplate().container();
+			container.envVar(GcLog.JAVA_OPTS_APPEND, GcLog.withJvmOptions(container.getEnvVars().get(GcLog.JAVA_OPTS_APPEND)));
+		}
+
 		// enable script debugging
 		if (wildflyApplication.getEnvVars().stream().noneMatch((envVar -> envVar.getName().equals(SCRIPT_DEBUG)))) {
 			if (IntersmashConfig.scriptDebug() != null)
@@ -345,6 +446,35 @@ public class WildflyImageOpenShiftProvisioner implements OpenShiftProvisioner<Wi
 		OpenShiftWaiters.get(openShift, ffCheck).isDcReady(wildflyApplication.getName()).level(Level.DEBUG).waitFor();
 		// 1 by default
 		waitForReplicas(1);
+		if (IntersmashConfig.adaptiveProbes()) {
+			recordBootTimes();
+		}
+	}
+
+	/**
+	 * The boot time depends on both the image and the deployed application
+	 */
+	private String getBootTimeKey() {
+		return IntersmashConfig.wildflyImageURL() + "|" + wildflyApplication.getName();
+	}
+
+	private void recordBootTimes() {
+		final BootTimeHistory history = new BootTimeHistory();
+		long slowest = -1;
+		for (Pod pod : getPods()) {
+			final Duration bootTime = BootTimeHistory.bootToReady(pod);
+			if (bootTime != null) {
+				log.debug("Pod {} was ready {} ms after start", pod.getMetadata().getName(), bootTime.toMillis());
+				history.record(getBootTimeKey(), bootTime);
+				// metrics are replaced when recorded again, hence one for each pod
+				ProvisioningReport.metric(wildflyApplication.getName(),
+						"pod." + pod.getMetadata().getName() + ".bootToReady.ms", bootTime.toMillis());
+				slowest = Math.max(slowest, bootTime.toMillis());
+			}
+		}
+		if (slowest >= 0) {
+			ProvisioningReport.metric(wildflyApplication.getName(), "pod.bootToReady.max.ms", slowest);
+		}
 	}
 
 	private void addEnvVariable(ApplicationBuilder appBuilder, final String key, final String value, final boolean addToDC,
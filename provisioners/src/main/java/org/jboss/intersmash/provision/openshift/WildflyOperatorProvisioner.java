@@ -104,7 +104,7 @@ public class WildflyOperatorProvisioner extends OperatorProvisioner<WildflyOpera
 				.level(Level.DEBUG)
 				.waitFor();
 		if (getApplication().getWildflyServer().getSpec().getReplicas() > 0) {
-			WaitersUtil.routeIsUp(getURL().toExternalForm())
+			WaitersUtil.routeIsUp(getApplication().getName(), getURL().toExternalForm())
 					.level(Level.DEBUG)
 					.waitFor();
 		}
@@ -134,7 +134,7 @@ public class WildflyOperatorProvisioner extends OperatorProvisioner<WildflyOpera
 					.level(Level.DEBUG).waitFor();
 		}
 		if (originalReplicas == 0 && replicas > 0) {
-			WaitersUtil.routeIsUp(getURL().toExternalForm())
+			WaitersUtil.routeIsUp(getApplication().getName(), getURL().toExternalForm())
 					.level(Level.DEBUG)
 					.waitFor();
 		}
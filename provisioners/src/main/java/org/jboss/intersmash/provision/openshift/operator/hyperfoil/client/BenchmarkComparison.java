@@ -0,0 +1,255 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-metric comparison of the results of a candidate run with the results of a baseline run, for each phase and
+ * metric both runs have in common.
+ *
+ * A change is a regression when the candidate is worse than the baseline by more than the tolerance, i.e. a lower
+ * throughput, or a higher error rate or response time. The tolerance is relative to the baseline, except for the
+ * error rate, which is compared by its absolute difference, since a baseline run is often free of errors.
+ */
+public class BenchmarkComparison {
+	static final double DEFAULT_TOLERANCE = 0.05;
+	static final double DEFAULT_ERROR_RATE_TOLERANCE = 0.01;
+	static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+
+	private final BenchmarkResult baseline;
+	private final BenchmarkResult candidate;
+	private final List<Delta> deltas;
+
+	private BenchmarkComparison(final BenchmarkResult baseline, final BenchmarkResult candidate,
+			final List<Delta> deltas) {
+		this.baseline = baseline;
+		this.candidate = candidate;
+		this.deltas = deltas;
+	}
+
+	/**
+	 * Compare runs, with a tolerance of {@link #DEFAULT_TOLERANCE}, and an error rate tolerance of
+	 * {@link #DEFAULT_ERROR_RATE_TOLERANCE}.
+	 *
+	 * @param baseline Results of the baseline run
+	 * @param candidate Results of the candidate run
+	 * @return {@link BenchmarkComparison} instance
+	 */
+	public static BenchmarkComparison compare(final BenchmarkResult baseline, final BenchmarkResult candidate) {
+		return compare(baseline, candidate, DEFAULT_TOLERANCE);
+	}
+
+	/**
+	 * Compare runs, with an error rate tolerance of {@link #DEFAULT_ERROR_RATE_TOLERANCE}.
+	 *
+	 * @param baseline Results of the baseline run
+	 * @param candidate Results of the candidate run
+	 * @param tolerance Relative change, e.g. 0.05 for 5%, which is not considered a regression
+	 * @return {@link BenchmarkComparison} instance
+	 */
+	public static BenchmarkComparison compare(final BenchmarkResult baseline, final BenchmarkResult candidate,
+			final double tolerance) {
+		return compare(baseline, candidate, tolerance, DEFAULT_ERROR_RATE_TOLERANCE);
+	}
+
+	/**
+	 * @param baseline Results of the baseline run
+	 * @param candidate Results of the candidate run
+	 * @param tolerance Relative change, e.g. 0.05 for 5%, which is not considered a regression
+	 * @param errorRateTolerance Absolute increase of the error rate, e.g. 0.01 for one more failed request out of a
+	 *            hundred, which is not considered a regression
+	 * @return {@link BenchmarkComparison} instance
+	 */
+	public static BenchmarkComparison compare(final BenchmarkResult baseline, final BenchmarkResult candidate,
+			final double tolerance, final double errorRateTolerance) {
+		final Map<String, BenchmarkResult.PhaseResult> baselinePhases = baseline.getPhases().stream()
+				.collect(Collectors.toMap(BenchmarkComparison::key, Function.identity(), (a, b) -> b));
+		final List<Delta> deltas = new ArrayList<>();
+		for (BenchmarkResult.PhaseResult after : candidate.getPhases()) {
+			final BenchmarkResult.PhaseResult before = baselinePhases.get(key(after));
+			if (before == null) {
+				continue;
+			}
+			deltas.add(new Delta(after, "throughput", before.getThroughput(), after.getThroughput(), false, tolerance,
+					false));
+			deltas.add(new Delta(after, "errorRate", before.getErrorRate(), after.getErrorRate(), true,
+					errorRateTolerance, true));
+			deltas.add(new Delta(after, "mean.ms", millis(before.getMeanResponseTime()),
+					millis(after.getMeanResponseTime()), true, tolerance, false));
+			if (before.getHistogram() != null && after.getHistogram() != null) {
+				for (double percentile : PERCENTILES) {
+					deltas.add(new Delta(after, "p" + format(percentile) + ".ms",
+							millis(before.percentile(percentile)), millis(after.percentile(percentile)), true,
+							tolerance, false));
+				}
+			}
+		}
+		return new BenchmarkComparison(baseline, candidate, deltas);
+	}
+
+	public List<Delta> getDeltas() {
+		return Collections.unmodifiableList(deltas);
+	}
+
+	/**
+	 * @return The deltas which are regressions
+	 */
+	public List<Delta> getRegressions() {
+		return deltas.stream().filter(Delta::isRegression).collect(Collectors.toList());
+	}
+
+	public boolean hasRegressions() {
+		return deltas.stream().anyMatch(Delta::isRegression);
+	}
+
+	/**
+	 * Write the delta report as text.
+	 *
+	 * @param file Path to the report file
+	 * @throws IOException if the file can't be written
+	 */
+	public void write(final Path file) throws IOException {
+		Files.createDirectories(file.toAbsolutePath().getParent());
+		Files.writeString(file, toString(), StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder report = new StringBuilder();
+		report.append(String.format("Benchmark %s: run %s (%s) vs. baseline run %s (%s)%n", candidate.getBenchmark(),
+				candidate.getRunId(), candidate.getGitRef(), baseline.getRunId(), baseline.getGitRef()));
+		final List<String> imageChanges = candidate.getImages().stream()
+				.filter(image -> !baseline.getImages().contains(image))
+				.collect(Collectors.toList());
+		imageChanges.forEach(image -> report.append("  changed image: ").append(image).append('\n'));
+		report.append(String.format(Locale.ROOT, "%-20s %-20s %-12s %14s %14s %9s%n", "phase", "metric", "measure",
+				"baseline", "candidate", "change"));
+		for (Delta delta : deltas) {
+			// absolute changes are reported in percentage points
+			report.append(String.format(Locale.ROOT, "%-20s %-20s %-12s %14.3f %14.3f %+8.1f%s%s%n", delta.getPhase(),
+					delta.getMetric(), delta.getMeasure(), delta.getBaseline(), delta.getCandidate(),
+					(delta.isAbsolute() ? delta.getDifference() : delta.getChange()) * 100,
+					delta.isAbsolute() ? "pp" : "%", delta.isRegression() ? "  REGRESSION" : ""));
+		}
+		return report.toString();
+	}
+
+	private static String key(final BenchmarkResult.PhaseResult phase) {
+		return phase.getPhase() + "/" + phase.getMetric();
+	}
+
+	private static double millis(final long nanos) {
+		return nanos / 1e6;
+	}
+
+	private static double millis(final Duration duration) {
+		return duration.toNanos() / 1e6;
+	}
+
+	private static String format(final double percentile) {
+		return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+	}
+
+	/**
+	 * Change of a measure of a phase and metric
+	 */
+	public static class Delta {
+		private final String phase;
+		private final String metric;
+		private final String measure;
+		private final double baseline;
+		private final double candidate;
+		private final boolean absolute;
+		private final boolean regression;
+
+		Delta(final BenchmarkResult.PhaseResult phase, final String measure, final double baseline,
+				final double candidate, final boolean lowerIsBetter, final double tolerance, final boolean absolute) {
+			this.phase = phase.getPhase();
+			this.metric = phase.getMetric();
+			this.measure = measure;
+			this.baseline = baseline;
+			this.candidate = candidate;
+			this.absolute = absolute;
+			final double change = absolute ? getDifference() : getChange();
+			this.regression = lowerIsBetter ? change > tolerance : change < -tolerance;
+		}
+
+		public String getPhase() {
+			return phase;
+		}
+
+		public String getMetric() {
+			return metric;
+		}
+
+		/**
+		 * @return What is compared, e.g. {@code throughput}, {@code errorRate} or {@code p99.ms}
+		 */
+		public String getMeasure() {
+			return measure;
+		}
+
+		public double getBaseline() {
+			return baseline;
+		}
+
+		public double getCandidate() {
+			return candidate;
+		}
+
+		/**
+		 * @return Relative change from the baseline, e.g. 0.1 for 10% more, infinite when the baseline is zero and
+		 *         the candidate isn't
+		 */
+		public double getChange() {
+			if (baseline == 0) {
+				return candidate == 0 ? 0 : Math.copySign(Double.POSITIVE_INFINITY, candidate);
+			}
+			return (candidate - baseline) / Math.abs(baseline);
+		}
+
+		/**
+		 * @return Absolute change from the baseline
+		 */
+		public double getDifference() {
+			return candidate - baseline;
+		}
+
+		/**
+		 * @return true if the tolerance applies to the {@link #getDifference() absolute change}, e.g. for the error
+		 *         rate, false if it applies to the {@link #getChange() relative change}
+		 */
+		public boolean isAbsolute() {
+			return absolute;
+		}
+
+		public boolean isRegression() {
+			return regression;
+		}
+	}
+}
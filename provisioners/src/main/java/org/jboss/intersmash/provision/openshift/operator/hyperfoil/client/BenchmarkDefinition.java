@@ -0,0 +1,178 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.HyperfoilApi;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.invoker.ApiException;
+import org.jboss.intersmash.util.Sha256;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Response;
+
+/**
+ * Hyperfoil benchmark definition, rendered from a YAML template whose {@code ${ServiceUrl:<application>}}
+ * placeholders are replaced by the URLs of the deployed applications, e.g.
+ * <pre>
+ *     name: hello-world
+ *     http:
+ *       host: ${ServiceUrl:WildflyApplication}
+ * </pre>
+ * The definition is uploaded only when the controller doesn't hold the same content already, and the upload is
+ * conditional on the version of the benchmark which was checked, i.e. {@code If-Match}, so that a concurrent update
+ * isn't overwritten silently.
+ */
+@Slf4j
+public class BenchmarkDefinition {
+	private static final Pattern SERVICE_URL = Pattern.compile("\\$\\{ServiceUrl:([\\w.$]+)}");
+	private static final Pattern NAME = Pattern.compile("^name:\\s*['\"]?([^'\"#\\s]+)", Pattern.MULTILINE);
+	private static final Pattern AGENTS = Pattern.compile("^agents:[^\\n]*(?:\\n(?:[ \\t][^\\n]*)?)*\\n?",
+			Pattern.MULTILINE);
+
+	private final String name;
+	private final String source;
+	private final String hash;
+
+	private BenchmarkDefinition(final String name, final String source) {
+		this.name = name;
+		this.source = source;
+		this.hash = Sha256.of(source);
+	}
+
+	/**
+	 * @param resource Class path resource of the YAML template
+	 * @param serviceUrls Resolves an application name, as referenced by the template, to its URL, or null if unknown
+	 * @return {@link BenchmarkDefinition} instance
+	 */
+	public static BenchmarkDefinition fromResource(final String resource, final Function<String, String> serviceUrls) {
+		try (InputStream template = Thread.currentThread().getContextClassLoader().getResourceAsStream(resource)) {
+			if (template == null) {
+				throw new IllegalArgumentException("Benchmark template " + resource + " not found");
+			}
+			return fromTemplate(new String(template.readAllBytes(), StandardCharsets.UTF_8), serviceUrls);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @param template YAML template
+	 * @param serviceUrls Resolves an application name, as referenced by the template, to its URL, or null if unknown
+	 * @return {@link BenchmarkDefinition} instance
+	 */
+	public static BenchmarkDefinition fromTemplate(final String template, final Function<String, String> serviceUrls) {
+		final Matcher placeholder = SERVICE_URL.matcher(template);
+		final StringBuilder source = new StringBuilder();
+		while (placeholder.find()) {
+			final String url = serviceUrls.apply(placeholder.group(1));
+			if (url == null) {
+				throw new IllegalStateException("No URL for application " + placeholder.group(1)
+						+ " referenced by the benchmark template");
+			}
+			placeholder.appendReplacement(source, Matcher.quoteReplacement(url));
+		}
+		placeholder.appendTail(source);
+		final Matcher name = NAME.matcher(source);
+		if (!name.find()) {
+			throw new IllegalArgumentException("The benchmark template doesn't define a top level name");
+		}
+		return new BenchmarkDefinition(name.group(1), source.toString());
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return The rendered YAML definition
+	 */
+	public String getSource() {
+		return source;
+	}
+
+	/**
+	 * @return SHA-256 of the rendered definition, hex encoded
+	 */
+	public String getHash() {
+		return hash;
+	}
+
+	/**
+	 * @param agents {@link HyperfoilAgents} which should generate the load
+	 * @return A definition whose {@code agents} section, if any, is replaced by the one of the given agents
+	 */
+	public BenchmarkDefinition withAgents(final HyperfoilAgents agents) {
+		final Matcher section = AGENTS.matcher(source);
+		if (section.find()) {
+			return new BenchmarkDefinition(name,
+					source.substring(0, section.start()) + agents.render() + source.substring(section.end()));
+		}
+		final Matcher nameLine = NAME.matcher(source);
+		nameLine.find();
+		final int lineEnd = source.indexOf('\n', nameLine.end());
+		return lineEnd < 0
+				? new BenchmarkDefinition(name, source + "\n" + agents.render())
+				: new BenchmarkDefinition(name,
+						source.substring(0, lineEnd + 1) + agents.render() + source.substring(lineEnd + 1));
+	}
+
+	/**
+	 * Upload the definition, unless the controller holds the same content already.
+	 *
+	 * @param api {@link HyperfoilApi} instance
+	 * @return true if the definition was uploaded, false if it was already up to date
+	 * @throws ApiException if the definition can't be retrieved or uploaded
+	 */
+	public boolean upload(final HyperfoilApi api) throws ApiException {
+		String version = null;
+		try (Response response = api.getBenchmarkCall(name, null).execute()) {
+			if (response.isSuccessful()) {
+				if (hash.equals(Sha256.of(response.body().string()))) {
+					log.debug("Benchmark {} is up to date, {}", name, hash);
+					return false;
+				}
+				version = response.header("ETag");
+			} else if (response.code() != 404) {
+				throw new ApiException(response.code(), "Unable to retrieve benchmark " + name);
+			}
+		} catch (IOException e) {
+			throw new ApiException(e);
+		}
+		Path file = null;
+		try {
+			file = Files.createTempFile(name, ".hf.yaml");
+			Files.writeString(file, source, StandardCharsets.UTF_8);
+			api.addBenchmark(version, null, file.toFile());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			if (file != null) {
+				file.toFile().delete();
+			}
+		}
+		log.info("Benchmark {} uploaded, {}", name, hash);
+		return true;
+	}
+}
@@ -0,0 +1,219 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.DataFormatException;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Results of a Hyperfoil run, as stored by the {@link BenchmarkResultsStore}: the summary of each phase and metric,
+ * along with its response time histogram, and what the run was executed against, i.e. the images and the git
+ * reference of the test suite.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BenchmarkResult {
+	private String benchmark;
+	private String runId;
+	private String gitRef;
+	private List<String> images = new ArrayList<>();
+	private long timestamp;
+	private List<PhaseResult> phases = new ArrayList<>();
+
+	public String getBenchmark() {
+		return benchmark;
+	}
+
+	public void setBenchmark(final String benchmark) {
+		this.benchmark = benchmark;
+	}
+
+	public String getRunId() {
+		return runId;
+	}
+
+	public void setRunId(final String runId) {
+		this.runId = runId;
+	}
+
+	/**
+	 * @return Git reference of the test suite, i.e. the commit ID
+	 */
+	public String getGitRef() {
+		return gitRef;
+	}
+
+	public void setGitRef(final String gitRef) {
+		this.gitRef = gitRef;
+	}
+
+	/**
+	 * @return The images the run was executed against
+	 */
+	public List<String> getImages() {
+		return images;
+	}
+
+	public void setImages(final List<String> images) {
+		this.images = images;
+	}
+
+	/**
+	 * @return Time the results were collected, in milliseconds since the epoch
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public void setTimestamp(final long timestamp) {
+		this.timestamp = timestamp;
+	}
+
+	public List<PhaseResult> getPhases() {
+		return phases;
+	}
+
+	public void setPhases(final List<PhaseResult> phases) {
+		this.phases = phases;
+	}
+
+	/**
+	 * Summary of a phase and metric. Response times are in nanoseconds.
+	 */
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	public static class PhaseResult {
+		private String phase;
+		private String metric;
+		private long requests;
+		private long errors;
+		private double throughput;
+		private long meanResponseTime;
+		private String histogram;
+
+		public String getPhase() {
+			return phase;
+		}
+
+		public void setPhase(final String phase) {
+			this.phase = phase;
+		}
+
+		public String getMetric() {
+			return metric;
+		}
+
+		public void setMetric(final String metric) {
+			this.metric = metric;
+		}
+
+		public long getRequests() {
+			return requests;
+		}
+
+		public void setRequests(final long requests) {
+			this.requests = requests;
+		}
+
+		public long getErrors() {
+			return errors;
+		}
+
+		public void setErrors(final long errors) {
+			this.errors = errors;
+		}
+
+		/**
+		 * @return Requests per second
+		 */
+		public double getThroughput() {
+			return throughput;
+		}
+
+		public void setThroughput(final double throughput) {
+			this.throughput = throughput;
+		}
+
+		public long getMeanResponseTime() {
+			return meanResponseTime;
+		}
+
+		public void setMeanResponseTime(final long meanResponseTime) {
+			this.meanResponseTime = meanResponseTime;
+		}
+
+		/**
+		 * @return Response time histogram, as a base64 encoded, compressed, HdrHistogram, null if not available
+		 */
+		public String getHistogram() {
+			return histogram;
+		}
+
+		public void setHistogram(final String histogram) {
+			this.histogram = histogram;
+		}
+
+		/**
+		 * @return Ratio of failed requests, between 0 and 1
+		 */
+		@JsonIgnore
+		public double getErrorRate() {
+			return requests > 0 ? (double) errors / requests : 0;
+		}
+
+		/**
+		 * @param histogram Response time {@link Histogram}, encoded in compressed form
+		 */
+		@JsonIgnore
+		public void setHdrHistogram(final Histogram histogram) {
+			final ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+			final int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+			this.histogram = Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+		}
+
+		/**
+		 * @return The decoded response time {@link Histogram}, null if not available
+		 */
+		@JsonIgnore
+		public Histogram getHdrHistogram() {
+			if (histogram == null) {
+				return null;
+			}
+			try {
+				return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Base64.getDecoder().decode(histogram)), 0);
+			} catch (DataFormatException e) {
+				throw new IllegalStateException("Invalid histogram of phase " + phase + ", metric " + metric, e);
+			}
+		}
+
+		/**
+		 * @param percentile Percentile, between 0 and 100
+		 * @return The response time at the percentile, null if the histogram is not available
+		 */
+		public Duration percentile(final double percentile) {
+			final Histogram decoded = getHdrHistogram();
+			return decoded == null ? null : HyperfoilHistograms.percentile(decoded, percentile);
+		}
+	}
+}
@@ -0,0 +1,219 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.jboss.intersmash.provision.openshift.ImagePrePuller;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.RunStatistics;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.RunStatisticsWrapper;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.HyperfoilApi;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.invoker.ApiException;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local store of Hyperfoil run results, one {@code <run id>.json} file for each run, in a directory for each
+ * benchmark, see {@link BenchmarkResult}, so that the results of a run can be compared with a baseline, see
+ * {@link BenchmarkComparison}, e.g. after an image update.
+ */
+@Slf4j
+public class BenchmarkResultsStore {
+	public static final Path RESULTS = Paths.get("tmp").toAbsolutePath().resolve("hyperfoil").resolve("results");
+	/**
+	 * Environment variable holding the git reference of the test suite, as set by Jenkins, otherwise the reference
+	 * is the HEAD commit of the git repository the test suite runs in
+	 */
+	static final String GIT_COMMIT = "GIT_COMMIT";
+
+	private static final ObjectMapper MAPPER = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	private final Path directory;
+
+	public BenchmarkResultsStore() {
+		this(RESULTS);
+	}
+
+	public BenchmarkResultsStore(final Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Retrieve the statistics and the histograms of a completed run, then store them.
+	 *
+	 * @param api {@link HyperfoilApi} instance
+	 * @param benchmark Benchmark name
+	 * @param runId Run ID
+	 * @return The stored {@link BenchmarkResult}
+	 * @throws ApiException if the statistics can't be retrieved
+	 */
+	public BenchmarkResult collect(final HyperfoilApi api, final String benchmark, final String runId)
+			throws ApiException {
+		final File allStats = api.getAllStats(runId);
+		final RunStatistics statistics;
+		try {
+			statistics = RunStatistics.read(allStats, EnumSet.of(RunStatisticsWrapper.Section.PHASE_STATS));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		final BenchmarkResult result = new BenchmarkResult();
+		result.setBenchmark(benchmark);
+		result.setRunId(runId);
+		result.setGitRef(gitRef());
+		result.setImages(ImagePrePuller.configuredImages());
+		result.setTimestamp(System.currentTimeMillis());
+		for (RunStatistics.PhaseStats stats : statistics.getPhaseStats()) {
+			final BenchmarkResult.PhaseResult phase = summarize(stats);
+			try {
+				phase.setHdrHistogram(HyperfoilHistograms.fetch(api, runId, stats.getPhase(), 0, stats.getMetric()));
+			} catch (ApiException | RuntimeException e) {
+				log.warn("Unable to retrieve the histogram of run {}, phase {}, metric {}", runId, stats.getPhase(),
+						stats.getMetric(), e);
+			}
+			result.getPhases().add(phase);
+		}
+		store(result);
+		return result;
+	}
+
+	/**
+	 * @param result {@link BenchmarkResult} to be stored, replacing the stored results of the same run
+	 * @return Path to the stored file
+	 */
+	public Path store(final BenchmarkResult result) {
+		final Path file = file(result.getBenchmark(), result.getRunId());
+		try {
+			Files.createDirectories(file.getParent());
+			MAPPER.writeValue(file.toFile(), result);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		log.info("Results of run {} of benchmark {} stored in {}", result.getRunId(), result.getBenchmark(), file);
+		return file;
+	}
+
+	/**
+	 * @param benchmark Benchmark name
+	 * @param runId Run ID
+	 * @return The stored results of the run, if any
+	 */
+	public Optional<BenchmarkResult> load(final String benchmark, final String runId) {
+		final Path file = file(benchmark, runId);
+		return Files.exists(file) ? Optional.of(read(file)) : Optional.empty();
+	}
+
+	/**
+	 * @param benchmark Benchmark name
+	 * @return The stored results of the benchmark, oldest first
+	 */
+	public List<BenchmarkResult> list(final String benchmark) {
+		final Path benchmarkDirectory = directory.resolve(benchmark);
+		if (!Files.isDirectory(benchmarkDirectory)) {
+			return List.of();
+		}
+		try (Stream<Path> files = Files.list(benchmarkDirectory)) {
+			return files.filter(file -> file.getFileName().toString().endsWith(".json"))
+					.map(BenchmarkResultsStore::read)
+					.sorted(Comparator.comparingLong(BenchmarkResult::getTimestamp))
+					.collect(Collectors.toList());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Find the baseline to compare a run with, e.g. the latest results for a previous image or git reference.
+	 *
+	 * @param benchmark Benchmark name
+	 * @param filter Selects the candidate baselines
+	 * @return The latest stored results matching the filter, if any
+	 */
+	public Optional<BenchmarkResult> latest(final String benchmark, final Predicate<BenchmarkResult> filter) {
+		final List<BenchmarkResult> results = list(benchmark).stream().filter(filter).collect(Collectors.toList());
+		return results.isEmpty() ? Optional.empty() : Optional.of(results.get(results.size() - 1));
+	}
+
+	static BenchmarkResult.PhaseResult summarize(final RunStatistics.PhaseStats stats) {
+		final BenchmarkResult.PhaseResult phase = new BenchmarkResult.PhaseResult();
+		phase.setPhase(stats.getPhase());
+		phase.setMetric(stats.getMetric());
+		final RunStatistics.Summary summary = stats.getSummary();
+		if (summary != null) {
+			final long requests = value(summary.getRequestCount());
+			phase.setRequests(requests);
+			phase.setErrors(summary.getErrors());
+			phase.setMeanResponseTime(value(summary.getMeanResponseTime()));
+			final long millis = value(stats.getEnd()) - value(stats.getStart());
+			phase.setThroughput(millis > 0 ? requests * 1000.0 / millis : 0);
+		}
+		return phase;
+	}
+
+	private Path file(final String benchmark, final String runId) {
+		return directory.resolve(benchmark).resolve(runId + ".json");
+	}
+
+	private static BenchmarkResult read(final Path file) {
+		try {
+			return MAPPER.readValue(file.toFile(), BenchmarkResult.class);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static long value(final Long value) {
+		return value == null ? 0 : value;
+	}
+
+	private static String gitRef() {
+		final String commit = System.getenv(GIT_COMMIT);
+		if (commit != null && !commit.isBlank()) {
+			return commit;
+		}
+		final FileRepositoryBuilder builder = new FileRepositoryBuilder()
+				.findGitDir(Paths.get(".").toAbsolutePath().normalize().toFile());
+		if (builder.getGitDir() == null) {
+			return null;
+		}
+		try (Repository repository = builder.build()) {
+			final ObjectId head = repository.resolve(Constants.HEAD);
+			return head == null ? null : head.getName();
+		} catch (IOException e) {
+			log.debug("Unable to resolve the git HEAD commit", e);
+			return null;
+		}
+	}
+}
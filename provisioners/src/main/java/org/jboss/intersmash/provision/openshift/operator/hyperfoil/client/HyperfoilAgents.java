@@ -0,0 +1,238 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.HyperfoilApi;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.invoker.ApiException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Agents which generate the load of a Hyperfoil benchmark. On OpenShift the agents are pods started by the controller
+ * when a run starts, as described by the {@code agents} section of the benchmark, which is rendered by
+ * {@link #render()}, see {@link BenchmarkDefinition#withAgents(HyperfoilAgents)}.
+ *
+ * The number of agents, and the CPU of each agent, can be derived from the target request rate of the benchmark,
+ * so that the load generator doesn't become the bottleneck. Agents are pinned to distinct nodes, when enough nodes
+ * are provided, so that they don't compete for the same CPUs and network interface.
+ */
+@Slf4j
+public class HyperfoilAgents {
+	/**
+	 * Requests per second a single agent core is expected to sustain, by default
+	 */
+	public static final double DEFAULT_RATE_PER_CORE = 2000;
+	/**
+	 * Cores an agent is given at most, by default, more cores mean more agents
+	 */
+	public static final int DEFAULT_MAX_CORES_PER_AGENT = 4;
+	static final String AGENT_PREFIX = "agent-";
+	private static final Pattern PERCENTAGE = Pattern.compile("^\\s*([0-9]+(?:\\.[0-9]+)?)\\s*%");
+
+	private final int count;
+	private final int cores;
+	private String memory = "1Gi";
+	private List<String> nodes = List.of();
+
+	private HyperfoilAgents(final int count, final int cores) {
+		if (count < 1 || cores < 1) {
+			throw new IllegalArgumentException("At least one agent with one core is required");
+		}
+		this.count = count;
+		this.cores = cores;
+	}
+
+	/**
+	 * @param count Number of agents
+	 * @return {@link HyperfoilAgents} instance, one core each
+	 */
+	public static HyperfoilAgents of(final int count) {
+		return new HyperfoilAgents(count, 1);
+	}
+
+	/**
+	 * Size the agents for a target request rate, see {@link #DEFAULT_RATE_PER_CORE} and
+	 * {@link #DEFAULT_MAX_CORES_PER_AGENT}.
+	 *
+	 * @param requestsPerSecond Target request rate of the benchmark
+	 * @return {@link HyperfoilAgents} instance
+	 */
+	public static HyperfoilAgents forRate(final double requestsPerSecond) {
+		return forRate(requestsPerSecond, DEFAULT_RATE_PER_CORE, DEFAULT_MAX_CORES_PER_AGENT);
+	}
+
+	/**
+	 * @param requestsPerSecond Target request rate of the benchmark
+	 * @param ratePerCore Requests per second a single agent core is expected to sustain
+	 * @param maxCoresPerAgent Cores an agent is given at most
+	 * @return {@link HyperfoilAgents} instance, with the least agents which can sustain the rate
+	 */
+	public static HyperfoilAgents forRate(final double requestsPerSecond, final double ratePerCore,
+			final int maxCoresPerAgent) {
+		final int totalCores = Math.max(1, (int) Math.ceil(requestsPerSecond / ratePerCore));
+		final int count = (totalCores + maxCoresPerAgent - 1) / maxCoresPerAgent;
+		return new HyperfoilAgents(count, (totalCores + count - 1) / count);
+	}
+
+	/**
+	 * @param memory Memory request and limit of each agent, e.g. {@code 2Gi}, {@code 1Gi} by default
+	 * @return this
+	 */
+	public HyperfoilAgents memory(final String memory) {
+		this.memory = memory;
+		return this;
+	}
+
+	/**
+	 * Pin the agents to nodes, round robin, i.e. each agent runs on a distinct node unless there are more agents than
+	 * nodes.
+	 *
+	 * @param nodes Node host names
+	 * @return this
+	 */
+	public HyperfoilAgents nodes(final List<String> nodes) {
+		this.nodes = List.copyOf(nodes);
+		if (!nodes.isEmpty() && nodes.size() < count) {
+			log.warn("{} Hyperfoil agents are spread over {} nodes only, some agents will share a node", count,
+					nodes.size());
+		}
+		return this;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * @return Cores of each agent, which is also the number of its threads
+	 */
+	public int getCores() {
+		return cores;
+	}
+
+	public String getMemory() {
+		return memory;
+	}
+
+	public List<String> getNodes() {
+		return Collections.unmodifiableList(nodes);
+	}
+
+	/**
+	 * @return Names of the agents, i.e. {@code agent-1} to {@code agent-<count>}
+	 */
+	public List<String> getNames() {
+		final List<String> names = new ArrayList<>();
+		for (int i = 1; i <= count; i++) {
+			names.add(AGENT_PREFIX + i);
+		}
+		return names;
+	}
+
+	/**
+	 * @return The {@code agents} section of a benchmark definition
+	 */
+	public String render() {
+		final StringBuilder agents = new StringBuilder("agents:\n");
+		final List<String> names = getNames();
+		for (int i = 0; i < names.size(); i++) {
+			agents.append("  ").append(names.get(i)).append(":\n");
+			if (!nodes.isEmpty()) {
+				agents.append("    node: ").append(nodes.get(i % nodes.size())).append('\n');
+			}
+			agents.append("    cpu: ").append(cores * 1000).append("m\n");
+			agents.append("    memory: ").append(memory).append('\n');
+			agents.append("    threads: ").append(cores).append('\n');
+		}
+		return agents.toString();
+	}
+
+	/**
+	 * Retrieve the CPU usage of the agents of a run, as reported by the agents for each phase.
+	 *
+	 * @param api {@link HyperfoilApi} instance
+	 * @param runId Run ID
+	 * @return CPU usage, between 0 and 1, by phase and agent
+	 * @throws ApiException if the CPU usage can't be retrieved
+	 */
+	public static Map<String, Map<String, Double>> cpuUsage(final HyperfoilApi api, final String runId)
+			throws ApiException {
+		return cpuUsage(api.agentCpu(runId));
+	}
+
+	/**
+	 * @param usage CPU usage, as returned by {@link #cpuUsage(HyperfoilApi, String)}
+	 * @param threshold CPU usage, between 0 and 1, above which an agent is considered saturated
+	 * @return The agents whose CPU usage exceeded the threshold in any phase, along with their highest usage
+	 */
+	public static Map<String, Double> saturated(final Map<String, Map<String, Double>> usage, final double threshold) {
+		final Map<String, Double> saturated = new LinkedHashMap<>();
+		usage.values().forEach(agents -> agents.forEach((agent, cpu) -> {
+			if (cpu > threshold) {
+				saturated.merge(agent, cpu, Math::max);
+			}
+		}));
+		return saturated;
+	}
+
+	/**
+	 * The CPU usage is reported by phase and agent, either as a ratio or as a percentage, e.g. {@code "85.3% (3.4/4)"}
+	 */
+	static Map<String, Map<String, Double>> cpuUsage(final Object response) {
+		final Map<String, Map<String, Double>> usage = new LinkedHashMap<>();
+		if (!(response instanceof Map)) {
+			return usage;
+		}
+		for (Map.Entry<?, ?> phase : ((Map<?, ?>) response).entrySet()) {
+			if (phase.getValue() instanceof Map) {
+				final Map<String, Double> agents = ((Map<?, ?>) phase.getValue()).entrySet().stream()
+						.filter(agent -> parse(agent.getValue()) != null)
+						.collect(Collectors.toMap(agent -> String.valueOf(agent.getKey()),
+								agent -> parse(agent.getValue()), (a, b) -> b, LinkedHashMap::new));
+				usage.put(String.valueOf(phase.getKey()), agents);
+			}
+		}
+		return usage;
+	}
+
+	private static Double parse(final Object value) {
+		if (value instanceof Number) {
+			return ((Number) value).doubleValue();
+		}
+		if (value != null) {
+			final Matcher percentage = PERCENTAGE.matcher(value.toString());
+			if (percentage.find()) {
+				return Double.parseDouble(percentage.group(1)) / 100;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(Locale.ROOT, "%d agents, %d cores and %s each, on nodes %s", count, cores, memory, nodes);
+	}
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.HyperfoilApi;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.invoker.ApiCallback;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.invoker.ApiClient;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.invoker.ApiException;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.model.RequestStatisticsResponse;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.model.Run;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.model.Version;
+
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+
+/**
+ * Non-blocking facade of the generated {@link HyperfoilApi}, returning a {@link CompletableFuture} for each call, so
+ * that e.g. the run status, the recent statistics and the agent logs can be queried concurrently while a benchmark
+ * runs.
+ *
+ * All the instances share one {@link ConnectionPool} and one {@link Dispatcher}, hence keep-alive connections to the
+ * Hyperfoil controller are reused across clients, and the number of concurrent requests per controller is bounded
+ * by {@link #MAX_REQUESTS_PER_HOST}. Concurrent requests are multiplexed on a single connection when the controller
+ * negotiates HTTP/2, otherwise they are spread over the pooled HTTP/1.1 connections.
+ *
+ * Cancelling a returned future cancels the related HTTP call.
+ */
+public class HyperfoilAsyncApi {
+	static final int MAX_REQUESTS = 64;
+	static final int MAX_REQUESTS_PER_HOST = 16;
+	static final int MAX_IDLE_CONNECTIONS = MAX_REQUESTS_PER_HOST;
+	static final long KEEP_ALIVE_MINUTES = 5;
+
+	private static final ConnectionPool CONNECTION_POOL = new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES,
+			TimeUnit.MINUTES);
+	private static final Dispatcher DISPATCHER = dispatcher();
+
+	private final HyperfoilApi api;
+
+	/**
+	 * Plain HTTP client, use {@link org.jboss.intersmash.provision.openshift.HyperfoilOperatorProvisioner#getHyperfoilAsyncApi()}
+	 * for a controller exposed by an HTTPS route.
+	 *
+	 * @param basePath URL of the Hyperfoil controller
+	 */
+	public HyperfoilAsyncApi(final String basePath) {
+		this(new ApiClient().setBasePath(basePath));
+	}
+
+	/**
+	 * Wrap an existing {@link ApiClient}, whose HTTP client is switched to the shared connection pool and dispatcher.
+	 * Its interceptors, timeouts and SSL settings are retained.
+	 *
+	 * @param apiClient {@link ApiClient} instance
+	 */
+	public HyperfoilAsyncApi(final ApiClient apiClient) {
+		apiClient.setHttpClient(apiClient.getHttpClient().newBuilder()
+				.connectionPool(CONNECTION_POOL)
+				.dispatcher(DISPATCHER)
+				.build());
+		this.api = new HyperfoilApi(apiClient);
+	}
+
+	/**
+	 * @return Blocking {@link HyperfoilApi} sharing the HTTP client of this facade, e.g. for calls which don't have an
+	 *         asynchronous variant here
+	 */
+	public HyperfoilApi getHyperfoilApi() {
+		return api;
+	}
+
+	public CompletableFuture<Version> getVersion() {
+		return call(api::getVersionAsync);
+	}
+
+	public CompletableFuture<List<String>> listAgents() {
+		return call(api::listAgentsAsync);
+	}
+
+	public CompletableFuture<Void> addBenchmark(final String ifMatch, final String storedFilesBenchmark,
+			final File body) {
+		return call(callback -> api.addBenchmarkAsync(ifMatch, storedFilesBenchmark, body, callback));
+	}
+
+	public CompletableFuture<Run> startBenchmark(final String name, final String desc, final String xTriggerJob,
+			final String runId, final List<String> templateParam) {
+		return call(callback -> api.startBenchmarkAsync(name, desc, xTriggerJob, runId, templateParam, callback));
+	}
+
+	public CompletableFuture<Run> getRun(final String runId) {
+		return call(callback -> api.getRunAsync(runId, callback));
+	}
+
+	public CompletableFuture<Void> killRun(final String runId) {
+		return call(callback -> api.killRunAsync(runId, callback));
+	}
+
+	public CompletableFuture<RequestStatisticsResponse> getRecentStats(final String runId) {
+		return call(callback -> api.getRecentStatsAsync(runId, callback));
+	}
+
+	public CompletableFuture<RequestStatisticsResponse> getTotalStats(final String runId) {
+		return call(callback -> api.getTotalStatsAsync(runId, callback));
+	}
+
+	public CompletableFuture<File> getAllStats(final String runId) {
+		return call(callback -> api.getAllStatsAsync(runId, callback));
+	}
+
+	public CompletableFuture<Object> agentCpu(final String runId) {
+		return call(callback -> api.agentCpuAsync(runId, callback));
+	}
+
+	public CompletableFuture<String> getAgentLog(final String agent, final Integer offset, final String ifMatch) {
+		return call(callback -> api.getAgentLogAsync(agent, offset, ifMatch, callback));
+	}
+
+	public CompletableFuture<String> getControllerLog(final Integer offset, final String ifMatch) {
+		return call(callback -> api.getControllerLogAsync(offset, ifMatch, callback));
+	}
+
+	/**
+	 * @return The connection pool shared by all the instances
+	 */
+	static ConnectionPool getConnectionPool() {
+		return CONNECTION_POOL;
+	}
+
+	/**
+	 * Generated asynchronous call, i.e. a {@code *Async} method of {@link HyperfoilApi}
+	 */
+	@FunctionalInterface
+	interface AsyncCall<T> {
+		Call enqueue(ApiCallback<T> callback) throws ApiException;
+	}
+
+	static <T> CompletableFuture<T> call(final AsyncCall<T> asyncCall) {
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		try {
+			final Call call = asyncCall.enqueue(new FutureCallback<>(future));
+			future.whenComplete((result, error) -> {
+				if (future.isCancelled()) {
+					call.cancel();
+				}
+			});
+		} catch (ApiException | RuntimeException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	private static Dispatcher dispatcher() {
+		final AtomicInteger threads = new AtomicInteger();
+		final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+			final Thread thread = new Thread(runnable, "hyperfoil-client-" + threads.incrementAndGet());
+			// don't keep the JVM alive once the tests are done
+			thread.setDaemon(true);
+			return thread;
+		});
+		final Dispatcher dispatcher = new Dispatcher(executor);
+		dispatcher.setMaxRequests(MAX_REQUESTS);
+		dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+		return dispatcher;
+	}
+
+	private static class FutureCallback<T> implements ApiCallback<T> {
+		private final CompletableFuture<T> future;
+
+		FutureCallback(final CompletableFuture<T> future) {
+			this.future = future;
+		}
+
+		@Override
+		public void onFailure(final ApiException e, final int statusCode, final Map<String, List<String>> responseHeaders) {
+			future.completeExceptionally(e);
+		}
+
+		@Override
+		public void onSuccess(final T result, final int statusCode, final Map<String, List<String>> responseHeaders) {
+			future.complete(result);
+		}
+
+		@Override
+		public void onUploadProgress(final long bytesWritten, final long contentLength, final boolean done) {
+		}
+
+		@Override
+		public void onDownloadProgress(final long bytesRead, final long contentLength, final boolean done) {
+		}
+	}
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.DataFormatException;
+
+import org.HdrHistogram.Histogram;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.HyperfoilApi;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.invoker.ApiException;
+
+/**
+ * Response time histograms of Hyperfoil runs, decoded from the raw HdrHistogram data returned by
+ * {@link HyperfoilApi#getHistogramStats(String, String, Integer, String)}, rather than the percentiles Hyperfoil
+ * chose to report, which can't be merged.
+ *
+ * The decoded histograms can be merged across agents, phases and runs, queried for any percentile, and corrected for
+ * coordinated omission. Recorded values are response times in nanoseconds.
+ */
+public class HyperfoilHistograms {
+	static final int SIGNIFICANT_DIGITS = 3;
+
+	private HyperfoilHistograms() {
+	}
+
+	/**
+	 * Retrieve the histograms of a phase step and metric, one for each agent, and merge them.
+	 *
+	 * @param api {@link HyperfoilApi} instance
+	 * @param runId Run ID
+	 * @param phase Phase name
+	 * @param stepId Step ID, 0 for the statistics of the whole phase
+	 * @param metric Metric name
+	 * @return The merged {@link Histogram}
+	 * @throws ApiException if the histograms can't be retrieved
+	 */
+	public static Histogram fetch(final HyperfoilApi api, final String runId, final String phase, final int stepId,
+			final String metric) throws ApiException {
+		return merge(api.getHistogramStats(runId, phase, stepId, metric).stream()
+				.map(HyperfoilHistograms::decode)
+				.collect(Collectors.toList()));
+	}
+
+	/**
+	 * Decode the raw data of a histogram, i.e. its base64 encoded HdrHistogram binary form, either compressed or not.
+	 *
+	 * @param histogram Histogram model
+	 * @return The decoded {@link Histogram}, whose start and end time stamps are set from the model
+	 */
+	public static Histogram decode(
+			final org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.model.Histogram histogram) {
+		final byte[] data = Base64.getDecoder().decode(histogram.getData());
+		Histogram decoded;
+		try {
+			decoded = Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(data), 0);
+		} catch (DataFormatException | IllegalArgumentException e) {
+			decoded = Histogram.decodeFromByteBuffer(ByteBuffer.wrap(data), 0);
+		}
+		if (histogram.getStartTime() != null) {
+			decoded.setStartTimeStamp(histogram.getStartTime());
+		}
+		if (histogram.getEndTime() != null) {
+			decoded.setEndTimeStamp(histogram.getEndTime());
+		}
+		return decoded;
+	}
+
+	/**
+	 * Merge histograms, e.g. of different agents, phases or runs. The merged histogram auto-resizes, so histograms
+	 * whose value ranges differ can be merged.
+	 *
+	 * @param histograms Histograms to be merged, left untouched
+	 * @return A new {@link Histogram}, holding the values of all of them
+	 */
+	public static Histogram merge(final Collection<Histogram> histograms) {
+		final Histogram merged = new Histogram(SIGNIFICANT_DIGITS);
+		histograms.forEach(merged::add);
+		return merged;
+	}
+
+	/**
+	 * Correct a histogram for coordinated omission, i.e. add the samples a closed-model load generator didn't take
+	 * while it was waiting for slow responses, assuming requests were expected at a regular interval.
+	 *
+	 * @param histogram Recorded histogram, left untouched
+	 * @param expectedInterval Expected interval between requests of a session, e.g. the inverse of the target rate
+	 * @return A new, corrected, {@link Histogram}
+	 */
+	public static Histogram correctedForCoordinatedOmission(final Histogram histogram,
+			final Duration expectedInterval) {
+		return histogram.copyCorrectedForCoordinatedOmission(expectedInterval.toNanos());
+	}
+
+	/**
+	 * @param histogram {@link Histogram} instance
+	 * @param percentile Percentile, between 0 and 100
+	 * @return The response time at the percentile
+	 */
+	public static Duration percentile(final Histogram histogram, final double percentile) {
+		return Duration.ofNanos(histogram.getValueAtPercentile(percentile));
+	}
+
+	/**
+	 * @param histogram {@link Histogram} instance
+	 * @param percentiles Percentiles, between 0 and 100
+	 * @return The response time at each percentile, in order
+	 */
+	public static Map<Double, Duration> percentiles(final Histogram histogram, final List<Double> percentiles) {
+		final Map<Double, Duration> values = new LinkedHashMap<>();
+		percentiles.forEach(percentile -> values.put(percentile, percentile(histogram, percentile)));
+		return values;
+	}
+}
@@ -0,0 +1,366 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.HyperfoilApi;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.invoker.ApiException;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Follows the logs of the Hyperfoil controller and agents during a run, rather than downloading them afterwards:
+ * each log is polled from the offset reached so far, and the request is conditional on the log which was followed,
+ * i.e. {@code If-Match} its {@code ETag}, so that a replaced log is followed from the start again.
+ *
+ * The logs are streamed, in chunks of the buffer size, to {@code <source>.log} files, and each complete line is
+ * passed to the {@link LineListener}s, e.g. see {@link #killRunOn(Pattern)} to abort a run on a known error. A
+ * replaced log is rotated to {@code <source>.log.1}.
+ */
+@Slf4j
+public class HyperfoilLogTailer implements AutoCloseable {
+	public static final Path LOGS = Paths.get("tmp").toAbsolutePath().resolve("hyperfoil").resolve("logs");
+	/**
+	 * Source name of the controller log
+	 */
+	public static final String CONTROLLER = "controller";
+
+	private final HyperfoilApi api;
+	private final String runId;
+	private final List<LogSource> sources = new CopyOnWriteArrayList<>();
+	private final List<LineListener> listeners = new CopyOnWriteArrayList<>();
+	private final AtomicReference<String> abort = new AtomicReference<>();
+	private Path directory;
+	private Duration interval = Duration.ofSeconds(2);
+	private int bufferSize = 64 * 1024;
+	private ScheduledExecutorService executor;
+
+	/**
+	 * @param api {@link HyperfoilApi} instance
+	 * @param runId Run ID, the logs are stored in a directory named after it, in {@link #LOGS}
+	 */
+	public HyperfoilLogTailer(final HyperfoilApi api, final String runId) {
+		this.api = api;
+		this.runId = runId;
+		this.directory = LOGS.resolve(runId);
+		sources.add(new LogSource(CONTROLLER, (offset, etag) -> api.getControllerLogCall(offset, etag, null)));
+	}
+
+	/**
+	 * @param directory Directory the logs are stored in
+	 * @return this
+	 */
+	public HyperfoilLogTailer directory(final Path directory) {
+		this.directory = directory;
+		return this;
+	}
+
+	/**
+	 * @param interval Polling interval, 2 seconds by default
+	 * @return this
+	 */
+	public HyperfoilLogTailer interval(final Duration interval) {
+		this.interval = interval;
+		return this;
+	}
+
+	/**
+	 * @param bufferSize Size of the chunks the logs are read and written in, in bytes, which is also the length a line
+	 *        is split at, on a character boundary, 64 KiB by default
+	 * @return this
+	 */
+	public HyperfoilLogTailer bufferSize(final int bufferSize) {
+		this.bufferSize = bufferSize;
+		return this;
+	}
+
+	/**
+	 * Follow the log of an agent too, which can be added while the tailer is running, e.g. once the agents of the run
+	 * are known.
+	 *
+	 * @param agent Agent name
+	 * @return this
+	 */
+	public HyperfoilLogTailer agent(final String agent) {
+		if (sources.stream().noneMatch(source -> source.name.equals(agent))) {
+			sources.add(new LogSource(agent, (offset, etag) -> api.getAgentLogCall(agent, offset, etag, null)));
+		}
+		return this;
+	}
+
+	/**
+	 * @param listener {@link LineListener} which is passed each complete line, on the polling thread
+	 * @return this
+	 */
+	public HyperfoilLogTailer listener(final LineListener listener) {
+		listeners.add(listener);
+		return this;
+	}
+
+	/**
+	 * Kill the run when a line of any log matches a pattern, e.g. a known agent error.
+	 *
+	 * @param pattern Pattern which is searched for in each line
+	 * @return this
+	 */
+	public HyperfoilLogTailer killRunOn(final Pattern pattern) {
+		return listener((source, line) -> {
+			if (pattern.matcher(line).find()
+					&& abort.compareAndSet(null, String.format("Run %s logged \"%s\" in the %s log", runId, line, source))) {
+				log.warn("{}, killing it", abort.get());
+				try {
+					api.killRun(runId);
+				} catch (ApiException e) {
+					log.warn("Unable to kill run {}", runId, e);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Start polling, until the tailer is closed.
+	 *
+	 * @return this
+	 */
+	public HyperfoilLogTailer start() {
+		executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "hyperfoil-logs-" + runId);
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleWithFixedDelay(this::poll, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+		return this;
+	}
+
+	/**
+	 * @return The matched line, along with the run and the log, if the run was killed by {@link #killRunOn(Pattern)}
+	 */
+	public Optional<String> getAbortReason() {
+		return Optional.ofNullable(abort.get());
+	}
+
+	/**
+	 * @param source {@link #CONTROLLER} or an agent name
+	 * @return Path to the local copy of the log
+	 */
+	public Path getLogFile(final String source) {
+		return directory.resolve(source + ".log");
+	}
+
+	/**
+	 * @param source {@link #CONTROLLER} or an agent name
+	 * @return Path to the local copy of the log which was replaced last, e.g. by a restarted controller
+	 */
+	public Path getRotatedLogFile(final String source) {
+		return directory.resolve(source + ".log.1");
+	}
+
+	/**
+	 * Stop polling, after retrieving what was logged since the last poll, and close the log files.
+	 */
+	@Override
+	public void close() {
+		if (executor != null) {
+			executor.shutdown();
+			try {
+				if (!executor.awaitTermination(Math.max(interval.toMillis(), 10_000L), TimeUnit.MILLISECONDS)) {
+					executor.shutdownNow();
+				}
+			} catch (InterruptedException e) {
+				executor.shutdownNow();
+				Thread.currentThread().interrupt();
+			}
+		}
+		poll();
+		synchronized (this) {
+			sources.forEach(LogSource::close);
+		}
+	}
+
+	/**
+	 * Retrieve what was logged since the last poll, by each source.
+	 */
+	synchronized void poll() {
+		for (LogSource source : sources) {
+			try {
+				source.poll();
+			} catch (IOException | ApiException e) {
+				// the next poll will try again
+				log.debug("Unable to get the {} log of run {}", source.name, runId, e);
+			}
+		}
+	}
+
+	/**
+	 * Listener of the lines logged by the controller and the agents
+	 */
+	@FunctionalInterface
+	public interface LineListener {
+		/**
+		 * @param source {@link #CONTROLLER} or an agent name
+		 * @param line Logged line, without the line terminator
+		 */
+		void onLine(String source, String line);
+	}
+
+	@FunctionalInterface
+	private interface LogCall {
+		Call build(Integer offset, String etag) throws ApiException;
+	}
+
+	/**
+	 * A followed log: the offset reached so far, the version of the log, and the line being assembled
+	 */
+	private final class LogSource {
+		private final String name;
+		private final LogCall call;
+		private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+		private long offset;
+		private String etag;
+		private OutputStream file;
+
+		LogSource(final String name, final LogCall call) {
+			this.name = name;
+			this.call = call;
+		}
+
+		void poll() throws IOException, ApiException {
+			try (Response response = call.build((int) Math.min(offset, Integer.MAX_VALUE), etag).execute()) {
+				if (response.code() == 412) {
+					log.info("The {} log of run {} was replaced, following it from the start", name, runId);
+					offset = 0;
+					etag = null;
+					line.reset();
+					rotate();
+					return;
+				}
+				if (!response.isSuccessful()) {
+					// e.g. the agent isn't started yet
+					log.debug("Unable to get the {} log of run {}: {}", name, runId, response.code());
+					return;
+				}
+				final String version = response.header("ETag");
+				if (version != null) {
+					etag = version;
+				}
+				final ResponseBody body = response.body();
+				if (body == null) {
+					return;
+				}
+				try (InputStream in = body.byteStream()) {
+					final byte[] chunk = new byte[bufferSize];
+					int length;
+					while ((length = in.read(chunk)) != -1) {
+						offset += length;
+						append(chunk, length);
+					}
+				}
+				if (file != null) {
+					file.flush();
+				}
+			}
+		}
+
+		private void append(final byte[] chunk, final int length) throws IOException {
+			if (file == null) {
+				Files.createDirectories(directory);
+				file = new BufferedOutputStream(Files.newOutputStream(getLogFile(name), StandardOpenOption.CREATE,
+						StandardOpenOption.APPEND), bufferSize);
+			}
+			file.write(chunk, 0, length);
+			// a line feed byte is never part of a multi-byte UTF-8 sequence, hence lines are split on bytes, while a
+			// long line is split before a byte which starts a character, i.e. which isn't a continuation byte
+			for (int i = 0; i < length; i++) {
+				final byte b = chunk[i];
+				if (b == '\n') {
+					emit();
+				} else {
+					if (line.size() >= bufferSize && (b & 0xC0) != 0x80) {
+						emit();
+					}
+					line.write(b);
+				}
+			}
+		}
+
+		/**
+		 * Close the local copy of a replaced log, and keep it as the rotated log, so that the new log is copied from
+		 * its start to an empty file
+		 */
+		private void rotate() throws IOException {
+			if (file != null) {
+				file.close();
+				file = null;
+			}
+			if (Files.exists(getLogFile(name))) {
+				Files.move(getLogFile(name), getRotatedLogFile(name), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+
+		private void emit() {
+			String text = line.toString(StandardCharsets.UTF_8);
+			line.reset();
+			if (text.endsWith("\r")) {
+				text = text.substring(0, text.length() - 1);
+			}
+			for (LineListener listener : listeners) {
+				try {
+					listener.onLine(name, text);
+				} catch (RuntimeException e) {
+					log.warn("Log listener failed on the {} log of run {}", name, runId, e);
+				}
+			}
+		}
+
+		void close() {
+			if (line.size() > 0) {
+				emit();
+			}
+			if (file != null) {
+				try {
+					file.close();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				file = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,332 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.RunStatistics;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.model.RequestStatisticsResponse;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.model.RequestStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Monitors a running Hyperfoil benchmark: the recent statistics of the run are sampled on a schedule into a bounded
+ * in-memory time series, and each sample is checked against some {@link SlaRule}s. When a rule is violated by a
+ * number of consecutive samples, the run is killed, rather than waiting for a run which is bound to fail to
+ * complete.
+ *
+ * Warmup phases are not checked. The time series can be exported as CSV, e.g. for plotting.
+ */
+@Slf4j
+public class HyperfoilRunMonitor implements AutoCloseable {
+	public static final Path SAMPLES = Paths.get("tmp").toAbsolutePath().resolve("hyperfoil");
+	static final String TERMINATED = "TERMINATED";
+
+	private final HyperfoilAsyncApi api;
+	private final String runId;
+	private final List<SlaRule> rules = new ArrayList<>();
+	private final Map<SlaRule, Integer> streaks = new LinkedHashMap<>();
+	private final CompletableFuture<Void> completion = new CompletableFuture<>();
+	private final ArrayDeque<Sample> samples = new ArrayDeque<>();
+	private Duration interval = Duration.ofSeconds(1);
+	private int capacity = 3600;
+	private int consecutiveViolations = 5;
+	private ScheduledExecutorService executor;
+	private volatile String violation;
+
+	public HyperfoilRunMonitor(final HyperfoilAsyncApi api, final String runId) {
+		this.api = api;
+		this.runId = runId;
+	}
+
+	/**
+	 * @param interval Sampling interval, 1 second by default
+	 * @return this
+	 */
+	public HyperfoilRunMonitor interval(final Duration interval) {
+		this.interval = interval;
+		return this;
+	}
+
+	/**
+	 * @param capacity Number of samples retained, older ones are discarded, 3600 by default
+	 * @return this
+	 */
+	public HyperfoilRunMonitor capacity(final int capacity) {
+		this.capacity = capacity;
+		return this;
+	}
+
+	/**
+	 * @param consecutiveViolations Number of consecutive ticks violating a rule for the run to be killed, 5 by
+	 *        default, so that a single spike doesn't abort the run
+	 * @return this
+	 */
+	public HyperfoilRunMonitor consecutiveViolations(final int consecutiveViolations) {
+		this.consecutiveViolations = consecutiveViolations;
+		return this;
+	}
+
+	/**
+	 * @param rule {@link SlaRule} to be checked
+	 * @return this
+	 */
+	public HyperfoilRunMonitor rule(final SlaRule rule) {
+		rules.add(rule);
+		return this;
+	}
+
+	/**
+	 * Start sampling, until the run terminates, is killed, or the monitor is closed.
+	 *
+	 * @return this
+	 */
+	public HyperfoilRunMonitor start() {
+		executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "hyperfoil-monitor-" + runId);
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.scheduleWithFixedDelay(this::poll, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+		return this;
+	}
+
+	/**
+	 * @return Future completed once the run terminates or is killed
+	 */
+	public CompletableFuture<Void> getCompletion() {
+		return completion;
+	}
+
+	/**
+	 * @return The violated rule, along with the run, if the run was killed
+	 */
+	public Optional<String> getViolation() {
+		return Optional.ofNullable(violation);
+	}
+
+	/**
+	 * @return The retained samples, oldest first
+	 */
+	public List<Sample> getSamples() {
+		synchronized (this) {
+			return new ArrayList<>(samples);
+		}
+	}
+
+	/**
+	 * Export the retained samples to {@code <run id>.csv} in {@link #SAMPLES}.
+	 *
+	 * @return Path to the CSV file
+	 */
+	public Path export() {
+		return export(SAMPLES.resolve(runId + ".csv"));
+	}
+
+	/**
+	 * Export the retained samples as CSV.
+	 *
+	 * @param file Path to the CSV file
+	 * @return Path to the CSV file
+	 */
+	public Path export(final Path file) {
+		final List<String> lines = new ArrayList<>();
+		lines.add("timestamp,phase,metric,requests,throughput,errorRate,p99Ms");
+		getSamples().forEach(sample -> lines.add(String.format(Locale.ROOT, "%d,%s,%s,%d,%.2f,%.4f,%.3f",
+				sample.getTimestamp(), sample.getPhase(), sample.getMetric(), sample.getRequests(),
+				sample.getThroughput(), sample.getErrorRate(), sample.getP99ResponseTime().toNanos() / 1e6)));
+		try {
+			Files.createDirectories(file.toAbsolutePath().getParent());
+			Files.write(file, lines, StandardCharsets.UTF_8);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return file;
+	}
+
+	@Override
+	public void close() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+		completion.complete(null);
+	}
+
+	private void poll() {
+		try {
+			onStats(System.currentTimeMillis(), api.getRecentStats(runId)
+					.get(Math.max(interval.toMillis(), 10_000L), TimeUnit.MILLISECONDS));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			// the next tick will try again
+			log.debug("Unable to get the recent statistics of run {}", runId, e);
+		}
+	}
+
+	/**
+	 * Record a sample of each non-warmup phase and metric, then check the rules.
+	 *
+	 * @param timestamp Sampling time, in milliseconds since the epoch
+	 * @param response Recent statistics of the run
+	 */
+	void onStats(final long timestamp, final RequestStatisticsResponse response) {
+		final List<Sample> tick = new ArrayList<>();
+		if (response.getStatistics() != null) {
+			for (RequestStats stats : response.getStatistics()) {
+				if (!Boolean.TRUE.equals(stats.getIsWarmup()) && stats.getSummary() instanceof Map) {
+					tick.add(Sample.of(timestamp, stats));
+				}
+			}
+		}
+		synchronized (this) {
+			for (Sample sample : tick) {
+				if (samples.size() >= capacity) {
+					samples.removeFirst();
+				}
+				samples.addLast(sample);
+			}
+		}
+		for (SlaRule rule : rules) {
+			final boolean violated = tick.stream().anyMatch(rule::isViolatedBy);
+			final int streak = streaks.merge(rule, violated ? 1 : 0, (previous, one) -> one == 0 ? 0 : previous + one);
+			if (streak >= consecutiveViolations && violation == null) {
+				violation = String.format("Run %s violated \"%s\" in %d consecutive samples", runId, rule, streak);
+				abort();
+				return;
+			}
+		}
+		if (TERMINATED.equals(response.getStatus())) {
+			close();
+		}
+	}
+
+	private void abort() {
+		log.warn("{}, killing it", violation);
+		api.killRun(runId).whenComplete((result, error) -> {
+			if (error != null) {
+				log.warn("Unable to kill run {}", runId, error);
+			}
+		});
+		close();
+	}
+
+	/**
+	 * Recent statistics of a phase and metric, at some point in time
+	 */
+	public static class Sample {
+		private final long timestamp;
+		private final String phase;
+		private final String metric;
+		private final long requests;
+		private final double throughput;
+		private final double errorRate;
+		private final Duration p99ResponseTime;
+
+		Sample(final long timestamp, final String phase, final String metric, final long requests,
+				final double throughput, final double errorRate, final Duration p99ResponseTime) {
+			this.timestamp = timestamp;
+			this.phase = phase;
+			this.metric = metric;
+			this.requests = requests;
+			this.throughput = throughput;
+			this.errorRate = errorRate;
+			this.p99ResponseTime = p99ResponseTime;
+		}
+
+		/**
+		 * The summary is a JSON object, read as a {@link RunStatistics.Summary}, so that the errors are counted the
+		 * same way as in the results of the completed run, see {@link RunStatistics.Summary#getErrors()}.
+		 */
+		@SuppressWarnings("unchecked")
+		static Sample of(final long timestamp, final RequestStats stats) {
+			final RunStatistics.Summary summary = RunStatistics.summary((Map<String, Object>) stats.getSummary());
+			final long requests = value(summary.getRequestCount());
+			final long window = value(summary.getEndTime()) - value(summary.getStartTime());
+			long p99 = 0;
+			for (Map.Entry<String, Long> percentile : summary.getPercentileResponseTime().entrySet()) {
+				if (Double.parseDouble(percentile.getKey()) == 99.0) {
+					p99 = percentile.getValue();
+				}
+			}
+			return new Sample(timestamp, stats.getPhase(), stats.getMetric(), requests,
+					window > 0 ? requests * 1000.0 / window : 0,
+					requests > 0 ? (double) summary.getErrors() / requests : 0, Duration.ofNanos(p99));
+		}
+
+		private static long value(final Long value) {
+			return value == null ? 0 : value;
+		}
+
+		/**
+		 * @return Sampling time, in milliseconds since the epoch
+		 */
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		public String getPhase() {
+			return phase;
+		}
+
+		public String getMetric() {
+			return metric;
+		}
+
+		/**
+		 * @return Number of requests in the statistics window
+		 */
+		public long getRequests() {
+			return requests;
+		}
+
+		/**
+		 * @return Requests per second in the statistics window
+		 */
+		public double getThroughput() {
+			return throughput;
+		}
+
+		/**
+		 * @return Ratio of failed requests, between 0 and 1
+		 */
+		public double getErrorRate() {
+			return errorRate;
+		}
+
+		public Duration getP99ResponseTime() {
+			return p99ResponseTime;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.HdrHistogram.Histogram;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.RunStatistics;
+import org.junit.jupiter.api.Assertions;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * JUnit assertions gating on performance regressions, as detected by a {@link RegressionDetector} with its default
+ * settings, e.g.
+ * <pre>
+ *     PerformanceAssertions.assertNoThroughputRegression(baselineRuns, candidateRuns, "steadyState", "test");
+ *     PerformanceAssertions.assertNoPercentileRegression("steadyState/test p99", baselineHistograms,
+ *             candidateHistograms, 99);
+ * </pre>
+ * The outcome of each comparison is logged, whether it's a regression or not.
+ */
+@Slf4j
+public class PerformanceAssertions {
+
+	private PerformanceAssertions() {
+	}
+
+	/**
+	 * Assert that the per-interval throughput of a phase and metric didn't regress.
+	 *
+	 * @param baseline Statistics of the baseline runs, read along with their series
+	 * @param candidate Statistics of the candidate runs, read along with their series
+	 * @param phase Phase name
+	 * @param metric Metric name
+	 * @return The {@link RegressionDetector.Result}
+	 */
+	public static RegressionDetector.Result assertNoThroughputRegression(final List<RunStatistics> baseline,
+			final List<RunStatistics> candidate, final String phase, final String metric) {
+		return assertNoRegression(new RegressionDetector().throughput(baseline, candidate, phase, metric));
+	}
+
+	/**
+	 * Assert that a response time percentile didn't regress.
+	 *
+	 * @param measure Description of what is compared, e.g. the phase and metric
+	 * @param baseline Response time histograms of the baseline runs
+	 * @param candidate Response time histograms of the candidate runs
+	 * @param percentile Percentile, between 0 and 100
+	 * @return The {@link RegressionDetector.Result}
+	 */
+	public static RegressionDetector.Result assertNoPercentileRegression(final String measure,
+			final List<Histogram> baseline, final List<Histogram> candidate, final double percentile) {
+		return assertNoRegression(new RegressionDetector().percentile(measure, baseline, candidate, percentile));
+	}
+
+	/**
+	 * Assert that none of the comparisons detected a regression, all of them are reported when failing.
+	 *
+	 * @param results Outcomes of some comparisons
+	 * @return The first result, for convenience
+	 */
+	public static RegressionDetector.Result assertNoRegression(final RegressionDetector.Result... results) {
+		Arrays.stream(results).forEach(result -> log.info("{}", result));
+		final List<String> regressions = Arrays.stream(results)
+				.filter(RegressionDetector.Result::isRegression)
+				.map(RegressionDetector.Result::toString)
+				.collect(Collectors.toList());
+		if (!regressions.isEmpty()) {
+			Assertions.fail("Performance regression detected:\n" + String.join("\n", regressions));
+		}
+		return results.length > 0 ? results[0] : null;
+	}
+}
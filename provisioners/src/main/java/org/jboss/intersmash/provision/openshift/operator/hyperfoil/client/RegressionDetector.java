@@ -0,0 +1,400 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.RunStatistics;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.RunStatisticsWrapper;
+
+/**
+ * Detects performance regressions between repeated baseline runs and repeated candidate runs, with tests which are
+ * robust to the run-to-run noise:
+ * <ul>
+ *     <li>throughput: the per-interval throughputs of all the runs are compared with a Mann-Whitney U test, and the
+ *     effect size is Cliff's delta, i.e. how likely an interval of the candidate is faster than an interval of the
+ *     baseline, minus the opposite</li>
+ *     <li>response time percentiles: a bootstrap confidence interval of the relative change of the percentile is
+ *     computed by resampling the merged histograms, and the effect size is the relative change</li>
+ * </ul>
+ * A change is a regression only when it is both significant and bigger than the minimum effect size, so that noise
+ * and negligible changes are tolerated. See {@link PerformanceAssertions} for the related JUnit assertions.
+ */
+public class RegressionDetector {
+	static final double DEFAULT_ALPHA = 0.05;
+	/**
+	 * Cliff's delta above 0.33 is usually considered a medium effect
+	 */
+	static final double DEFAULT_MIN_THROUGHPUT_EFFECT = 0.33;
+	static final double DEFAULT_MIN_PERCENTILE_EFFECT = 0.05;
+	static final int DEFAULT_BOOTSTRAP_ITERATIONS = 1000;
+	/**
+	 * Bootstrap resamples hold at most these values, rather than the whole histogram count
+	 */
+	static final int MAX_RESAMPLE_SIZE = 10_000;
+
+	private double alpha = DEFAULT_ALPHA;
+	private double minThroughputEffect = DEFAULT_MIN_THROUGHPUT_EFFECT;
+	private double minPercentileEffect = DEFAULT_MIN_PERCENTILE_EFFECT;
+	private int bootstrapIterations = DEFAULT_BOOTSTRAP_ITERATIONS;
+	private long seed = 42;
+
+	/**
+	 * @param alpha Significance level, 0.05 by default
+	 * @return this
+	 */
+	public RegressionDetector alpha(final double alpha) {
+		this.alpha = alpha;
+		return this;
+	}
+
+	/**
+	 * @param minThroughputEffect Minimum absolute Cliff's delta for a throughput change to be a regression, 0.33 by
+	 *        default
+	 * @return this
+	 */
+	public RegressionDetector minThroughputEffect(final double minThroughputEffect) {
+		this.minThroughputEffect = minThroughputEffect;
+		return this;
+	}
+
+	/**
+	 * @param minPercentileEffect Minimum relative change of a percentile to be a regression, 0.05 by default
+	 * @return this
+	 */
+	public RegressionDetector minPercentileEffect(final double minPercentileEffect) {
+		this.minPercentileEffect = minPercentileEffect;
+		return this;
+	}
+
+	/**
+	 * @param bootstrapIterations Number of bootstrap resamples, 1000 by default
+	 * @return this
+	 */
+	public RegressionDetector bootstrapIterations(final int bootstrapIterations) {
+		this.bootstrapIterations = bootstrapIterations;
+		return this;
+	}
+
+	/**
+	 * @param seed Seed of the bootstrap resampling, fixed by default so that the results are reproducible
+	 * @return this
+	 */
+	public RegressionDetector seed(final long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	/**
+	 * Compare the per-interval throughput of a phase and metric, the statistics must have been read along with their
+	 * {@link RunStatisticsWrapper.Section#SERIES}.
+	 *
+	 * @param baseline Statistics of the baseline runs
+	 * @param candidate Statistics of the candidate runs
+	 * @param phase Phase name
+	 * @param metric Metric name
+	 * @return {@link Result} instance
+	 */
+	public Result throughput(final List<RunStatistics> baseline, final List<RunStatistics> candidate,
+			final String phase, final String metric) {
+		return throughput(phase + "/" + metric + " throughput", throughputs(baseline, phase, metric),
+				throughputs(candidate, phase, metric));
+	}
+
+	/**
+	 * Compare per-interval throughputs with a Mann-Whitney U test.
+	 *
+	 * @param measure Description of what is compared
+	 * @param baseline Throughputs of the baseline intervals, in requests per second
+	 * @param candidate Throughputs of the candidate intervals, in requests per second
+	 * @return {@link Result} instance, whose estimates are the median throughputs
+	 */
+	public Result throughput(final String measure, final double[] baseline, final double[] candidate) {
+		if (baseline.length == 0 || candidate.length == 0) {
+			throw new IllegalArgumentException("No throughput samples for " + measure);
+		}
+		final MannWhitney test = mannWhitney(baseline, candidate);
+		final boolean regression = test.pValue < alpha && test.cliffsDelta <= -minThroughputEffect;
+		return new Result(measure, median(baseline), median(candidate), test.cliffsDelta, test.pValue, Double.NaN,
+				Double.NaN, regression);
+	}
+
+	/**
+	 * Compare a response time percentile, with a bootstrap confidence interval of its relative change.
+	 *
+	 * @param measure Description of what is compared
+	 * @param baseline Response time histograms of the baseline runs
+	 * @param candidate Response time histograms of the candidate runs
+	 * @param percentile Percentile, between 0 and 100
+	 * @return {@link Result} instance, whose estimates are the percentiles of the merged histograms, in nanoseconds
+	 */
+	public Result percentile(final String measure, final List<Histogram> baseline, final List<Histogram> candidate,
+			final double percentile) {
+		final Histogram before = HyperfoilHistograms.merge(baseline);
+		final Histogram after = HyperfoilHistograms.merge(candidate);
+		if (before.getTotalCount() == 0 || after.getTotalCount() == 0) {
+			throw new IllegalArgumentException("No response time samples for " + measure);
+		}
+		final double baselineValue = before.getValueAtPercentile(percentile);
+		final double candidateValue = after.getValueAtPercentile(percentile);
+		final Resampler beforeResampler = new Resampler(before);
+		final Resampler afterResampler = new Resampler(after);
+		final Random random = new Random(seed);
+		final double[] changes = new double[bootstrapIterations];
+		for (int i = 0; i < bootstrapIterations; i++) {
+			final double resampledBefore = beforeResampler.percentile(random, percentile);
+			final double resampledAfter = afterResampler.percentile(random, percentile);
+			changes[i] = resampledBefore > 0 ? (resampledAfter - resampledBefore) / resampledBefore : 0;
+		}
+		Arrays.sort(changes);
+		final double low = quantile(changes, alpha / 2);
+		final double high = quantile(changes, 1 - alpha / 2);
+		final double effect = baselineValue > 0 ? (candidateValue - baselineValue) / baselineValue : 0;
+		final boolean regression = low > 0 && effect >= minPercentileEffect;
+		return new Result(measure, baselineValue, candidateValue, effect, Double.NaN, low, high, regression);
+	}
+
+	static double[] throughputs(final List<RunStatistics> runs, final String phase, final String metric) {
+		final List<Double> throughputs = new ArrayList<>();
+		for (RunStatistics run : runs) {
+			for (RunStatistics.Summary interval : run.getSeries(phase, metric)) {
+				if (interval.getStartTime() != null && interval.getEndTime() != null
+						&& interval.getEndTime() > interval.getStartTime() && interval.getRequestCount() != null) {
+					throughputs.add(interval.getRequestCount() * 1000.0
+							/ (interval.getEndTime() - interval.getStartTime()));
+				}
+			}
+		}
+		return throughputs.stream().mapToDouble(Double::doubleValue).toArray();
+	}
+
+	/**
+	 * Two-sided Mann-Whitney U test, using the normal approximation with tie and continuity corrections.
+	 */
+	static MannWhitney mannWhitney(final double[] baseline, final double[] candidate) {
+		final int n1 = baseline.length;
+		final int n2 = candidate.length;
+		final int n = n1 + n2;
+		final double[][] values = new double[n][];
+		for (int i = 0; i < n1; i++) {
+			values[i] = new double[] { baseline[i], 0 };
+		}
+		for (int i = 0; i < n2; i++) {
+			values[n1 + i] = new double[] { candidate[i], 1 };
+		}
+		Arrays.sort(values, (a, b) -> Double.compare(a[0], b[0]));
+		double candidateRanks = 0;
+		double ties = 0;
+		for (int i = 0; i < n;) {
+			int j = i;
+			while (j < n && values[j][0] == values[i][0]) {
+				j++;
+			}
+			final double rank = (i + 1 + j) / 2.0;
+			for (int k = i; k < j; k++) {
+				if (values[k][1] == 1) {
+					candidateRanks += rank;
+				}
+			}
+			final double t = j - i;
+			ties += t * t * t - t;
+			i = j;
+		}
+		// pairs where the candidate is greater than the baseline, ties counting as half
+		final double u = candidateRanks - n2 * (n2 + 1) / 2.0;
+		final double mean = n1 * (double) n2 / 2;
+		final double variance = n1 * (double) n2 / 12 * ((n + 1) - ties / ((double) n * (n - 1)));
+		final double pValue;
+		if (variance <= 0) {
+			pValue = 1;
+		} else {
+			final double z = (Math.abs(u - mean) - 0.5) / Math.sqrt(variance);
+			pValue = Math.min(1, 2 * (1 - normalCdf(Math.max(0, z))));
+		}
+		return new MannWhitney(u, pValue, 2 * u / (n1 * (double) n2) - 1);
+	}
+
+	static double normalCdf(final double z) {
+		return 0.5 * (1 + erf(z / Math.sqrt(2)));
+	}
+
+	/**
+	 * Abramowitz and Stegun 7.1.26, accurate to about 1.5e-7
+	 */
+	private static double erf(final double x) {
+		final double t = 1 / (1 + 0.3275911 * Math.abs(x));
+		final double y = 1 - (((((1.061405429 * t - 1.453152027) * t) + 1.421413741) * t - 0.284496736) * t
+				+ 0.254829592) * t * Math.exp(-x * x);
+		return Math.copySign(y, x);
+	}
+
+	private static double median(final double[] values) {
+		final double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return quantile(sorted, 0.5);
+	}
+
+	private static double quantile(final double[] sorted, final double quantile) {
+		final double position = quantile * (sorted.length - 1);
+		final int lower = (int) Math.floor(position);
+		final int upper = (int) Math.ceil(position);
+		return sorted[lower] + (sorted[upper] - sorted[lower]) * (position - lower);
+	}
+
+	static class MannWhitney {
+		final double u;
+		final double pValue;
+		final double cliffsDelta;
+
+		MannWhitney(final double u, final double pValue, final double cliffsDelta) {
+			this.u = u;
+			this.pValue = pValue;
+			this.cliffsDelta = cliffsDelta;
+		}
+	}
+
+	/**
+	 * Draws resamples from the distribution of a histogram, by inverse transform sampling of its cumulative counts
+	 */
+	private static class Resampler {
+		private final long[] values;
+		private final long[] cumulativeCounts;
+		private final long totalCount;
+		private final int size;
+
+		Resampler(final Histogram histogram) {
+			final List<long[]> buckets = new ArrayList<>();
+			long cumulative = 0;
+			for (HistogramIterationValue value : histogram.recordedValues()) {
+				cumulative += value.getCountAtValueIteratedTo();
+				buckets.add(new long[] { histogram.highestEquivalentValue(value.getValueIteratedTo()), cumulative });
+			}
+			values = buckets.stream().mapToLong(bucket -> bucket[0]).toArray();
+			cumulativeCounts = buckets.stream().mapToLong(bucket -> bucket[1]).toArray();
+			totalCount = cumulative;
+			size = (int) Math.min(totalCount, MAX_RESAMPLE_SIZE);
+		}
+
+		double percentile(final Random random, final double percentile) {
+			final long[] counts = new long[values.length];
+			for (int i = 0; i < size; i++) {
+				final long draw = (long) (random.nextDouble() * totalCount);
+				int index = Arrays.binarySearch(cumulativeCounts, draw + 1);
+				counts[index < 0 ? -index - 1 : index]++;
+			}
+			final long target = Math.max(1, (long) Math.ceil(percentile / 100 * size));
+			long cumulative = 0;
+			for (int i = 0; i < counts.length; i++) {
+				cumulative += counts[i];
+				if (cumulative >= target) {
+					return values[i];
+				}
+			}
+			return values[values.length - 1];
+		}
+	}
+
+	/**
+	 * Outcome of a comparison
+	 */
+	public static class Result {
+		private final String measure;
+		private final double baseline;
+		private final double candidate;
+		private final double effectSize;
+		private final double pValue;
+		private final double confidenceLow;
+		private final double confidenceHigh;
+		private final boolean regression;
+
+		Result(final String measure, final double baseline, final double candidate, final double effectSize,
+				final double pValue, final double confidenceLow, final double confidenceHigh, final boolean regression) {
+			this.measure = measure;
+			this.baseline = baseline;
+			this.candidate = candidate;
+			this.effectSize = effectSize;
+			this.pValue = pValue;
+			this.confidenceLow = confidenceLow;
+			this.confidenceHigh = confidenceHigh;
+			this.regression = regression;
+		}
+
+		public String getMeasure() {
+			return measure;
+		}
+
+		/**
+		 * @return Estimate of the baseline, i.e. the median throughput or the percentile
+		 */
+		public double getBaseline() {
+			return baseline;
+		}
+
+		/**
+		 * @return Estimate of the candidate, i.e. the median throughput or the percentile
+		 */
+		public double getCandidate() {
+			return candidate;
+		}
+
+		/**
+		 * @return Cliff's delta for throughputs, the relative change for percentiles
+		 */
+		public double getEffectSize() {
+			return effectSize;
+		}
+
+		/**
+		 * @return p-value of the Mann-Whitney U test, NaN for percentiles
+		 */
+		public double getPValue() {
+			return pValue;
+		}
+
+		/**
+		 * @return Lower bound of the confidence interval of the relative change, NaN for throughputs
+		 */
+		public double getConfidenceLow() {
+			return confidenceLow;
+		}
+
+		/**
+		 * @return Upper bound of the confidence interval of the relative change, NaN for throughputs
+		 */
+		public double getConfidenceHigh() {
+			return confidenceHigh;
+		}
+
+		public boolean isRegression() {
+			return regression;
+		}
+
+		@Override
+		public String toString() {
+			final String significance = Double.isNaN(pValue)
+					? String.format(Locale.ROOT, "CI [%+.1f%%, %+.1f%%]", confidenceLow * 100, confidenceHigh * 100)
+					: String.format(Locale.ROOT, "p = %.4f", pValue);
+			return String.format(Locale.ROOT, "%s: baseline %.3f, candidate %.3f, effect size %+.3f, %s%s", measure,
+					baseline, candidate, effectSize, significance, regression ? " - REGRESSION" : "");
+		}
+	}
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * Service level rule evaluated by the {@link HyperfoilRunMonitor} against each sample of the recent statistics of a
+ * running benchmark.
+ */
+public class SlaRule {
+	private final String description;
+	private final Predicate<HyperfoilRunMonitor.Sample> violated;
+
+	private SlaRule(final String description, final Predicate<HyperfoilRunMonitor.Sample> violated) {
+		this.description = description;
+		this.violated = violated;
+	}
+
+	/**
+	 * @param limit Maximum 99th percentile of the response time
+	 * @return {@link SlaRule} violated by samples whose 99th percentile is above the limit
+	 */
+	public static SlaRule p99Below(final Duration limit) {
+		return new SlaRule("p99 < " + limit.toMillis() + " ms",
+				sample -> sample.getP99ResponseTime().compareTo(limit) >= 0);
+	}
+
+	/**
+	 * @param limit Maximum ratio of failed requests, between 0 and 1
+	 * @return {@link SlaRule} violated by samples whose error rate is above the limit
+	 */
+	public static SlaRule errorRateBelow(final double limit) {
+		return new SlaRule("error rate < " + limit, sample -> sample.getErrorRate() >= limit);
+	}
+
+	/**
+	 * @param floor Minimum number of requests per second
+	 * @return {@link SlaRule} violated by samples whose throughput is below the floor
+	 */
+	public static SlaRule throughputAbove(final double floor) {
+		return new SlaRule("throughput > " + floor + " req/s", sample -> sample.getThroughput() <= floor);
+	}
+
+	/**
+	 * @param sample Sample of the recent statistics of a phase and metric
+	 * @return true if the sample violates the rule, false otherwise
+	 */
+	public boolean isViolatedBy(final HyperfoilRunMonitor.Sample sample) {
+		return violated.test(sample);
+	}
+
+	@Override
+	public String toString() {
+		return description;
+	}
+}
@@ -19,7 +19,7 @@
  * </ul>
  * <h3>Client code generation- Hyperfoil APIs</h3>
  * <p>
- *     All classes in this package were generated using
+ *     The classes of the <code>v05</code> subpackages were generated using
  *     <a href="https://github.com/OpenAPITools/openapi-generator">openapi-generator</a>;
  *     <br>
  *     Note: don't use <a href="https://swagger.io/tools/swagger-codegen/">swagger-codegen</a> because it uses an old
@@ -75,7 +75,8 @@
  * </ul>
  * <h3>Client code generation - Hyperfoil statistics</h3>
  * <p>
- *     Classes in packages <code>runschema</code> are generated using <a href="https://www.jsonschema2pojo.org/">jsonschema2pojo</a>
+ *     <code>RunStatisticsWrapper</code> and the classes of the <code>runschema</code> version subpackages, e.g.
+ *     <code>runschema.v07</code>, are generated using <a href="https://www.jsonschema2pojo.org/">jsonschema2pojo</a>
  *     using <code>Class name: RunStatisticsWrapper</code> and <code>Source type: JSON Schema</code>
  *     <br>
  *     The input to <code>jsonschema2pojo</code> is
@@ -86,5 +87,11 @@
  * <ul>
  *     <li>Add constructor to class <code>RunStatisticsWrapper</code></li>
  * </ul>
+ * <p>
+ *     The other classes, e.g. {@link org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.HyperfoilRunMonitor},
+ *     are hand-written. Code which should work with any Hyperfoil server version can use
+ *     {@link org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.RunStatistics}, a read-only
+ *     view which detects the schema version from the <code>$schema</code> of the document.
+ * </p>
  */
 package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
\ No newline at end of file
@@ -0,0 +1,450 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@link RunStatistics} backed by the JSON tree of the sections which were read: the elements are wrapped, and their
+ * fields decoded, only when accessed.
+ *
+ * The run statistics document is streamed, so that the memory needed doesn't depend on the length of the run: the
+ * histograms and per-agent data are skipped, as well as the sections and phases which are not requested. This is
+ * the parser {@link RunStatisticsWrapper} reads through as well.
+ */
+final class JsonRunStatistics implements RunStatistics {
+	private static final ObjectMapper MAPPER = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	private String schema;
+	private JsonNode info;
+	private final List<JsonNode> failures = new ArrayList<>();
+	private final List<JsonNode> phaseStats = new ArrayList<>();
+	private final Map<String, JsonNode> series = new LinkedHashMap<>();
+
+	private JsonRunStatistics() {
+	}
+
+	static JsonRunStatistics read(final File allStats, final Set<RunStatisticsWrapper.Section> sections)
+			throws IOException {
+		return read(allStats, sections, phase -> true);
+	}
+
+	static JsonRunStatistics read(final File allStats, final Set<RunStatisticsWrapper.Section> sections,
+			final Predicate<String> phases) throws IOException {
+		final JsonRunStatistics statistics = new JsonRunStatistics();
+		try (JsonParser parser = MAPPER.createParser(allStats)) {
+			statistics.read(parser, sections, phases);
+		}
+		return statistics;
+	}
+
+	static JsonRunStatistics read(final String allStats, final Set<RunStatisticsWrapper.Section> sections,
+			final Predicate<String> phases) throws IOException {
+		final JsonRunStatistics statistics = new JsonRunStatistics();
+		try (JsonParser parser = MAPPER.createParser(allStats)) {
+			statistics.read(parser, sections, phases);
+		}
+		return statistics;
+	}
+
+	static RunStatistics.Summary summary(final Map<String, ?> summary) {
+		return new JsonSummary(MAPPER.valueToTree(summary));
+	}
+
+	private void read(final JsonParser parser, final Set<RunStatisticsWrapper.Section> sections,
+			final Predicate<String> phases) throws IOException {
+		if (parser.nextToken() != JsonToken.START_OBJECT) {
+			throw new JsonParseException(parser, "Run statistics must be a JSON object");
+		}
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			final String field = parser.getCurrentName();
+			final JsonToken value = parser.nextToken();
+			if ("$schema".equals(field) && value == JsonToken.VALUE_STRING) {
+				schema = parser.getText();
+			} else if ("info".equals(field) && sections.contains(RunStatisticsWrapper.Section.INFO)
+					&& value == JsonToken.START_OBJECT) {
+				info = parser.readValueAsTree();
+			} else if ("failures".equals(field) && sections.contains(RunStatisticsWrapper.Section.FAILURES)
+					&& value == JsonToken.START_ARRAY) {
+				while (parser.nextToken() != JsonToken.END_ARRAY) {
+					failures.add(parser.readValueAsTree());
+				}
+			} else if ("stats".equals(field)
+					&& (sections.contains(RunStatisticsWrapper.Section.PHASE_STATS)
+							|| sections.contains(RunStatisticsWrapper.Section.SERIES))
+					&& value == JsonToken.START_ARRAY) {
+				while (parser.nextToken() == JsonToken.START_OBJECT) {
+					readStat(parser, sections, phases);
+				}
+			} else {
+				parser.skipChildren();
+			}
+		}
+	}
+
+	/**
+	 * Keep the {@code total} and, if requested, the {@code series} of a statistics entry, skipping its histogram
+	 */
+	private void readStat(final JsonParser parser, final Set<RunStatisticsWrapper.Section> sections,
+			final Predicate<String> phases) throws IOException {
+		String phase = null;
+		String metric = null;
+		JsonNode total = null;
+		JsonNode intervals = null;
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			final String field = parser.getCurrentName();
+			final JsonToken value = parser.nextToken();
+			if (value == JsonToken.VALUE_STRING && "phase".equals(field)) {
+				phase = parser.getText();
+			} else if (value == JsonToken.VALUE_STRING && "metric".equals(field)) {
+				metric = parser.getText();
+			} else if (value == JsonToken.START_OBJECT && "total".equals(field)) {
+				total = parser.readValueAsTree();
+			} else if (value == JsonToken.START_ARRAY && "series".equals(field)
+					&& sections.contains(RunStatisticsWrapper.Section.SERIES)) {
+				intervals = parser.readValueAsTree();
+			} else {
+				parser.skipChildren();
+			}
+		}
+		if (total != null) {
+			phase = total.path("phase").asText(phase);
+			metric = total.path("metric").asText(metric);
+		}
+		if (!phases.test(phase)) {
+			return;
+		}
+		if (total != null && sections.contains(RunStatisticsWrapper.Section.PHASE_STATS)) {
+			phaseStats.add(total);
+		}
+		if (intervals != null) {
+			series.put(phase + "/" + metric, intervals);
+		}
+	}
+
+	@Override
+	public String getSchema() {
+		return schema;
+	}
+
+	@Override
+	public RunSchemaVersion getVersion() {
+		return RunSchemaVersion.of(schema);
+	}
+
+	@Override
+	public Info getInfo() {
+		return info == null ? null : new JsonInfo(info);
+	}
+
+	@Override
+	public List<Failure> getFailures() {
+		return wrap(failures, JsonFailure::new);
+	}
+
+	@Override
+	public List<PhaseStats> getPhaseStats() {
+		return wrap(phaseStats, JsonPhaseStats::new);
+	}
+
+	@Override
+	public List<Summary> getSeries(final String phase, final String metric) {
+		final JsonNode intervals = series.get(phase + "/" + metric);
+		return intervals == null ? Collections.emptyList() : summaries(intervals);
+	}
+
+	private static List<Summary> summaries(final JsonNode intervals) {
+		final List<JsonNode> nodes = new ArrayList<>();
+		intervals.forEach(nodes::add);
+		return wrap(nodes, JsonSummary::new);
+	}
+
+	/**
+	 * @return The per-interval statistics which were read, by {@code <phase>/<metric>}
+	 */
+	Map<String, List<Summary>> getSeries() {
+		final Map<String, List<Summary>> all = new LinkedHashMap<>();
+		series.forEach((key, intervals) -> all.put(key, summaries(intervals)));
+		return all;
+	}
+
+	private static <T> List<T> wrap(final List<JsonNode> nodes, final Function<JsonNode, T> view) {
+		final List<T> views = new ArrayList<>(nodes.size());
+		nodes.forEach(node -> views.add(view.apply(node)));
+		return Collections.unmodifiableList(views);
+	}
+
+	private static class JsonNodeView implements Node {
+		protected final JsonNode node;
+
+		JsonNodeView(final JsonNode node) {
+			this.node = node;
+		}
+
+		@Override
+		public <T> T as(final Class<T> type) {
+			try {
+				return MAPPER.treeToValue(node, type);
+			} catch (JsonProcessingException e) {
+				throw new IllegalArgumentException("Unable to decode " + type.getName(), e);
+			}
+		}
+
+		protected String text(final String field) {
+			final JsonNode value = node.get(field);
+			return value == null || value.isNull() ? null : value.asText();
+		}
+
+		protected Long number(final String field) {
+			final JsonNode value = node.get(field);
+			return value == null || !value.isNumber() ? null : value.asLong();
+		}
+
+		@Override
+		public String toString() {
+			return node.toString();
+		}
+	}
+
+	private static final class JsonInfo extends JsonNodeView implements Info {
+		JsonInfo(final JsonNode node) {
+			super(node);
+		}
+
+		@Override
+		public String getId() {
+			return text("id");
+		}
+
+		@Override
+		public String getBenchmark() {
+			return text("benchmark");
+		}
+
+		@Override
+		public Long getStartTime() {
+			return number("startTime");
+		}
+
+		@Override
+		public Long getTerminateTime() {
+			return number("terminateTime");
+		}
+
+		@Override
+		public Boolean getCancelled() {
+			final JsonNode cancelled = node.get("cancelled");
+			return cancelled == null || !cancelled.isBoolean() ? null : cancelled.asBoolean();
+		}
+
+		@Override
+		public String getDescription() {
+			return text("description");
+		}
+
+		/**
+		 * Errors are plain strings up to {@link RunSchemaVersion#V06}, then objects with an {@code agent} and a
+		 * {@code msg}
+		 */
+		@Override
+		public List<String> getErrors() {
+			final List<String> errors = new ArrayList<>();
+			for (JsonNode error : node.path("errors")) {
+				if (error.isObject()) {
+					final String agent = error.path("agent").asText(null);
+					final String message = error.path("msg").asText("");
+					errors.add(agent == null ? message : agent + ": " + message);
+				} else {
+					errors.add(error.asText());
+				}
+			}
+			return errors;
+		}
+	}
+
+	private static final class JsonFailure extends JsonNodeView implements Failure {
+		JsonFailure(final JsonNode node) {
+			super(node);
+		}
+
+		@Override
+		public String getPhase() {
+			return text("phase");
+		}
+
+		@Override
+		public String getMetric() {
+			return text("metric");
+		}
+
+		@Override
+		public String getMessage() {
+			return text("message");
+		}
+
+		@Override
+		public Long getStart() {
+			return number("start");
+		}
+
+		@Override
+		public Long getEnd() {
+			return number("end");
+		}
+	}
+
+	private static final class JsonPhaseStats extends JsonNodeView implements PhaseStats {
+		JsonPhaseStats(final JsonNode node) {
+			super(node);
+		}
+
+		@Override
+		public String getPhase() {
+			return text("phase");
+		}
+
+		@Override
+		public String getMetric() {
+			return text("metric");
+		}
+
+		@Override
+		public Long getStart() {
+			return number("start");
+		}
+
+		@Override
+		public Long getEnd() {
+			return number("end");
+		}
+
+		@Override
+		public Summary getSummary() {
+			final JsonNode summary = node.get("summary");
+			return summary == null || !summary.isObject() ? null : new JsonSummary(summary);
+		}
+	}
+
+	private static final class JsonSummary extends JsonNodeView implements Summary {
+		JsonSummary(final JsonNode node) {
+			super(node);
+		}
+
+		@Override
+		public Long getStartTime() {
+			return number("startTime");
+		}
+
+		@Override
+		public Long getEndTime() {
+			return number("endTime");
+		}
+
+		@Override
+		public Long getRequestCount() {
+			return number("requestCount");
+		}
+
+		@Override
+		public Long getResponseCount() {
+			return number("responseCount");
+		}
+
+		@Override
+		public Long getInvalid() {
+			return number("invalid");
+		}
+
+		@Override
+		public Long getTimeouts() {
+			return number("timeouts");
+		}
+
+		@Override
+		public Long getResetCount() {
+			return number("resetCount");
+		}
+
+		@Override
+		public Long getConnectFailureCount() {
+			return number("connectFailureCount");
+		}
+
+		@Override
+		public Long getBlockedCount() {
+			return number("blockedCount");
+		}
+
+		@Override
+		public Long getMinResponseTime() {
+			return number("minResponseTime");
+		}
+
+		@Override
+		public Long getMeanResponseTime() {
+			return number("meanResponseTime");
+		}
+
+		@Override
+		public Long getMaxResponseTime() {
+			return number("maxResponseTime");
+		}
+
+		@Override
+		public Long getStatus2xx() {
+			return number("status_2xx");
+		}
+
+		@Override
+		public Long getStatus4xx() {
+			return number("status_4xx");
+		}
+
+		@Override
+		public Long getStatus5xx() {
+			return number("status_5xx");
+		}
+
+		@Override
+		public Map<String, Long> getPercentileResponseTime() {
+			final Map<String, Long> percentiles = new LinkedHashMap<>();
+			node.path("percentileResponseTime").fields().forEachRemaining(percentile -> {
+				if (percentile.getValue().isNumber()) {
+					percentiles.put(percentile.getKey(), percentile.getValue().asLong());
+				}
+			});
+			return percentiles;
+		}
+	}
+}
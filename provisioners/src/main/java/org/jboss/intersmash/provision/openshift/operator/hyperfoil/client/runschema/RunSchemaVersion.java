@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema;
+
+import java.util.Locale;
+
+/**
+ * Versions of the Hyperfoil run statistics schema which the models in the {@code runschema} packages were generated
+ * from, see {@link RunStatistics#getVersion()}.
+ */
+public enum RunSchemaVersion {
+	/**
+	 * Models in the {@code runschema.v06} package, i.e. {@code http://hyperfoil.io/run-schema/0.6}
+	 */
+	V06("org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.v06"),
+	/**
+	 * Models in the {@code runschema.v07} package, used for any later schema, too
+	 */
+	V07("org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.v07");
+
+	private final String modelPackage;
+
+	RunSchemaVersion(final String modelPackage) {
+		this.modelPackage = modelPackage;
+	}
+
+	/**
+	 * @return Package of the generated models of the version
+	 */
+	public String getModelPackage() {
+		return modelPackage;
+	}
+
+	/**
+	 * @param schema The {@code $schema} of a run statistics document, e.g. {@code http://hyperfoil.io/run-schema/0.6}
+	 * @return The version whose models match the schema, the latest if the schema is missing or unknown
+	 */
+	public static RunSchemaVersion of(final String schema) {
+		if (schema != null) {
+			final String version = schema.substring(schema.lastIndexOf('/') + 1).toLowerCase(Locale.ROOT);
+			if (version.equals("0.6") || version.startsWith("0.6.")) {
+				return V06;
+			}
+		}
+		return V07;
+	}
+}
@@ -0,0 +1,219 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only view of Hyperfoil run statistics, which doesn't depend on the version of the schema, i.e. on the version
+ * of the Hyperfoil server: the version is detected from the {@code $schema} of the document, and the fields are
+ * decoded only when accessed, rather than building the model of each version eagerly.
+ *
+ * The model of the detected version is still available, see {@link Node#as(Class)} and {@link #getVersion()}.
+ */
+public interface RunStatistics {
+
+	/**
+	 * Read the {@link RunStatisticsWrapper#DEFAULT_SECTIONS} of a run statistics document, e.g. as returned by
+	 * {@code HyperfoilApi#getAllStats}.
+	 *
+	 * @param allStats Run statistics file
+	 * @return {@link RunStatistics} instance
+	 * @throws IOException if the file can't be read or parsed
+	 */
+	static RunStatistics read(File allStats) throws IOException {
+		return read(allStats, RunStatisticsWrapper.DEFAULT_SECTIONS);
+	}
+
+	/**
+	 * Read some sections of a run statistics document, skipping the histograms and the per-agent data.
+	 *
+	 * @param allStats Run statistics file
+	 * @param sections Sections to be read, the others are left empty
+	 * @return {@link RunStatistics} instance
+	 * @throws IOException if the file can't be read or parsed
+	 */
+	static RunStatistics read(File allStats, Set<RunStatisticsWrapper.Section> sections) throws IOException {
+		return JsonRunStatistics.read(allStats, sections);
+	}
+
+	/**
+	 * Wrap the summary of some live statistics, e.g. as returned by {@code HyperfoilApi#getRecentStats}, so that they
+	 * are read the same way as the statistics of a completed run.
+	 *
+	 * @param summary Summary, as decoded from JSON
+	 * @return {@link Summary} instance
+	 */
+	static Summary summary(Map<String, ?> summary) {
+		return JsonRunStatistics.summary(summary);
+	}
+
+	/**
+	 * @return The {@code $schema} of the document, null if missing
+	 */
+	String getSchema();
+
+	/**
+	 * @return The schema version detected from {@link #getSchema()}
+	 */
+	RunSchemaVersion getVersion();
+
+	/**
+	 * @return General information about the run, null if not read
+	 */
+	Info getInfo();
+
+	/**
+	 * @return SLA failures encountered during the run
+	 */
+	List<Failure> getFailures();
+
+	/**
+	 * @return Aggregated statistics of each phase and metric
+	 */
+	List<PhaseStats> getPhaseStats();
+
+	/**
+	 * @param phase Phase name
+	 * @param metric Metric name
+	 * @return The per-interval statistics of the phase and metric, oldest first, empty if the
+	 *         {@link RunStatisticsWrapper.Section#SERIES} was not read
+	 */
+	List<Summary> getSeries(String phase, String metric);
+
+	/**
+	 * Element of the run statistics document
+	 */
+	interface Node {
+		/**
+		 * Decode the element into a model of the {@link RunStatistics#getVersion()}, e.g.
+		 * {@code runschema.v06.Summary}
+		 *
+		 * @param type Model class
+		 * @param <T> Model type
+		 * @return The decoded model
+		 */
+		<T> T as(Class<T> type);
+	}
+
+	/**
+	 * General information about the run
+	 */
+	interface Info extends Node {
+		String getId();
+
+		String getBenchmark();
+
+		Long getStartTime();
+
+		Long getTerminateTime();
+
+		Boolean getCancelled();
+
+		String getDescription();
+
+		/**
+		 * @return The errors of the run, prefixed by the agent which reported them, if known
+		 */
+		List<String> getErrors();
+	}
+
+	/**
+	 * SLA failure
+	 */
+	interface Failure extends Node {
+		String getPhase();
+
+		String getMetric();
+
+		String getMessage();
+
+		Long getStart();
+
+		Long getEnd();
+	}
+
+	/**
+	 * Aggregated statistics of a phase and metric
+	 */
+	interface PhaseStats extends Node {
+		String getPhase();
+
+		String getMetric();
+
+		Long getStart();
+
+		Long getEnd();
+
+		Summary getSummary();
+	}
+
+	/**
+	 * Request statistics, of a whole phase or of an interval. The start and end times are in milliseconds since the
+	 * epoch, while the response times are in nanoseconds.
+	 */
+	interface Summary extends Node {
+		Long getStartTime();
+
+		Long getEndTime();
+
+		Long getRequestCount();
+
+		Long getResponseCount();
+
+		Long getInvalid();
+
+		Long getTimeouts();
+
+		Long getResetCount();
+
+		Long getConnectFailureCount();
+
+		Long getBlockedCount();
+
+		Long getMinResponseTime();
+
+		Long getMeanResponseTime();
+
+		Long getMaxResponseTime();
+
+		Long getStatus2xx();
+
+		Long getStatus4xx();
+
+		Long getStatus5xx();
+
+		/**
+		 * @return Response time by percentile, e.g. {@code 99.0}
+		 */
+		Map<String, Long> getPercentileResponseTime();
+
+		/**
+		 * @return The failed requests, i.e. the invalid responses, the timeouts, and the reset or failed connections
+		 */
+		default long getErrors() {
+			return value(getInvalid()) + value(getTimeouts()) + value(getResetCount()) + value(getConnectFailureCount());
+		}
+
+		private static long value(final Long value) {
+			return value == null ? 0 : value;
+		}
+	}
+}
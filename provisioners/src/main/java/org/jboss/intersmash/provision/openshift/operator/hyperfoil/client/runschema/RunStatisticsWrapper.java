@@ -15,8 +15,17 @@
  */
 package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
 import javax.annotation.Generated;
 
@@ -25,15 +34,13 @@ import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runsch
 import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.v07.Info;
 import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.v07.PhaseDetail;
 import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.v07.PhaseStats;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.v07.Summary;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Hyperfoil run results
@@ -51,37 +58,111 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @Generated("jsonschema2pojo")
 public class RunStatisticsWrapper {
 
-	private String JSON;
-	private ObjectMapper mapper;
-	private JsonNode jsonNode;
-	private List<Failure> failures;
-	private List<PhaseStats> phaseStats;
+	/**
+	 * Sections of the run statistics document which can be read.
+	 */
+	public enum Section {
+		/**
+		 * General information about the run, i.e. {@code /info}
+		 */
+		INFO,
+		/**
+		 * SLA failures, i.e. {@code /failures}
+		 */
+		FAILURES,
+		/**
+		 * Aggregated statistics of each phase and metric, i.e. {@code /stats/total}
+		 */
+		PHASE_STATS,
+		/**
+		 * Per-interval statistics of each phase and metric, i.e. {@code /stats/series}, not read by default
+		 */
+		SERIES
+	}
+
+	/**
+	 * Sections read by default, i.e. all but the {@link Section#SERIES}, whose length depends on the run duration
+	 */
+	public static final Set<Section> DEFAULT_SECTIONS = Collections
+			.unmodifiableSet(EnumSet.of(Section.INFO, Section.FAILURES, Section.PHASE_STATS));
+
+	private List<Failure> failures = new ArrayList<>();
+	private List<PhaseStats> phaseStats = new ArrayList<>();
+	private Map<String, List<Summary>> series = new LinkedHashMap<>();
 
 	public RunStatisticsWrapper(String JSON) throws JsonProcessingException {
-		// parse incoming JSON
-		this.JSON = JSON;
-		mapper = new ObjectMapper();
-		mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-		jsonNode = mapper.readTree(this.JSON);
-
-		// extract "info" from incoming JSON
-		JsonNode infoNode = jsonNode.at("/info");
-		this.info = this.mapper.treeToValue(infoNode, Info.class);
-
-		// extract "failures" from incoming JSON
-		failures = new ArrayList<>();
-		JsonNode failuresNode = jsonNode.at("/failures");
-		for (JsonNode failureNode : failuresNode) {
-			Failure failure = mapper.treeToValue(failureNode, Failure.class);
-			failures.add(failure);
+		try {
+			decode(JsonRunStatistics.read(JSON, DEFAULT_SECTIONS, phase -> true));
+		} catch (JsonProcessingException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private RunStatisticsWrapper() {
+	}
+
+	/**
+	 * Read the {@link #DEFAULT_SECTIONS} of a run statistics document, e.g. as returned by
+	 * {@code HyperfoilApi#getAllStats}.
+	 *
+	 * @param allStats Run statistics file
+	 * @return {@link RunStatisticsWrapper} instance
+	 * @throws IOException if the file can't be read or parsed
+	 */
+	public static RunStatisticsWrapper read(File allStats) throws IOException {
+		return read(allStats, DEFAULT_SECTIONS, phase -> true);
+	}
+
+	/**
+	 * Read some sections of a run statistics document, streaming it, so that the memory needed doesn't depend on the
+	 * length of the run: the histograms and per-agent data are skipped, as well as the sections and phases which are
+	 * not requested.
+	 *
+	 * @param allStats Run statistics file
+	 * @param sections Sections to be read, the others are left empty
+	 * @param phases Selects the phases whose statistics are read, by name
+	 * @return {@link RunStatisticsWrapper} instance
+	 * @throws IOException if the file can't be read or parsed
+	 */
+	public static RunStatisticsWrapper read(File allStats, Set<Section> sections, Predicate<String> phases)
+			throws IOException {
+		final RunStatisticsWrapper wrapper = new RunStatisticsWrapper();
+		wrapper.decode(JsonRunStatistics.read(allStats, sections, phases));
+		return wrapper;
+	}
+
+	/**
+	 * Decode the sections which were read into the {@code v07} schema classes
+	 */
+	private void decode(JsonRunStatistics statistics) throws JsonProcessingException {
+		if (statistics.getInfo() != null) {
+			info = as(statistics.getInfo(), Info.class);
+		}
+		for (RunStatistics.Failure failure : statistics.getFailures()) {
+			failures.add(as(failure, Failure.class));
+		}
+		for (RunStatistics.PhaseStats stats : statistics.getPhaseStats()) {
+			phaseStats.add(as(stats, PhaseStats.class));
+		}
+		for (Map.Entry<String, List<RunStatistics.Summary>> intervals : statistics.getSeries().entrySet()) {
+			final List<Summary> summaries = new ArrayList<>();
+			for (RunStatistics.Summary summary : intervals.getValue()) {
+				summaries.add(as(summary, Summary.class));
+			}
+			series.put(intervals.getKey(), summaries);
 		}
+	}
 
-		// extract "stats" from incoming JSON
-		phaseStats = new ArrayList<>();
-		JsonNode statsNode = jsonNode.at("/stats");
-		for (JsonNode stat : statsNode) {
-			PhaseStats phaseStat = mapper.treeToValue(stat.at("/total"), PhaseStats.class);
-			phaseStats.add(phaseStat);
+	private static <T> T as(RunStatistics.Node node, Class<T> type) throws JsonProcessingException {
+		try {
+			return node.as(type);
+		} catch (IllegalArgumentException e) {
+			if (e.getCause() instanceof JsonProcessingException) {
+				throw (JsonProcessingException) e.getCause();
+			}
+			throw e;
 		}
 	}
 
@@ -249,4 +330,21 @@ public class RunStatisticsWrapper {
 		return phaseStats;
 	}
 
+	/**
+	 * @return SLA failures read from {@code /failures}
+	 */
+	public List<Failure> getFailures() {
+		return failures;
+	}
+
+	/**
+	 * @param phase Phase name
+	 * @param metric Metric name
+	 * @return The per-interval statistics of the phase and metric, oldest first, empty if the {@link Section#SERIES}
+	 *         was not read
+	 */
+	public List<Summary> getSeries(String phase, String metric) {
+		return series.getOrDefault(phase + "/" + metric, Collections.emptyList());
+	}
+
 }
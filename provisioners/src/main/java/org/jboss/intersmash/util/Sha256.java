@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 helpers used to compute content based keys, e.g. cache keys and content hashes.
+ */
+public final class Sha256 {
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private Sha256() {
+		// prevent instantiation
+	}
+
+	/**
+	 * @return A new SHA-256 {@link MessageDigest}
+	 */
+	public static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Update a digest with a string, followed by a separator, so that the boundaries of consecutive values are
+	 * part of the digest too.
+	 *
+	 * @param digest {@link MessageDigest} to be updated
+	 * @param value String value
+	 */
+	public static void update(final MessageDigest digest, final String value) {
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+	}
+
+	/**
+	 * Update a digest with the contents of a file, which is streamed through a fixed size buffer.
+	 *
+	 * @param digest {@link MessageDigest} to be updated
+	 * @param file Path to the file
+	 * @throws IOException if the file can't be read
+	 */
+	public static void update(final MessageDigest digest, final Path file) throws IOException {
+		final byte[] buffer = new byte[BUFFER_SIZE];
+		try (InputStream in = Files.newInputStream(file)) {
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		}
+	}
+
+	/**
+	 * @param digest {@link MessageDigest} to be completed
+	 * @return The digest, hex encoded
+	 */
+	public static String hex(final MessageDigest digest) {
+		final byte[] bytes = digest.digest();
+		final char[] hex = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			hex[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+			hex[i * 2 + 1] = HEX[bytes[i] & 0xf];
+		}
+		return new String(hex);
+	}
+
+	/**
+	 * @param content String content
+	 * @return SHA-256 of the UTF-8 encoded content, hex encoded
+	 */
+	public static String of(final String content) {
+		final MessageDigest digest = newDigest();
+		digest.update(content.getBytes(StandardCharsets.UTF_8));
+		return hex(digest);
+	}
+}
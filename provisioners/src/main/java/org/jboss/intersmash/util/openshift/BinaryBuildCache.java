@@ -0,0 +1,188 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.util.openshift;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.intersmash.util.Sha256;
+import org.slf4j.event.Level;
+
+import cz.xtf.core.bm.BinaryBuild;
+import cz.xtf.core.bm.BuildManagers;
+import cz.xtf.core.bm.ManagedBuildReference;
+import cz.xtf.core.config.WaitingConfig;
+import cz.xtf.core.openshift.OpenShift;
+import cz.xtf.core.waiting.SimpleWaiter;
+import io.fabric8.openshift.api.model.ImageStreamImport;
+import io.fabric8.openshift.api.model.ImageStreamImportBuilder;
+import io.fabric8.openshift.api.model.ImageStreamTag;
+import io.fabric8.openshift.api.model.ImageStreamTagBuilder;
+import io.fabric8.openshift.client.OpenShiftClient;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Content hash based cache for the images produced by XTF binary builds.
+ *
+ * XTF keeps just one BuildConfig per build id, and it deletes both the BuildConfig and the ImageStream as soon as
+ * the build inputs change, so switching back and forth between different inputs always results in a new build.
+ * This cache keeps each built image tagged by the hash of its inputs - i.e. the archive or directory tree, the builder
+ * image digest and the build environment variables - in a dedicated {@code <build id>-cache} ImageStream in the build
+ * namespace, which is not touched by XTF.
+ * When a match is found, the cached image is tagged as {@code <build id>:latest} and the build is skipped entirely,
+ * otherwise the build is executed through the XTF {@link cz.xtf.core.bm.BuildManager} and the resulting image is
+ * added to the cache.
+ */
+@Slf4j
+public class BinaryBuildCache {
+	static final String CACHE_IMAGE_STREAM_SUFFIX = "-cache";
+	static final String BUILDER_IMAGE_IMPORT = "intersmash-builder-image";
+	private static final String LATEST = "latest";
+
+	private BinaryBuildCache() {
+		// prevent instantiation
+	}
+
+	/**
+	 * Resolve the digest of a builder image, so that a new image pushed under the same tag, e.g. {@code latest},
+	 * results in a different cache key. The image metadata is retrieved by an ImageStreamImport which doesn't import
+	 * anything, i.e. no ImageStream is created or updated.
+	 *
+	 * @param openShift Client for the build namespace
+	 * @param builderImage Builder image URL
+	 * @return The builder image URL pinned to its digest, e.g. {@code quay.io/wildfly/wildfly-s2i@sha256:...}, or the
+	 *         given URL if the digest can't be resolved
+	 */
+	public static String resolveBuilderImage(final OpenShiftClient openShift, final String builderImage) {
+		final ImageStreamImport resolved = openShift.imageStreamImports().inNamespace(openShift.getNamespace())
+				.create(new ImageStreamImportBuilder()
+						.withNewMetadata().withName(BUILDER_IMAGE_IMPORT).endMetadata()
+						.withNewSpec()
+						.withImport(false)
+						.addNewImage().withNewFrom().withKind("DockerImage").withName(builderImage).endFrom().endImage()
+						.endSpec()
+						.build());
+		final String digest = resolved.getStatus() == null || resolved.getStatus().getImages() == null
+				|| resolved.getStatus().getImages().isEmpty()
+				|| resolved.getStatus().getImages().get(0).getImage() == null
+						? null
+						: resolved.getStatus().getImages().get(0).getImage().getMetadata().getName();
+		if (digest == null) {
+			log.warn("Unable to resolve the digest of the builder image {}, the cache key depends on its tag only",
+					builderImage);
+			return builderImage;
+		}
+		return repository(builderImage) + "@" + digest;
+	}
+
+	/**
+	 * Compute the cache key for a binary build, i.e. a SHA-256 digest of the build inputs.
+	 *
+	 * @param builderImage Builder image URL, pinned to its digest, see {@link #resolveBuilderImage(OpenShiftClient, String)}
+	 * @param input Binary build input, either a file (e.g. a WAR archive) or a directory
+	 * @param envProperties Build environment variables, their order is not relevant
+	 * @return A hex string which can be used as an ImageStream tag name
+	 */
+	public static String computeKey(final String builderImage, final Path input, final Map<String, String> envProperties) {
+		final MessageDigest digest = Sha256.newDigest();
+		Sha256.update(digest, builderImage);
+		if (envProperties != null) {
+			new TreeMap<>(envProperties).forEach((key, value) -> Sha256.update(digest, key + "=" + value));
+		}
+		try {
+			if (Files.isDirectory(input)) {
+				// only the files which are actually uploaded are relevant
+				for (Path file : ProjectArchiveFilter.forProject(input).list(input)) {
+					Sha256.update(digest, ProjectArchiveFilter.toRelativePath(input, file));
+					Sha256.update(digest, file);
+				}
+			} else {
+				Sha256.update(digest, input);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(String.format("Unable to compute the cache key for \"%s\"", input), e);
+		}
+		return Sha256.hex(digest);
+	}
+
+	/**
+	 * Deploy a binary build through the XTF build manager, unless an image built out of the same inputs is cached
+	 * already. The method returns once the image is available.
+	 *
+	 * @param binaryBuild The {@link BinaryBuild} instance to be deployed
+	 * @param key Cache key, see {@link #computeKey(String, Path, Map)}
+	 * @return A {@link ManagedBuildReference} pointing to the {@code <build id>:latest} ImageStreamTag
+	 */
+	public static ManagedBuildReference deploy(final BinaryBuild binaryBuild, final String key) {
+		final OpenShift openShift = BuildManagers.get().openShift();
+		final String cacheImageStream = binaryBuild.getId() + CACHE_IMAGE_STREAM_SUFFIX;
+		final ImageStreamTag cached = openShift.getImageStreamTag(cacheImageStream, key);
+		if (cached != null && cached.getImage() != null) {
+			log.info("Build cache hit for '{}' ({}), skipping the build", binaryBuild.getId(), key);
+			tag(openShift, cacheImageStream, cached.getImage().getMetadata().getName(), binaryBuild.getId(), LATEST);
+			return BuildManagers.get().getBuildReference(binaryBuild);
+		}
+		log.info("Build cache miss for '{}' ({})", binaryBuild.getId(), key);
+		final ManagedBuildReference reference = BuildManagers.get().deploy(binaryBuild);
+		BuildManagers.get().hasBuildCompleted(binaryBuild).level(Level.DEBUG).waitFor();
+		final ImageStreamTag built = openShift.getImageStreamTag(binaryBuild.getId(), LATEST);
+		if (built != null && built.getImage() != null) {
+			tag(openShift, binaryBuild.getId(), built.getImage().getMetadata().getName(), cacheImageStream, key);
+		} else {
+			log.warn("No image found for '{}:{}', the build result will not be cached", binaryBuild.getId(), LATEST);
+		}
+		return reference;
+	}
+
+	/**
+	 * @return The image URL without its tag or digest
+	 */
+	private static String repository(final String image) {
+		final int digest = image.indexOf('@');
+		if (digest >= 0) {
+			return image.substring(0, digest);
+		}
+		final int tag = image.lastIndexOf(':');
+		return tag > image.lastIndexOf('/') ? image.substring(0, tag) : image;
+	}
+
+	/**
+	 * Point the target ImageStreamTag to a given image, the same as {@code oc tag <source>@<image> <target>:<tag>},
+	 * and wait for the change to be reflected.
+	 */
+	private static void tag(final OpenShift openShift, final String sourceImageStream, final String image,
+			final String targetImageStream, final String targetTag) {
+		openShift.imageStreamTags().createOrReplace(new ImageStreamTagBuilder()
+				.withNewMetadata().withName(targetImageStream + ":" + targetTag).endMetadata()
+				.withNewTag()
+				.withName(targetTag)
+				.withNewFrom().withKind("ImageStreamImage").withName(sourceImageStream + "@" + image).endFrom()
+				.endTag()
+				.build());
+		new SimpleWaiter(() -> {
+			ImageStreamTag tagged = openShift.getImageStreamTag(targetImageStream, targetTag);
+			return tagged != null && tagged.getImage() != null && image.equals(tagged.getImage().getMetadata().getName());
+		}, TimeUnit.MILLISECONDS, WaitingConfig.timeout(),
+				String.format("Waiting for %s:%s to point to %s", targetImageStream, targetTag, image))
+				.level(Level.DEBUG)
+				.waitFor();
+	}
+}
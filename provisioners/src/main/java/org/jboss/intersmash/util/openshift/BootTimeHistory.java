@@ -0,0 +1,170 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.util.openshift;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.fabric8.kubernetes.api.model.ContainerStatus;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodCondition;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local history of the boot-to-ready times observed for deployed images, used to derive startup probe thresholds.
+ *
+ * The history is persisted in {@link #BOOT_TIMES}, so that thresholds are derived from the previous runs: the
+ * startup probe checks the pod at a tight period, starting after about half the fastest observed boot time, and
+ * allows for twice the slowest observed boot time before the container is restarted. When no boot time has been
+ * observed yet, a generous budget of {@link #DEFAULT_BUDGET} is allowed.
+ */
+@Slf4j
+public class BootTimeHistory {
+	public static final Path BOOT_TIMES = Paths.get("tmp").toAbsolutePath().resolve("probes").resolve("boot-times.json");
+	static final int MAX_SAMPLES = 10;
+	static final int PERIOD_SECONDS = 1;
+	static final Duration DEFAULT_BUDGET = Duration.ofMinutes(5);
+	static final Duration MIN_BUDGET = Duration.ofSeconds(30);
+
+	private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+	private final Path file;
+
+	public BootTimeHistory() {
+		this(BOOT_TIMES);
+	}
+
+	BootTimeHistory(final Path file) {
+		this.file = file;
+	}
+
+	/**
+	 * Record an observed boot-to-ready time, only the latest {@link #MAX_SAMPLES} samples are kept.
+	 *
+	 * @param key Identifies what has been deployed, e.g. the image and application name
+	 * @param bootTime Observed boot-to-ready time
+	 */
+	public synchronized void record(final String key, final Duration bootTime) {
+		final Map<String, List<Long>> history = read();
+		final List<Long> samples = history.computeIfAbsent(key, k -> new ArrayList<>());
+		samples.add(bootTime.toMillis());
+		while (samples.size() > MAX_SAMPLES) {
+			samples.remove(0);
+		}
+		try {
+			Files.createDirectories(file.getParent());
+			MAPPER.writeValue(file.toFile(), history);
+		} catch (IOException e) {
+			log.warn("Unable to write the boot time history to {}", file, e);
+		}
+	}
+
+	/**
+	 * @param key Identifies what has been deployed
+	 * @return The recorded boot-to-ready times, oldest first
+	 */
+	public synchronized List<Duration> getSamples(final String key) {
+		return read().getOrDefault(key, Collections.emptyList()).stream()
+				.map(Duration::ofMillis)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Derive the startup probe thresholds from the recorded boot-to-ready times.
+	 *
+	 * @param key Identifies what is being deployed
+	 * @return {@link StartupThresholds} instance
+	 */
+	public StartupThresholds thresholds(final String key) {
+		final List<Duration> samples = getSamples(key);
+		if (samples.isEmpty()) {
+			return new StartupThresholds(0, PERIOD_SECONDS, (int) (DEFAULT_BUDGET.getSeconds() / PERIOD_SECONDS));
+		}
+		final Duration fastest = Collections.min(samples);
+		final Duration slowest = Collections.max(samples);
+		final int initialDelay = (int) fastest.dividedBy(2).getSeconds();
+		final Duration budget = slowest.multipliedBy(2).compareTo(MIN_BUDGET) > 0 ? slowest.multipliedBy(2) : MIN_BUDGET;
+		final long remaining = budget.getSeconds() - initialDelay;
+		return new StartupThresholds(initialDelay, PERIOD_SECONDS,
+				(int) Math.max(1, (remaining + PERIOD_SECONDS - 1) / PERIOD_SECONDS));
+	}
+
+	/**
+	 * Compute the time a pod took to be ready since its first container started running.
+	 *
+	 * @param pod Ready {@link Pod} instance
+	 * @return The boot-to-ready time, or null if the pod status doesn't hold the related timestamps
+	 */
+	public static Duration bootToReady(final Pod pod) {
+		if (pod.getStatus() == null || pod.getStatus().getContainerStatuses() == null
+				|| pod.getStatus().getConditions() == null) {
+			return null;
+		}
+		final String startedAt = pod.getStatus().getContainerStatuses().stream()
+				.map(ContainerStatus::getState)
+				.filter(state -> state != null && state.getRunning() != null)
+				.map(state -> state.getRunning().getStartedAt())
+				.findFirst().orElse(null);
+		final String readyAt = pod.getStatus().getConditions().stream()
+				.filter(condition -> "Ready".equals(condition.getType()) && "True".equals(condition.getStatus()))
+				.map(PodCondition::getLastTransitionTime)
+				.findFirst().orElse(null);
+		if (startedAt == null || readyAt == null) {
+			return null;
+		}
+		return Duration.between(Instant.parse(startedAt), Instant.parse(readyAt));
+	}
+
+	private Map<String, List<Long>> read() {
+		if (!Files.exists(file)) {
+			return new TreeMap<>();
+		}
+		try {
+			return MAPPER.readValue(file.toFile(), new TypeReference<TreeMap<String, List<Long>>>() {
+			});
+		} catch (IOException e) {
+			log.warn("Unable to read the boot time history from {}, it will be overwritten", file, e);
+			return new TreeMap<>();
+		}
+	}
+
+	/**
+	 * Startup probe thresholds, in seconds.
+	 */
+	@Getter
+	@AllArgsConstructor
+	public static class StartupThresholds {
+		private final int initialDelaySeconds;
+		private final int periodSeconds;
+		private final int failureThreshold;
+	}
+}
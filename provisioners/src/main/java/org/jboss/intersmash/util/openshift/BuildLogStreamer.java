@@ -0,0 +1,194 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.util.openshift;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.jboss.intersmash.provision.ProvisioningReport;
+
+import cz.xtf.core.config.WaitingConfig;
+import cz.xtf.core.openshift.OpenShift;
+import io.fabric8.kubernetes.client.dsl.LogWatch;
+import io.fabric8.openshift.api.model.Build;
+import io.fabric8.openshift.api.model.BuildConfig;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Streams the log of an OpenShift build to a local file while the build is running, and tracks its S2I phases,
+ * see {@link S2iBuildPhases}.
+ *
+ * The streamer waits for a new build of the given BuildConfig to be started, i.e. a build other than the latest one
+ * found when the streamer starts, so it must be started before the build is triggered. When the build completes before
+ * its log could be streamed, the whole log is fetched once the streamer is stopped. Log lines are retrieved with
+ * their timestamps, which are used as the phase boundaries. Once stopped, the phases found in the log are recorded as {@code build:<phase>} spans on the application timeline, see
+ * {@link ProvisioningReport}.
+ */
+@Slf4j
+public class BuildLogStreamer implements AutoCloseable {
+	public static final Path BUILD_LOGS = Paths.get("tmp").toAbsolutePath().resolve("logs").resolve("builds");
+	private static final long POLL_INTERVAL_MILLIS = 1000L;
+	private static final long STOP_TIMEOUT_SECONDS = 30L;
+
+	private final OpenShift openShift;
+	private final String buildConfigName;
+	private final String application;
+	private final String previousBuildUid;
+	private final S2iBuildPhases phases = new S2iBuildPhases();
+	private final ExecutorService executor;
+	private final Future<?> streaming;
+	private final CountDownLatch closing = new CountDownLatch(1);
+	private volatile LogWatch logWatch;
+	private volatile Path logFile;
+
+	private BuildLogStreamer(final OpenShift openShift, final String buildConfigName, final String application) {
+		this.openShift = openShift;
+		this.buildConfigName = buildConfigName;
+		this.application = application;
+		final Build previousBuild = getLatestBuild();
+		this.previousBuildUid = previousBuild == null ? null : previousBuild.getMetadata().getUid();
+		this.executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "build-log-" + buildConfigName);
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.streaming = executor.submit(this::stream);
+	}
+
+	/**
+	 * Start streaming the log of the next build of a BuildConfig.
+	 *
+	 * @param openShift {@link OpenShift} client for the namespace where the build runs
+	 * @param buildConfigName Name of the BuildConfig
+	 * @param application Name of the application the build belongs to
+	 * @return A running {@link BuildLogStreamer} instance, which must be closed once the build is completed
+	 */
+	public static BuildLogStreamer start(final OpenShift openShift, final String buildConfigName,
+			final String application) {
+		return new BuildLogStreamer(openShift, buildConfigName, application);
+	}
+
+	/**
+	 * @return Path to the local build log file, or null if no build log has been streamed
+	 */
+	public Path getLogFile() {
+		return logFile;
+	}
+
+	/**
+	 * Stop streaming, once the remaining log has been consumed, and record the build phases found in the log.
+	 * When the build log hasn't been streamed yet, the log of the completed build is fetched.
+	 * When no build has been started, e.g. because XTF found the existing image to be up to date, nothing is recorded.
+	 */
+	@Override
+	public void close() {
+		closing.countDown();
+		try {
+			streaming.get(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} catch (TimeoutException e) {
+			log.warn("Build log for {} still streaming after {} seconds, stopping", buildConfigName, STOP_TIMEOUT_SECONDS);
+		} catch (Exception e) {
+			log.debug("Build log streaming for {} ended abruptly", buildConfigName, e);
+		} finally {
+			if (logWatch != null) {
+				logWatch.close();
+			}
+			executor.shutdownNow();
+		}
+		phases.getSpans().forEach(span -> ProvisioningReport.span(application, "build:" + span.getName(),
+				span.getStart(), span.getEnd()));
+	}
+
+	private void stream() {
+		final Build build = awaitBuild();
+		if (build == null) {
+			return;
+		}
+		final String buildName = build.getMetadata().getName();
+		logFile = BUILD_LOGS.resolve(buildName + ".log");
+		try {
+			Files.createDirectories(BUILD_LOGS);
+			final Reader source;
+			if (closing.getCount() == 0) {
+				// the build is already completed
+				log.debug("Fetching build log of {} to {}", buildName, logFile);
+				source = new StringReader(openShift.builds().withName(buildName).usingTimestamps().getLog());
+			} else {
+				log.debug("Streaming build log of {} to {}", buildName, logFile);
+				logWatch = openShift.builds().withName(buildName).usingTimestamps()
+						.withLogWaitTimeout((int) TimeUnit.MILLISECONDS.toSeconds(WaitingConfig.timeout()))
+						.watchLog();
+				source = new InputStreamReader(logWatch.getOutput(), StandardCharsets.UTF_8);
+			}
+			try (BufferedReader reader = new BufferedReader(source);
+					BufferedWriter writer = Files.newBufferedWriter(logFile, StandardCharsets.UTF_8)) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					writer.write(phases.accept(line));
+					writer.newLine();
+				}
+			}
+		} catch (IOException e) {
+			log.warn("Unable to stream the build log of {}", buildName, e);
+		}
+	}
+
+	/**
+	 * Wait for a build of the BuildConfig which is not the one found when the streamer has been started, checking
+	 * once more after the streamer has been closed, since a build can complete in between two polls.
+	 */
+	private Build awaitBuild() {
+		boolean closed = false;
+		while (true) {
+			final Build build = getLatestBuild();
+			if (build != null && !build.getMetadata().getUid().equals(previousBuildUid)) {
+				return build;
+			}
+			if (closed) {
+				return null;
+			}
+			try {
+				closed = closing.await(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+		}
+	}
+
+	private Build getLatestBuild() {
+		final BuildConfig buildConfig = openShift.getBuildConfig(buildConfigName);
+		if (buildConfig == null || buildConfig.getStatus() == null || buildConfig.getStatus().getLastVersion() == null
+				|| buildConfig.getStatus().getLastVersion() == 0) {
+			return null;
+		}
+		return openShift.getBuild(buildConfigName + "-" + buildConfig.getStatus().getLastVersion());
+	}
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.util.openshift;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.security.DigestOutputStream;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
+import org.jboss.intersmash.util.Sha256;
+
+import cz.xtf.core.bm.BinarySourceBuild;
+import cz.xtf.core.openshift.OpenShift;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A {@link BinarySourceBuild} which uploads the project as a gzip compressed tar archive, produced on the fly while
+ * it is being sent, i.e. no temporary archive is staged on the local file system.
+ *
+ * Project files are filtered by {@link ProjectArchiveFilter} rules, and both the content hash used by XTF to detect
+ * changes and the cache key computed by {@link BinaryBuildCache} only take the uploaded files into account.
+ * Additional files, e.g. S2I scripts, can be injected in the archive without modifying the project.
+ * The number of bytes sent and the compression ratio are logged, and exposed by {@link #getBytesSent()} and
+ * {@link #getUncompressedBytes()}, once the upload is completed.
+ */
+@Slf4j
+public class CompressedBinarySourceBuild extends BinarySourceBuild {
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	// same as the private BinaryBuild.CONTENT_HASH_LABEL_KEY of XTF, as of version 0.32, which compares it with the
+	// content hash of the build to detect changes
+	private static final String CONTENT_HASH_LABEL = "xtf.bm/content-hash";
+	private static final int EXECUTABLE_FILE_MODE = 0100755;
+
+	// not initialized explicitly, since it is lazily set when the super constructor computes the content hash
+	private ProjectArchiveFilter filter;
+	private Map<String, String> injectedFiles;
+	private long bytesSent;
+	private long uncompressedBytes;
+
+	public CompressedBinarySourceBuild(String builderImage, Path path, Map<String, String> envProperties, String id) {
+		super(builderImage, path, envProperties, id);
+	}
+
+	/**
+	 * @param injectedFiles Additional files to be uploaded along with the project files, mapped by their path
+	 *                      relative to the project root. They replace project files with the same path, and are
+	 *                      executable.
+	 */
+	public CompressedBinarySourceBuild(String builderImage, Path path, Map<String, String> envProperties, String id,
+			Map<String, String> injectedFiles) {
+		super(builderImage, path, envProperties, id);
+		this.injectedFiles = new TreeMap<>(injectedFiles);
+		// the content hash computed by the super constructor doesn't take the injected files into account
+		contentHash = null;
+		// keep the other labels set by XTF
+		final Map<String, String> labels = bc.getMetadata().getLabels() == null ? new HashMap<>()
+				: new HashMap<>(bc.getMetadata().getLabels());
+		labels.put(CONTENT_HASH_LABEL, getContentHash());
+		bc.getMetadata().setLabels(labels);
+	}
+
+	@Override
+	public void build(OpenShift openShift) {
+		openShift.imageStreams().create(is);
+		openShift.buildConfigs().create(bc);
+
+		final ExecutorService executorService = Executors.newSingleThreadExecutor();
+		try {
+			final PipedOutputStream pos = new PipedOutputStream();
+			final PipedInputStream pis = new PipedInputStream(pos, BUFFER_SIZE);
+			final Future<?> future = executorService.submit(() -> writeCompressedProjectTar(pos));
+
+			openShift.buildConfigs().withName(bc.getMetadata().getName()).instantiateBinary().fromInputStream(pis);
+			future.get();
+		} catch (IOException | InterruptedException | ExecutionException e) {
+			log.error("Exception building {}", getId(), e);
+			throw new RuntimeException(e);
+		} finally {
+			executorService.shutdownNow();
+		}
+		log.info("Uploaded '{}' sources: {} bytes sent, {} bytes uncompressed, compression ratio {}",
+				getId(), bytesSent, uncompressedBytes,
+				String.format(Locale.ROOT, "%.2f", bytesSent == 0 ? 0 : (double) uncompressedBytes / bytesSent));
+	}
+
+	@Override
+	protected String getContentHash() {
+		if (!isCached() || contentHash == null) {
+			final DigestOutputStream dos = new DigestOutputStream(NullOutputStream.NULL_OUTPUT_STREAM,
+					Sha256.newDigest());
+			writeProjectTar(dos);
+			// kubernetes label value must not be longer than 63 chars
+			contentHash = Sha256.hex(dos.getMessageDigest()).substring(0, 63);
+		}
+		return contentHash;
+	}
+
+	/**
+	 * @return Number of compressed bytes sent by the last upload
+	 */
+	public long getBytesSent() {
+		return bytesSent;
+	}
+
+	/**
+	 * @return Size of the uncompressed tar archive sent by the last upload
+	 */
+	public long getUncompressedBytes() {
+		return uncompressedBytes;
+	}
+
+	private void writeCompressedProjectTar(final OutputStream os) {
+		final CountingOutputStream compressed = new CountingOutputStream(os);
+		try {
+			final CountingOutputStream uncompressed = new CountingOutputStream(
+					new GZIPOutputStream(compressed, BUFFER_SIZE));
+			writeProjectTar(uncompressed);
+			uncompressedBytes = uncompressed.getByteCount();
+			bytesSent = compressed.getByteCount();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Write the filtered project files as a tar archive, the stream is closed once done.
+	 * Entries are sorted and their modification time is fixed, so that archives are binary equal when their contents
+	 * are.
+	 */
+	private void writeProjectTar(final OutputStream os) {
+		final Path root = getPath();
+		try (TarArchiveOutputStream o = new TarArchiveOutputStream(os)) {
+			o.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+			o.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+			for (Path file : getFilter().list(root)) {
+				final String tarPath = ProjectArchiveFilter.toRelativePath(root, file);
+				if (injectedFiles != null && injectedFiles.containsKey(tarPath)) {
+					continue;
+				}
+				log.trace("adding file to tar: {}", tarPath);
+				final TarArchiveEntry entry = new TarArchiveEntry(file.toFile(), tarPath);
+				entry.setModTime(Date.from(Instant.EPOCH));
+				final PosixFileAttributeView attributes = Files.getFileAttributeView(file, PosixFileAttributeView.class);
+				if (attributes != null) {
+					entry.setMode(toOctalFileMode(attributes.readAttributes().permissions()));
+				}
+				o.putArchiveEntry(entry);
+				try (InputStream i = Files.newInputStream(file)) {
+					IOUtils.copy(i, o);
+				}
+				o.closeArchiveEntry();
+			}
+			if (injectedFiles != null) {
+				for (Map.Entry<String, String> injected : injectedFiles.entrySet()) {
+					log.trace("adding injected file to tar: {}", injected.getKey());
+					final byte[] content = injected.getValue().getBytes(StandardCharsets.UTF_8);
+					final TarArchiveEntry entry = new TarArchiveEntry(injected.getKey());
+					entry.setSize(content.length);
+					entry.setMode(EXECUTABLE_FILE_MODE);
+					entry.setModTime(Date.from(Instant.EPOCH));
+					o.putArchiveEntry(entry);
+					o.write(content);
+					o.closeArchiveEntry();
+				}
+			}
+			o.finish();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private ProjectArchiveFilter getFilter() {
+		if (filter == null) {
+			filter = ProjectArchiveFilter.forProject(getPath());
+		}
+		return filter;
+	}
+}
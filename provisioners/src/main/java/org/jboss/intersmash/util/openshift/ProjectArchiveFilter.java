@@ -0,0 +1,244 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.util.openshift;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Exclusion rules for the project files which are uploaded by binary builds.
+ *
+ * Rules are read from the {@code .dockerignore} and {@code .s2iignore} files found in the project root, and follow
+ * the {@code .dockerignore} syntax:
+ * <ul>
+ *     <li>one pattern per line, blank lines and lines starting with {@code #} are ignored</li>
+ *     <li>patterns are relative to the project root, and {@code *}, {@code ?} and {@code **} wildcards are
+ *     supported</li>
+ *     <li>a pattern matching a directory excludes all its contents</li>
+ *     <li>a pattern starting with {@code !} re-includes matching files, and the last matching pattern wins</li>
+ * </ul>
+ * Some defaults are applied before the project rules, i.e. VCS and IDE metadata are excluded, and so is any
+ * {@code target} directory next to a {@code pom.xml} file - i.e. in the project root or in any module of a
+ * multi-module project - since the Maven build is executed by the builder image in such a case.
+ */
+public class ProjectArchiveFilter {
+	public static final List<String> IGNORE_FILES = Arrays.asList(".dockerignore", ".s2iignore");
+	static final List<String> DEFAULT_EXCLUSIONS = Arrays.asList(
+			".git", ".svn", ".idea", ".vscode", ".settings", ".project", ".classpath", "**/*.iml", "**/.DS_Store");
+	static final String MAVEN_TARGET_EXCLUSION = "target";
+
+	private final List<Rule> rules;
+
+	ProjectArchiveFilter(final List<String> patterns) {
+		this.rules = patterns.stream()
+				.map(String::trim)
+				.filter(line -> !line.isEmpty() && !line.startsWith("#"))
+				.map(Rule::new)
+				.filter(rule -> !rule.pattern.isEmpty())
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Load the exclusion rules for a given project.
+	 *
+	 * @param projectRoot Root directory of the project which will be uploaded
+	 * @return A {@link ProjectArchiveFilter} instance holding the default rules, followed by the project ones
+	 */
+	public static ProjectArchiveFilter forProject(final Path projectRoot) {
+		final List<String> patterns = new ArrayList<>(DEFAULT_EXCLUSIONS);
+		patterns.addAll(mavenTargetExclusions(projectRoot));
+		for (String ignoreFile : IGNORE_FILES) {
+			final Path path = projectRoot.resolve(ignoreFile);
+			if (Files.isRegularFile(path)) {
+				try {
+					patterns.addAll(Files.readAllLines(path, StandardCharsets.UTF_8));
+				} catch (IOException e) {
+					throw new IllegalStateException(String.format("Unable to read the \"%s\" exclusion rules", path), e);
+				}
+			}
+		}
+		return new ProjectArchiveFilter(patterns);
+	}
+
+	/**
+	 * Check whether a project file is excluded.
+	 *
+	 * @param relativePath Path of the file, relative to the project root and using {@code /} as separator
+	 * @return true if the file must not be uploaded, false otherwise
+	 */
+	public boolean isExcluded(final String relativePath) {
+		boolean excluded = false;
+		for (Rule rule : rules) {
+			if (rule.matches(relativePath)) {
+				excluded = !rule.negated;
+			}
+		}
+		return excluded;
+	}
+
+	/**
+	 * List the project files which are not excluded.
+	 *
+	 * @param projectRoot Root directory of the project
+	 * @return Sorted list of the regular files which must be uploaded
+	 */
+	public List<Path> list(final Path projectRoot) {
+		try (Stream<Path> paths = Files.walk(projectRoot)) {
+			return paths
+					.filter(Files::isRegularFile)
+					.filter(path -> !isExcluded(toRelativePath(projectRoot, path)))
+					.sorted()
+					.collect(Collectors.toList());
+		} catch (IOException e) {
+			throw new IllegalStateException(String.format("Unable to list the \"%s\" project files", projectRoot), e);
+		}
+	}
+
+	/**
+	 * Look for the Maven modules of a project, skipping the default exclusions and the build output directories.
+	 *
+	 * @param projectRoot Root directory of the project
+	 * @return One {@code target} exclusion pattern for each directory holding a {@code pom.xml} file
+	 */
+	static List<String> mavenTargetExclusions(final Path projectRoot) {
+		final ProjectArchiveFilter defaults = new ProjectArchiveFilter(DEFAULT_EXCLUSIONS);
+		final List<String> exclusions = new ArrayList<>();
+		try {
+			Files.walkFileTree(projectRoot, new SimpleFileVisitor<>() {
+				@Override
+				public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+					if (!dir.equals(projectRoot) && (defaults.isExcluded(toRelativePath(projectRoot, dir))
+							|| (dir.getFileName().toString().equals(MAVEN_TARGET_EXCLUSION)
+									&& Files.isRegularFile(dir.resolveSibling("pom.xml"))))) {
+						return FileVisitResult.SKIP_SUBTREE;
+					}
+					if (Files.isRegularFile(dir.resolve("pom.xml"))) {
+						final String module = toRelativePath(projectRoot, dir);
+						exclusions.add(module.isEmpty() ? MAVEN_TARGET_EXCLUSION
+								: escape(module) + "/" + MAVEN_TARGET_EXCLUSION);
+					}
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			throw new IllegalStateException(String.format("Unable to look for the \"%s\" Maven modules", projectRoot),
+					e);
+		}
+		return exclusions;
+	}
+
+	/**
+	 * Escape the wildcards of a literal path, so that it can be used as a pattern.
+	 */
+	private static String escape(final String path) {
+		return path.replaceAll("([\\\\*?\\[])", "\\\\$1");
+	}
+
+	static String toRelativePath(final Path projectRoot, final Path path) {
+		return projectRoot.relativize(path).toString().replace('\\', '/');
+	}
+
+	private static class Rule {
+		private final boolean negated;
+		private final String pattern;
+		private final Pattern regex;
+
+		Rule(final String line) {
+			this.negated = line.startsWith("!");
+			String normalized = negated ? line.substring(1).trim() : line;
+			while (normalized.startsWith("./")) {
+				normalized = normalized.substring(2);
+			}
+			normalized = normalized.replaceAll("^/+", "").replaceAll("/+$", "");
+			this.pattern = normalized;
+			this.regex = Pattern.compile(toRegex(normalized));
+		}
+
+		/**
+		 * A rule matches a path when it matches either the path itself or any of its parent directories.
+		 */
+		boolean matches(final String relativePath) {
+			int index = relativePath.indexOf('/');
+			while (index > 0) {
+				if (regex.matcher(relativePath.substring(0, index)).matches()) {
+					return true;
+				}
+				index = relativePath.indexOf('/', index + 1);
+			}
+			return regex.matcher(relativePath).matches();
+		}
+
+		private static String toRegex(final String glob) {
+			final StringBuilder regex = new StringBuilder();
+			int i = 0;
+			while (i < glob.length()) {
+				final char c = glob.charAt(i);
+				if (c == '*' && i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+					// "**/" matches any number of directories, zero included, while a trailing "**" matches anything
+					if (i + 2 < glob.length() && glob.charAt(i + 2) == '/') {
+						regex.append("(?:.*/)?");
+						i += 3;
+					} else {
+						regex.append(".*");
+						i += 2;
+					}
+					continue;
+				}
+				switch (c) {
+					case '*':
+						regex.append("[^/]*");
+						break;
+					case '?':
+						regex.append("[^/]");
+						break;
+					case '[':
+						final int end = glob.indexOf(']', i + 1);
+						if (end > i + 1) {
+							String characterClass = glob.substring(i + 1, end);
+							if (characterClass.startsWith("!") || characterClass.startsWith("^")) {
+								characterClass = "^" + characterClass.substring(1);
+							}
+							regex.append('[').append(characterClass.replace("\\", "\\\\")).append(']');
+							i = end;
+						} else {
+							regex.append("\\[");
+						}
+						break;
+					case '\\':
+						if (i + 1 < glob.length()) {
+							regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+						}
+						break;
+					default:
+						regex.append(Pattern.quote(String.valueOf(c)));
+				}
+				i++;
+			}
+			return regex.toString();
+		}
+	}
+}
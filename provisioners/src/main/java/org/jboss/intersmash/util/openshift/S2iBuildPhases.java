@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.util.openshift;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.jboss.intersmash.provision.ProvisioningReport;
+
+/**
+ * Tracks the phases of an S2I build out of its log, line by line.
+ *
+ * Each known phase is identified by a start marker and an end marker: a phase begins at the first line matching its
+ * start marker and ends at the first line matching its end marker, or at the last one for phases made of many
+ * repeated steps, e.g. artifact downloads. A phase whose end marker is never found ends when the log ends.
+ * Phases can overlap, e.g. artifacts are downloaded and the server is provisioned during the Maven build.
+ */
+public class S2iBuildPhases {
+
+	/**
+	 * Known S2I build phases, in the order they usually appear in the log.
+	 */
+	static final List<Phase> PHASES = Arrays.asList(
+			new Phase("pull-builder", "Pulling image", "Writing manifest|Image pull complete", false),
+			new Phase("maven-build", "Performing Maven build|Found pom.xml|Scanning for projects",
+					"BUILD SUCCESS|BUILD FAILURE", false),
+			new Phase("artifact-download", "Downloading from", "Downloaded from", true),
+			new Phase("galleon-provisioning", "Provisioning server|Galleon", "BUILD SUCCESS|BUILD FAILURE", false),
+			new Phase("commit", "COMMIT", "Storing signatures|Successfully tagged|--> [0-9a-f]+", true),
+			new Phase("image-push", "Pushing image", "Push successful", false));
+
+	private final Map<String, Instant> starts = new LinkedHashMap<>();
+	private final Map<String, Instant> ends = new LinkedHashMap<>();
+	private Instant last;
+
+	/**
+	 * Process a build log line.
+	 *
+	 * @param line The log line
+	 * @param timestamp The instant the line has been emitted at
+	 */
+	public synchronized void accept(final String line, final Instant timestamp) {
+		last = timestamp;
+		for (Phase phase : PHASES) {
+			if (!starts.containsKey(phase.name)) {
+				if (phase.start.matcher(line).find()) {
+					starts.put(phase.name, timestamp);
+				}
+			} else if ((phase.untilLastEnd || !ends.containsKey(phase.name)) && phase.end.matcher(line).find()) {
+				ends.put(phase.name, timestamp);
+			}
+		}
+	}
+
+	/**
+	 * Process a build log line retrieved with timestamps, i.e. prefixed by the RFC 3339 instant it has been emitted
+	 * at, like the {@code oc logs --timestamps} output. A line without a valid timestamp is processed as emitted at the
+	 * same instant as the previous one.
+	 *
+	 * @param timestampedLine The log line, prefixed by its timestamp
+	 * @return The log line without its timestamp
+	 */
+	public synchronized String accept(final String timestampedLine) {
+		final int separator = timestampedLine.indexOf(' ');
+		if (separator > 0) {
+			try {
+				final Instant timestamp = Instant.parse(timestampedLine.substring(0, separator));
+				final String line = timestampedLine.substring(separator + 1);
+				accept(line, timestamp);
+				return line;
+			} catch (DateTimeParseException e) {
+				// not a timestamp, e.g. a continuation line
+			}
+		}
+		accept(timestampedLine, last == null ? Instant.now() : last);
+		return timestampedLine;
+	}
+
+	/**
+	 * @return The phases found so far, in the order they started
+	 */
+	public synchronized List<ProvisioningReport.Span> getSpans() {
+		final List<ProvisioningReport.Span> spans = new ArrayList<>();
+		starts.forEach((name, start) -> spans.add(new ProvisioningReport.Span(name, start, ends.getOrDefault(name, last))));
+		return spans;
+	}
+
+	static class Phase {
+		private final String name;
+		private final Pattern start;
+		private final Pattern end;
+		private final boolean untilLastEnd;
+
+		Phase(final String name, final String start, final String end, final boolean untilLastEnd) {
+			this.name = name;
+			this.start = Pattern.compile(start);
+			this.end = Pattern.compile(end);
+			this.untilLastEnd = untilLastEnd;
+		}
+	}
+}
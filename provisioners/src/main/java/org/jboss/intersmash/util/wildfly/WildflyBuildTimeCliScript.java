@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.util.wildfly;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the files which apply a CLI script to the server configuration during an S2I build, so that the
+ * resulting image already holds the configured server and pods don't run the script at every start.
+ *
+ * The files are meant to be added to the uploaded sources: an {@code .s2i/bin/assemble} script runs the builder
+ * image own assemble script first, then applies the CLI script to the provisioned server with an embedded server.
+ */
+public class WildflyBuildTimeCliScript {
+	public static final String ASSEMBLE_SCRIPT = ".s2i/bin/assemble";
+	public static final String CLI_SCRIPT = ".s2i/configure.cli";
+	private static final String DEFAULT_SERVER_CONFIG = "standalone.xml";
+
+	private WildflyBuildTimeCliScript() {
+		// prevent instantiation
+	}
+
+	/**
+	 * Whether the CLI script can be applied at build time to the given project sources, i.e. the project doesn't
+	 * provide its own assemble script already.
+	 *
+	 * @param projectRoot Root of the uploaded sources
+	 * @return true if the CLI script can be applied at build time, false otherwise
+	 */
+	public static boolean isSupported(final Path projectRoot) {
+		return !Files.exists(projectRoot.resolve(ASSEMBLE_SCRIPT));
+	}
+
+	/**
+	 * @param cliScript CLI commands, see {@link WildflyCliScriptBuilder}
+	 * @return The files to be added to the uploaded sources, mapped by their path relative to the sources root
+	 */
+	public static Map<String, String> files(final List<String> cliScript) {
+		final Map<String, String> files = new LinkedHashMap<>();
+		files.put(ASSEMBLE_SCRIPT, String.join("\n",
+				"#!/bin/bash",
+				"set -e",
+				"\"${STI_SCRIPTS_PATH:-/usr/local/s2i}/assemble\"",
+				"echo \"Applying the CLI script to the server configuration\"",
+				"\"${JBOSS_HOME:-/opt/server}/bin/jboss-cli.sh\" --file=\"/tmp/src/" + CLI_SCRIPT + "\"",
+				"rm -rf \"${JBOSS_HOME:-/opt/server}/standalone/configuration/standalone_xml_history\"",
+				""));
+		files.put(CLI_SCRIPT, String.join("\n", embedded(cliScript)) + "\n");
+		return files;
+	}
+
+	/**
+	 * The server is not running during the build, so commands are executed against an embedded server, unless the
+	 * script already starts one.
+	 */
+	static List<String> embedded(final List<String> cliScript) {
+		if (!cliScript.isEmpty() && cliScript.get(0).trim().startsWith("embed-server")) {
+			return cliScript;
+		}
+		final List<String> commands = new ArrayList<>();
+		commands.add("embed-server --std-out=echo --server-config=" + DEFAULT_SERVER_CONFIG);
+		commands.addAll(cliScript);
+		commands.add("stop-embedded-server");
+		return commands;
+	}
+}
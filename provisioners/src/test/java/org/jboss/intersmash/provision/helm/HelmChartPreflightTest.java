@@ -0,0 +1,162 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.helm;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.client.Config;
+import io.fabric8.kubernetes.client.ConfigBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientBuilder;
+
+/**
+ * Verify the stages of {@link HelmChartPreflight}, i.e. computing the render key and loading the rendered manifests,
+ * which don't require any cluster interaction, and validating them against a stub of the API server.
+ */
+class HelmChartPreflightTest {
+
+	@TempDir
+	Path tmp;
+
+	/**
+	 * Verify that the render key changes when the chart or the release values change, while it doesn't when chart
+	 * dependency archives are downloaded.
+	 */
+	@Test
+	public void verifyRenderKey() throws IOException {
+		// arrange
+		final Path chart = Files.createDirectories(tmp.resolve("chart"));
+		Files.writeString(chart.resolve("Chart.yaml"), "name: test\nversion: 1.0.0\n");
+		Files.createDirectories(chart.resolve("templates"));
+		Files.writeString(chart.resolve("templates").resolve("service.yaml"), "kind: Service\n");
+		final Path values = Files.writeString(tmp.resolve("values.yaml"), "replicas: 1\n");
+		final String key = HelmChartPreflight.computeRenderKey(chart, List.of(values), Collections.emptyMap(), "app");
+
+		// act
+		Files.createDirectories(chart.resolve("charts"));
+		Files.writeString(chart.resolve("charts").resolve("dependency-1.0.0.tgz"), "archive");
+		final String keyWithDependencies = HelmChartPreflight.computeRenderKey(chart, List.of(values),
+				Collections.emptyMap(), "app");
+		final String keyWithOverrides = HelmChartPreflight.computeRenderKey(chart, List.of(values),
+				Map.of("deploy.replicas", "2"), "app");
+		final String keyWithOtherName = HelmChartPreflight.computeRenderKey(chart, List.of(values),
+				Collections.emptyMap(), "other");
+		Files.writeString(values, "replicas: 2\n");
+		final String keyWithOtherValues = HelmChartPreflight.computeRenderKey(chart, List.of(values),
+				Collections.emptyMap(), "app");
+
+		// assert
+		Assertions.assertEquals(key, keyWithDependencies);
+		Assertions.assertNotEquals(key, keyWithOverrides);
+		Assertions.assertNotEquals(key, keyWithOtherName);
+		Assertions.assertNotEquals(key, keyWithOtherValues);
+	}
+
+	/**
+	 * Verify that rendered manifests are loaded into typed models, and that malformed ones are rejected
+	 */
+	@Test
+	public void verifyManifestsLoading() throws IOException {
+		// arrange
+		final Path valid = Files.writeString(tmp.resolve("valid.yaml"),
+				"---\napiVersion: v1\nkind: Service\nmetadata:\n  name: app\nspec:\n  ports:\n  - port: 8080\n"
+						+ "---\napiVersion: v1\nkind: ConfigMap\nmetadata:\n  name: app-config\n");
+		final Path malformed = Files.writeString(tmp.resolve("malformed.yaml"),
+				"apiVersion: v1\nkind: Service\nmetadata:\n  name: app\nspec:\n  ports: abc\n");
+
+		try (KubernetesClient client = new KubernetesClientBuilder().build()) {
+			// act
+			final List<HasMetadata> resources = HelmChartPreflight.load(client, valid);
+
+			// assert
+			Assertions.assertEquals(2, resources.size());
+			Assertions.assertTrue(resources.get(0) instanceof Service);
+			Assertions.assertEquals(8080, ((Service) resources.get(0)).getSpec().getPorts().get(0).getPort());
+			Assertions.assertThrows(IllegalStateException.class, () -> HelmChartPreflight.load(client, malformed));
+		}
+	}
+
+	/**
+	 * Verify that each manifest is sent as a dry run with strict field validation, and that a misspelled field,
+	 * which the typed models silently keep, is reported as a violation
+	 */
+	@Test
+	public void verifyValidation() throws IOException {
+		// arrange
+		final Path valid = Files.writeString(tmp.resolve("valid.yaml"),
+				"---\napiVersion: v1\nkind: Service\nmetadata:\n  name: app\nspec:\n  ports:\n  - port: 8080\n"
+						+ "---\napiVersion: apps/v1\nkind: Deployment\nmetadata:\n  name: app\nspec:\n  replicas: 2\n");
+		final Path misspelled = Files.writeString(tmp.resolve("misspelled.yaml"),
+				"apiVersion: apps/v1\nkind: Deployment\nmetadata:\n  name: app\nspec:\n  replica: 2\n");
+		final List<String> requests = new CopyOnWriteArrayList<>();
+		final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		// rejects unknown fields like an API server does on strict field validation
+		server.createContext("/", exchange -> {
+			final byte[] body = exchange.getRequestBody().readAllBytes();
+			requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI());
+			final boolean unknownField = new String(body, StandardCharsets.UTF_8).contains("\"replica\"");
+			final byte[] response = unknownField
+					? ("{\"kind\": \"Status\", \"apiVersion\": \"v1\", \"status\": \"Failure\", \"reason\": \"BadRequest\","
+							+ "\"code\": 400, \"message\": \"strict decoding error: unknown field \\\"spec.replica\\\"\"}")
+							.getBytes(StandardCharsets.UTF_8)
+					: body;
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(unknownField ? 400 : 201, response.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(response);
+			}
+		});
+		server.start();
+		final Config config = new ConfigBuilder(Config.empty())
+				.withMasterUrl("http://localhost:" + server.getAddress().getPort())
+				.withNamespace("test")
+				.build();
+
+		try (KubernetesClient client = new KubernetesClientBuilder().withConfig(config).build()) {
+			// act
+			HelmChartPreflight.validate(client, valid);
+			final IllegalStateException violation = Assertions.assertThrows(IllegalStateException.class,
+					() -> HelmChartPreflight.validate(client, misspelled));
+
+			// assert
+			Assertions.assertEquals(List.of(
+					"POST /api/v1/namespaces/test/services?fieldValidation=Strict&dryRun=All",
+					"POST /apis/apps/v1/namespaces/test/deployments?fieldValidation=Strict&dryRun=All",
+					"POST /apis/apps/v1/namespaces/test/deployments?fieldValidation=Strict&dryRun=All"), requests);
+			Assertions.assertTrue(violation.getMessage().contains("Deployment \"app\": strict decoding error: "
+					+ "unknown field \"spec.replica\""), violation.getMessage());
+		} finally {
+			server.stop(0);
+		}
+	}
+}
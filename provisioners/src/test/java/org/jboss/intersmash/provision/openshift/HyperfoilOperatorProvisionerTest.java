@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.HyperfoilAsyncApi;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.HyperfoilApi;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verify the configuration of the Hyperfoil client created by {@link HyperfoilOperatorProvisioner}.
+ */
+class HyperfoilOperatorProvisionerTest {
+
+	/**
+	 * Verify that the client targets the controller route, without verifying its certificate
+	 */
+	@Test
+	public void verifyHyperfoilApi() throws MalformedURLException {
+		// act
+		final HyperfoilApi api = HyperfoilOperatorProvisioner
+				.hyperfoilApi(new URL("https://hyperfoil-myproject.apps.example.com"));
+
+		// assert
+		Assertions.assertEquals("https://hyperfoil-myproject.apps.example.com", api.getApiClient().getBasePath());
+		Assertions.assertFalse(api.getApiClient().isVerifyingSsl());
+	}
+
+	/**
+	 * Verify that the asynchronous client is configured like the blocking one
+	 */
+	@Test
+	public void verifyHyperfoilAsyncApi() throws MalformedURLException {
+		// act
+		final HyperfoilAsyncApi api = HyperfoilOperatorProvisioner
+				.hyperfoilAsyncApi(new URL("https://hyperfoil-myproject.apps.example.com"));
+
+		// assert
+		Assertions.assertEquals("https://hyperfoil-myproject.apps.example.com",
+				api.getHyperfoilApi().getApiClient().getBasePath());
+		Assertions.assertFalse(api.getHyperfoilApi().getApiClient().isVerifyingSsl());
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verify the delta report of {@link BenchmarkComparison}.
+ */
+class BenchmarkComparisonTest {
+
+	/**
+	 * Verify that only the changes beyond the tolerance, in the worse direction, are regressions
+	 */
+	@Test
+	public void verifyRegressions() {
+		// arrange
+		final Histogram fast = new Histogram(3);
+		fast.recordValueWithCount(Duration.ofMillis(10).toNanos(), 1000);
+		final Histogram slow = new Histogram(3);
+		slow.recordValueWithCount(Duration.ofMillis(10).toNanos(), 980);
+		slow.recordValueWithCount(Duration.ofMillis(40).toNanos(), 20);
+		final BenchmarkResult baseline = BenchmarkResultsStoreTest.result("0001", "abc", 1000L, fast);
+		final BenchmarkResult candidate = BenchmarkResultsStoreTest.result("0002", "def", 2000L, slow);
+		// 2% faster, within the tolerance, and fewer errors
+		candidate.getPhases().get(0).setThroughput(102);
+		candidate.getPhases().get(0).setErrors(5);
+
+		// act
+		final BenchmarkComparison comparison = BenchmarkComparison.compare(baseline, candidate);
+
+		// assert
+		final List<String> regressions = comparison.getRegressions().stream()
+				.map(BenchmarkComparison.Delta::getMeasure)
+				.collect(Collectors.toList());
+		Assertions.assertEquals(List.of("p99.ms", "p99.9.ms"), regressions);
+		Assertions.assertTrue(comparison.hasRegressions());
+		Assertions.assertEquals(7, comparison.getDeltas().size());
+		final BenchmarkComparison.Delta throughput = comparison.getDeltas().get(0);
+		Assertions.assertEquals("throughput", throughput.getMeasure());
+		Assertions.assertEquals(0.02, throughput.getChange(), 0.0001);
+		Assertions.assertTrue(comparison.toString().contains("REGRESSION"));
+	}
+
+	/**
+	 * Verify that the error rate of a baseline run without errors is compared by its absolute difference, rather than
+	 * by an infinite relative change
+	 */
+	@Test
+	public void verifyErrorRateRegressions() {
+		// arrange
+		final BenchmarkResult baseline = BenchmarkResultsStoreTest.result("0001", "abc", 1000L, null);
+		baseline.getPhases().get(0).setErrors(0);
+		final BenchmarkResult fewErrors = BenchmarkResultsStoreTest.result("0002", "def", 2000L, null);
+		fewErrors.getPhases().get(0).setErrors(5);
+		final BenchmarkResult manyErrors = BenchmarkResultsStoreTest.result("0003", "ghi", 3000L, null);
+		manyErrors.getPhases().get(0).setErrors(50);
+
+		// act
+		final BenchmarkComparison.Delta fewErrorsRate = BenchmarkComparison.compare(baseline, fewErrors)
+				.getDeltas().get(1);
+		final BenchmarkComparison.Delta manyErrorsRate = BenchmarkComparison.compare(baseline, manyErrors)
+				.getDeltas().get(1);
+
+		// assert
+		Assertions.assertEquals("errorRate", fewErrorsRate.getMeasure());
+		Assertions.assertTrue(fewErrorsRate.isAbsolute());
+		Assertions.assertEquals(0.005, fewErrorsRate.getDifference(), 0.0001);
+		Assertions.assertFalse(fewErrorsRate.isRegression());
+		Assertions.assertEquals(0.05, manyErrorsRate.getDifference(), 0.0001);
+		Assertions.assertTrue(manyErrorsRate.isRegression());
+		Assertions.assertTrue(BenchmarkComparison.compare(baseline, manyErrors).toString().contains("+5.0pp"));
+	}
+}
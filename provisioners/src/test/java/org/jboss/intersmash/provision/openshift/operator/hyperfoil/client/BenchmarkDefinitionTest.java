@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.HyperfoilApi;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.invoker.ApiClient;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.invoker.ApiException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Verify the rendering of benchmark templates, and the conditional upload of {@link BenchmarkDefinition}.
+ */
+class BenchmarkDefinitionTest {
+	private static final String TEMPLATE = "name: hello-world\n"
+			+ "http:\n"
+			+ "- host: ${ServiceUrl:WildflyApplication}\n"
+			+ "- host: ${ServiceUrl:org.jboss.intersmash.EapApplication}\n";
+
+	/**
+	 * Verify that the placeholders are replaced, and that an unknown application fails the rendering
+	 */
+	@Test
+	public void verifyRendering() {
+		// arrange
+		final Map<String, String> urls = Map.of(
+				"WildflyApplication", "https://wildfly.apps.example.com",
+				"org.jboss.intersmash.EapApplication", "https://eap.apps.example.com");
+
+		// act
+		final BenchmarkDefinition definition = BenchmarkDefinition.fromTemplate(TEMPLATE, urls::get);
+
+		// assert
+		Assertions.assertEquals("hello-world", definition.getName());
+		Assertions.assertEquals("name: hello-world\nhttp:\n- host: https://wildfly.apps.example.com\n"
+				+ "- host: https://eap.apps.example.com\n", definition.getSource());
+		Assertions.assertEquals(64, definition.getHash().length());
+		Assertions.assertThrows(IllegalStateException.class,
+				() -> BenchmarkDefinition.fromTemplate(TEMPLATE, application -> null));
+	}
+
+	/**
+	 * Verify that the agents section is replaced, or inserted after the name when the template doesn't define agents
+	 */
+	@Test
+	public void verifyAgents() {
+		// arrange
+		final HyperfoilAgents agents = HyperfoilAgents.of(1);
+		final BenchmarkDefinition withoutAgents = BenchmarkDefinition.fromTemplate("name: b\nhttp:\n  host: h\n",
+				application -> null);
+		final BenchmarkDefinition withAgents = BenchmarkDefinition.fromTemplate(
+				"name: b\nagents:\n  a:\n    node: n\n\n  b:\n    node: m\nhttp:\n  host: h\n", application -> null);
+
+		// act
+		final BenchmarkDefinition inserted = withoutAgents.withAgents(agents);
+		final BenchmarkDefinition replaced = withAgents.withAgents(agents);
+
+		// assert
+		final String expected = "name: b\n" + agents.render() + "http:\n  host: h\n";
+		Assertions.assertEquals(expected, inserted.getSource());
+		Assertions.assertEquals(expected, replaced.getSource());
+		Assertions.assertEquals("b", replaced.getName());
+	}
+
+	/**
+	 * Verify that a definition is uploaded only when the controller doesn't hold the same content, with the version
+	 * of the stored definition as If-Match
+	 */
+	@Test
+	public void verifyUpload() throws IOException, ApiException {
+		// arrange
+		final List<String> ifMatches = new ArrayList<>();
+		final String[] stored = new String[1];
+		final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/benchmark", exchange -> {
+			if ("POST".equals(exchange.getRequestMethod())) {
+				ifMatches.add(String.valueOf(exchange.getRequestHeaders().getFirst("if-match")));
+				stored[0] = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+				respond(exchange, 204, null);
+			} else {
+				respond(exchange, stored[0] == null ? 404 : 200, stored[0]);
+			}
+		});
+		server.start();
+		final HyperfoilApi api = new HyperfoilApi(
+				new ApiClient().setBasePath("http://localhost:" + server.getAddress().getPort()));
+		final BenchmarkDefinition first = BenchmarkDefinition.fromTemplate(TEMPLATE, application -> "http://one");
+		final BenchmarkDefinition second = BenchmarkDefinition.fromTemplate(TEMPLATE, application -> "http://two");
+
+		// act
+		final List<Boolean> uploads;
+		try {
+			uploads = List.of(first.upload(api), first.upload(api), second.upload(api));
+		} finally {
+			server.stop(0);
+		}
+
+		// assert
+		Assertions.assertEquals(List.of(true, false, true), uploads);
+		Assertions.assertEquals(List.of("null", "v-" + first.getHash()), ifMatches);
+		Assertions.assertEquals(second.getSource(), stored[0]);
+	}
+
+	private static void respond(final HttpExchange exchange, final int status, final String body) throws IOException {
+		final byte[] bytes = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+		if (body != null) {
+			exchange.getResponseHeaders().add("ETag", "v-" + BenchmarkDefinition.fromTemplate(body, a -> a).getHash());
+		}
+		exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.HdrHistogram.Histogram;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.RunStatistics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Verify the persistence of Hyperfoil run results by {@link BenchmarkResultsStore}.
+ */
+class BenchmarkResultsStoreTest {
+
+	/**
+	 * Verify that stored results, including the histograms, are loaded back, and the latest baseline is found
+	 */
+	@Test
+	public void verifyStoreAndLoad(@TempDir Path tempDir) {
+		// arrange
+		final BenchmarkResultsStore store = new BenchmarkResultsStore(tempDir);
+		final Histogram histogram = new Histogram(3);
+		histogram.recordValueWithCount(Duration.ofMillis(5).toNanos(), 99);
+		histogram.recordValue(Duration.ofMillis(50).toNanos());
+
+		// act
+		store.store(result("0001", "abc", 1000L, histogram));
+		store.store(result("0002", "def", 2000L, histogram));
+		store.store(result("0003", "abc", 3000L, null));
+		final BenchmarkResult loaded = store.load("benchmark", "0001").orElseThrow();
+		final List<BenchmarkResult> all = store.list("benchmark");
+
+		// assert
+		Assertions.assertEquals("abc", loaded.getGitRef());
+		Assertions.assertEquals(List.of("quay.io/wildfly/wildfly:latest"), loaded.getImages());
+		Assertions.assertEquals(100, loaded.getPhases().get(0).getHdrHistogram().getTotalCount());
+		Assertions.assertEquals(50, loaded.getPhases().get(0).percentile(99.9).toMillis());
+		Assertions.assertNull(store.load("benchmark", "0003").orElseThrow().getPhases().get(0).getHdrHistogram());
+		Assertions.assertEquals(3, all.size());
+		Assertions.assertEquals("0003", all.get(2).getRunId());
+		Assertions.assertEquals("0002",
+				store.latest("benchmark", result -> "def".equals(result.getGitRef())).orElseThrow().getRunId());
+		Assertions.assertFalse(store.load("benchmark", "0004").isPresent());
+		Assertions.assertTrue(store.list("missing").isEmpty());
+	}
+
+	/**
+	 * Verify that the phase statistics of a run are summarized
+	 */
+	@Test
+	public void verifySummarize(@TempDir Path tempDir) throws IOException {
+		// arrange
+		final Path allStats = tempDir.resolve("all-stats.json");
+		Files.writeString(allStats, "{\"$schema\": \"http://hyperfoil.io/run-schema/v3.0\","
+				+ "\"stats\": [{\"total\": {\"phase\": \"steadyState\", \"metric\": \"test\","
+				+ "\"start\": 1672531200000, \"end\": 1672531210000, \"summary\": {\"requestCount\": 1000,"
+				+ "\"invalid\": 5, \"timeouts\": 3, \"meanResponseTime\": 2000000}}}]}", StandardCharsets.UTF_8);
+		final RunStatistics.PhaseStats stats = RunStatistics.read(allStats.toFile()).getPhaseStats().get(0);
+
+		// act
+		final BenchmarkResult.PhaseResult phase = BenchmarkResultsStore.summarize(stats);
+
+		// assert
+		Assertions.assertEquals(1000, phase.getRequests());
+		Assertions.assertEquals(8, phase.getErrors());
+		Assertions.assertEquals(100, phase.getThroughput(), 0.001);
+		Assertions.assertEquals(0.008, phase.getErrorRate(), 0.0001);
+		Assertions.assertEquals(2_000_000L, phase.getMeanResponseTime());
+	}
+
+	static BenchmarkResult result(final String runId, final String gitRef, final long timestamp,
+			final Histogram histogram) {
+		final BenchmarkResult.PhaseResult phase = new BenchmarkResult.PhaseResult();
+		phase.setPhase("steadyState");
+		phase.setMetric("test");
+		phase.setRequests(1000);
+		phase.setErrors(10);
+		phase.setThroughput(100);
+		phase.setMeanResponseTime(5_000_000L);
+		if (histogram != null) {
+			phase.setHdrHistogram(histogram);
+		}
+		final BenchmarkResult result = new BenchmarkResult();
+		result.setBenchmark("benchmark");
+		result.setRunId(runId);
+		result.setGitRef(gitRef);
+		result.setImages(List.of("quay.io/wildfly/wildfly:latest"));
+		result.setTimestamp(timestamp);
+		result.getPhases().add(phase);
+		return result;
+	}
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verify the sizing and the rendering of {@link HyperfoilAgents}, and the parsing of the agents CPU usage.
+ */
+class HyperfoilAgentsTest {
+
+	/**
+	 * Verify that the agents are sized for the target rate, with the least agents which don't exceed the maximum
+	 * cores per agent
+	 */
+	@Test
+	public void verifySizing() {
+		// act
+		final HyperfoilAgents small = HyperfoilAgents.forRate(500);
+		final HyperfoilAgents large = HyperfoilAgents.forRate(18000);
+
+		// assert
+		Assertions.assertEquals(1, small.getCount());
+		Assertions.assertEquals(1, small.getCores());
+		// 9 cores, i.e. 3 agents of 3 cores rather than 2 agents of 4 cores and 1 agent of 1 core
+		Assertions.assertEquals(3, large.getCount());
+		Assertions.assertEquals(3, large.getCores());
+		Assertions.assertEquals(List.of("agent-1", "agent-2", "agent-3"), large.getNames());
+	}
+
+	/**
+	 * Verify that the agents are pinned to the nodes round robin
+	 */
+	@Test
+	public void verifyRendering() {
+		// arrange
+		final HyperfoilAgents agents = HyperfoilAgents.of(3).memory("2Gi").nodes(List.of("worker-a", "worker-b"));
+
+		// act
+		final String section = agents.render();
+
+		// assert
+		Assertions.assertEquals("agents:\n"
+				+ "  agent-1:\n    node: worker-a\n    cpu: 1000m\n    memory: 2Gi\n    threads: 1\n"
+				+ "  agent-2:\n    node: worker-b\n    cpu: 1000m\n    memory: 2Gi\n    threads: 1\n"
+				+ "  agent-3:\n    node: worker-a\n    cpu: 1000m\n    memory: 2Gi\n    threads: 1\n", section);
+	}
+
+	/**
+	 * Verify that the CPU usage is parsed from both percentages and ratios, and that saturated agents are reported
+	 * along with their highest usage
+	 */
+	@Test
+	public void verifyCpuUsage() {
+		// arrange
+		final Map<String, Object> response = Map.of(
+				"warmup", Map.of("agent-1", "97.5% (3.9/4)", "agent-2", "40%"),
+				"steady", Map.of("agent-1", 0.99, "agent-2", "n/a"));
+
+		// act
+		final Map<String, Map<String, Double>> usage = HyperfoilAgents.cpuUsage(response);
+		final Map<String, Double> saturated = HyperfoilAgents.saturated(usage, 0.9);
+
+		// assert
+		Assertions.assertEquals(0.975, usage.get("warmup").get("agent-1"), 1e-9);
+		Assertions.assertEquals(0.4, usage.get("warmup").get("agent-2"), 1e-9);
+		Assertions.assertFalse(usage.get("steady").containsKey("agent-2"));
+		Assertions.assertEquals(Map.of("agent-1", 0.99), saturated);
+	}
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.invoker.ApiException;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.model.Run;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Verify the {@link HyperfoilAsyncApi} against a local HTTP server, standing for the Hyperfoil controller.
+ */
+class HyperfoilAsyncApiTest {
+	private HttpServer server;
+	private String basePath;
+
+	@BeforeEach
+	public void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.setExecutor(Executors.newFixedThreadPool(4));
+		server.createContext("/run/", this::handleRun);
+		server.start();
+		basePath = "http://localhost:" + server.getAddress().getPort();
+	}
+
+	@AfterEach
+	public void stopServer() {
+		server.stop(0);
+	}
+
+	/**
+	 * Verify that concurrent calls complete independently, and that all the instances share the connection pool
+	 */
+	@Test
+	public void verifyConcurrentCalls() throws InterruptedException, ExecutionException {
+		// arrange
+		final HyperfoilAsyncApi first = new HyperfoilAsyncApi(basePath);
+		final HyperfoilAsyncApi second = new HyperfoilAsyncApi(basePath);
+
+		// act
+		final List<CompletableFuture<Run>> runs = IntStream.range(0, 20)
+				.mapToObj(i -> (i % 2 == 0 ? first : second).getRun(String.format("%04X", i)))
+				.collect(Collectors.toList());
+		CompletableFuture.allOf(runs.toArray(new CompletableFuture[0])).get();
+
+		// assert
+		for (int i = 0; i < runs.size(); i++) {
+			Assertions.assertEquals(String.format("%04X", i), runs.get(i).get().getId());
+		}
+		Assertions.assertSame(first.getHyperfoilApi().getApiClient().getHttpClient().connectionPool(),
+				second.getHyperfoilApi().getApiClient().getHttpClient().connectionPool());
+		Assertions.assertSame(HyperfoilAsyncApi.getConnectionPool(),
+				first.getHyperfoilApi().getApiClient().getHttpClient().connectionPool());
+	}
+
+	/**
+	 * Verify that an error response completes the future exceptionally, with the {@link ApiException}
+	 */
+	@Test
+	public void verifyFailure() throws InterruptedException {
+		// act
+		final CompletableFuture<Run> run = new HyperfoilAsyncApi(basePath).getRun("missing");
+
+		// assert
+		final ExecutionException e = Assertions.assertThrows(ExecutionException.class,
+				() -> run.get(10, TimeUnit.SECONDS));
+		Assertions.assertTrue(e.getCause() instanceof ApiException);
+		Assertions.assertEquals(404, ((ApiException) e.getCause()).getCode());
+	}
+
+	private void handleRun(final HttpExchange exchange) throws IOException {
+		final String runId = exchange.getRequestURI().getPath().substring("/run/".length());
+		final byte[] body = "missing".equals(runId) ? new byte[0]
+				: String.format("{\"id\":\"%s\",\"benchmark\":\"intersmash-benchmark\","
+						+ "\"started\":\"2023-01-01T00:00:00Z\",\"terminated\":\"2023-01-01T00:01:00Z\"}", runId)
+						.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(body.length == 0 ? 404 : 200, body.length == 0 ? -1 : body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+}
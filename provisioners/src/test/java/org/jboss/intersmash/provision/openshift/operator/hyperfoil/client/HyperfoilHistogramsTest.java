@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Base64;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verify the decoding and the aggregation of Hyperfoil histograms by {@link HyperfoilHistograms}.
+ */
+class HyperfoilHistogramsTest {
+
+	/**
+	 * Verify that the histograms of two agents are decoded, whether compressed or not, and merged exactly
+	 */
+	@Test
+	public void verifyMerge() {
+		// arrange
+		final Histogram fast = new Histogram(3);
+		final Histogram slow = new Histogram(3);
+		for (int i = 1; i <= 900; i++) {
+			fast.recordValue(Duration.ofMillis(1).toNanos());
+		}
+		for (int i = 1; i <= 100; i++) {
+			slow.recordValue(Duration.ofMillis(100).toNanos());
+		}
+
+		// act
+		final Histogram merged = HyperfoilHistograms.merge(Arrays.asList(
+				HyperfoilHistograms.decode(model(fast, true)),
+				HyperfoilHistograms.decode(model(slow, false))));
+
+		// assert
+		Assertions.assertEquals(1000, merged.getTotalCount());
+		Assertions.assertEquals(1, HyperfoilHistograms.percentile(merged, 90).toMillis());
+		Assertions.assertEquals(100, HyperfoilHistograms.percentile(merged, 91).toMillis());
+		Assertions.assertEquals(Duration.ofMillis(100),
+				HyperfoilHistograms.percentiles(merged, Arrays.asList(50.0, 99.0)).get(99.0).truncatedTo(ChronoUnit.MILLIS));
+	}
+
+	/**
+	 * Verify that the correction for coordinated omission adds the samples missed while waiting for a slow response
+	 */
+	@Test
+	public void verifyCoordinatedOmission() {
+		// arrange
+		final Histogram recorded = new Histogram(3);
+		for (int i = 0; i < 99; i++) {
+			recorded.recordValue(Duration.ofMillis(10).toNanos());
+		}
+		recorded.recordValue(Duration.ofSeconds(1).toNanos());
+
+		// act
+		final Histogram corrected = HyperfoilHistograms.correctedForCoordinatedOmission(recorded,
+				Duration.ofMillis(10));
+
+		// assert
+		Assertions.assertEquals(10, HyperfoilHistograms.percentile(recorded, 99).toMillis());
+		Assertions.assertEquals(199, corrected.getTotalCount());
+		Assertions.assertTrue(HyperfoilHistograms.percentile(corrected, 75).toMillis() > 100);
+		Assertions.assertEquals(100, recorded.getTotalCount());
+	}
+
+	private static org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.model.Histogram model(
+			final Histogram histogram, final boolean compressed) {
+		final ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+		final int length = compressed ? histogram.encodeIntoCompressedByteBuffer(buffer)
+				: histogram.encodeIntoByteBuffer(buffer);
+		final org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.model.Histogram model = new org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.model.Histogram();
+		model.setPhase("steadyState");
+		model.setMetric("test");
+		model.setData(Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length)));
+		return model;
+	}
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.HyperfoilApi;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.invoker.ApiClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Verify that {@link HyperfoilLogTailer} follows the logs incrementally, against a stub of the Hyperfoil controller.
+ */
+class HyperfoilLogTailerTest {
+	private final List<String> requests = new CopyOnWriteArrayList<>();
+	private final List<String> kills = new CopyOnWriteArrayList<>();
+	private volatile String controllerLog = "";
+	private volatile String controllerEtag = "c1";
+	private volatile String agentLog = "";
+	private HttpServer server;
+	private HyperfoilApi api;
+
+	@BeforeEach
+	public void startController() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/log", exchange -> {
+			final String query = exchange.getRequestURI().getQuery();
+			final int offset = query == null ? 0 : Integer.parseInt(query.replaceAll(".*offset=(\\d+).*", "$1"));
+			final String ifMatch = exchange.getRequestHeaders().getFirst("if-match");
+			final boolean agent = exchange.getRequestURI().getPath().startsWith("/log/");
+			final byte[] content = (agent ? agentLog : controllerLog).getBytes(StandardCharsets.UTF_8);
+			final String etag = agent ? "a1" : controllerEtag;
+			requests.add(exchange.getRequestURI().getPath() + "?" + offset + "@" + ifMatch);
+			if (ifMatch != null && !ifMatch.equals(etag)) {
+				respond(exchange, 412, null, null);
+			} else {
+				respond(exchange, 200, Arrays.copyOfRange(content, Math.min(offset, content.length), content.length), etag);
+			}
+		});
+		server.createContext("/run", exchange -> {
+			kills.add(exchange.getRequestURI().getPath());
+			respond(exchange, 202, null, null);
+		});
+		server.start();
+		api = new HyperfoilApi(new ApiClient().setBasePath("http://localhost:" + server.getAddress().getPort()));
+	}
+
+	@AfterEach
+	public void stopController() {
+		server.stop(0);
+	}
+
+	/**
+	 * Verify that each poll retrieves what was logged since the previous one, that lines split across polls are
+	 * assembled, and that a replaced log is rotated, then followed from the start
+	 */
+	@Test
+	public void verifyTailing(@TempDir Path directory) throws IOException {
+		// arrange
+		final List<String> lines = new ArrayList<>();
+		final HyperfoilLogTailer tailer = new HyperfoilLogTailer(api, "0001").directory(directory)
+				.listener((source, line) -> lines.add(source + ": " + line));
+
+		// act
+		controllerLog = "line one\nline tw";
+		tailer.poll();
+		controllerLog += "o\r\n";
+		tailer.poll();
+		controllerLog = "restarted\n";
+		controllerEtag = "c2";
+		tailer.poll();
+		tailer.poll();
+		// closing polls once more
+		tailer.close();
+
+		// assert
+		Assertions.assertEquals(List.of("controller: line one", "controller: line two", "controller: restarted"),
+				lines);
+		Assertions.assertEquals(List.of("/log?0@null", "/log?16@c1", "/log?19@c1", "/log?0@null",
+				"/log?10@c2"), requests);
+		Assertions.assertEquals("line one\nline two\r\n",
+				Files.readString(tailer.getRotatedLogFile(HyperfoilLogTailer.CONTROLLER), StandardCharsets.UTF_8));
+		Assertions.assertEquals("restarted\n",
+				Files.readString(tailer.getLogFile(HyperfoilLogTailer.CONTROLLER), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Verify that a log is read in chunks of the buffer size, and that long lines are split on character boundaries
+	 */
+	@Test
+	public void verifyLongLines(@TempDir Path directory) throws IOException {
+		// arrange
+		final List<String> lines = new ArrayList<>();
+		final HyperfoilLogTailer tailer = new HyperfoilLogTailer(api, "0001").directory(directory).bufferSize(4)
+				.listener((source, line) -> lines.add(line));
+
+		// act
+		controllerLog = "aaa\u00e9\u20acb\nend\n";
+		tailer.poll();
+		tailer.close();
+
+		// assert
+		// the first line is 5 bytes long, since the split is moved past the second byte of \u00e9
+		Assertions.assertEquals(List.of("aaa\u00e9", "\u20acb", "end"), lines);
+		Assertions.assertEquals(controllerLog,
+				Files.readString(tailer.getLogFile(HyperfoilLogTailer.CONTROLLER), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Verify that the run is killed, once, when an agent logs a known error
+	 */
+	@Test
+	public void verifyKillRunOn(@TempDir Path directory) {
+		// arrange
+		final HyperfoilLogTailer tailer = new HyperfoilLogTailer(api, "0001").directory(directory)
+				.agent("agent-one")
+				.killRunOn(Pattern.compile("Connection refused"));
+
+		// act
+		agentLog = "INFO started\nERROR Connection refused: wildfly:8080\n";
+		tailer.poll();
+		agentLog += "ERROR Connection refused: wildfly:8080\n";
+		tailer.poll();
+		tailer.close();
+
+		// assert
+		Assertions.assertEquals(List.of("/run/0001/kill"), kills);
+		Assertions.assertTrue(tailer.getAbortReason().orElseThrow().contains("agent-one"));
+		Assertions.assertTrue(Files.exists(tailer.getLogFile("agent-one")));
+	}
+
+	private static void respond(final HttpExchange exchange, final int status, final byte[] body, final String etag)
+			throws IOException {
+		final byte[] bytes = body == null ? new byte[0] : body;
+		if (etag != null) {
+			exchange.getResponseHeaders().add("ETag", etag);
+		}
+		exchange.getResponseHeaders().add("Content-Type", "text/plain");
+		exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+}
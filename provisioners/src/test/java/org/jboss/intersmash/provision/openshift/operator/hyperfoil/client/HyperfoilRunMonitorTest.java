@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.model.RequestStatisticsResponse;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.v05.model.RequestStats;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Verify the sampling and the SLA checks of {@link HyperfoilRunMonitor}, feeding it statistics as the controller
+ * would return them.
+ */
+class HyperfoilRunMonitorTest {
+	// the run is never killed for real, there's no controller listening
+	private final HyperfoilAsyncApi api = new HyperfoilAsyncApi("http://localhost:1");
+
+	/**
+	 * Verify that the run is aborted only once a rule is violated by enough consecutive samples
+	 */
+	@Test
+	public void verifyAbort() {
+		// arrange
+		final HyperfoilRunMonitor monitor = new HyperfoilRunMonitor(api, "0001")
+				.rule(SlaRule.errorRateBelow(0.1))
+				.rule(SlaRule.p99Below(Duration.ofMillis(500)))
+				.consecutiveViolations(3);
+
+		// act
+		int tick = 0;
+		for (int errors : new int[] { 50, 50, 0, 50, 50 }) {
+			monitor.onStats(tick++, response("RUNNING", stats("steadyState", false, 100, errors, 1_000_000L)));
+		}
+		final boolean abortedEarly = monitor.getCompletion().isDone();
+		monitor.onStats(tick, response("RUNNING", stats("steadyState", false, 100, 50, 1_000_000L)));
+
+		// assert
+		Assertions.assertFalse(abortedEarly);
+		Assertions.assertTrue(monitor.getCompletion().isDone());
+		Assertions.assertEquals("Run 0001 violated \"error rate < 0.1\" in 3 consecutive samples",
+				monitor.getViolation().orElse(null));
+	}
+
+	/**
+	 * Verify that the oldest samples are discarded, warmup phases are skipped, and the samples are exported
+	 */
+	@Test
+	public void verifySamples(@TempDir Path tempDir) throws IOException {
+		// arrange
+		final HyperfoilRunMonitor monitor = new HyperfoilRunMonitor(api, "0002")
+				.rule(SlaRule.throughputAbove(10))
+				.capacity(3);
+
+		// act
+		for (int tick = 0; tick < 5; tick++) {
+			monitor.onStats(tick, response(tick == 4 ? "TERMINATED" : "RUNNING",
+					stats("rampUp", true, 1, 0, 0L),
+					stats("steadyState", false, 2000, 20, 250_000_000L)));
+		}
+		final List<String> csv = Files.readAllLines(monitor.export(tempDir.resolve("samples.csv")));
+
+		// assert
+		Assertions.assertEquals(3, monitor.getSamples().size());
+		final HyperfoilRunMonitor.Sample sample = monitor.getSamples().get(0);
+		Assertions.assertEquals(2, sample.getTimestamp());
+		Assertions.assertEquals("steadyState", sample.getPhase());
+		Assertions.assertEquals(1000, sample.getThroughput(), 0.001);
+		Assertions.assertEquals(0.01, sample.getErrorRate(), 0.0001);
+		Assertions.assertEquals(Duration.ofMillis(250), sample.getP99ResponseTime());
+		Assertions.assertTrue(monitor.getCompletion().isDone());
+		Assertions.assertFalse(monitor.getViolation().isPresent());
+		Assertions.assertEquals(4, csv.size());
+		Assertions.assertEquals("2,steadyState,test,2000,1000.00,0.0100,250.000", csv.get(1));
+	}
+
+	/**
+	 * Verify that the errors are the invalid responses, the timeouts, and the reset or failed connections, as in the
+	 * results of the completed run
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void verifySampleErrors() {
+		// arrange
+		final RequestStats stats = stats("steadyState", false, 100, 1, 1_000_000L);
+		final Map<String, Object> summary = new HashMap<>((Map<String, Object>) stats.getSummary());
+		summary.put("timeouts", 2d);
+		summary.put("resetCount", 3d);
+		summary.put("connectFailureCount", 4d);
+		summary.put("connectionErrors", 50d);
+		stats.setSummary(summary);
+
+		// act
+		final HyperfoilRunMonitor.Sample sample = HyperfoilRunMonitor.Sample.of(0, stats);
+
+		// assert
+		Assertions.assertEquals(0.1, sample.getErrorRate(), 0.0001);
+		Assertions.assertEquals(Duration.ofMillis(1), sample.getP99ResponseTime());
+	}
+
+	private static RequestStatisticsResponse response(final String status, final RequestStats... stats) {
+		final RequestStatisticsResponse response = new RequestStatisticsResponse();
+		response.setStatus(status);
+		response.setStatistics(Arrays.asList(stats));
+		return response;
+	}
+
+	/**
+	 * Numbers are doubles, as parsed by Gson, and the statistics window is 2 seconds long
+	 */
+	private static RequestStats stats(final String phase, final boolean warmup, final long requests, final long invalid,
+			final long p99Nanos) {
+		final RequestStats stats = new RequestStats();
+		stats.setPhase(phase);
+		stats.setMetric("test");
+		stats.setIsWarmup(warmup);
+		stats.setSummary(Map.of(
+				"startTime", 1_672_531_200_000d,
+				"endTime", 1_672_531_202_000d,
+				"requestCount", (double) requests,
+				"invalid", (double) invalid,
+				"percentileResponseTime", Map.of("50.0", p99Nanos / 2d, "99.0", (double) p99Nanos)));
+		return stats;
+	}
+}
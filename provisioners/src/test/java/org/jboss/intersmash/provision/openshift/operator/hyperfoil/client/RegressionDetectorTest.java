@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import org.HdrHistogram.Histogram;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.RunStatistics;
+import org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.RunStatisticsWrapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opentest4j.AssertionFailedError;
+
+/**
+ * Verify the statistical tests of {@link RegressionDetector}, and the related {@link PerformanceAssertions}.
+ */
+class RegressionDetectorTest {
+
+	/**
+	 * Verify the Mann-Whitney U test against a textbook example
+	 */
+	@Test
+	public void verifyMannWhitney() {
+		// act
+		final RegressionDetector.MannWhitney test = RegressionDetector.mannWhitney(
+				new double[] { 1, 2, 3, 4, 5 }, new double[] { 6, 7, 8, 9, 10 });
+
+		// assert
+		Assertions.assertEquals(25, test.u);
+		Assertions.assertEquals(1, test.cliffsDelta);
+		Assertions.assertEquals(0.0122, test.pValue, 0.0005);
+	}
+
+	/**
+	 * Verify that a throughput drop is a regression, while noise is tolerated
+	 */
+	@Test
+	public void verifyThroughput() {
+		// arrange
+		final Random random = new Random(1);
+		final double[] baseline = throughputs(random, 1000);
+		final double[] noise = throughputs(random, 1000);
+		final double[] slower = throughputs(random, 900);
+		final RegressionDetector detector = new RegressionDetector();
+
+		// act
+		final RegressionDetector.Result same = detector.throughput("same", baseline, noise);
+		final RegressionDetector.Result regression = detector.throughput("slower", baseline, slower);
+
+		// assert
+		Assertions.assertFalse(same.isRegression());
+		Assertions.assertTrue(regression.isRegression());
+		Assertions.assertTrue(regression.getPValue() < 0.001);
+		Assertions.assertTrue(regression.getEffectSize() < -0.9);
+		Assertions.assertDoesNotThrow(() -> PerformanceAssertions.assertNoRegression(same));
+		Assertions.assertThrows(AssertionFailedError.class, () -> PerformanceAssertions.assertNoRegression(same,
+				regression));
+	}
+
+	/**
+	 * Verify that a higher response time percentile is a regression, while noise is tolerated
+	 */
+	@Test
+	public void verifyPercentile() {
+		// arrange
+		final Random random = new Random(2);
+		final List<Histogram> baseline = List.of(histogram(random, 40), histogram(random, 40));
+		final List<Histogram> noise = List.of(histogram(random, 40), histogram(random, 40));
+		final List<Histogram> slower = List.of(histogram(random, 60), histogram(random, 60));
+		final RegressionDetector detector = new RegressionDetector().bootstrapIterations(200);
+
+		// act
+		final RegressionDetector.Result same = detector.percentile("p99", baseline, noise, 99);
+		final RegressionDetector.Result regression = detector.percentile("p99", baseline, slower, 99);
+
+		// assert
+		Assertions.assertFalse(same.isRegression());
+		Assertions.assertTrue(regression.isRegression());
+		Assertions.assertEquals(0.5, regression.getEffectSize(), 0.1);
+		Assertions.assertTrue(regression.getConfidenceLow() > 0.05);
+		Assertions.assertTrue(regression.getConfidenceLow() <= regression.getConfidenceHigh());
+	}
+
+	/**
+	 * Verify that the per-interval throughputs are computed from the series of the run statistics, whose start and
+	 * end times are in milliseconds
+	 */
+	@Test
+	public void verifySeriesThroughputs(@TempDir Path directory) throws IOException {
+		// arrange
+		final Path allStats = directory.resolve("all-stats.json");
+		Files.writeString(allStats, "{\"$schema\": \"http://hyperfoil.io/run-schema/v3.0\","
+				+ "\"stats\": [{\"phase\": \"main\", \"metric\": \"get\", \"series\": ["
+				+ "{\"startTime\": 1000, \"endTime\": 2000, \"requestCount\": 100},"
+				+ "{\"startTime\": 2000, \"endTime\": 2500, \"requestCount\": 100},"
+				+ "{\"startTime\": 2500, \"endTime\": 2500, \"requestCount\": 0}]}]}", StandardCharsets.UTF_8);
+		final RunStatistics statistics = RunStatistics.read(allStats.toFile(),
+				EnumSet.of(RunStatisticsWrapper.Section.SERIES));
+
+		// act
+		final double[] throughputs = RegressionDetector.throughputs(List.of(statistics), "main", "get");
+
+		// assert
+		Assertions.assertArrayEquals(new double[] { 100, 200 }, throughputs, 0.001);
+	}
+
+	private static double[] throughputs(final Random random, final double mean) {
+		final double[] throughputs = new double[60];
+		for (int i = 0; i < throughputs.length; i++) {
+			throughputs[i] = mean + random.nextGaussian() * 20;
+		}
+		return throughputs;
+	}
+
+	/**
+	 * Response times around 5 ms, with 2% of them around the tail value
+	 */
+	private static Histogram histogram(final Random random, final long tailMillis) {
+		final Histogram histogram = new Histogram(3);
+		for (int i = 0; i < 20_000; i++) {
+			final double millis = random.nextDouble() < 0.02 ? tailMillis : 5;
+			histogram.recordValue((long) (Duration.ofMillis(1).toNanos() * millis * (0.9 + random.nextDouble() * 0.2)));
+		}
+		return histogram;
+	}
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Verify the version-agnostic {@link RunStatistics} view over documents of different schema versions.
+ */
+class RunStatisticsTest {
+
+	/**
+	 * Verify that the latest schema is detected, and that the sections are exposed by the view
+	 */
+	@Test
+	public void verifyLatestSchema() throws IOException, URISyntaxException {
+		// act
+		final RunStatistics statistics = RunStatistics.read(allStats());
+
+		// assert
+		Assertions.assertEquals(RunSchemaVersion.V07, statistics.getVersion());
+		Assertions.assertEquals("0001", statistics.getInfo().getId());
+		Assertions.assertEquals(Boolean.FALSE, statistics.getInfo().getCancelled());
+		Assertions.assertEquals("steadyState", statistics.getFailures().get(0).getPhase());
+		Assertions.assertEquals(2, statistics.getPhaseStats().size());
+		final RunStatistics.PhaseStats steadyState = statistics.getPhaseStats().get(1);
+		Assertions.assertEquals("steadyState", steadyState.getPhase());
+		Assertions.assertEquals(5000L, steadyState.getSummary().getRequestCount());
+		Assertions.assertNull(steadyState.getSummary().getTimeouts());
+		Assertions.assertEquals(5000L, steadyState.as(
+				org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.v07.PhaseStats.class)
+				.getSummary().getRequestCount());
+		Assertions.assertTrue(statistics.getSeries("rampUp", "test").isEmpty());
+	}
+
+	/**
+	 * Verify that a 0.6 document, whose errors are plain strings, is read by the same view, and decoded by the
+	 * matching models
+	 */
+	@Test
+	public void verifyV06Schema(@TempDir Path directory) throws IOException {
+		// arrange
+		final Path allStats = directory.resolve("all-stats.json");
+		Files.writeString(allStats, "{\"$schema\": \"http://hyperfoil.io/run-schema/0.6\","
+				+ "\"info\": {\"id\": \"0002\", \"errors\": [\"agent-one lost\"]},"
+				+ "\"stats\": [{\"phase\": \"main\", \"metric\": \"get\", \"total\": {\"phase\": \"main\","
+				+ "\"metric\": \"get\", \"summary\": {\"requestCount\": 7, \"percentileResponseTime\": {\"99.0\": 1000}}},"
+				+ "\"series\": [{\"requestCount\": 3}, {\"requestCount\": 4}]}]}", StandardCharsets.UTF_8);
+
+		// act
+		final RunStatistics statistics = RunStatistics.read(allStats.toFile(),
+				EnumSet.of(RunStatisticsWrapper.Section.INFO, RunStatisticsWrapper.Section.SERIES));
+
+		// assert
+		Assertions.assertEquals(RunSchemaVersion.V06, statistics.getVersion());
+		Assertions.assertEquals(List.of("agent-one lost"), statistics.getInfo().getErrors());
+		Assertions.assertEquals(List.of("agent-one lost"), statistics.getInfo().as(
+				org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema.v06.Info.class)
+				.getErrors());
+		Assertions.assertTrue(statistics.getPhaseStats().isEmpty());
+		Assertions.assertEquals(2, statistics.getSeries("main", "get").size());
+		Assertions.assertEquals(4L, statistics.getSeries("main", "get").get(1).getRequestCount());
+	}
+
+	/**
+	 * Verify that the errors reported by agents are prefixed by the agent, and that percentiles are decoded
+	 */
+	@Test
+	public void verifyV07Errors(@TempDir Path directory) throws IOException {
+		// arrange
+		final Path allStats = directory.resolve("all-stats.json");
+		Files.writeString(allStats, "{\"$schema\": \"http://hyperfoil.io/run-schema/v3.0\","
+				+ "\"info\": {\"id\": \"0003\", \"errors\": [{\"agent\": \"agent-one\", \"msg\": \"lost\"}]},"
+				+ "\"stats\": [{\"total\": {\"phase\": \"main\", \"metric\": \"get\","
+				+ "\"summary\": {\"percentileResponseTime\": {\"99.0\": 1000}}}}]}", StandardCharsets.UTF_8);
+
+		// act
+		final RunStatistics statistics = RunStatistics.read(allStats.toFile());
+
+		// assert
+		Assertions.assertEquals(List.of("agent-one: lost"), statistics.getInfo().getErrors());
+		Assertions.assertEquals(1000L,
+				statistics.getPhaseStats().get(0).getSummary().getPercentileResponseTime().get("99.0"));
+	}
+
+	private static File allStats() throws URISyntaxException {
+		return Paths.get(RunStatisticsTest.class.getResource("/hyperfoil/all-stats.json").toURI()).toFile();
+	}
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.provision.openshift.operator.hyperfoil.client.runschema;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verify the streaming read of Hyperfoil run statistics by {@link RunStatisticsWrapper}.
+ */
+class RunStatisticsWrapperTest {
+
+	/**
+	 * Verify that all the sections are read from a file, the same as from a string
+	 */
+	@Test
+	public void verifyAllSections() throws IOException, URISyntaxException {
+		// arrange
+		final File allStats = allStats();
+
+		// act
+		final RunStatisticsWrapper fromFile = RunStatisticsWrapper.read(allStats);
+		final RunStatisticsWrapper fromString = new RunStatisticsWrapper(Files.readString(allStats.toPath()));
+
+		// assert
+		for (RunStatisticsWrapper wrapper : new RunStatisticsWrapper[] { fromFile, fromString }) {
+			Assertions.assertEquals("0001", wrapper.getInfo().getId());
+			Assertions.assertEquals(1, wrapper.getFailures().size());
+			Assertions.assertEquals("steadyState", wrapper.getFailures().get(0).getPhase());
+			Assertions.assertEquals(2, wrapper.getPhaseStats().size());
+			Assertions.assertEquals("rampUp", wrapper.getPhaseStats().get(0).getPhase());
+		}
+	}
+
+	/**
+	 * Verify that only the requested sections and phases are read
+	 */
+	@Test
+	public void verifySelectedSections() throws IOException, URISyntaxException {
+		// act
+		final RunStatisticsWrapper wrapper = RunStatisticsWrapper.read(allStats(),
+				EnumSet.of(RunStatisticsWrapper.Section.PHASE_STATS), "steadyState"::equals);
+
+		// assert
+		Assertions.assertNull(wrapper.getInfo());
+		Assertions.assertTrue(wrapper.getFailures().isEmpty());
+		Assertions.assertEquals(1, wrapper.getPhaseStats().size());
+		Assertions.assertEquals("steadyState", wrapper.getPhaseStats().get(0).getPhase());
+	}
+
+	/**
+	 * Verify that the per-interval statistics are read only when requested
+	 */
+	@Test
+	public void verifySeries() throws IOException, URISyntaxException {
+		// act
+		final RunStatisticsWrapper defaults = RunStatisticsWrapper.read(allStats());
+		final RunStatisticsWrapper series = RunStatisticsWrapper.read(allStats(),
+				EnumSet.of(RunStatisticsWrapper.Section.SERIES), phase -> true);
+
+		// assert
+		Assertions.assertTrue(defaults.getSeries("rampUp", "test").isEmpty());
+		Assertions.assertTrue(series.getPhaseStats().isEmpty());
+		Assertions.assertEquals(1, series.getSeries("rampUp", "test").size());
+		Assertions.assertEquals(10L, series.getSeries("rampUp", "test").get(0).getRequestCount());
+		Assertions.assertTrue(series.getSeries("steadyState", "test").isEmpty());
+	}
+
+	private static File allStats() throws URISyntaxException {
+		return Paths.get(RunStatisticsWrapperTest.class.getResource("/hyperfoil/all-stats.json").toURI()).toFile();
+	}
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Verify the {@link Sha256} helpers.
+ */
+class Sha256Test {
+
+	/**
+	 * Verify the hex encoding against a well known digest
+	 */
+	@Test
+	public void verifyHex() {
+		Assertions.assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", Sha256.of("abc"));
+	}
+
+	/**
+	 * Verify that a file larger than the streaming buffer is digested the same as its content in memory
+	 */
+	@Test
+	public void verifyFile(@TempDir Path directory) throws IOException {
+		// arrange
+		final String content = "0123456789abcdef".repeat(10_000);
+		final Path file = directory.resolve("content.bin");
+		Files.writeString(file, content, StandardCharsets.UTF_8);
+
+		// act
+		final MessageDigest digest = Sha256.newDigest();
+		Sha256.update(digest, file);
+
+		// assert
+		Assertions.assertEquals(Sha256.of(content), Sha256.hex(digest));
+	}
+}
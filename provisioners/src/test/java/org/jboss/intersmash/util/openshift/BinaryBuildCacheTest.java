@@ -0,0 +1,154 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.util.openshift;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.fabric8.kubernetes.client.Config;
+import io.fabric8.kubernetes.client.ConfigBuilder;
+import io.fabric8.kubernetes.client.KubernetesClientBuilder;
+import io.fabric8.openshift.client.OpenShiftClient;
+
+/**
+ * Verify that the {@link BinaryBuildCache} key depends on all the build inputs, and on nothing else.
+ */
+class BinaryBuildCacheTest {
+
+	private static final String BUILDER_IMAGE = "quay.io/wildfly/wildfly-s2i:latest";
+
+	@TempDir
+	Path tmp;
+
+	/**
+	 * Verify the cache key computed for a directory input, i.e. a project sources tree
+	 */
+	@Test
+	public void verifyDirectoryKey() throws IOException {
+		// arrange
+		final Path project = Files.createDirectories(tmp.resolve("project"));
+		Files.writeString(project.resolve("pom.xml"), "<project/>");
+		Files.createDirectories(project.resolve("src"));
+		Files.writeString(project.resolve("src").resolve("App.java"), "class App {}");
+		final Map<String, String> env = new LinkedHashMap<>();
+		env.put("A", "1");
+		env.put("B", "2");
+		final Map<String, String> reversedEnv = new LinkedHashMap<>();
+		reversedEnv.put("B", "2");
+		reversedEnv.put("A", "1");
+		final String key = BinaryBuildCache.computeKey(BUILDER_IMAGE, project, env);
+
+		// act
+		final String keyWithReversedEnv = BinaryBuildCache.computeKey(BUILDER_IMAGE, project, reversedEnv);
+		final String keyWithOtherEnv = BinaryBuildCache.computeKey(BUILDER_IMAGE, project, Map.of("A", "1"));
+		final String keyWithOtherImage = BinaryBuildCache.computeKey("quay.io/wildfly/wildfly-s2i:other", project, env);
+		Files.writeString(project.resolve("src").resolve("App.java"), "class App { }");
+		final String keyWithOtherSources = BinaryBuildCache.computeKey(BUILDER_IMAGE, project, env);
+
+		// assert
+		Assertions.assertEquals(key, keyWithReversedEnv);
+		Assertions.assertNotEquals(key, keyWithOtherEnv);
+		Assertions.assertNotEquals(key, keyWithOtherImage);
+		Assertions.assertNotEquals(key, keyWithOtherSources);
+		Assertions.assertTrue(key.matches("[0-9a-f]{64}"), "The key must be a valid ImageStream tag name");
+	}
+
+	/**
+	 * Verify the cache key computed for a file input, e.g. a WAR archive
+	 */
+	@Test
+	public void verifyFileKey() throws IOException {
+		// arrange
+		final Path archive = Files.write(tmp.resolve("ROOT.war"), new byte[] { 1, 2, 3 });
+		final Path sameArchive = Files.write(tmp.resolve("copy.war"), new byte[] { 1, 2, 3 });
+
+		// act
+		final String key = BinaryBuildCache.computeKey(BUILDER_IMAGE, archive, null);
+		final String keyWithSameContent = BinaryBuildCache.computeKey(BUILDER_IMAGE, sameArchive, null);
+		Files.write(archive, new byte[] { 1, 2, 4 });
+		final String keyWithOtherContent = BinaryBuildCache.computeKey(BUILDER_IMAGE, archive, null);
+
+		// assert
+		Assertions.assertEquals(key, keyWithSameContent);
+		Assertions.assertNotEquals(key, keyWithOtherContent);
+	}
+
+	/**
+	 * Verify that the cache key changes when a new builder image is pushed under the same tag
+	 */
+	@Test
+	public void verifyBuilderImageDigestKey() throws IOException {
+		// arrange
+		final Path archive = Files.write(tmp.resolve("ROOT.war"), new byte[] { 1, 2, 3 });
+		final String[] digest = { "sha256:" + "1".repeat(64) };
+		final List<String> requests = new CopyOnWriteArrayList<>();
+		final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		// resolves the image metadata like the API server does for an ImageStreamImport which doesn't import
+		server.createContext("/", exchange -> {
+			exchange.getRequestBody().readAllBytes();
+			requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI());
+			final byte[] response = ("{\"kind\": \"ImageStreamImport\", \"apiVersion\": \"image.openshift.io/v1\","
+					+ "\"metadata\": {\"name\": \"" + BinaryBuildCache.BUILDER_IMAGE_IMPORT + "\"},"
+					+ "\"status\": {\"images\": [{\"image\": {\"metadata\": {\"name\": \"" + digest[0] + "\"}}}]}}")
+					.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(201, response.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(response);
+			}
+		});
+		server.start();
+		final Config config = new ConfigBuilder(Config.empty())
+				.withMasterUrl("http://localhost:" + server.getAddress().getPort())
+				.withNamespace("test")
+				.build();
+
+		try (OpenShiftClient openShift = new KubernetesClientBuilder().withConfig(config).build()
+				.adapt(OpenShiftClient.class)) {
+			// act
+			final String builderImage = BinaryBuildCache.resolveBuilderImage(openShift, BUILDER_IMAGE);
+			final String key = BinaryBuildCache.computeKey(builderImage, archive, null);
+			final String keyWithSameDigest = BinaryBuildCache.computeKey(
+					BinaryBuildCache.resolveBuilderImage(openShift, BUILDER_IMAGE), archive, null);
+			digest[0] = "sha256:" + "2".repeat(64);
+			final String keyWithOtherDigest = BinaryBuildCache.computeKey(
+					BinaryBuildCache.resolveBuilderImage(openShift, BUILDER_IMAGE), archive, null);
+
+			// assert
+			Assertions.assertEquals("quay.io/wildfly/wildfly-s2i@sha256:" + "1".repeat(64), builderImage);
+			Assertions.assertEquals("POST /apis/image.openshift.io/v1/namespaces/test/imagestreamimports",
+					requests.get(0));
+			Assertions.assertEquals(key, keyWithSameDigest);
+			Assertions.assertNotEquals(key, keyWithOtherDigest);
+		} finally {
+			server.stop(0);
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.util.openshift;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+
+/**
+ * Verify that {@link BootTimeHistory} derives startup probe thresholds from the recorded boot times.
+ */
+class BootTimeHistoryTest {
+
+	@TempDir
+	Path tmp;
+
+	/**
+	 * Verify the default thresholds, when no boot time has been recorded
+	 */
+	@Test
+	public void verifyDefaultThresholds() {
+		// arrange
+		final BootTimeHistory history = new BootTimeHistory(tmp.resolve("boot-times.json"));
+
+		// act
+		final BootTimeHistory.StartupThresholds thresholds = history.thresholds("image|app");
+
+		// assert
+		Assertions.assertEquals(0, thresholds.getInitialDelaySeconds());
+		Assertions.assertEquals(BootTimeHistory.PERIOD_SECONDS, thresholds.getPeriodSeconds());
+		Assertions.assertEquals(BootTimeHistory.DEFAULT_BUDGET.getSeconds(),
+				thresholds.getPeriodSeconds() * thresholds.getFailureThreshold());
+	}
+
+	/**
+	 * Verify that the thresholds are derived from the fastest and slowest recorded boot times, and that the history
+	 * is persisted and bounded
+	 */
+	@Test
+	public void verifyDerivedThresholds() {
+		// arrange
+		final Path file = tmp.resolve("boot-times.json");
+		final BootTimeHistory history = new BootTimeHistory(file);
+		for (int i = 0; i < BootTimeHistory.MAX_SAMPLES; i++) {
+			history.record("image|app", Duration.ofSeconds(2));
+		}
+		history.record("image|app", Duration.ofSeconds(20));
+		history.record("image|app", Duration.ofSeconds(30));
+
+		// act
+		final BootTimeHistory reloaded = new BootTimeHistory(file);
+		final BootTimeHistory.StartupThresholds thresholds = reloaded.thresholds("image|app");
+
+		// assert
+		Assertions.assertEquals(BootTimeHistory.MAX_SAMPLES, reloaded.getSamples("image|app").size());
+		Assertions.assertEquals(1, thresholds.getInitialDelaySeconds());
+		// twice the slowest boot time, i.e. 60 seconds, minus the initial delay
+		Assertions.assertEquals(59, thresholds.getFailureThreshold());
+		Assertions.assertTrue(reloaded.getSamples("other|app").isEmpty());
+	}
+
+	/**
+	 * Verify that the boot-to-ready time is computed out of the pod status
+	 */
+	@Test
+	public void verifyBootToReady() {
+		// arrange
+		final Pod pod = new PodBuilder().withNewStatus()
+				.addNewContainerStatus().withNewState().withNewRunning().withStartedAt("2023-06-01T10:00:00Z")
+				.endRunning().endState().endContainerStatus()
+				.addNewCondition().withType("Ready").withStatus("True").withLastTransitionTime("2023-06-01T10:00:17Z")
+				.endCondition()
+				.endStatus().build();
+
+		// act, assert
+		Assertions.assertEquals(Duration.ofSeconds(17), BootTimeHistory.bootToReady(pod));
+		Assertions.assertNull(BootTimeHistory.bootToReady(new PodBuilder().build()));
+	}
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.util.openshift;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Verify the {@link ProjectArchiveFilter} exclusion rules, and that {@link CompressedBinarySourceBuild} only takes
+ * the uploaded files into account.
+ */
+class ProjectArchiveFilterTest {
+
+	@TempDir
+	Path tmp;
+
+	/**
+	 * Verify the supported pattern syntax, i.e. wildcards, directory matching and negation
+	 */
+	@Test
+	public void verifyExclusionRules() {
+		// arrange
+		final ProjectArchiveFilter filter = new ProjectArchiveFilter(Arrays.asList(
+				"# comment",
+				"",
+				"/logs/",
+				"*.tmp",
+				"**/*.bak",
+				"docs/**",
+				"!docs/README.md",
+				"build?/"));
+
+		// act, assert
+		Assertions.assertTrue(filter.isExcluded("logs/server.log"));
+		Assertions.assertFalse(filter.isExcluded("src/logs/server.log"));
+		Assertions.assertTrue(filter.isExcluded("file.tmp"));
+		Assertions.assertFalse(filter.isExcluded("src/file.tmp"));
+		Assertions.assertTrue(filter.isExcluded("file.bak"));
+		Assertions.assertTrue(filter.isExcluded("src/main/file.bak"));
+		Assertions.assertTrue(filter.isExcluded("docs/guide/index.html"));
+		Assertions.assertFalse(filter.isExcluded("docs/README.md"));
+		Assertions.assertTrue(filter.isExcluded("build1/out.txt"));
+		Assertions.assertFalse(filter.isExcluded("build12/out.txt"));
+		Assertions.assertFalse(filter.isExcluded("pom.xml"));
+	}
+
+	/**
+	 * Verify the default rules, and that the project ignore files are loaded after them
+	 */
+	@Test
+	public void verifyProjectRules() throws IOException {
+		// arrange
+		final Path project = Files.createDirectories(tmp.resolve("project"));
+		write(project, "pom.xml");
+		write(project, "src/main/java/App.java");
+		write(project, "target/App.class");
+		write(project, "target/keep.txt");
+		write(project, ".git/HEAD");
+		write(project, ".idea/workspace.xml");
+		write(project, "module/module.iml");
+		write(project, "secret.properties");
+		Files.writeString(project.resolve(".dockerignore"), "secret.properties\n");
+		Files.writeString(project.resolve(".s2iignore"), "!target/keep.txt\n");
+
+		// act
+		final List<String> files = ProjectArchiveFilter.forProject(project).list(project).stream()
+				.map(path -> ProjectArchiveFilter.toRelativePath(project, path))
+				.collect(Collectors.toList());
+
+		// assert
+		Assertions.assertEquals(
+				Arrays.asList(".dockerignore", ".s2iignore", "pom.xml", "src/main/java/App.java", "target/keep.txt"),
+				files);
+	}
+
+	/**
+	 * Verify that the {@code target} directory of each module of a multi-module project is excluded, while
+	 * directories named {@code target} outside of the Maven modules are not
+	 */
+	@Test
+	public void verifyMultiModuleRules() throws IOException {
+		// arrange
+		final Path project = Files.createDirectories(tmp.resolve("multi-module"));
+		write(project, "pom.xml");
+		write(project, "target/parent.txt");
+		write(project, "api/pom.xml");
+		write(project, "api/target/Api.class");
+		write(project, "app/pom.xml");
+		write(project, "app/src/main/java/App.java");
+		write(project, "app/target/App.class");
+		write(project, "app/web/pom.xml");
+		write(project, "app/web/target/web.war");
+		write(project, "docs/target/index.html");
+
+		// act
+		final List<String> files = ProjectArchiveFilter.forProject(project).list(project).stream()
+				.map(path -> ProjectArchiveFilter.toRelativePath(project, path))
+				.collect(Collectors.toList());
+
+		// assert
+		Assertions.assertEquals(
+				Arrays.asList("api/pom.xml", "app/pom.xml", "app/src/main/java/App.java", "app/web/pom.xml",
+						"docs/target/index.html", "pom.xml"),
+				files);
+	}
+
+	/**
+	 * Verify that {@code target} is not excluded when the project root does not hold a Maven project, e.g. when a
+	 * provisioned server is uploaded
+	 */
+	@Test
+	public void verifyTargetIsIncludedWithoutPom() throws IOException {
+		// arrange
+		final Path server = Files.createDirectories(tmp.resolve("server"));
+		write(server, "target/ROOT.war");
+
+		// act, assert
+		Assertions.assertEquals(Collections.singletonList(server.resolve("target").resolve("ROOT.war")),
+				ProjectArchiveFilter.forProject(server).list(server));
+	}
+
+	/**
+	 * Verify that the content hash of a {@link CompressedBinarySourceBuild} does not change when excluded files do
+	 */
+	@Test
+	public void verifyContentHashIgnoresExcludedFiles() throws IOException {
+		// arrange
+		final Path project = Files.createDirectories(tmp.resolve("hashed"));
+		write(project, "pom.xml");
+		write(project, "src/main/java/App.java");
+		final String hash = new CompressedBinarySourceBuild("image", project, null, "app").getContentHash();
+
+		// act
+		write(project, "target/App.class");
+		final String hashWithExcludedFile = new CompressedBinarySourceBuild("image", project, null, "app")
+				.getContentHash();
+		write(project, "src/main/java/Other.java");
+		final String hashWithIncludedFile = new CompressedBinarySourceBuild("image", project, null, "app")
+				.getContentHash();
+
+		// assert
+		Assertions.assertEquals(hash, hashWithExcludedFile);
+		Assertions.assertNotEquals(hash, hashWithIncludedFile);
+	}
+
+	/**
+	 * Verify that files injected in a {@link CompressedBinarySourceBuild} are part of its content hash
+	 */
+	@Test
+	public void verifyContentHashIncludesInjectedFiles() throws IOException {
+		// arrange
+		final Path project = Files.createDirectories(tmp.resolve("injected"));
+		write(project, "pom.xml");
+		final CompressedBinarySourceBuild plain = new CompressedBinarySourceBuild("image", project, null, "app");
+
+		// act
+		final CompressedBinarySourceBuild injected = new CompressedBinarySourceBuild("image", project, null, "app",
+				Collections.singletonMap(".s2i/bin/assemble", "#!/bin/bash"));
+
+		// assert
+		Assertions.assertNotEquals(plain.getContentHash(), injected.getContentHash());
+	}
+
+	private static void write(final Path root, final String relativePath) throws IOException {
+		final Path file = root.resolve(relativePath);
+		Files.createDirectories(file.getParent());
+		Files.writeString(file, relativePath);
+	}
+}
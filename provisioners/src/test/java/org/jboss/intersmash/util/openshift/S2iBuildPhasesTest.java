@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.util.openshift;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.jboss.intersmash.provision.ProvisioningReport;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verify that {@link S2iBuildPhases} tracks the phases of an S2I build out of its log.
+ */
+class S2iBuildPhasesTest {
+
+	/**
+	 * Verify the phases found in a typical S2I build log, with one line emitted per second
+	 */
+	@Test
+	public void verifyPhases() {
+		// arrange
+		final List<String> lines = Arrays.asList(
+				"Pulling image registry.redhat.io/jboss-eap-7/eap74-openjdk11-openshift-rhel8 ...", // 0
+				"Writing manifest to image destination", // 1
+				"Performing Maven build in /tmp/src", // 2
+				"[INFO] Downloading from central: https://repo1.maven.org/a.pom", // 3
+				"[INFO] Downloaded from central: https://repo1.maven.org/a.pom", // 4
+				"[INFO] Downloading from central: https://repo1.maven.org/b.pom", // 5
+				"[INFO] Downloaded from central: https://repo1.maven.org/b.pom", // 6
+				"[INFO] Provisioning server in /tmp/src/target/server", // 7
+				"[INFO] BUILD SUCCESS", // 8
+				"STEP 9/9: COMMIT temp.builder.openshift.io/app:1", // 9
+				"--> 3f1c2a9b", // 10
+				"Pushing image image-registry.openshift-image-registry.svc:5000/ns/app:latest ...", // 11
+				"Push successful"); // 12
+		final S2iBuildPhases phases = new S2iBuildPhases();
+
+		// act
+		for (int i = 0; i < lines.size(); i++) {
+			phases.accept(lines.get(i), Instant.ofEpochSecond(i));
+		}
+		final List<ProvisioningReport.Span> spans = phases.getSpans();
+
+		// assert
+		Assertions.assertEquals(
+				Arrays.asList("pull-builder", "maven-build", "artifact-download", "galleon-provisioning", "commit",
+						"image-push"),
+				spans.stream().map(ProvisioningReport.Span::getName).collect(Collectors.toList()));
+		assertSpan(spans.get(0), 0, 1);
+		assertSpan(spans.get(1), 2, 8);
+		assertSpan(spans.get(2), 3, 6);
+		assertSpan(spans.get(3), 7, 8);
+		assertSpan(spans.get(4), 9, 10);
+		assertSpan(spans.get(5), 11, 12);
+	}
+
+	/**
+	 * Verify that a phase whose end marker is not found ends at the last log line, e.g. when the build fails
+	 */
+	@Test
+	public void verifyUnterminatedPhase() {
+		// arrange
+		final S2iBuildPhases phases = new S2iBuildPhases();
+
+		// act
+		phases.accept("Performing Maven build in /tmp/src", Instant.ofEpochSecond(0));
+		phases.accept("[ERROR] Failed to execute goal", Instant.ofEpochSecond(5));
+		final List<ProvisioningReport.Span> spans = phases.getSpans();
+
+		// assert
+		Assertions.assertEquals(1, spans.size());
+		Assertions.assertEquals("maven-build", spans.get(0).getName());
+		assertSpan(spans.get(0), 0, 5);
+	}
+
+	/**
+	 * Verify that the phase boundaries are taken from the timestamps of the log lines, rather than from the instant
+	 * the lines are processed at, e.g. when the whole log is fetched once the build is completed
+	 */
+	@Test
+	public void verifyTimestampedLines() {
+		// arrange
+		final S2iBuildPhases phases = new S2iBuildPhases();
+
+		// act
+		final String line = phases.accept("1970-01-01T00:00:02.000000000Z Performing Maven build in /tmp/src");
+		phases.accept("1970-01-01T00:00:03Z [INFO] Scanning for projects...");
+		phases.accept("    at org.apache.maven.cli.MavenCli.main(MavenCli.java:210)");
+		phases.accept("1970-01-01T00:00:07.5Z [INFO] BUILD SUCCESS");
+		final List<ProvisioningReport.Span> spans = phases.getSpans();
+
+		// assert
+		Assertions.assertEquals("Performing Maven build in /tmp/src", line);
+		Assertions.assertEquals(1, spans.size());
+		Assertions.assertEquals(Instant.ofEpochSecond(2), spans.get(0).getStart());
+		Assertions.assertEquals(Instant.ofEpochSecond(7, 500_000_000), spans.get(0).getEnd());
+	}
+
+	private static void assertSpan(final ProvisioningReport.Span span, final long start, final long end) {
+		Assertions.assertEquals(Instant.ofEpochSecond(start), span.getStart(), span.getName() + " start");
+		Assertions.assertEquals(Instant.ofEpochSecond(end), span.getEnd(), span.getName() + " end");
+	}
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2023 Red Hat, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.intersmash.util.wildfly;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Verify the files generated by {@link WildflyBuildTimeCliScript}.
+ */
+class WildflyBuildTimeCliScriptTest {
+
+	@TempDir
+	Path tmp;
+
+	/**
+	 * Verify that the CLI script is executed against an embedded server, unless it starts one already
+	 */
+	@Test
+	public void verifyEmbeddedServer() {
+		// arrange
+		final List<String> script = Arrays.asList("/system-property=foo:add(value=bar)");
+		final List<String> embedded = new WildflyCliScriptBuilder().addCommands(script).build("standalone-ha.xml");
+
+		// act
+		final Map<String, String> files = WildflyBuildTimeCliScript.files(script);
+
+		// assert
+		Assertions.assertEquals(
+				"embed-server --std-out=echo --server-config=standalone.xml\n"
+						+ "/system-property=foo:add(value=bar)\n"
+						+ "stop-embedded-server\n",
+				files.get(WildflyBuildTimeCliScript.CLI_SCRIPT));
+		Assertions.assertTrue(files.get(WildflyBuildTimeCliScript.ASSEMBLE_SCRIPT)
+				.contains("--file=\"/tmp/src/" + WildflyBuildTimeCliScript.CLI_SCRIPT + "\""));
+		Assertions.assertEquals(embedded, WildflyBuildTimeCliScript.embedded(embedded));
+	}
+
+	/**
+	 * Verify that sources providing their own assemble script are not supported
+	 */
+	@Test
+	public void verifySupportedSources() throws IOException {
+		// arrange
+		final Path project = Files.createDirectories(tmp.resolve("project"));
+
+		// act, assert
+		Assertions.assertTrue(WildflyBuildTimeCliScript.isSupported(project));
+		Files.createDirectories(project.resolve(".s2i/bin"));
+		Files.writeString(project.resolve(WildflyBuildTimeCliScript.ASSEMBLE_SCRIPT), "#!/bin/bash");
+		Assertions.assertFalse(WildflyBuildTimeCliScript.isSupported(project));
+	}
+}
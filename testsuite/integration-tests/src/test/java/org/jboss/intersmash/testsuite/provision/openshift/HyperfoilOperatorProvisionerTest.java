@@ -17,8 +17,6 @@ package org.jboss.intersmash.testsuite.provision.openshift;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.util.Arrays;
 
 import org.jboss.intersmash.application.openshift.HyperfoilOperatorApplication;
@@ -166,9 +164,7 @@ public class HyperfoilOperatorProvisionerTest {
 
 		// consume run statistics
 		File allStats = apiInstance.getAllStats(run.getId());
-		String JSON = Files.readString(Paths.get(allStats.getAbsolutePath()));
-		logger.debug("JSON: {}", JSON);
-		RunStatisticsWrapper runStatisticsWrapper = new RunStatisticsWrapper(JSON);
+		RunStatisticsWrapper runStatisticsWrapper = RunStatisticsWrapper.read(allStats);
 		Assertions.assertTrue(runStatisticsWrapper.getPhaseStats().size() > 0);
 	}
 